@@ -0,0 +1,151 @@
+package building;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class finds which elevator banks can carry a passenger between two floors.
+ * Every floor has a bit mask of the banks that stop there, so the banks that can
+ * serve a leg are the masks of its two floors and-ed together.
+ * A trip that no single bank serves is routed through sky lobbies, the floors
+ * two banks have in common, with a breadth first search over the banks.
+ * Routes are worked out the first time a floor pair is asked for and then kept.
+ */
+final class BankRouter {
+  /**
+   * The most banks a building can have, one bit of a mask each.
+   */
+  static final int MAX_BANKS = 64;
+
+  private final int numberOfFloors;
+  private final List<ElevatorBank> banks;
+  private final long[] servingMask;
+  private final int[][] routes;
+
+  /**
+   * The constructor for the router.
+   *
+   * @param numberOfFloors the number of floors in the building.
+   * @param banks          the banks of the building, at most {@link #MAX_BANKS}.
+   */
+  BankRouter(int numberOfFloors, List<ElevatorBank> banks) {
+    this.numberOfFloors = numberOfFloors;
+    this.banks = banks;
+    this.servingMask = new long[numberOfFloors];
+    for (int b = 0; b < banks.size(); b++) {
+      ElevatorBank bank = banks.get(b);
+      for (int floor = bank.getLowestFloor(); floor <= bank.getHighestFloor(); floor++) {
+        if (bank.serves(floor)) {
+          servingMask[floor] |= 1L << b;
+        }
+      }
+    }
+    this.routes = new int[numberOfFloors * numberOfFloors][];
+  }
+
+  /**
+   * Gets the banks that stop at both floors of a leg.
+   *
+   * @param startFloor the start floor of the leg.
+   * @param endFloor   the end floor of the leg.
+   * @return a bit mask of bank indices.
+   */
+  long servingBanks(int startFloor, int endFloor) {
+    return servingMask[startFloor] & servingMask[endFloor];
+  }
+
+  /**
+   * Gets the floors a passenger stops at on the way from one floor to another.
+   * A direct trip is just the start and end floor, a trip through sky lobbies
+   * has the transfer floors in between. The returned array must not be changed.
+   *
+   * @param startFloor the start floor, within the building.
+   * @param endFloor   the end floor, within the building.
+   * @return the floors of the route, or null if the banks cannot make the trip.
+   */
+  int[] route(int startFloor, int endFloor) {
+    int index = startFloor * numberOfFloors + endFloor;
+    int[] route = routes[index];
+    if (route == null) {
+      route = findRoute(startFloor, endFloor);
+      if (route == null) {
+        return null;
+      }
+      routes[index] = route;
+    }
+    return route;
+  }
+
+  private int[] findRoute(int startFloor, int endFloor) {
+    if (servingBanks(startFloor, endFloor) != 0) {
+      return new int[] {startFloor, endFloor};
+    }
+    long startBanks = servingMask[startFloor];
+    long endBanks = servingMask[endFloor];
+    if (startBanks == 0 || endBanks == 0) {
+      return null;
+    }
+    // breadth first over banks, the transfer floor into a bank is remembered
+    int[] previous = new int[banks.size()];
+    int[] transferFloor = new int[banks.size()];
+    Arrays.fill(previous, -2);
+    ArrayDeque<Integer> queue = new ArrayDeque<>();
+    for (int b = 0; b < banks.size(); b++) {
+      if ((startBanks & (1L << b)) != 0) {
+        previous[b] = -1;
+        transferFloor[b] = startFloor;
+        queue.add(b);
+      }
+    }
+    while (!queue.isEmpty()) {
+      int b = queue.poll();
+      if ((endBanks & (1L << b)) != 0) {
+        return buildRoute(b, previous, transferFloor, endFloor);
+      }
+      for (int next = 0; next < banks.size(); next++) {
+        if (previous[next] != -2) {
+          continue;
+        }
+        int lobby = sharedFloor(banks.get(b), banks.get(next), endFloor);
+        if (lobby >= 0) {
+          previous[next] = b;
+          transferFloor[next] = lobby;
+          queue.add(next);
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Finds the floor two banks both stop at that is closest to the destination.
+   */
+  private int sharedFloor(ElevatorBank from, ElevatorBank to, int endFloor) {
+    int low = Math.max(from.getLowestFloor(), to.getLowestFloor());
+    int high = Math.min(from.getHighestFloor(), to.getHighestFloor());
+    int best = -1;
+    for (int floor = low; floor <= high; floor++) {
+      if (from.serves(floor) && to.serves(floor)
+          && (best < 0 || Math.abs(floor - endFloor) < Math.abs(best - endFloor))) {
+        best = floor;
+      }
+    }
+    return best;
+  }
+
+  private static int[] buildRoute(int lastBank, int[] previous, int[] transferFloor,
+                                  int endFloor) {
+    int legs = 1;
+    for (int b = lastBank; previous[b] >= 0; b = previous[b]) {
+      legs++;
+    }
+    int[] route = new int[legs + 1];
+    route[legs] = endFloor;
+    int i = legs - 1;
+    for (int b = lastBank; b >= 0; b = previous[b]) {
+      route[i--] = transferFloor[b];
+    }
+    return route;
+  }
+}
@@ -0,0 +1,131 @@
+package building;
+
+import java.util.Arrays;
+
+/**
+ * This class assigns a batch of pending requests to elevators all at once,
+ * picking the assignment with the lowest total cost instead of letting each
+ * request take the best elevator left over by the requests before it.
+ * <p></p>
+ * An elevator can take several requests, so every elevator is given a number
+ * of slots, and the k-th slot of an elevator costs k extra stops more than the
+ * first. This turns the problem into a rectangular assignment of requests to
+ * slots, which is solved with the Hungarian method using shortest augmenting
+ * paths, in time proportional to requests squared times slots.
+ * <p></p>
+ * The work is counted in relaxation steps rather than measured with a clock,
+ * so a run that gives up and falls back to greedy assignment does so at the
+ * same tick every time, and journals replay exactly.
+ */
+final class BatchAssigner {
+  /**
+   * The cost of a request an elevator cannot take, far above any real cost.
+   */
+  static final long INFEASIBLE = 1L << 40;
+
+  private long[] rowPotential = new long[0];
+  private long[] columnPotential = new long[0];
+  private long[] minimum = new long[0];
+  private int[] rowOfColumn = new int[0];
+  private int[] previousColumn = new int[0];
+  private boolean[] visited = new boolean[0];
+
+  /**
+   * Finds the cheapest assignment of requests to elevators.
+   * The costs are laid out row by row, one row per request and one column per
+   * elevator. The slot penalties are what every extra request assigned to an
+   * elevator adds on top of its cost.
+   *
+   * @param costs       the cost of each request for each elevator,
+   *                    {@link #INFEASIBLE} if the elevator cannot take it.
+   * @param rows        the number of requests.
+   * @param cars        the number of elevators.
+   * @param slots       the most requests one elevator can be given, so that
+   *                    rows is no more than cars times slots.
+   * @param slotPenalty the extra cost of each further request for each elevator.
+   * @param assignment  filled with the elevator column of each request,
+   *                    or -1 if it could only be given an infeasible slot.
+   * @param budget      the most relaxation steps to take.
+   * @return the relaxation steps taken, or -1 if the budget ran out first.
+   */
+  long solve(long[] costs, int rows, int cars, int slots, long[] slotPenalty,
+             int[] assignment, long budget) {
+    int columns = cars * slots;
+    ensureCapacity(rows, columns);
+    Arrays.fill(rowPotential, 0, rows + 1, 0L);
+    Arrays.fill(columnPotential, 0, columns + 1, 0L);
+    Arrays.fill(rowOfColumn, 0, columns + 1, 0);
+    long work = 0;
+    // rows and columns are counted from 1, column 0 is where each augmenting path starts
+    for (int row = 1; row <= rows; row++) {
+      rowOfColumn[0] = row;
+      int column = 0;
+      Arrays.fill(minimum, 0, columns + 1, Long.MAX_VALUE);
+      Arrays.fill(visited, 0, columns + 1, false);
+      do {
+        visited[column] = true;
+        int current = rowOfColumn[column];
+        int base = (current - 1) * cars;
+        long delta = Long.MAX_VALUE;
+        int next = 0;
+        for (int j = 1; j <= columns; j++) {
+          if (visited[j]) {
+            continue;
+          }
+          int car = (j - 1) % cars;
+          long cost = costs[base + car] + (long) ((j - 1) / cars) * slotPenalty[car];
+          long reduced = cost - rowPotential[current] - columnPotential[j];
+          if (reduced < minimum[j]) {
+            minimum[j] = reduced;
+            previousColumn[j] = column;
+          }
+          if (minimum[j] < delta) {
+            delta = minimum[j];
+            next = j;
+          }
+        }
+        work += columns;
+        if (work > budget) {
+          return -1;
+        }
+        for (int j = 0; j <= columns; j++) {
+          if (visited[j]) {
+            rowPotential[rowOfColumn[j]] += delta;
+            columnPotential[j] -= delta;
+          } else {
+            minimum[j] -= delta;
+          }
+        }
+        column = next;
+      } while (rowOfColumn[column] != 0);
+      // flip the augmenting path back to its start
+      do {
+        int previous = previousColumn[column];
+        rowOfColumn[column] = rowOfColumn[previous];
+        column = previous;
+      } while (column != 0);
+    }
+    for (int j = 1; j <= columns; j++) {
+      int row = rowOfColumn[j];
+      if (row == 0) {
+        continue;
+      }
+      int car = (j - 1) % cars;
+      assignment[row - 1] = costs[(row - 1) * cars + car] >= INFEASIBLE ? -1 : car;
+    }
+    return work;
+  }
+
+  private void ensureCapacity(int rows, int columns) {
+    if (rowPotential.length < rows + 1) {
+      rowPotential = new long[rows + 1];
+    }
+    if (columnPotential.length < columns + 1) {
+      columnPotential = new long[columns + 1];
+      minimum = new long[columns + 1];
+      rowOfColumn = new int[columns + 1];
+      previousColumn = new int[columns + 1];
+      visited = new boolean[columns + 1];
+    }
+  }
+}
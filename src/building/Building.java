@@ -1,13 +1,29 @@
 package building;
 
 import building.enums.Direction;
+import building.enums.DispatchPolicy;
 import building.enums.ElevatorSystemStatus;
+import building.enums.TrafficMode;
 import elevator.Elevator;
 import elevator.ElevatorReport;
+import elevator.FleetStepKernel;
+import elevator.Landings;
+import elevator.RideListener;
+import elevator.TravelModel;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import journal.RequestJournal;
+import metrics.BuildingMetrics;
+import metrics.DispatchEvent;
+import metrics.RequestEvent;
+import metrics.StepPhase;
+import metrics.StepProfiler;
+import metrics.SystemStateEvent;
+import scanerzus.PackedRequest;
 import scanerzus.Request;
+import scanerzus.RequestCache;
 
 /**
  * This class represents a building with elevators.
@@ -15,6 +31,22 @@ import scanerzus.Request;
  * The building can accept requests for the elevators.
  */
 public class Building implements BuildingInterface {
+  /**
+   * The default number of relaxation steps batch dispatch may take in one tick.
+   */
+  public static final long DEFAULT_BATCH_DISPATCH_BUDGET = 1_000_000;
+
+  /**
+   * The most pending requests in one direction that batch dispatch looks at in
+   * a tick. Requests behind them are assigned greedily.
+   */
+  static final int MAX_BATCH = 128;
+
+  /**
+   * The slots each elevator gets in a batch beyond an even share of the requests.
+   */
+  private static final int EXTRA_SLOTS = 2;
+
 
 
   private final int numberOfFloors;
@@ -22,9 +54,44 @@ public class Building implements BuildingInterface {
   private final int elevatorCapacity;
   private ElevatorSystemStatus status;
   private final List<Elevator> elevators;
-  private final List<Request> requests;
-  private final List<Request> upRequests;
-  private final List<Request> downRequests;
+  private final RequestQueue upRequests;
+  private final RequestQueue downRequests;
+  private final RequestCache requestCache;
+  private final List<Landings> landings;
+  private int tick;
+  private RequestJournal journal;
+  private final BuildingMetrics metrics;
+  private StepProfiler profiler;
+  private final List<ElevatorBank> banks;
+  private final boolean zoned;
+  private final int[] firstElevatorOfBank;
+  private final int[] bankOfElevator;
+  private final BankRouter router;
+  private final TransferTable transfers;
+  private TravelModel travelModel;
+  private DispatchPolicy dispatchPolicy;
+  private RideListener rideListener;
+  private TrafficModeDetector trafficModeDetector;
+  private final BatchAssigner batchAssigner;
+  private final int[] batchCars;
+  private final long[] batchSlotPenalty;
+  private final int[] batchCandidates;
+  private final int[] batchAssignment;
+  private long[] batchCosts;
+  private final EtaTable etaTable;
+  private final FleetStepKernel fleetKernel;
+  private final boolean[] fleetCars;
+  private long batchDispatchBudget;
+  private long batchBudgetLeft;
+  private int batchFallbackCount;
+  private boolean dispatchDirty;
+  private final int[] dispatchState;
+  private int dispatchRunCount;
+  private final FloorDemand demand;
+  private final List<BuildingListener> buildingListeners;
+  private final BuildingDelta delta;
+  private final int[] shownFloor;
+  private final boolean[] shownDoorClosed;
 
 
   /**
@@ -38,6 +105,28 @@ public class Building implements BuildingInterface {
    * @param elevatorCapacity  the capacity of the elevators in the building.
    */
   public Building(int numberOfFloors, int numberOfElevators, int elevatorCapacity) {
+    this(numberOfFloors, numberOfElevators, elevatorCapacity, null);
+  }
+
+  /**
+   * The constructor for a tall building whose elevators are split into banks.
+   * Each bank only serves its own zone, and passengers going between zones
+   * change elevators at a sky lobby, a floor that two banks both stop at.
+   * Buildings with banks are not held to the 30 floor limit of a single shaft.
+   * The elevators are numbered bank by bank in the order the banks are given.
+   *
+   * @param numberOfFloors   the number of floors in the building.
+   * @param elevatorCapacity the capacity of the elevators in the building.
+   * @param banks            the banks of elevators, at most 64.
+   * @throws IllegalArgumentException if the banks do not fit in the building.
+   */
+  public Building(int numberOfFloors, int elevatorCapacity, List<ElevatorBank> banks) {
+    this(numberOfFloors, countElevators(numberOfFloors, banks), elevatorCapacity,
+        List.copyOf(banks));
+  }
+
+  private Building(int numberOfFloors, int numberOfElevators, int elevatorCapacity,
+                   List<ElevatorBank> banks) {
     if (numberOfFloors <= 0 || numberOfElevators <= 0 || elevatorCapacity <= 0) {
       throw new IllegalArgumentException("Number of floors, elevators, and "
           + "capacity must be greater than 0.");
@@ -47,13 +136,93 @@ public class Building implements BuildingInterface {
     this.elevatorCapacity = elevatorCapacity;
     this.status = ElevatorSystemStatus.outOfService;
     this.elevators = new ArrayList<>();
-    this.requests = new ArrayList<>();
-    this.upRequests = new ArrayList<>();
-    this.downRequests = new ArrayList<>();
+    this.upRequests = new RequestQueue();
+    this.downRequests = new RequestQueue();
+    this.tick = 0;
+    this.metrics = new BuildingMetrics();
+    this.requestCache = new RequestCache(numberOfFloors);
+    this.zoned = banks != null;
 
+    if (banks == null) {
+      // a plain building is one bank that serves every floor
+      for (int i = 0; i < numberOfElevators; i++) {
+        elevators.add(new Elevator(numberOfFloors, elevatorCapacity, requestCache));
+      }
+      banks = List.of(new ElevatorBank("All floors", 0, numberOfFloors - 1, numberOfElevators));
+    } else {
+      for (ElevatorBank bank : banks) {
+        for (int i = 0; i < bank.getNumberOfElevators(); i++) {
+          elevators.add(new Elevator(numberOfFloors, elevatorCapacity, bank.getLowestFloor(),
+              bank.getHighestFloor(), requestCache));
+        }
+      }
+    }
+    this.banks = banks;
+    this.firstElevatorOfBank = new int[banks.size() + 1];
+    for (int b = 0; b < banks.size(); b++) {
+      firstElevatorOfBank[b + 1] = firstElevatorOfBank[b] + banks.get(b).getNumberOfElevators();
+    }
+    // the elevators of a bank board from the same landings
+    this.landings = new ArrayList<>(banks.size());
+    for (int b = 0; b < banks.size(); b++) {
+      Landings bankLandings = new Landings(numberOfFloors);
+      for (int i = firstElevatorOfBank[b]; i < firstElevatorOfBank[b + 1]; i++) {
+        elevators.get(i).setLandings(bankLandings);
+      }
+      landings.add(bankLandings);
+    }
+    this.bankOfElevator = new int[numberOfElevators];
+    for (int b = 0; b < banks.size(); b++) {
+      Arrays.fill(bankOfElevator, firstElevatorOfBank[b], firstElevatorOfBank[b + 1], b);
+    }
+    this.travelModel = TravelModel.ONE_FLOOR_PER_STEP;
+    this.dispatchPolicy = DispatchPolicy.NEAREST_CAR;
+    this.batchAssigner = new BatchAssigner();
+    // batch dispatch runs on busy ticks, so it keeps its buffers from one run to the next
+    this.batchCars = new int[numberOfElevators];
+    this.batchSlotPenalty = new long[numberOfElevators];
+    this.batchCandidates = new int[MAX_BATCH];
+    this.batchAssignment = new int[MAX_BATCH];
+    this.batchCosts = new long[0];
+    this.etaTable = new EtaTable(elevators, numberOfFloors);
+    this.fleetKernel = new FleetStepKernel(elevators.size());
+    this.fleetCars = new boolean[elevators.size()];
+    this.batchDispatchBudget = DEFAULT_BATCH_DISPATCH_BUDGET;
+    this.dispatchState = new int[numberOfElevators];
+    this.demand = new FloorDemand(numberOfFloors);
+    this.buildingListeners = new ArrayList<>();
+    this.delta = new BuildingDelta();
+    this.shownFloor = new int[numberOfElevators];
+    this.shownDoorClosed = new boolean[numberOfElevators];
+    this.dispatchDirty = true;
+    // each elevator gets a listener that knows its index, so no ride looks it up
     for (int i = 0; i < numberOfElevators; i++) {
-      elevators.add(new Elevator(numberOfFloors, elevatorCapacity));
+      elevators.get(i).setRideListener(new CarRides(i));
+    }
+    this.router = new BankRouter(numberOfFloors, banks);
+    this.transfers = new TransferTable(numberOfElevators);
+  }
+
+  /**
+   * Checks the banks of a zoned building and adds up their elevators.
+   * @param numberOfFloors the number of floors in the building.
+   * @param banks the banks of elevators.
+   * @return the total number of elevators.
+   * @throws IllegalArgumentException if the banks do not fit in the building.
+   */
+  private static int countElevators(int numberOfFloors, List<ElevatorBank> banks) {
+    if (banks == null || banks.isEmpty() || banks.size() > BankRouter.MAX_BANKS) {
+      throw new IllegalArgumentException("A building needs between 1 and "
+          + BankRouter.MAX_BANKS + " banks.");
+    }
+    int count = 0;
+    for (ElevatorBank bank : banks) {
+      if (bank == null || bank.getHighestFloor() >= numberOfFloors) {
+        throw new IllegalArgumentException("Bank does not fit in the building.");
+      }
+      count += bank.getNumberOfElevators();
     }
+    return count;
   }
 
   /**
@@ -66,67 +235,286 @@ public class Building implements BuildingInterface {
   public boolean addRequest(Request request) throws IllegalStateException,
       IllegalArgumentException {
     if (request == null) {
+      RequestEvent.commit(-1, -1, false, "Request is null.");
       throw new IllegalArgumentException("Request is null.");
     }
     if (status != ElevatorSystemStatus.running) {
+      RequestEvent.commit(request.getStartFloor(), request.getEndFloor(), false,
+          "Building is not accepting requests.");
       throw new IllegalStateException("Building is not accepting requests.");
     }
 
     // filter the input request by keeping floors between 0 and numberOfFloors-1
     if ((request.getStartFloor() < 0) || (request.getStartFloor() >= numberOfFloors)
         || (request.getEndFloor() < 0) || (request.getEndFloor() >= numberOfFloors)) {
+      RequestEvent.commit(request.getStartFloor(), request.getEndFloor(), false,
+          "Invalid floor number.");
       throw new IllegalArgumentException("Invalid floor number.");
     }
-    requests.add(request);
-    if (request.getDirection() == Direction.UP) {
-      upRequests.add(request);
+    int[] route = router.route(request.getStartFloor(), request.getEndFloor());
+    if (route == null) {
+      RequestEvent.commit(request.getStartFloor(), request.getEndFloor(), false,
+          "No elevator bank serves this trip.");
+      throw new IllegalArgumentException("No elevator bank serves this trip.");
+    }
+    // pending requests are kept packed, the Request object is not retained.
+    long packed = PackedRequest.pack(route[0], route[1], tick);
+    if (PackedRequest.isUp(packed)) {
+      upRequests.add(packed);
     } else {
-      downRequests.add(request);
+      downRequests.add(packed);
+    }
+    if (route.length > 2) {
+      transfers.await(packed, route, 0);
+    }
+    demand.arrived(packed);
+    dispatchDirty = true;
+    if (!buildingListeners.isEmpty()) {
+      delta.added(packed);
     }
+    if (journal != null) {
+      journal.recordRequest(request.getStartFloor(), request.getEndFloor());
+    }
+    if (trafficModeDetector != null) {
+      trafficModeDetector.record(tick, request.getStartFloor(), request.getEndFloor());
+    }
+    metrics.recordAccepted();
+    RequestEvent.commit(request.getStartFloor(), request.getEndFloor(), true, null);
     return true;
   }
 
   /**
    * This method is used to distribute requests to the elevators.
+   * Requests are only given out when something happened since the last time
+   * that could let an elevator take a request it could not take before:
+   * a request came in, or an elevator changed direction, filled up or emptied,
+   * or opened or closed its doors. On the ticks in between every pending
+   * request would be turned down again, so they are skipped.
    */
   private void distributeRequests() {
-    if (requests.isEmpty()) {
+    if (upRequests.isEmpty() && downRequests.isEmpty()) {
       return;
     }
-    if (upRequests.isEmpty() && downRequests.isEmpty()) {
+    boolean carsChanged = updateDispatchState();
+    if (!dispatchDirty && !carsChanged) {
       return;
     }
+    dispatchDirty = false;
+    dispatchRunCount++;
+    batchBudgetLeft = batchDispatchBudget;
     distributeRequestsForDirection(Direction.DOWN, downRequests);
     distributeRequestsForDirection(Direction.UP, upRequests);
   }
 
+  /**
+   * This method notes what dispatch looks at in each elevator.
+   * @return true if any elevator changed since the last time.
+   */
+  private boolean updateDispatchState() {
+    boolean changed = false;
+    for (int e = 0; e < numberOfElevators; e++) {
+      Elevator elevator = elevators.get(e);
+      int state = elevator.getDirection().ordinal() << 2
+          | (elevator.isFull() ? 2 : 0) | (elevator.isDoorClosed() ? 1 : 0);
+      if (state != dispatchState[e]) {
+        dispatchState[e] = state;
+        changed = true;
+      }
+    }
+    return changed;
+  }
+
   /**
    * This method is used to distribute requests to the elevators for a specific direction.
    * @param direction the direction of the requests.
-   * @param requests the list of requests to distribute.
-   */
-  private void distributeRequestsForDirection(Direction direction, List<Request> requests) {
-    // use iterator to remove requests as they are assigned to elevators
-    // because we cannot modify the list while iterating over it
-    Iterator<Request> iterator = requests.iterator();
-    // while there are still requests to assign
-    while (iterator.hasNext()) {
-      Request request = iterator.next();
-      // find the closest elevator that is moving in the same direction
-      Elevator closestElevator = null;
-      int closestDistance = Integer.MAX_VALUE;
-      for (Elevator elevator : elevators) {
-        if (elevator.getDirection() == direction) {
-          int distance = Math.abs(elevator.getCurrentFloor() - request.getStartFloor());
-          if (distance < closestDistance) {
-            closestDistance = distance;
-            closestElevator = elevator;
+   * @param requests the queue of requests to distribute.
+   */
+  private void distributeRequestsForDirection(Direction direction, RequestQueue requests) {
+    // take every pending request off the front once, requests that cannot
+    // be assigned go to the back again so the arrival order is kept
+    int pending = requests.size();
+    int dispatched = 0;
+    if (dispatchPolicy == DispatchPolicy.BATCH_OPTIMAL && pending > 1) {
+      dispatched = distributeBatch(direction, requests, Math.min(pending, MAX_BATCH));
+    }
+    for (int i = dispatched; i < pending; i++) {
+      distributeRequest(direction, requests, requests.poll());
+    }
+  }
+
+  /**
+   * This method is used to give a request to the best elevator for it on its own.
+   * @param direction the direction of the request.
+   * @param requests the queue the request was taken from.
+   * @param packed the packed request.
+   */
+  private void distributeRequest(Direction direction, RequestQueue requests, long packed) {
+    int startFloor = PackedRequest.startFloor(packed);
+    int endFloor = PackedRequest.endFloor(packed);
+    // find the best elevator that is moving in the same direction,
+    // only looking at the banks that stop at both floors
+    int closestIndex = -1;
+    long closestCost = Long.MAX_VALUE;
+    int candidates = 0;
+    long bankMask = router.servingBanks(startFloor, endFloor);
+    while (bankMask != 0) {
+      int bank = Long.numberOfTrailingZeros(bankMask);
+      bankMask &= bankMask - 1;
+      for (int e = firstElevatorOfBank[bank]; e < firstElevatorOfBank[bank + 1]; e++) {
+        Elevator elevator = elevators.get(e);
+        if (elevator.getDirection() == direction && !elevator.isFull()) {
+          candidates++;
+          long cost = Math.abs(elevator.getCurrentFloor() - startFloor);
+          if (dispatchPolicy == DispatchPolicy.LEAST_LOADED) {
+            // the load comes first, the distance only breaks ties
+            cost += (long) elevator.getRideCount() * numberOfFloors;
+          }
+          if (cost < closestCost) {
+            closestCost = cost;
+            closestIndex = e;
           }
         }
       }
-      if (closestElevator != null) {
-        closestElevator.addRequest(request);
-        iterator.remove();
+    }
+    DispatchEvent.commit(startFloor, endFloor, closestIndex, candidates,
+        tick - PackedRequest.arrivalTick(packed));
+    if (closestIndex >= 0) {
+      assignRequest(packed, closestIndex);
+    } else {
+      requests.add(packed);
+    }
+  }
+
+  /**
+   * This method is used to give the requests at the front of a queue to the elevators
+   * all at once, with the lowest total estimated time for the elevators to reach them.
+   * Requests no elevator can take in the batch are given out on their own.
+   * @param direction the direction of the requests.
+   * @param requests the queue of requests to distribute.
+   * @param rows the number of requests at the front of the queue to take.
+   * @return the number of requests taken off the queue, 0 if the batch did not fit
+   *     in the budget and every request is left to be given out on its own.
+   */
+  private int distributeBatch(Direction direction, RequestQueue requests, int rows) {
+    int[] cars = batchCars;
+    int carCount = 0;
+    for (int e = 0; e < numberOfElevators; e++) {
+      Elevator elevator = elevators.get(e);
+      if (elevator.getDirection() == direction && !elevator.isFull()) {
+        cars[carCount++] = e;
+      }
+    }
+    if (carCount == 0) {
+      return 0;
+    }
+    if (batchCosts.length < rows * carCount) {
+      batchCosts = new long[Math.max(rows * carCount, batchCosts.length * 2)];
+    }
+    long[] costs = batchCosts;
+    int[] candidates = batchCandidates;
+    Arrays.fill(candidates, 0, rows, 0);
+    for (int r = 0; r < rows; r++) {
+      long packed = requests.get(r);
+      int startFloor = PackedRequest.startFloor(packed);
+      long bankMask = router.servingBanks(startFloor, PackedRequest.endFloor(packed));
+      for (int c = 0; c < carCount; c++) {
+        int e = cars[c];
+        long cost = (bankMask & (1L << bankOfElevator[e])) != 0
+            ? etaTable.cost(e, startFloor, direction, tick) : EtaTable.UNREACHABLE;
+        if (cost < EtaTable.UNREACHABLE) {
+          costs[r * carCount + c] = cost;
+          candidates[r]++;
+        } else {
+          costs[r * carCount + c] = BatchAssigner.INFEASIBLE;
+        }
+      }
+    }
+    long[] slotPenalty = batchSlotPenalty;
+    for (int c = 0; c < carCount; c++) {
+      // every further request given to a car is one more stop for it to make
+      slotPenalty[c] = elevators.get(cars[c]).getDoorOpenTimeTotal();
+    }
+    int slots = Math.min(rows, (rows + carCount - 1) / carCount + EXTRA_SLOTS);
+    int[] assignment = batchAssignment;
+    long work = batchAssigner.solve(costs, rows, carCount, slots, slotPenalty, assignment,
+        batchBudgetLeft);
+    if (work < 0) {
+      batchBudgetLeft = 0;
+      batchFallbackCount++;
+      return 0;
+    }
+    batchBudgetLeft -= work;
+    for (int r = 0; r < rows; r++) {
+      long packed = requests.poll();
+      if (assignment[r] < 0) {
+        distributeRequest(direction, requests, packed);
+        continue;
+      }
+      int e = cars[assignment[r]];
+      DispatchEvent.commit(PackedRequest.startFloor(packed), PackedRequest.endFloor(packed), e,
+          candidates[r], tick - PackedRequest.arrivalTick(packed));
+      assignRequest(packed, e);
+    }
+    return rows;
+  }
+
+  /**
+   * This method is used to give a request to an elevator.
+   * @param packed the packed request.
+   * @param elevatorIndex the index of the elevator.
+   */
+  private void assignRequest(long packed, int elevatorIndex) {
+    elevators.get(elevatorIndex).addRequest(packed);
+    metrics.recordAssignment(tick - PackedRequest.arrivalTick(packed));
+    if (!buildingListeners.isEmpty()) {
+      delta.assigned(elevatorIndex, packed);
+    }
+    if (journal != null) {
+      journal.recordAssignment(elevatorIndex, PackedRequest.startFloor(packed),
+          PackedRequest.endFloor(packed));
+    }
+  }
+
+  /**
+   * This method queues the next leg of a passenger who got off at their sky lobby.
+   * @param elevatorIndex the index of the elevator the passenger got off.
+   * @param ride the packed leg the passenger rode.
+   */
+  private void releaseTransfer(int elevatorIndex, long ride) {
+    long next = transfers.release(elevatorIndex, ride, tick, upRequests, downRequests);
+    if (next != TransferTable.NO_LEG) {
+      // the next leg is queued at the back, it waits from now on
+      demand.arrived(next);
+      dispatchDirty = true;
+    }
+  }
+
+  /**
+   * Step every elevator once. The fleet kernel moves the cars it covers in
+   * one pass, and a car the kernel stops at a floor or turns at the end of its
+   * run steps itself, as the passengers getting on and off are its own. Every
+   * other elevator steps itself too. A car is only loaded into the kernel again
+   * when its plan changed or it took a step of its own.
+   */
+  private void stepElevators() {
+    FleetStepKernel kernel = fleetKernel;
+    for (int i = 0; i < fleetCars.length; i++) {
+      Elevator elevator = elevators.get(i);
+      fleetCars[i] = FleetStepKernel.isSupported(elevator);
+      if (!fleetCars[i]) {
+        kernel.unload(i);
+      } else if (!kernel.isCurrent(i, elevator)) {
+        kernel.load(i, elevator);
+      }
+    }
+    kernel.step();
+    for (int i = 0; i < fleetCars.length; i++) {
+      Elevator elevator = elevators.get(i);
+      if (fleetCars[i] && !kernel.hasStopped(i)) {
+        kernel.store(i, elevator);
+      } else {
+        elevator.step();
+        kernel.unload(i);
       }
     }
   }
@@ -135,20 +523,56 @@ public class Building implements BuildingInterface {
    * This method clears the current requests in the building.
    */
   public void clearRequests() {
-    requests.clear();
+    for (int i = 0; i < upRequests.size(); i++) {
+      demand.left(upRequests.get(i));
+    }
+    for (int i = 0; i < downRequests.size(); i++) {
+      demand.left(downRequests.get(i));
+    }
     upRequests.clear();
     downRequests.clear();
+    transfers.clear();
+    if (journal != null) {
+      journal.recordClear();
+    }
   }
 
   /**
    * This method is used to step the building.
    */
   public void step() throws IllegalStateException {
+    tick++;
+    metrics.recordTick();
+    if (journal != null) {
+      journal.recordTick();
+    }
+    StepProfiler profiler = this.profiler;
     if (status == ElevatorSystemStatus.running) {
+      long phaseStart = profiler != null ? System.nanoTime() : 0;
+      if (trafficModeDetector != null && trafficModeDetector.update(tick)) {
+        applyTrafficMode(trafficModeDetector.getMode());
+      }
+      if (profiler != null) {
+        long now = System.nanoTime();
+        profiler.record(StepPhase.TRAFFIC_MODE, now - phaseStart);
+        phaseStart = now;
+      }
       // Distribute requests to the elevators
       distributeRequests();
-      for (Elevator elevator : elevators) {
-        elevator.step();
+      if (profiler != null) {
+        long now = System.nanoTime();
+        profiler.record(StepPhase.DISTRIBUTE, now - phaseStart);
+        phaseStart = now;
+      }
+      stepElevators();
+      if (profiler != null) {
+        long now = System.nanoTime();
+        profiler.record(StepPhase.ELEVATORS, now - phaseStart);
+        phaseStart = now;
+      }
+      publishDelta();
+      if (profiler != null) {
+        profiler.record(StepPhase.PUBLISH, System.nanoTime() - phaseStart);
       }
     } else if (status == ElevatorSystemStatus.outOfService) {
       return;
@@ -162,10 +586,151 @@ public class Building implements BuildingInterface {
       }
       if (allStopped) {
         status = ElevatorSystemStatus.outOfService;
+        SystemStateEvent.commit("stopped", status.toString());
+      }
+      long phaseStart = profiler != null ? System.nanoTime() : 0;
+      publishDelta();
+      if (profiler != null) {
+        profiler.record(StepPhase.PUBLISH, System.nanoTime() - phaseStart);
+      }
+    }
+  }
+
+  /**
+   * This method is used to tell the building listeners what changed on this tick.
+   * The elevators are compared with where they were on the last delta, so
+   * a listener sees every move and door change once, however it came about.
+   * Nothing is done when no listener is attached or nothing changed.
+   */
+  private void publishDelta() {
+    if (buildingListeners.isEmpty()) {
+      return;
+    }
+    for (int e = 0; e < elevators.size(); e++) {
+      Elevator elevator = elevators.get(e);
+      int floor = elevator.getCurrentFloor();
+      boolean doorClosed = elevator.isDoorClosed();
+      if (floor != shownFloor[e]) {
+        delta.moved(e, shownFloor[e], floor);
+        shownFloor[e] = floor;
+      }
+      if (doorClosed != shownDoorClosed[e]) {
+        delta.doorChanged(e, floor, !doorClosed);
+        shownDoorClosed[e] = doorClosed;
+      }
+    }
+    if (!delta.isEmpty()) {
+      // the list is copied so a listener can remove itself
+      for (BuildingListener listener : buildingListeners.toArray(new BuildingListener[0])) {
+        listener.changed(delta);
+      }
+    }
+    delta.clear(tick + 1);
+  }
+
+  /**
+   * This method is used to add a listener told what changed on each tick,
+   * see {@link BuildingDelta}. Listeners are called at the end of {@link #step()},
+   * in the order they were added, and only for ticks in which something changed.
+   * The first delta starts from where the elevators are when the listener is added.
+   * @param listener the listener.
+   * @throws IllegalArgumentException if the listener is null.
+   */
+  public void addBuildingListener(BuildingListener listener) {
+    if (listener == null) {
+      throw new IllegalArgumentException("Listener is null.");
+    }
+    if (buildingListeners.isEmpty()) {
+      // nothing was recorded while nobody listened
+      for (int e = 0; e < elevators.size(); e++) {
+        shownFloor[e] = elevators.get(e).getCurrentFloor();
+        shownDoorClosed[e] = elevators.get(e).isDoorClosed();
       }
+      delta.clear(tick + 1);
     }
+    buildingListeners.add(listener);
   }
 
+  /**
+   * This method is used to remove a building listener.
+   * @param listener the listener.
+   * @return true if the listener was attached.
+   */
+  public boolean removeBuildingListener(BuildingListener listener) {
+    return buildingListeners.remove(listener);
+  }
+
+  /**
+   * This method is used to step the building a number of ticks at once.
+   * Nothing is reported while stepping, ask for a report afterwards if one is needed.
+   * @param ticks the number of ticks to step, at least 0.
+   * @return where the building got to.
+   * @throws IllegalArgumentException if the number of ticks is negative.
+   */
+  public RunSummary stepN(int ticks) {
+    if (ticks < 0) {
+      throw new IllegalArgumentException("Number of ticks must be at least 0.");
+    }
+    for (int i = 0; i < ticks; i++) {
+      step();
+    }
+    return summarize(ticks);
+  }
+
+  /**
+   * This method is used to step the building until every request is served
+   * and the elevators are idle, see {@link #isQuiescent()}.
+   * Nothing is reported while stepping.
+   * @param maxTicks the most ticks to step, at least 0.
+   * @return where the building got to, quiescent or not.
+   * @throws IllegalArgumentException if the number of ticks is negative.
+   */
+  public RunSummary runUntilQuiescent(int maxTicks) {
+    if (maxTicks < 0) {
+      throw new IllegalArgumentException("Number of ticks must be at least 0.");
+    }
+    int ticks = 0;
+    while (ticks < maxTicks && !isQuiescent()) {
+      step();
+      ticks++;
+    }
+    return summarize(ticks);
+  }
+
+  /**
+   * This method is used to check whether the building has nothing left to do.
+   * A running building is quiescent when no request is waiting to be given out
+   * or to change elevators, and every elevator has nobody to pick up or drop off,
+   * no stop to make and its doors closed. A building out of service is quiescent,
+   * one that is stopping is not until its elevators are down.
+   * @return true if the building is quiescent.
+   */
+  public boolean isQuiescent() {
+    if (status != ElevatorSystemStatus.running) {
+      return status == ElevatorSystemStatus.outOfService;
+    }
+    if (!upRequests.isEmpty() || !downRequests.isEmpty() || transfers.size() > 0) {
+      return false;
+    }
+    for (Landings bankLandings : landings) {
+      if (bankLandings.size() > 0) {
+        return false;
+      }
+    }
+    for (Elevator elevator : elevators) {
+      if (elevator.getRideCount() > 0 || elevator.getStopCount() > 0
+          || !elevator.isDoorClosed()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private RunSummary summarize(int ticksRun) {
+    return new RunSummary(tick, ticksRun, isQuiescent(), getPendingRequestCount(),
+        metrics.getRequestsAccepted(), metrics.getTripsCompleted(),
+        metrics.getBoardingsRefused());
+  }
 
   /**
    * Starts the elevator system.
@@ -183,6 +748,10 @@ public class Building implements BuildingInterface {
         elevator.start();
       }
       status = ElevatorSystemStatus.running;
+      if (journal != null) {
+        journal.recordStart();
+      }
+      SystemStateEvent.commit("start", status.toString());
       return true;
     }
 
@@ -194,12 +763,21 @@ public class Building implements BuildingInterface {
    * This method will stop all elevators in the building.
    */
   public void stopElevatorSystem() {
+    if (journal != null) {
+      journal.recordStop();
+    }
     status = ElevatorSystemStatus.stopping;
     for (Elevator elevator : elevators) {
       elevator.takeOutOfService();
     }
+    for (Landings bankLandings : landings) {
+      bankLandings.clear();
+    }
     clearRequests();
+    // the elevators have forgotten the passengers they were to pick up
+    demand.clear();
     this.status = ElevatorSystemStatus.stopping;
+    SystemStateEvent.commit("stop", status.toString());
   }
 
   /**
@@ -207,12 +785,7 @@ public class Building implements BuildingInterface {
    * @return the status of the elevator system.
    */
   public BuildingReport getElevatorSystemStatus() {
-    ElevatorReport[] elevatorReports = new ElevatorReport[elevators.size()];
-    for (int i = 0; i < elevators.size(); i++) {
-      elevatorReports[i] = elevators.get(i).getElevatorStatus();
-    }
-    return new BuildingReport(numberOfFloors, numberOfElevators, elevatorCapacity,
-        elevatorReports, this.upRequests, this.downRequests, status);
+    return getReport();
   }
 
   /**
@@ -223,6 +796,290 @@ public class Building implements BuildingInterface {
     return elevators;
   }
 
+  /**
+   * This method is used to get the canonical requests of the building.
+   * Callers that create many requests should get them from here
+   * instead of allocating a new Request for every submission.
+   * @return the request cache of the building.
+   */
+  public RequestCache getRequestCache() {
+    return requestCache;
+  }
+
+  /**
+   * This method is used to get the number of times the building has been stepped.
+   * Requests are stamped with this tick when they are added.
+   * @return the current tick of the building.
+   */
+  public int getTick() {
+    return tick;
+  }
+
+  /**
+   * This method is used to get the banks of elevators in the building.
+   * A building made without banks has a single bank serving every floor.
+   * @return the banks, in the order their elevators are numbered.
+   */
+  public List<ElevatorBank> getBanks() {
+    return Collections.unmodifiableList(banks);
+  }
+
+  /**
+   * This method is used to check whether the building was made from banks of elevators.
+   * @return true if the building was made with banks, false for a plain building.
+   */
+  public boolean isZoned() {
+    return zoned;
+  }
+
+  /**
+   * This method is used to get how fast the elevators of the building travel.
+   * @return the travel model of the elevators.
+   */
+  public TravelModel getTravelModel() {
+    return travelModel;
+  }
+
+  /**
+   * This method is used to set how fast every elevator in the building travels.
+   * Faster models let cars run express between distant stops, which shortens
+   * round trips in tall buildings. Door and wait times stay the same.
+   * @param travelModel the travel model, not null.
+   * @throws IllegalArgumentException if the travel model is null.
+   */
+  public void setTravelModel(TravelModel travelModel) {
+    if (travelModel == null) {
+      throw new IllegalArgumentException("Travel model is null.");
+    }
+    this.travelModel = travelModel;
+    for (Elevator elevator : elevators) {
+      elevator.setTravelModel(travelModel);
+    }
+  }
+
+  /**
+   * This method is used to get the way the building picks elevators for requests.
+   * @return the dispatch policy.
+   */
+  public DispatchPolicy getDispatchPolicy() {
+    return dispatchPolicy;
+  }
+
+  /**
+   * This method is used to set the way the building picks elevators for requests.
+   * A policy set here is kept: it turns off switching policies with the traffic
+   * mode, and the traffic mode detector is removed, see
+   * {@link #setTrafficModeDetector(TrafficModeDetector)}.
+   * @param dispatchPolicy the dispatch policy, not null.
+   * @throws IllegalArgumentException if the dispatch policy is null.
+   */
+  public void setDispatchPolicy(DispatchPolicy dispatchPolicy) {
+    if (dispatchPolicy == null) {
+      throw new IllegalArgumentException("Dispatch policy is null.");
+    }
+    this.trafficModeDetector = null;
+    this.dispatchPolicy = dispatchPolicy;
+    this.dispatchDirty = true;
+  }
+
+  /**
+   * This method is used to get how much work batch dispatch may do in one tick.
+   * @return the budget in relaxation steps.
+   */
+  public long getBatchDispatchBudget() {
+    return batchDispatchBudget;
+  }
+
+  /**
+   * This method is used to set how much work batch dispatch may do in one tick.
+   * The budget is counted in relaxation steps of the assignment solver, a few
+   * nanoseconds each, rather than measured with a clock so that runs are
+   * reproducible. When a batch does not fit in what is left of the budget its
+   * requests are given out one at a time, as the other policies do.
+   * @param budget the budget in relaxation steps, 0 to always give requests out one at a time.
+   * @throws IllegalArgumentException if the budget is negative.
+   */
+  public void setBatchDispatchBudget(long budget) {
+    if (budget < 0) {
+      throw new IllegalArgumentException("Budget must be at least 0.");
+    }
+    this.batchDispatchBudget = budget;
+  }
+
+  /**
+   * This method is used to get how many batches did not fit in the budget.
+   * @return the number of batches given out one request at a time instead.
+   */
+  public int getBatchFallbackCount() {
+    return batchFallbackCount;
+  }
+
+  /**
+   * This method is used to get how many ticks requests were given out on.
+   * Ticks where nothing happened that could change the outcome skip dispatch
+   * and are not counted.
+   * @return the number of dispatch runs.
+   */
+  public int getDispatchRunCount() {
+    return dispatchRunCount;
+  }
+
+  /**
+   * This method is used to get the traffic mode detector of the building.
+   * @return the detector, or null if the policies are fixed, as they are
+   *     until a detector is set.
+   */
+  public TrafficModeDetector getTrafficModeDetector() {
+    return trafficModeDetector;
+  }
+
+  /**
+   * This method is used to let the building switch policies as its traffic changes.
+   * Every accepted request is counted by the detector, and whenever it settles
+   * on a new traffic mode the building takes on the dispatch and parking policy
+   * of that mode. The policies of the current mode are taken on straight away.
+   * Policies only switch while a detector is set, and setting a dispatch policy
+   * removes the detector, see {@link #setDispatchPolicy(DispatchPolicy)}.
+   * @param detector the detector, or null to keep the policies as they are.
+   */
+  public void setTrafficModeDetector(TrafficModeDetector detector) {
+    this.trafficModeDetector = detector;
+    if (detector != null) {
+      applyTrafficMode(detector.getMode());
+    }
+  }
+
+  /**
+   * Takes on the dispatch and parking policy of a traffic mode.
+   * @param mode the traffic mode.
+   */
+  private void applyTrafficMode(TrafficMode mode) {
+    dispatchPolicy = mode.getDispatchPolicy();
+    dispatchDirty = true;
+    for (Elevator elevator : elevators) {
+      elevator.setParkingPolicy(mode.getParkingPolicy());
+    }
+    SystemStateEvent.commit("traffic mode", mode.toString());
+  }
+
+  /**
+   * This method is used to set how long the doors of every elevator stay open
+   * at a stop and how long the elevators wait at the top and bottom of their run.
+   * @param doorOpenTime the number of steps the doors stay open, at least 1.
+   * @param stopWaitTime the number of steps to wait at the top or bottom, at least 1.
+   * @throws IllegalArgumentException if a time is less than 1.
+   */
+  public void setDoorTiming(int doorOpenTime, int stopWaitTime) {
+    for (Elevator elevator : elevators) {
+      elevator.setDoorTiming(doorOpenTime, stopWaitTime);
+    }
+  }
+
+  /**
+   * This method is used to set the door timing of the elevators of one bank.
+   * @param bank one of the banks of this building.
+   * @param doorOpenTime the number of steps the doors stay open, at least 1.
+   * @param stopWaitTime the number of steps to wait at the top or bottom, at least 1.
+   * @throws IllegalArgumentException if the bank is not in this building or a time is less than 1.
+   */
+  public void setDoorTiming(ElevatorBank bank, int doorOpenTime, int stopWaitTime) {
+    int b = indexOfBank(bank);
+    for (int e = firstElevatorOfBank[b]; e < firstElevatorOfBank[b + 1]; e++) {
+      elevators.get(e).setDoorTiming(doorOpenTime, stopWaitTime);
+    }
+  }
+
+  /**
+   * This method is used to turn adaptive dwell on or off for every elevator.
+   * With adaptive dwell the doors close sooner at stops where nobody gets on
+   * or off, and stay open longer for a crowd.
+   * @param adaptiveDwell true to turn adaptive dwell on.
+   */
+  public void setAdaptiveDwell(boolean adaptiveDwell) {
+    for (Elevator elevator : elevators) {
+      elevator.setAdaptiveDwell(adaptiveDwell);
+    }
+  }
+
+  /**
+   * This method is used to turn adaptive dwell on or off for the elevators of one bank.
+   * @param bank one of the banks of this building.
+   * @param adaptiveDwell true to turn adaptive dwell on.
+   * @throws IllegalArgumentException if the bank is not in this building.
+   */
+  public void setAdaptiveDwell(ElevatorBank bank, boolean adaptiveDwell) {
+    int b = indexOfBank(bank);
+    for (int e = firstElevatorOfBank[b]; e < firstElevatorOfBank[b + 1]; e++) {
+      elevators.get(e).setAdaptiveDwell(adaptiveDwell);
+    }
+  }
+
+  /**
+   * Finds a bank of this building.
+   * @param bank the bank to find.
+   * @return the index of the bank.
+   * @throws IllegalArgumentException if the bank is not in this building.
+   */
+  private int indexOfBank(ElevatorBank bank) {
+    for (int b = 0; b < banks.size(); b++) {
+      if (banks.get(b) == bank) {
+        return b;
+      }
+    }
+    throw new IllegalArgumentException("Bank is not in this building.");
+  }
+
+  /**
+   * This method is used to set a listener told when passengers get on and off
+   * an elevator. The rides are stamped with the tick their request arrived, and
+   * {@link #getTick()} gives the tick they got on or off.
+   * @param rideListener the listener, or null for none.
+   */
+  public void setRideListener(RideListener rideListener) {
+    this.rideListener = rideListener;
+  }
+
+  /**
+   * This method is used to get the number of passengers on a trip through a sky lobby
+   * whose next leg has not been queued yet.
+   * @return the number of held back transfers.
+   */
+  public int getPendingTransferCount() {
+    return transfers.size();
+  }
+
+  /**
+   * This method is used to get the number of requests waiting to be assigned.
+   * @return the number of pending up and down requests.
+   */
+  public int getPendingRequestCount() {
+    return upRequests.size() + downRequests.size();
+  }
+
+  /**
+   * This method is used to get the number of up requests waiting to be assigned.
+   * @return the number of pending up requests.
+   */
+  public int getPendingUpRequestCount() {
+    return upRequests.size();
+  }
+
+  /**
+   * This method is used to get the number of down requests waiting to be assigned.
+   * @return the number of pending down requests.
+   */
+  public int getPendingDownRequestCount() {
+    return downRequests.size();
+  }
+
+  /**
+   * This method is used to get the running counters of the building.
+   * @return the metrics of the building.
+   */
+  public BuildingMetrics getMetrics() {
+    return metrics;
+  }
+
   /** The toString method is used to return a string representation of the Building object.
    * @return a string representation of the Building object.
    */
@@ -245,9 +1102,31 @@ public class Building implements BuildingInterface {
    * @return the report of the building.
    */
   public BuildingReport getReport() {
-    return new BuildingReport(numberOfFloors, numberOfElevators, elevatorCapacity,
-        elevators.stream().map(Elevator::getElevatorStatus).toArray(ElevatorReport[]::new),
-        upRequests, downRequests, status);
+    StepProfiler profiler = this.profiler;
+    long start = profiler != null ? System.nanoTime() : 0;
+    ElevatorReport[] elevatorReports = new ElevatorReport[elevators.size()];
+    for (int i = 0; i < elevators.size(); i++) {
+      elevatorReports[i] = elevators.get(i).getElevatorStatus();
+    }
+    int[] upWaiting = new int[numberOfFloors];
+    int[] downWaiting = new int[numberOfFloors];
+    int[] upOldestAge = new int[numberOfFloors];
+    int[] downOldestAge = new int[numberOfFloors];
+    for (int floor = 0; floor < numberOfFloors; floor++) {
+      upWaiting[floor] = demand.waiting(floor, true);
+      downWaiting[floor] = demand.waiting(floor, false);
+      int up = demand.oldestArrival(floor, true);
+      int down = demand.oldestArrival(floor, false);
+      upOldestAge[floor] = up == FloorDemand.NOBODY ? -1 : tick - up;
+      downOldestAge[floor] = down == FloorDemand.NOBODY ? -1 : tick - down;
+    }
+    BuildingReport report = new BuildingReport(numberOfFloors, numberOfElevators,
+        elevatorCapacity, elevatorReports, upWaiting, downWaiting, upOldestAge,
+        downOldestAge, status);
+    if (profiler != null) {
+      profiler.record(StepPhase.REPORT, System.nanoTime() - start);
+    }
+    return report;
   }
 
   /**
@@ -263,8 +1142,203 @@ public class Building implements BuildingInterface {
         elevator.start();
       }
       status = ElevatorSystemStatus.running;
+      if (journal != null) {
+        journal.recordRestart();
+      }
+      SystemStateEvent.commit("restart", status.toString());
       return true;
     }
     return false;
   }
+
+  /**
+   * Works out again who is waiting at each floor, from the pending requests
+   * and the passengers the elevators are to pick up, after a checkpoint is read.
+   */
+  void rebuildDemand() {
+    demand.clear();
+    for (int i = 0; i < upRequests.size(); i++) {
+      demand.arrived(upRequests.get(i));
+    }
+    for (int i = 0; i < downRequests.size(); i++) {
+      demand.arrived(downRequests.get(i));
+    }
+    long[] rides = new long[0];
+    for (Landings bankLandings : landings) {
+      for (int floor = 0; floor < numberOfFloors; floor++) {
+        for (Direction direction : new Direction[] {Direction.UP, Direction.DOWN}) {
+          int count = bankLandings.getWaitingCount(floor, direction);
+          if (count == 0) {
+            continue;
+          }
+          if (rides.length < count) {
+            rides = new long[count];
+          }
+          bankLandings.copyWaiting(floor, direction, rides);
+          for (int i = 0; i < count; i++) {
+            demand.arrived(rides[i]);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Gets the pending up requests, for checkpointing.
+   * @return the queue of pending up requests.
+   */
+  RequestQueue getUpRequestQueue() {
+    return upRequests;
+  }
+
+  /**
+   * Gets the pending down requests, for checkpointing.
+   * @return the queue of pending down requests.
+   */
+  RequestQueue getDownRequestQueue() {
+    return downRequests;
+  }
+
+  /**
+   * This method is used to get the number of floors in the building.
+   * @return the number of floors in the building.
+   */
+  public int getNumberOfFloors() {
+    return numberOfFloors;
+  }
+
+  /**
+   * This method is used to get the number of elevators in the building.
+   * @return the number of elevators in the building.
+   */
+  public int getNumberOfElevators() {
+    return numberOfElevators;
+  }
+
+  /**
+   * This method is used to get the capacity of the elevators in the building.
+   * @return the capacity of the elevators.
+   */
+  public int getElevatorCapacity() {
+    return elevatorCapacity;
+  }
+
+  /**
+   * Gets the landings of the banks, for checkpointing.
+   * @return the landings, in the order of the banks.
+   */
+  List<Landings> getLandings() {
+    return landings;
+  }
+
+  /**
+   * Gets the held back transfers, for checkpointing.
+   * @return the transfers of the building.
+   */
+  TransferTable getTransferTable() {
+    return transfers;
+  }
+
+  /**
+   * This method is used to get the table of expected arrival ticks of the elevators.
+   * @return the ETA table.
+   */
+  EtaTable getEtaTable() {
+    return etaTable;
+  }
+
+  /**
+   * Gets the status of the elevator system, for checkpointing.
+   * @return the status of the elevator system.
+   */
+  ElevatorSystemStatus getSystemStatus() {
+    return status;
+  }
+
+  /**
+   * Puts back the tick and the status saved in a checkpoint.
+   * @param tick the tick to continue from.
+   * @param status the status of the elevator system.
+   */
+  void restoreState(int tick, ElevatorSystemStatus status) {
+    this.tick = tick;
+    this.status = status;
+  }
+
+  /**
+   * This method is used to turn on timing of the phases of each step.
+   * Every part of step() is timed: updating the traffic mode, distributing
+   * requests, stepping the elevators and publishing the changes to the building
+   * listeners, see {@link StepPhase}. Building reports are timed in getReport().
+   * @param profiler the profiler to record into, or null to turn timing off.
+   */
+  public void setStepProfiler(StepProfiler profiler) {
+    this.profiler = profiler;
+  }
+
+  /**
+   * This method is used to attach a journal to the building.
+   * From then on every accepted request, assignment, tick and start or stop
+   * command is appended to the journal. Closing the journal is left to the caller.
+   * @param journal the journal to write to, or null to stop journaling.
+   */
+  public void setJournal(RequestJournal journal) {
+    this.journal = journal;
+  }
+
+  /**
+   * The ride listener of one elevator, which knows the index of the elevator
+   * in the building.
+   */
+  private final class CarRides implements RideListener {
+    private final int index;
+
+    private CarRides(int index) {
+      this.index = index;
+    }
+
+    @Override
+    public void boarded(Elevator elevator, long ride) {
+      metrics.recordBoarding(tick - PackedRequest.arrivalTick(ride));
+      demand.left(ride);
+      if (transfers.size() > 0) {
+        transfers.boarded(ride, index);
+      }
+      RideListener listener = rideListener;
+      if (listener != null) {
+        listener.boarded(elevator, ride);
+      }
+    }
+
+    @Override
+    public void alighted(Elevator elevator, long ride) {
+      metrics.recordTripCompleted(tick - PackedRequest.arrivalTick(ride));
+      if (transfers.hasRiders()) {
+        releaseTransfer(index, ride);
+      }
+      if (!buildingListeners.isEmpty()) {
+        delta.served(index, ride);
+      }
+      RideListener listener = rideListener;
+      if (listener != null) {
+        listener.alighted(elevator, ride);
+      }
+    }
+
+    @Override
+    public void refused(Elevator elevator, long ride) {
+      // the passenger keeps their place in time and waits for another elevator
+      metrics.recordBoardingRefused();
+      if (PackedRequest.isUp(ride)) {
+        upRequests.add(ride);
+      } else {
+        downRequests.add(ride);
+      }
+      dispatchDirty = true;
+      RideListener listener = rideListener;
+      if (listener != null) {
+        listener.refused(elevator, ride);
+      }
+    }
+  }
 }
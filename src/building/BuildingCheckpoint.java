@@ -0,0 +1,239 @@
+package building;
+
+import building.enums.DispatchPolicy;
+import building.enums.ElevatorSystemStatus;
+import elevator.Elevator;
+import elevator.Landings;
+import elevator.TravelModel;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class saves and restores the full state of a building in a compact binary form.
+ * A checkpoint holds the size, banks, travel model, dispatch policy and traffic mode
+ * detector of the building,
+ * the status of the elevator system, the tick, the pending up and down requests,
+ * the passengers waiting to change at a sky lobby, the running state of every
+ * elevator, including its door timing and the passengers it carries, the
+ * passengers waiting at the landings of every bank, and the counters of the
+ * building metrics.
+ * Restoring builds a new building through the same constructor, and so the same
+ * checks, the original was made with, and loads the state into it. That takes a few
+ * microseconds, so many experiments can be branched off one warmed up building.
+ * Journals, listeners and profilers are not part of a checkpoint.
+ */
+public final class BuildingCheckpoint {
+  private static final int MAGIC = 0x46425343; // "FBSC"
+  private static final short VERSION = 12;
+
+  private BuildingCheckpoint() {
+  }
+
+  /**
+   * Writes a checkpoint of the building to a stream.
+   *
+   * @param building the building to save.
+   * @param out      the stream to write to, it is not closed.
+   * @throws IOException if the checkpoint cannot be written.
+   */
+  public static void write(Building building, OutputStream out) throws IOException {
+    DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+    data.writeInt(MAGIC);
+    data.writeShort(VERSION);
+    data.writeInt(building.getNumberOfFloors());
+    data.writeInt(building.getNumberOfElevators());
+    data.writeInt(building.getElevatorCapacity());
+    // a plain building has no banks of its own
+    List<ElevatorBank> banks = building.isZoned() ? building.getBanks() : List.of();
+    data.writeShort(banks.size());
+    for (ElevatorBank bank : banks) {
+      data.writeUTF(bank.getName());
+      data.writeInt(bank.getLowestFloor());
+      data.writeInt(bank.getHighestFloor());
+      data.writeInt(bank.getNumberOfElevators());
+      data.writeBoolean(bank.isExpress());
+    }
+    data.writeInt(building.getTravelModel().getCruiseSpeed());
+    data.writeInt(building.getTravelModel().getAcceleration());
+    data.writeByte(building.getDispatchPolicy().ordinal());
+    data.writeLong(building.getBatchDispatchBudget());
+    TrafficModeDetector detector = building.getTrafficModeDetector();
+    data.writeBoolean(detector != null);
+    if (detector != null) {
+      data.writeInt(detector.getWindow());
+      data.writeInt(detector.getHold());
+      data.writeDouble(detector.getQuietRate());
+      detector.writeState(data);
+    }
+    data.writeByte(building.getSystemStatus().ordinal());
+    data.writeInt(building.getTick());
+    writeQueue(data, building.getUpRequestQueue());
+    writeQueue(data, building.getDownRequestQueue());
+    building.getTransferTable().write(data);
+    for (Elevator elevator : building.getElevators()) {
+      elevator.writeState(data);
+    }
+    for (Landings landings : building.getLandings()) {
+      landings.writeState(data);
+    }
+    building.getMetrics().writeState(data);
+    data.flush();
+  }
+
+  /**
+   * Reads a checkpoint from a stream into a new building.
+   * Only the bytes of the checkpoint are read, so whatever follows it in the
+   * stream is left there. The stream is read as it is, pass a buffered stream
+   * if reading it a few bytes at a time is slow.
+   *
+   * @param in the stream to read from, it is not closed.
+   * @return the restored building.
+   * @throws IOException if the stream does not hold a valid checkpoint.
+   */
+  public static Building read(InputStream in) throws IOException {
+    DataInputStream data = new DataInputStream(in);
+    if (data.readInt() != MAGIC || data.readShort() != VERSION) {
+      throw new IOException("Not a building checkpoint.");
+    }
+    Building building;
+    try {
+      int numberOfFloors = data.readInt();
+      int numberOfElevators = data.readInt();
+      int elevatorCapacity = data.readInt();
+      int bankCount = data.readShort();
+      List<ElevatorBank> banks = new ArrayList<>();
+      for (int i = 0; i < bankCount; i++) {
+        banks.add(new ElevatorBank(data.readUTF(), data.readInt(), data.readInt(),
+            data.readInt(), data.readBoolean()));
+      }
+      if (banks.isEmpty()) {
+        building = new Building(numberOfFloors, numberOfElevators, elevatorCapacity);
+      } else {
+        building = new Building(numberOfFloors, elevatorCapacity, banks);
+      }
+      building.setTravelModel(new TravelModel(data.readInt(), data.readInt()));
+      int policyIndex = data.readByte();
+      if (policyIndex < 0 || policyIndex >= DispatchPolicy.values().length) {
+        throw new IOException("Building checkpoint is corrupt.");
+      }
+      long batchDispatchBudget = data.readLong();
+      if (batchDispatchBudget < 0) {
+        throw new IOException("Building checkpoint is corrupt.");
+      }
+      building.setBatchDispatchBudget(batchDispatchBudget);
+      // a detector takes on the policy of its mode, which is the one saved
+      building.setDispatchPolicy(DispatchPolicy.values()[policyIndex]);
+      if (data.readBoolean()) {
+        TrafficModeDetector detector = new TrafficModeDetector(data.readInt(), data.readInt(),
+            data.readDouble());
+        detector.readState(data);
+        building.setTrafficModeDetector(detector);
+      }
+      if (building.getNumberOfElevators() != numberOfElevators) {
+        throw new IOException("Building checkpoint is corrupt.");
+      }
+    } catch (IllegalArgumentException e) {
+      throw new IOException("Building checkpoint is corrupt.", e);
+    }
+    int statusIndex = data.readByte();
+    if (statusIndex < 0 || statusIndex >= ElevatorSystemStatus.values().length) {
+      throw new IOException("Building checkpoint is corrupt.");
+    }
+    building.restoreState(data.readInt(), ElevatorSystemStatus.values()[statusIndex]);
+    readQueue(data, building.getUpRequestQueue());
+    readQueue(data, building.getDownRequestQueue());
+    building.getTransferTable().read(data);
+    for (Elevator elevator : building.getElevators()) {
+      elevator.readState(data);
+    }
+    for (Landings landings : building.getLandings()) {
+      landings.readState(data);
+    }
+    building.getMetrics().readState(data);
+    building.rebuildDemand();
+    return building;
+  }
+
+  /**
+   * Saves a checkpoint of the building to a file.
+   *
+   * @param building the building to save.
+   * @param file     the file to write, replaced if it exists.
+   * @throws IOException if the file cannot be written.
+   */
+  public static void save(Building building, Path file) throws IOException {
+    try (OutputStream out = Files.newOutputStream(file)) {
+      write(building, out);
+    }
+  }
+
+  /**
+   * Restores a building from a checkpoint file.
+   *
+   * @param file the file to read.
+   * @return the restored building.
+   * @throws IOException if the file cannot be read or is not a checkpoint.
+   */
+  public static Building restore(Path file) throws IOException {
+    try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+      return read(in);
+    }
+  }
+
+  /**
+   * Saves a checkpoint of the building in memory.
+   *
+   * @param building the building to save.
+   * @return the checkpoint bytes.
+   */
+  public static byte[] toBytes(Building building) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try {
+      write(building, out);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return out.toByteArray();
+  }
+
+  /**
+   * Restores a building from checkpoint bytes.
+   *
+   * @param checkpoint the checkpoint bytes.
+   * @return the restored building.
+   * @throws IOException if the bytes are not a checkpoint.
+   */
+  public static Building fromBytes(byte[] checkpoint) throws IOException {
+    return read(new ByteArrayInputStream(checkpoint));
+  }
+
+  private static void writeQueue(DataOutputStream data, RequestQueue queue) throws IOException {
+    data.writeInt(queue.size());
+    for (int i = 0; i < queue.size(); i++) {
+      data.writeLong(queue.get(i));
+    }
+  }
+
+  private static void readQueue(DataInputStream data, RequestQueue queue) throws IOException {
+    int size = data.readInt();
+    if (size < 0) {
+      throw new IOException("Building checkpoint is corrupt.");
+    }
+    queue.clear();
+    for (int i = 0; i < size; i++) {
+      queue.add(data.readLong());
+    }
+  }
+}
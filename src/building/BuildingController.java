@@ -55,6 +55,36 @@ public class BuildingController {
     building.step();
   }
 
+  /**
+   * This method is used to step the building a number of ticks at once,
+   * updating the view only at the end.
+   *
+   * @param ticks the number of ticks to step.
+   */
+  public void stepN(int ticks) {
+    if (ticks < 0) {
+      return;
+    }
+    RunSummary summary = building.stepN(ticks);
+    updateView();
+    view.setStatus(building.getStatus() + ", " + summary);
+  }
+
+  /**
+   * This method is used to step the building until it is idle,
+   * updating the view only at the end.
+   *
+   * @param maxTicks the most ticks to step.
+   */
+  public void runUntilQuiescent(int maxTicks) {
+    if (maxTicks < 0) {
+      return;
+    }
+    RunSummary summary = building.runUntilQuiescent(maxTicks);
+    updateView();
+    view.setStatus(building.getStatus() + ", " + summary);
+  }
+
   /**
    * This method is used to add a request to the building.
    *
@@ -62,7 +92,7 @@ public class BuildingController {
    * @param stopFloor  The stop floor of the request.
    */
   public void addRequest(int startFloor, int stopFloor) {
-    Request request = new Request(startFloor, stopFloor);
+    Request request = building.getRequestCache().get(startFloor, stopFloor);
     try {
       building.addRequest(request);
       updateView();
@@ -0,0 +1,280 @@
+package building;
+
+import java.util.Arrays;
+
+/**
+ * This class holds what changed in a building on one tick: the elevators that
+ * moved, the doors that opened or closed, and the requests that were added,
+ * given to an elevator or served.
+ * <p></p>
+ * A delta is a set of short primitive lists read by index, each change packed
+ * into a long with the elevator it happened to. Requests are packed requests,
+ * see {@link scanerzus.PackedRequest}. Requests added between two ticks belong
+ * to the delta of the next tick. A served request is one leg of a trip, a
+ * passenger changing elevators at a sky lobby is served twice.
+ */
+public final class BuildingDelta {
+  private int tick;
+  private final Changes moves = new Changes();
+  private final Changes doors = new Changes();
+  private final Changes added = new Changes();
+  private final Changes assigned = new Changes();
+  private final Changes served = new Changes();
+
+  /**
+   * The constructor for an empty delta, used by the building.
+   */
+  BuildingDelta() {
+  }
+
+  /**
+   * Empties the delta for a new tick.
+   *
+   * @param tick the tick the changes happen on.
+   */
+  void clear(int tick) {
+    this.tick = tick;
+    moves.clear();
+    doors.clear();
+    added.clear();
+    assigned.clear();
+    served.clear();
+  }
+
+  void moved(int elevator, int fromFloor, int toFloor) {
+    moves.add(elevator, ((long) fromFloor << 32) | toFloor);
+  }
+
+  void doorChanged(int elevator, int floor, boolean opened) {
+    doors.add(elevator, ((long) floor << 1) | (opened ? 1 : 0));
+  }
+
+  void added(long packed) {
+    added.add(-1, packed);
+  }
+
+  void assigned(int elevator, long packed) {
+    assigned.add(elevator, packed);
+  }
+
+  void served(int elevator, long packed) {
+    served.add(elevator, packed);
+  }
+
+  /**
+   * Gets the tick the changes happened on.
+   *
+   * @return the tick.
+   */
+  public int getTick() {
+    return tick;
+  }
+
+  /**
+   * Checks whether nothing changed.
+   *
+   * @return true if the delta is empty.
+   */
+  public boolean isEmpty() {
+    return moves.size == 0 && doors.size == 0 && added.size == 0
+        && assigned.size == 0 && served.size == 0;
+  }
+
+  /**
+   * Gets the number of elevators that moved.
+   *
+   * @return the number of moves.
+   */
+  public int getMoveCount() {
+    return moves.size;
+  }
+
+  /**
+   * Gets the elevator of a move.
+   *
+   * @param i the move, from 0 to the move count - 1.
+   * @return the index of the elevator.
+   */
+  public int getMovedElevator(int i) {
+    return moves.elevator(i);
+  }
+
+  /**
+   * Gets the floor an elevator moved from.
+   *
+   * @param i the move.
+   * @return the floor the elevator was at on the last delta.
+   */
+  public int getMovedFrom(int i) {
+    return (int) (moves.value(i) >>> 32);
+  }
+
+  /**
+   * Gets the floor an elevator moved to.
+   *
+   * @param i the move.
+   * @return the floor the elevator is at now.
+   */
+  public int getMovedTo(int i) {
+    return (int) moves.value(i);
+  }
+
+  /**
+   * Gets the number of doors that opened or closed.
+   *
+   * @return the number of door changes.
+   */
+  public int getDoorChangeCount() {
+    return doors.size;
+  }
+
+  /**
+   * Gets the elevator whose door opened or closed.
+   *
+   * @param i the door change, from 0 to the door change count - 1.
+   * @return the index of the elevator.
+   */
+  public int getDoorElevator(int i) {
+    return doors.elevator(i);
+  }
+
+  /**
+   * Gets the floor a door opened or closed at.
+   *
+   * @param i the door change.
+   * @return the floor.
+   */
+  public int getDoorFloor(int i) {
+    return (int) (doors.value(i) >>> 1);
+  }
+
+  /**
+   * Checks whether a door opened or closed.
+   *
+   * @param i the door change.
+   * @return true if the door opened, false if it closed.
+   */
+  public boolean isDoorOpened(int i) {
+    return (doors.value(i) & 1) != 0;
+  }
+
+  /**
+   * Gets the number of requests added to the building.
+   *
+   * @return the number of requests added.
+   */
+  public int getAddedCount() {
+    return added.size;
+  }
+
+  /**
+   * Gets a request added to the building.
+   *
+   * @param i the request, from 0 to the added count - 1.
+   * @return the packed request.
+   */
+  public long getAdded(int i) {
+    return added.value(i);
+  }
+
+  /**
+   * Gets the number of requests given to an elevator.
+   *
+   * @return the number of requests assigned.
+   */
+  public int getAssignedCount() {
+    return assigned.size;
+  }
+
+  /**
+   * Gets a request given to an elevator.
+   *
+   * @param i the request, from 0 to the assigned count - 1.
+   * @return the packed request.
+   */
+  public long getAssigned(int i) {
+    return assigned.value(i);
+  }
+
+  /**
+   * Gets the elevator a request was given to.
+   *
+   * @param i the request.
+   * @return the index of the elevator.
+   */
+  public int getAssignedElevator(int i) {
+    return assigned.elevator(i);
+  }
+
+  /**
+   * Gets the number of requests served, passengers that got off an elevator.
+   *
+   * @return the number of requests served.
+   */
+  public int getServedCount() {
+    return served.size;
+  }
+
+  /**
+   * Gets a request served.
+   *
+   * @param i the request, from 0 to the served count - 1.
+   * @return the packed request.
+   */
+  public long getServed(int i) {
+    return served.value(i);
+  }
+
+  /**
+   * Gets the elevator that served a request.
+   *
+   * @param i the request.
+   * @return the index of the elevator.
+   */
+  public int getServedElevator(int i) {
+    return served.elevator(i);
+  }
+
+  @Override
+  public String toString() {
+    return "Tick " + tick + ": " + moves.size + " moved, " + doors.size + " doors, "
+        + added.size + " added, " + assigned.size + " assigned, " + served.size + " served";
+  }
+
+  /**
+   * A growable list of changes, each an elevator and a packed value.
+   */
+  private static final class Changes {
+    private int[] elevators = new int[4];
+    private long[] values = new long[4];
+    private int size;
+
+    void add(int elevator, long value) {
+      if (size == values.length) {
+        elevators = Arrays.copyOf(elevators, size * 2);
+        values = Arrays.copyOf(values, size * 2);
+      }
+      elevators[size] = elevator;
+      values[size] = value;
+      size++;
+    }
+
+    int elevator(int i) {
+      if (i < 0 || i >= size) {
+        throw new IndexOutOfBoundsException("No change " + i + ".");
+      }
+      return elevators[i];
+    }
+
+    long value(int i) {
+      if (i < 0 || i >= size) {
+        throw new IndexOutOfBoundsException("No change " + i + ".");
+      }
+      return values[i];
+    }
+
+    void clear() {
+      size = 0;
+    }
+  }
+}
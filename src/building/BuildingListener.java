@@ -0,0 +1,20 @@
+package building;
+
+/**
+ * A listener told what changed in a building on each tick, see
+ * {@link Building#addBuildingListener(BuildingListener)}.
+ * It is only called for ticks in which something changed, so a listener can
+ * update a display or an export from the changes instead of reading and
+ * comparing whole reports.
+ */
+public interface BuildingListener {
+
+  /**
+   * Called at the end of a tick in which something changed.
+   * The building fills the same delta again on the next tick, so a listener
+   * that wants to keep any of it has to copy it out.
+   *
+   * @param delta what changed since the last delta.
+   */
+  void changed(BuildingDelta delta);
+}
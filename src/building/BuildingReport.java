@@ -1,7 +1,9 @@
 package building;
 
+import building.enums.Direction;
 import building.enums.ElevatorSystemStatus;
 import elevator.ElevatorReport;
+import java.util.Arrays;
 import java.util.List;
 import scanerzus.Request;
 
@@ -22,8 +24,18 @@ public class BuildingReport {
 
   ElevatorSystemStatus systemStatus;
 
+  int[] upWaiting;
+
+  int[] downWaiting;
+
+  int[] upOldestAge;
+
+  int[] downOldestAge;
+
   /**
    * This constructor is used to create a new BuildingReport object.
+   * The number of passengers waiting at each floor is counted from the requests,
+   * how long they have waited is not known.
    *
    * @param numFloors        The number of floors in the building.
    * @param numElevators     The number of elevators in the building.
@@ -47,6 +59,58 @@ public class BuildingReport {
     this.upRequests = upRequests;
     this.downRequests = downRequests;
     this.systemStatus = systemStatus;
+    this.upWaiting = new int[numFloors];
+    this.downWaiting = new int[numFloors];
+    for (Request request : upRequests) {
+      this.upWaiting[request.getStartFloor()]++;
+    }
+    for (Request request : downRequests) {
+      this.downWaiting[request.getStartFloor()]++;
+    }
+    this.upOldestAge = new int[numFloors];
+    this.downOldestAge = new int[numFloors];
+    Arrays.fill(this.upOldestAge, -1);
+    Arrays.fill(this.downOldestAge, -1);
+  }
+
+  /**
+   * This constructor is used to create a new BuildingReport object from the
+   * number of passengers waiting at each floor rather than from the requests,
+   * so that it costs the same however many passengers are waiting.
+   * The report carries no list of requests.
+   *
+   * @param numFloors        The number of floors in the building.
+   * @param numElevators     The number of elevators in the building.
+   * @param elevatorCapacity The capacity of the elevators.
+   * @param elevatorsReports The status of the elevators.
+   * @param upWaiting        The number of passengers waiting to go up at each floor.
+   * @param downWaiting      The number of passengers waiting to go down at each floor.
+   * @param upOldestAge      The ticks the longest waiting passenger going up
+   *                         has waited at each floor, -1 if nobody is waiting.
+   * @param downOldestAge    The ticks the longest waiting passenger going down
+   *                         has waited at each floor, -1 if nobody is waiting.
+   * @param systemStatus     The status of the elevator system.
+   */
+  public BuildingReport(int numFloors,
+                        int numElevators,
+                        int elevatorCapacity,
+                        ElevatorReport[] elevatorsReports,
+                        int[] upWaiting,
+                        int[] downWaiting,
+                        int[] upOldestAge,
+                        int[] downOldestAge,
+                        ElevatorSystemStatus systemStatus) {
+    this.numFloors = numFloors;
+    this.numElevators = numElevators;
+    this.elevatorCapacity = elevatorCapacity;
+    this.elevatorReports = elevatorsReports;
+    this.upRequests = List.of();
+    this.downRequests = List.of();
+    this.upWaiting = upWaiting;
+    this.downWaiting = downWaiting;
+    this.upOldestAge = upOldestAge;
+    this.downOldestAge = downOldestAge;
+    this.systemStatus = systemStatus;
   }
 
   /**
@@ -88,8 +152,13 @@ public class BuildingReport {
   /**
    * This method is used to get the up requests for the elevators.
    *
-   * @return the requests for the elevators.
+   * @return the requests the report was made from, empty for a report made
+   *     from the number of passengers waiting, as every report of a building is.
+   * @deprecated a building reports the passengers waiting at each floor, not
+   *     their requests. Use {@link #getWaitingCount(int, Direction)} and
+   *     {@link #getOldestWaitAge(int, Direction)} instead.
    */
+  @Deprecated
   public List<Request> getUpRequests() {
     return this.upRequests;
   }
@@ -97,12 +166,40 @@ public class BuildingReport {
   /**
    * This method is used to get the down requests for the elevators.
    *
-   * @return the requests for the elevators.
+   * @return the requests the report was made from, empty for a report made
+   *     from the number of passengers waiting, as every report of a building is.
+   * @deprecated a building reports the passengers waiting at each floor, not
+   *     their requests. Use {@link #getWaitingCount(int, Direction)} and
+   *     {@link #getOldestWaitAge(int, Direction)} instead.
    */
+  @Deprecated
   public List<Request> getDownRequests() {
     return this.downRequests;
   }
 
+  /**
+   * This method is used to get how many passengers are waiting at a floor to go a way.
+   *
+   * @param floor     the floor.
+   * @param direction the way the passengers are going, up or down.
+   * @return the number of passengers waiting.
+   */
+  public int getWaitingCount(int floor, Direction direction) {
+    return direction == Direction.UP ? this.upWaiting[floor] : this.downWaiting[floor];
+  }
+
+  /**
+   * This method is used to get how long the passenger who has waited longest
+   * at a floor to go a way has waited.
+   *
+   * @param floor     the floor.
+   * @param direction the way the passengers are going, up or down.
+   * @return the number of ticks, or -1 if nobody is waiting or it is not known.
+   */
+  public int getOldestWaitAge(int floor, Direction direction) {
+    return direction == Direction.UP ? this.upOldestAge[floor] : this.downOldestAge[floor];
+  }
+
   /**
    * This method is used to get the status of the elevator system.
    *
@@ -123,8 +220,10 @@ public class BuildingReport {
     buildingInfo.append("Number of elevators: ").append(getNumElevators()).append("\n");
     buildingInfo.append("Elevator capacity: ").append(getElevatorCapacity()).append("\n");
     buildingInfo.append("Elevator system status: ").append(this.getSystemStatus()).append("\n");
-    buildingInfo.append("Up requests: ").append(this.getUpRequests()).append("\n");
-    buildingInfo.append("Down requests: ").append(this.getDownRequests()).append("\n");
+    buildingInfo.append("Up requests: ");
+    appendWaiting(buildingInfo, this.upWaiting, this.upOldestAge);
+    buildingInfo.append("Down requests: ");
+    appendWaiting(buildingInfo, this.downWaiting, this.downOldestAge);
     for (int i = 0; i < getElevatorReports().length; i++) {
       // Append the status of each elevator
       buildingInfo.append("Elevator ").append(i).append(": ");
@@ -134,5 +233,27 @@ public class BuildingReport {
     return buildingInfo.toString();
   }
 
+  /**
+   * Appends the floors where passengers are waiting as [floor: count (oldest age), ...].
+   */
+  private static void appendWaiting(StringBuilder buildingInfo, int[] waiting, int[] oldestAge) {
+    buildingInfo.append('[');
+    boolean first = true;
+    for (int floor = 0; floor < waiting.length; floor++) {
+      if (waiting[floor] == 0) {
+        continue;
+      }
+      if (!first) {
+        buildingInfo.append(", ");
+      }
+      first = false;
+      buildingInfo.append(floor).append(": ").append(waiting[floor]);
+      if (oldestAge[floor] >= 0) {
+        buildingInfo.append(" (oldest ").append(oldestAge[floor]).append(')');
+      }
+    }
+    buildingInfo.append("]\n");
+  }
+
 
 }
@@ -28,6 +28,8 @@ public class BuildingView extends JFrame {
   private JTextArea detailedStatusTextArea;
   private JButton addRequestButton;
   private JButton stepButton;
+  private JButton stepManyButton;
+  private JButton runToIdleButton;
   private JButton startButton;
   private JButton stopButton;
 
@@ -52,7 +54,7 @@ public class BuildingView extends JFrame {
 
 
     // Create control panel
-    JPanel controlPanel = new JPanel(new GridLayout(2, 5));
+    JPanel controlPanel = new JPanel(new GridLayout(3, 5));
 
     // Add request panel
     // add a description for the start floor field
@@ -136,6 +138,42 @@ public class BuildingView extends JFrame {
     });
     controlPanel.add(quitButton);
 
+    // step many ticks at once
+    JLabel ticksLabel = new JLabel("Ticks: ");
+    controlPanel.add(ticksLabel);
+    JTextField ticksField = new JTextField("100");
+    controlPanel.add(ticksField);
+    stepManyButton = new JButton("Step N");
+    stepManyButton.addActionListener(new ActionListener() {
+      @Override
+      public void actionPerformed(ActionEvent e) {
+        int ticks;
+        try {
+          ticks = Integer.parseInt(ticksField.getText().trim());
+        } catch (NumberFormatException ex) {
+          return;
+        }
+        controller.stepN(ticks);
+      }
+    });
+    controlPanel.add(stepManyButton);
+
+    // run until every request is served, at most the ticks given
+    runToIdleButton = new JButton("Run to idle");
+    runToIdleButton.addActionListener(new ActionListener() {
+      @Override
+      public void actionPerformed(ActionEvent e) {
+        int ticks;
+        try {
+          ticks = Integer.parseInt(ticksField.getText().trim());
+        } catch (NumberFormatException ex) {
+          return;
+        }
+        controller.runUntilQuiescent(ticks);
+      }
+    });
+    controlPanel.add(runToIdleButton);
+
     // Set layout for the main frame
     setLayout(new BorderLayout());
     add(statusPanel, BorderLayout.NORTH);
@@ -0,0 +1,121 @@
+package building;
+
+/**
+ * This class describes a bank of elevators that serve one zone of a building.
+ * A tall building is split into zones, each served by its own bank of cars,
+ * and passengers change banks at a sky lobby floor that two banks share.
+ * An express bank only stops at its lowest and highest floor,
+ * so it can carry passengers from the ground floor straight up to a sky lobby.
+ */
+public final class ElevatorBank {
+  private final String name;
+  private final int lowestFloor;
+  private final int highestFloor;
+  private final int numberOfElevators;
+  private final boolean express;
+
+  /**
+   * The constructor for a local bank that stops at every floor of its zone.
+   *
+   * @param name              the name of the bank.
+   * @param lowestFloor       the lowest floor served.
+   * @param highestFloor      the highest floor served.
+   * @param numberOfElevators the number of elevators in the bank.
+   * @throws IllegalArgumentException if the floors or the number of elevators are invalid.
+   */
+  public ElevatorBank(String name, int lowestFloor, int highestFloor, int numberOfElevators) {
+    this(name, lowestFloor, highestFloor, numberOfElevators, false);
+  }
+
+  /**
+   * The constructor for a bank of elevators.
+   *
+   * @param name              the name of the bank.
+   * @param lowestFloor       the lowest floor served.
+   * @param highestFloor      the highest floor served.
+   * @param numberOfElevators the number of elevators in the bank.
+   * @param express           true if the bank only stops at its lowest and highest floor.
+   * @throws IllegalArgumentException if the floors or the number of elevators are invalid.
+   */
+  public ElevatorBank(String name, int lowestFloor, int highestFloor, int numberOfElevators,
+                      boolean express) {
+    if (name == null) {
+      throw new IllegalArgumentException("Bank name is null.");
+    }
+    if (lowestFloor < 0 || highestFloor <= lowestFloor) {
+      throw new IllegalArgumentException("A bank must serve at least two floors.");
+    }
+    if (numberOfElevators <= 0) {
+      throw new IllegalArgumentException("Number of elevators must be greater than 0.");
+    }
+    this.name = name;
+    this.lowestFloor = lowestFloor;
+    this.highestFloor = highestFloor;
+    this.numberOfElevators = numberOfElevators;
+    this.express = express;
+  }
+
+  /**
+   * Checks whether the elevators of this bank stop at a floor.
+   *
+   * @param floor the floor to check.
+   * @return true if the bank stops at the floor.
+   */
+  public boolean serves(int floor) {
+    if (express) {
+      return floor == lowestFloor || floor == highestFloor;
+    }
+    return floor >= lowestFloor && floor <= highestFloor;
+  }
+
+  /**
+   * Gets the name of the bank.
+   *
+   * @return the name of the bank.
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Gets the lowest floor served by the bank.
+   *
+   * @return the lowest floor served.
+   */
+  public int getLowestFloor() {
+    return lowestFloor;
+  }
+
+  /**
+   * Gets the highest floor served by the bank.
+   *
+   * @return the highest floor served.
+   */
+  public int getHighestFloor() {
+    return highestFloor;
+  }
+
+  /**
+   * Gets the number of elevators in the bank.
+   *
+   * @return the number of elevators.
+   */
+  public int getNumberOfElevators() {
+    return numberOfElevators;
+  }
+
+  /**
+   * Checks whether the bank only stops at its lowest and highest floor.
+   *
+   * @return true if this is an express bank.
+   */
+  public boolean isExpress() {
+    return express;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s[%d-%d x%d%s]", name, lowestFloor, highestFloor,
+        numberOfElevators, express ? " express" : "");
+  }
+}
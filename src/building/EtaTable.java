@@ -0,0 +1,232 @@
+package building;
+
+import building.enums.Direction;
+import building.enums.ParkingPolicy;
+import elevator.Elevator;
+import elevator.TravelModel;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class keeps, for every elevator, the tick it is expected to reach each
+ * floor going each way, so dispatch can look up how long a car would take
+ * instead of working it out for every request.
+ * <p></p>
+ * Arrival ticks are absolute. An elevator that keeps to its plan moves towards
+ * the ticks in its row as time passes, so the row stays right without being
+ * touched. A row is only worked out again when the plan version of its
+ * elevator has changed, see {@link Elevator#getPlanVersion()}, or when it has
+ * not been worked out for {@link #REFRESH_INTERVAL} ticks, which bounds the
+ * drift of the estimate for cars that speed up and slow down. The passengers at
+ * the landings of a bank are part of the plan of every car of the bank called
+ * there, so a passenger joining or leaving a landing changes all their versions.
+ * Rows are worked out when they are looked up, not at the end of every step for
+ * the cars that changed, so cars nobody asks about cost nothing.
+ * <p></p>
+ * An elevator is at a floor going a way at the step where it would open its
+ * doors there for a new stop. The round trip stops where the elevator would:
+ * at drop-offs, at hall calls going its way and, at the ends of the run, at any
+ * hall call, and every passenger picked up adds their drop-off. With the
+ * default travel model the ticks are exact for as long as the plan does not change.
+ */
+final class EtaTable {
+  /**
+   * The arrival tick of a floor an elevator does not serve.
+   */
+  static final int UNREACHABLE = Integer.MAX_VALUE;
+
+  /**
+   * The most ticks a row is kept before it is worked out again anyway.
+   */
+  static final int REFRESH_INTERVAL = 64;
+
+  private final List<Elevator> elevators;
+  private final int numberOfFloors;
+  private final int[] arrivals;
+  private final int[] rowVersion;
+  private final int[] rowTick;
+  private final boolean[] rowValid;
+  private final boolean[] dropOffs;
+  private final boolean[] upPickups;
+  private final boolean[] downPickups;
+  private TravelModel restModel;
+  private int[] restSteps;
+  private int recomputeCount;
+
+  /**
+   * The constructor for the table.
+   *
+   * @param elevators      the elevators of the building.
+   * @param numberOfFloors the number of floors in the building.
+   */
+  EtaTable(List<Elevator> elevators, int numberOfFloors) {
+    this.elevators = elevators;
+    this.numberOfFloors = numberOfFloors;
+    this.arrivals = new int[elevators.size() * numberOfFloors * 2];
+    this.rowVersion = new int[elevators.size()];
+    this.rowTick = new int[elevators.size()];
+    this.rowValid = new boolean[elevators.size()];
+    this.dropOffs = new boolean[numberOfFloors];
+    this.upPickups = new boolean[numberOfFloors];
+    this.downPickups = new boolean[numberOfFloors];
+  }
+
+  /**
+   * Gets the tick an elevator is expected to reach a floor going a way.
+   *
+   * @param elevatorIndex the index of the elevator.
+   * @param floor         the floor.
+   * @param direction     the way to be going, up or down.
+   * @param tick          the current tick, before the elevators step.
+   * @return the arrival tick, or {@link #UNREACHABLE}.
+   */
+  int arrival(int elevatorIndex, int floor, Direction direction, int tick) {
+    Elevator elevator = elevators.get(elevatorIndex);
+    if (!rowValid[elevatorIndex] || rowVersion[elevatorIndex] != elevator.getPlanVersion()
+        || tick - rowTick[elevatorIndex] >= REFRESH_INTERVAL) {
+      computeRow(elevatorIndex, elevator, tick);
+    }
+    return arrivals[index(elevatorIndex, floor, direction == Direction.UP)];
+  }
+
+  /**
+   * Gets how many steps an elevator is expected to take to reach a floor going a way.
+   *
+   * @param elevatorIndex the index of the elevator.
+   * @param floor         the floor.
+   * @param direction     the way to be going, up or down.
+   * @param tick          the current tick, before the elevators step.
+   * @return the number of steps, or {@link #UNREACHABLE}.
+   */
+  long cost(int elevatorIndex, int floor, Direction direction, int tick) {
+    int arrival = arrival(elevatorIndex, floor, direction, tick);
+    return arrival == UNREACHABLE ? UNREACHABLE : (long) arrival - tick;
+  }
+
+  /**
+   * Gets how many rows have been worked out so far.
+   *
+   * @return the number of rows worked out.
+   */
+  int getRecomputeCount() {
+    return recomputeCount;
+  }
+
+  private int index(int elevatorIndex, int floor, boolean up) {
+    return (elevatorIndex * numberOfFloors + floor) * 2 + (up ? 0 : 1);
+  }
+
+  /**
+   * Follows an elevator through one whole round trip from where it is now,
+   * noting the step it reaches each floor going each way.
+   */
+  private void computeRow(int elevatorIndex, Elevator elevator, int tick) {
+    recomputeCount++;
+    rowValid[elevatorIndex] = true;
+    rowVersion[elevatorIndex] = elevator.getPlanVersion();
+    rowTick[elevatorIndex] = tick;
+    int rowStart = index(elevatorIndex, 0, true);
+    Arrays.fill(arrivals, rowStart, rowStart + numberOfFloors * 2, UNREACHABLE);
+    if (elevator.getStatus()) {
+      // out of service, it reaches nothing until it is started again
+      return;
+    }
+    int lowest = elevator.getLowestFloor();
+    int highest = elevator.getHighestFloor();
+    int floor = elevator.getCurrentFloor();
+    int doorCycle = 1 + elevator.getDoorOpenTimeTotal();
+    int waitAtTop = 1 + (elevator.getParkingPolicy() == ParkingPolicy.LOBBY ? 1
+        : elevator.getStopWaitTimeTotal());
+    int waitAtBottom = 1 + (elevator.getParkingPolicy() == ParkingPolicy.TOP ? 1
+        : elevator.getStopWaitTimeTotal());
+    int[] steps = restSteps(elevator.getTravelModel());
+    System.arraycopy(elevator.getDropOffStops(), 0, dropOffs, 0, numberOfFloors);
+    System.arraycopy(elevator.getPickupStops(Direction.UP), 0, upPickups, 0, numberOfFloors);
+    System.arraycopy(elevator.getPickupStops(Direction.DOWN), 0, downPickups, 0,
+        numberOfFloors);
+
+    // where the car is going, once its doors have closed or its wait is over
+    boolean up;
+    long elapsed;
+    if (!elevator.isDoorClosed()) {
+      up = elevator.getDirection() != Direction.DOWN;
+      elapsed = elevator.getDoorOpenTimeLeft();
+    } else if (elevator.getStopWaitTimeLeft() > 0) {
+      up = floor == lowest || (floor != highest && elevator.getDirection() != Direction.DOWN);
+      elapsed = elevator.getStopWaitTimeLeft();
+    } else if (elevator.getDirection() == Direction.STOPPED) {
+      up = floor != highest;
+      elapsed = 0;
+    } else {
+      up = elevator.getDirection() == Direction.UP;
+      elapsed = 0;
+    }
+    int startFloor = floor;
+    boolean startUp = up;
+    int restFloor = floor;
+    long restTick = tick + elapsed;
+    while (true) {
+      long arrival = restTick + steps[Math.abs(floor - restFloor)];
+      arrivals[index(elevatorIndex, floor, up)] = (int) Math.min(arrival, UNREACHABLE - 1);
+      boolean terminal = floor == lowest || floor == highest;
+      boolean servesUp = up || terminal;
+      boolean servesDown = !up || terminal;
+      boolean pickup = servesUp && upPickups[floor] || servesDown && downPickups[floor];
+      if (dropOffs[floor] || pickup) {
+        dropOffs[floor] = false;
+        if (pickup) {
+          upPickups[floor] &= !servesUp;
+          downPickups[floor] &= !servesDown;
+          if (servesUp) {
+            elevator.markDestinations(floor, Direction.UP, dropOffs);
+          }
+          if (servesDown) {
+            elevator.markDestinations(floor, Direction.DOWN, dropOffs);
+          }
+        }
+        restFloor = floor;
+        restTick = arrival + doorCycle;
+        arrival = restTick;
+      }
+      if (up && floor == highest) {
+        restFloor = floor;
+        restTick = arrival + waitAtTop;
+        up = false;
+      } else if (!up && floor == lowest) {
+        restFloor = floor;
+        restTick = arrival + waitAtBottom;
+        up = true;
+      } else {
+        floor += up ? 1 : -1;
+      }
+      if (floor == startFloor && up == startUp) {
+        break;
+      }
+    }
+  }
+
+  /**
+   * Gets, for every distance, the steps a car at rest takes to come to rest that many
+   * floors away, worked out once for each travel model.
+   */
+  private int[] restSteps(TravelModel model) {
+    if (model.equals(restModel)) {
+      return restSteps;
+    }
+    int[] table = new int[numberOfFloors];
+    for (int distance = 1; distance < numberOfFloors; distance++) {
+      int speed = 0;
+      int left = distance;
+      int count = 0;
+      while (left > 0) {
+        speed = model.nextMove(speed, left);
+        left -= speed;
+        count++;
+      }
+      table[distance] = count;
+    }
+    restModel = model;
+    restSteps = table;
+    return table;
+  }
+}
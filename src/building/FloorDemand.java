@@ -0,0 +1,172 @@
+package building;
+
+import java.util.Arrays;
+import scanerzus.PackedRequest;
+
+/**
+ * This class keeps, for every floor, how many passengers are waiting there to
+ * go up and to go down, and when the one who has waited longest arrived.
+ * A passenger waits from the moment their request, or the next leg of their
+ * trip, reaches the building until they get on an elevator, whether or not
+ * an elevator has been given the request yet.
+ * <p></p>
+ * The counts are kept up to date as passengers come and go, so a report costs
+ * one pass over the floors however many passengers are waiting. The oldest
+ * arrival is the top of a min-heap of arrival ticks per floor and way.
+ * Passengers get on in any order, so the ones that left are put in a second
+ * heap and only taken off the first when they come to the top.
+ */
+final class FloorDemand {
+  /**
+   * The arrival tick of a floor and way with nobody waiting.
+   */
+  static final int NOBODY = -1;
+
+  private final int[] waiting;
+  private final TickHeap[] arrived;
+  private final TickHeap[] left;
+
+  /**
+   * The constructor for the demand of a building.
+   *
+   * @param numberOfFloors the number of floors in the building.
+   */
+  FloorDemand(int numberOfFloors) {
+    this.waiting = new int[numberOfFloors * 2];
+    this.arrived = new TickHeap[numberOfFloors * 2];
+    this.left = new TickHeap[numberOfFloors * 2];
+    for (int i = 0; i < arrived.length; i++) {
+      arrived[i] = new TickHeap();
+      left[i] = new TickHeap();
+    }
+  }
+
+  /**
+   * Notes a passenger starting to wait.
+   *
+   * @param ride the packed request of the passenger.
+   */
+  void arrived(long ride) {
+    int index = index(ride);
+    waiting[index]++;
+    arrived[index].push(PackedRequest.arrivalTick(ride));
+  }
+
+  /**
+   * Notes a passenger no longer waiting, because they got on or their request was dropped.
+   *
+   * @param ride the packed request of the passenger, as it arrived.
+   */
+  void left(long ride) {
+    int index = index(ride);
+    if (waiting[index] == 0) {
+      return;
+    }
+    waiting[index]--;
+    if (waiting[index] == 0) {
+      arrived[index].clear();
+      left[index].clear();
+    } else {
+      left[index].push(PackedRequest.arrivalTick(ride));
+    }
+  }
+
+  /**
+   * Forgets every waiting passenger.
+   */
+  void clear() {
+    Arrays.fill(waiting, 0);
+    for (int i = 0; i < arrived.length; i++) {
+      arrived[i].clear();
+      left[i].clear();
+    }
+  }
+
+  /**
+   * Gets the number of passengers waiting at a floor to go a way.
+   *
+   * @param floor the floor.
+   * @param up    true for the passengers going up.
+   * @return the number of passengers waiting.
+   */
+  int waiting(int floor, boolean up) {
+    return waiting[floor * 2 + (up ? 0 : 1)];
+  }
+
+  /**
+   * Gets the arrival tick of the passenger who has waited longest at a floor to go a way.
+   *
+   * @param floor the floor.
+   * @param up    true for the passengers going up.
+   * @return the arrival tick, or {@link #NOBODY}.
+   */
+  int oldestArrival(int floor, boolean up) {
+    int index = floor * 2 + (up ? 0 : 1);
+    if (waiting[index] == 0) {
+      return NOBODY;
+    }
+    TickHeap present = arrived[index];
+    TickHeap gone = left[index];
+    while (gone.size() > 0 && gone.peek() == present.peek()) {
+      gone.pop();
+      present.pop();
+    }
+    return present.peek();
+  }
+
+  private static int index(long ride) {
+    return PackedRequest.startFloor(ride) * 2 + (PackedRequest.isUp(ride) ? 0 : 1);
+  }
+
+  /**
+   * A growable binary min-heap of ticks.
+   */
+  private static final class TickHeap {
+    private int[] ticks = new int[4];
+    private int size;
+
+    void push(int tick) {
+      if (size == ticks.length) {
+        ticks = Arrays.copyOf(ticks, size * 2);
+      }
+      int i = size++;
+      while (i > 0 && ticks[(i - 1) / 2] > tick) {
+        ticks[i] = ticks[(i - 1) / 2];
+        i = (i - 1) / 2;
+      }
+      ticks[i] = tick;
+    }
+
+    int peek() {
+      return ticks[0];
+    }
+
+    void pop() {
+      int last = ticks[--size];
+      int i = 0;
+      while (true) {
+        int child = 2 * i + 1;
+        if (child >= size) {
+          break;
+        }
+        if (child + 1 < size && ticks[child + 1] < ticks[child]) {
+          child++;
+        }
+        if (ticks[child] >= last) {
+          break;
+        }
+        ticks[i] = ticks[child];
+        i = child;
+      }
+      ticks[i] = last;
+    }
+
+    int size() {
+      return size;
+    }
+
+    void clear() {
+      size = 0;
+    }
+  }
+}
@@ -0,0 +1,102 @@
+package building;
+
+/**
+ * This class is a growable ring buffer of packed requests.
+ * The building keeps its pending requests here so that a large backlog
+ * costs eight bytes per request instead of a Request object each.
+ * Requests are kept in arrival order.
+ */
+class RequestQueue {
+  private static final int INITIAL_CAPACITY = 16;
+
+  private long[] elements;
+  private int head;
+  private int size;
+
+  /**
+   * This constructor is used to create an empty queue.
+   */
+  RequestQueue() {
+    this.elements = new long[INITIAL_CAPACITY];
+    this.head = 0;
+    this.size = 0;
+  }
+
+  /**
+   * Adds a packed request to the back of the queue.
+   *
+   * @param packed the packed request.
+   */
+  void add(long packed) {
+    if (size == elements.length) {
+      grow();
+    }
+    elements[(head + size) & (elements.length - 1)] = packed;
+    size++;
+  }
+
+  /**
+   * Removes the packed request at the front of the queue.
+   *
+   * @return the packed request.
+   * @throws IllegalStateException if the queue is empty.
+   */
+  long poll() {
+    if (size == 0) {
+      throw new IllegalStateException("Queue is empty.");
+    }
+    long packed = elements[head];
+    head = (head + 1) & (elements.length - 1);
+    size--;
+    return packed;
+  }
+
+  /**
+   * Gets the packed request at the given position, 0 being the front of the queue.
+   *
+   * @param index the position in the queue.
+   * @return the packed request.
+   * @throws IndexOutOfBoundsException if the index is out of range.
+   */
+  long get(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index out of range.");
+    }
+    return elements[(head + index) & (elements.length - 1)];
+  }
+
+  /**
+   * Gets the number of requests in the queue.
+   *
+   * @return the number of requests.
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Checks whether the queue is empty.
+   *
+   * @return true if there are no requests in the queue.
+   */
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Removes all the requests from the queue.
+   */
+  void clear() {
+    head = 0;
+    size = 0;
+  }
+
+  private void grow() {
+    long[] grown = new long[elements.length << 1];
+    for (int i = 0; i < size; i++) {
+      grown[i] = elements[(head + i) & (elements.length - 1)];
+    }
+    elements = grown;
+    head = 0;
+  }
+}
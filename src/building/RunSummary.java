@@ -0,0 +1,116 @@
+package building;
+
+/**
+ * This class holds where a building got to after being stepped many ticks at once,
+ * see {@link Building#stepN(int)} and {@link Building#runUntilQuiescent(int)}.
+ * The counters are the totals of the building since it was built.
+ */
+public final class RunSummary {
+  private final int tick;
+  private final int ticksRun;
+  private final boolean quiescent;
+  private final int pendingRequests;
+  private final long requestsAccepted;
+  private final long tripsCompleted;
+  private final long boardingsRefused;
+
+  /**
+   * The constructor for a summary.
+   *
+   * @param tick             the tick the building is at.
+   * @param ticksRun         the number of ticks that were stepped.
+   * @param quiescent        true if every request was served and the elevators are idle.
+   * @param pendingRequests  the number of requests not yet given to an elevator.
+   * @param requestsAccepted the number of requests accepted.
+   * @param tripsCompleted   the number of passengers that got off at their floor.
+   * @param boardingsRefused the number of passengers a full elevator turned away.
+   */
+  RunSummary(int tick, int ticksRun, boolean quiescent, int pendingRequests,
+             long requestsAccepted, long tripsCompleted, long boardingsRefused) {
+    this.tick = tick;
+    this.ticksRun = ticksRun;
+    this.quiescent = quiescent;
+    this.pendingRequests = pendingRequests;
+    this.requestsAccepted = requestsAccepted;
+    this.tripsCompleted = tripsCompleted;
+    this.boardingsRefused = boardingsRefused;
+  }
+
+  /**
+   * Gets the tick the building is at.
+   *
+   * @return the final tick.
+   */
+  public int getTick() {
+    return tick;
+  }
+
+  /**
+   * Gets the number of ticks that were stepped.
+   *
+   * @return the ticks run.
+   */
+  public int getTicksRun() {
+    return ticksRun;
+  }
+
+  /**
+   * Checks whether every request was served and the elevators were idle at the end.
+   *
+   * @return true if the building was quiescent.
+   */
+  public boolean isQuiescent() {
+    return quiescent;
+  }
+
+  /**
+   * Gets the number of requests not yet given to an elevator.
+   *
+   * @return the pending requests.
+   */
+  public int getPendingRequests() {
+    return pendingRequests;
+  }
+
+  /**
+   * Gets the number of requests accepted.
+   *
+   * @return the requests accepted.
+   */
+  public long getRequestsAccepted() {
+    return requestsAccepted;
+  }
+
+  /**
+   * Gets the number of passengers that got off at their floor.
+   *
+   * @return the completed trips.
+   */
+  public long getTripsCompleted() {
+    return tripsCompleted;
+  }
+
+  /**
+   * Gets the number of passengers a full elevator turned away.
+   *
+   * @return the refused boardings.
+   */
+  public long getBoardingsRefused() {
+    return boardingsRefused;
+  }
+
+  /**
+   * toString implementation.
+   *
+   * @return the summary on one line.
+   */
+  @Override
+  public String toString() {
+    return "tick " + tick + " after " + ticksRun + " ticks"
+        + (quiescent ? ", idle" : "")
+        + ", pending " + pendingRequests
+        + ", accepted " + requestsAccepted
+        + ", completed " + tripsCompleted
+        + ", refused " + boardingsRefused;
+  }
+}
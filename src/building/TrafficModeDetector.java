@@ -0,0 +1,262 @@
+package building;
+
+import building.enums.TrafficMode;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * This class works out what kind of traffic a building is seeing from the
+ * requests it accepts. It keeps three exponentially decayed counters, all
+ * requests, requests going up from the lobby and requests going down to the
+ * lobby, so it looks at a sliding window of recent traffic in constant memory.
+ * The lobby is the ground floor.
+ * <p></p>
+ * A new mode is only taken on once the traffic has looked like it for the hold
+ * time without a break, and the thresholds for staying in a mode are looser
+ * than those for entering it, so the mode does not flap on noisy traffic.
+ */
+public class TrafficModeDetector {
+  /**
+   * The default number of ticks the counters remember, roughly.
+   */
+  public static final int DEFAULT_WINDOW = 300;
+
+  /**
+   * The default number of ticks a new mode must last before it is taken on.
+   */
+  public static final int DEFAULT_HOLD = 60;
+
+  /**
+   * The default number of requests per tick below which traffic is quiet.
+   */
+  public static final double DEFAULT_QUIET_RATE = 0.02;
+
+  private static final double PEAK_SHARE = 0.6;
+  private static final double LUNCH_SHARE = 0.3;
+  private static final double MARGIN = 0.1;
+  private static final double QUIET_EXIT_FACTOR = 1.5;
+
+  private final int window;
+  private final int hold;
+  private final double quietRate;
+  private final double decay;
+  private double total;
+  private double upFromLobby;
+  private double downToLobby;
+  private int lastTick;
+  private TrafficMode mode;
+  private TrafficMode candidate;
+  private int candidateSince;
+
+  /**
+   * The constructor for a detector with the default window, hold time and quiet rate.
+   */
+  public TrafficModeDetector() {
+    this(DEFAULT_WINDOW, DEFAULT_HOLD, DEFAULT_QUIET_RATE);
+  }
+
+  /**
+   * The constructor for a detector.
+   *
+   * @param window    the number of ticks the counters remember, roughly, at least 2.
+   * @param hold      the number of ticks a new mode must last before it is taken on.
+   * @param quietRate the number of requests per tick below which traffic is quiet.
+   * @throws IllegalArgumentException if a value is out of range.
+   */
+  public TrafficModeDetector(int window, int hold, double quietRate) {
+    if (window < 2 || hold < 0 || quietRate < 0) {
+      throw new IllegalArgumentException("Window must be at least 2, "
+          + "hold and quiet rate at least 0.");
+    }
+    this.window = window;
+    this.hold = hold;
+    this.quietRate = quietRate;
+    this.decay = 1.0 - 1.0 / window;
+    this.mode = TrafficMode.QUIET;
+    this.candidate = TrafficMode.QUIET;
+  }
+
+  /**
+   * Counts an accepted request.
+   *
+   * @param tick       the tick the request arrived.
+   * @param startFloor the start floor of the request.
+   * @param endFloor   the end floor of the request.
+   */
+  public void record(int tick, int startFloor, int endFloor) {
+    advance(tick);
+    total++;
+    if (startFloor == 0 && endFloor > 0) {
+      upFromLobby++;
+    } else if (endFloor == 0 && startFloor > 0) {
+      downToLobby++;
+    }
+  }
+
+  /**
+   * Looks at the traffic at a tick and changes mode if the hold time has passed.
+   *
+   * @param tick the current tick.
+   * @return true if the mode changed.
+   */
+  public boolean update(int tick) {
+    advance(tick);
+    TrafficMode seen = classify();
+    if (seen == mode) {
+      candidate = mode;
+      return false;
+    }
+    if (seen != candidate) {
+      candidate = seen;
+      candidateSince = tick;
+    }
+    if (tick - candidateSince >= hold) {
+      mode = seen;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Gets the current traffic mode.
+   *
+   * @return the traffic mode.
+   */
+  public TrafficMode getMode() {
+    return mode;
+  }
+
+  /**
+   * Gets the recent number of requests per tick.
+   *
+   * @return the arrival rate.
+   */
+  public double getArrivalRate() {
+    return total / window;
+  }
+
+  /**
+   * Gets the recent share of requests going up from the lobby.
+   *
+   * @return the up peak share, from 0 to 1.
+   */
+  public double getUpPeakShare() {
+    return total == 0 ? 0.0 : upFromLobby / total;
+  }
+
+  /**
+   * Gets the recent share of requests going down to the lobby.
+   *
+   * @return the down peak share, from 0 to 1.
+   */
+  public double getDownPeakShare() {
+    return total == 0 ? 0.0 : downToLobby / total;
+  }
+
+  /**
+   * Gets the number of ticks the counters remember, roughly.
+   *
+   * @return the window.
+   */
+  public int getWindow() {
+    return window;
+  }
+
+  /**
+   * Gets the number of ticks a new mode must last before it is taken on.
+   *
+   * @return the hold time.
+   */
+  public int getHold() {
+    return hold;
+  }
+
+  /**
+   * Gets the number of requests per tick below which traffic is quiet.
+   *
+   * @return the quiet rate.
+   */
+  public double getQuietRate() {
+    return quietRate;
+  }
+
+  private void advance(int tick) {
+    int ticks = tick - lastTick;
+    if (ticks <= 0) {
+      return;
+    }
+    double factor = ticks == 1 ? decay : Math.pow(decay, ticks);
+    total *= factor;
+    upFromLobby *= factor;
+    downToLobby *= factor;
+    lastTick = tick;
+  }
+
+  /**
+   * Works out which mode the recent traffic looks like, leaning towards the current one.
+   */
+  private TrafficMode classify() {
+    double rate = getArrivalRate();
+    double quiet = mode == TrafficMode.QUIET ? quietRate * QUIET_EXIT_FACTOR : quietRate;
+    if (rate < quiet) {
+      return TrafficMode.QUIET;
+    }
+    double up = getUpPeakShare();
+    double down = getDownPeakShare();
+    if (up >= PEAK_SHARE - margin(TrafficMode.UP_PEAK)) {
+      return TrafficMode.UP_PEAK;
+    }
+    if (down >= PEAK_SHARE - margin(TrafficMode.DOWN_PEAK)) {
+      return TrafficMode.DOWN_PEAK;
+    }
+    if (up >= LUNCH_SHARE - margin(TrafficMode.LUNCH)
+        && down >= LUNCH_SHARE - margin(TrafficMode.LUNCH)) {
+      return TrafficMode.LUNCH;
+    }
+    return TrafficMode.INTERFLOOR;
+  }
+
+  private double margin(TrafficMode of) {
+    return mode == of ? MARGIN : 0.0;
+  }
+
+  /**
+   * Writes the counters and the mode, for checkpointing.
+   *
+   * @param data the stream to write to.
+   * @throws IOException if the stream cannot be written.
+   */
+  void writeState(DataOutputStream data) throws IOException {
+    data.writeDouble(total);
+    data.writeDouble(upFromLobby);
+    data.writeDouble(downToLobby);
+    data.writeInt(lastTick);
+    data.writeByte(mode.ordinal());
+    data.writeByte(candidate.ordinal());
+    data.writeInt(candidateSince);
+  }
+
+  /**
+   * Reads back the state written by {@link #writeState(DataOutputStream)}.
+   *
+   * @param data the stream to read from.
+   * @throws IOException if the stream does not hold a valid state.
+   */
+  void readState(DataInputStream data) throws IOException {
+    total = data.readDouble();
+    upFromLobby = data.readDouble();
+    downToLobby = data.readDouble();
+    lastTick = data.readInt();
+    int modeIndex = data.readByte();
+    int candidateIndex = data.readByte();
+    TrafficMode[] modes = TrafficMode.values();
+    if (modeIndex < 0 || modeIndex >= modes.length
+        || candidateIndex < 0 || candidateIndex >= modes.length) {
+      throw new IOException("Building checkpoint is corrupt.");
+    }
+    mode = modes[modeIndex];
+    candidate = modes[candidateIndex];
+    candidateSince = data.readInt();
+  }
+}
@@ -0,0 +1,326 @@
+package building;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import scanerzus.PackedRequest;
+
+/**
+ * This class keeps track of passengers whose trip goes through a sky lobby.
+ * Only the leg a passenger is on is ever queued in the building. The next leg
+ * is held back here until the passenger gets off the elevator carrying the
+ * current leg at the transfer floor, and is then queued like a new request.
+ * Legs are looked up by their packed value, which is enough since legs with
+ * the same floors and tick are interchangeable.
+ * <p></p>
+ * Routes whose leg is still waiting are kept in an open addressing table keyed
+ * on the packed leg, each slot holding a first come, first served chain of the
+ * routes with that leg, so looking a leg up neither boxes it nor allocates.
+ */
+final class TransferTable {
+  /**
+   * What {@link #release(int, long, int, RequestQueue, RequestQueue)} gives back
+   * for a ride that is not part of a longer route.
+   */
+  static final long NO_LEG = -1L;
+
+  private static final int INITIAL_SLOTS = 16;
+
+  /**
+   * A passenger on a multi-leg trip.
+   */
+  private static final class Transfer {
+    private final long packed;
+    private final int[] route;
+    private int leg;
+    private int elevatorIndex;
+    private Transfer next;
+
+    private Transfer(long packed, int[] route, int leg, int elevatorIndex) {
+      this.packed = packed;
+      this.route = route;
+      this.leg = leg;
+      this.elevatorIndex = elevatorIndex;
+    }
+  }
+
+  private long[] waitingLegs;
+  private Transfer[] waitingFirst;
+  private Transfer[] waitingLast;
+  private int waitingLegCount;
+  private final List<List<Transfer>> riding;
+  private int size;
+  private int ridingCount;
+
+  /**
+   * The constructor for the table.
+   *
+   * @param numberOfElevators the number of elevators in the building.
+   */
+  TransferTable(int numberOfElevators) {
+    this.waitingLegs = new long[INITIAL_SLOTS];
+    this.waitingFirst = new Transfer[INITIAL_SLOTS];
+    this.waitingLast = new Transfer[INITIAL_SLOTS];
+    Arrays.fill(waitingLegs, NO_LEG);
+    this.riding = new ArrayList<>(numberOfElevators);
+    for (int i = 0; i < numberOfElevators; i++) {
+      riding.add(new ArrayList<>());
+    }
+  }
+
+  /**
+   * Holds back the rest of a route until the queued leg has been ridden.
+   *
+   * @param packed the packed leg that was queued.
+   * @param route  the floors of the whole route.
+   * @param leg    the index of the queued leg in the route.
+   */
+  void await(long packed, int[] route, int leg) {
+    addWaiting(new Transfer(packed, route, leg, -1));
+    size++;
+  }
+
+  /**
+   * Notes the elevator a passenger boarded, if the leg they boarded is part of
+   * a longer route. Any elevator of the bank may pick the passenger up, so the
+   * leg is only tied to an elevator once the passenger is on board.
+   *
+   * @param packed        the packed leg that was boarded.
+   * @param elevatorIndex the index of the elevator the passenger boarded.
+   */
+  void boarded(long packed, int elevatorIndex) {
+    int slot = findSlot(packed);
+    if (waitingLegs[slot] == NO_LEG) {
+      return;
+    }
+    Transfer transfer = waitingFirst[slot];
+    waitingFirst[slot] = transfer.next;
+    transfer.next = null;
+    if (waitingFirst[slot] == null) {
+      removeSlot(slot);
+    }
+    transfer.elevatorIndex = elevatorIndex;
+    riding.get(elevatorIndex).add(transfer);
+    ridingCount++;
+  }
+
+  /**
+   * Checks whether any passenger is riding towards a transfer floor.
+   *
+   * @return true if some elevator carries a leg with a transfer at its end.
+   */
+  boolean hasRiders() {
+    return ridingCount > 0;
+  }
+
+  /**
+   * Queues the next leg of a passenger who got off an elevator, if the ride
+   * they got off was a leg of a longer route given to that elevator.
+   *
+   * @param elevatorIndex the index of the elevator.
+   * @param ride          the packed leg the passenger got off.
+   * @param tick          the current tick, the arrival tick of the next leg.
+   * @param upRequests    the queue for next legs going up.
+   * @param downRequests  the queue for next legs going down.
+   * @return the packed next leg that was queued, or {@link #NO_LEG}.
+   */
+  long release(int elevatorIndex, long ride, int tick, RequestQueue upRequests,
+               RequestQueue downRequests) {
+    List<Transfer> transfers = riding.get(elevatorIndex);
+    for (int i = 0; i < transfers.size(); i++) {
+      Transfer transfer = transfers.get(i);
+      if (transfer.packed != ride) {
+        continue;
+      }
+      transfers.remove(i);
+      ridingCount--;
+      size--;
+      int next = transfer.leg + 1;
+      long packed = PackedRequest.pack(transfer.route[next], transfer.route[next + 1], tick);
+      if (PackedRequest.isUp(packed)) {
+        upRequests.add(packed);
+      } else {
+        downRequests.add(packed);
+      }
+      if (next + 2 < transfer.route.length) {
+        await(packed, transfer.route, next);
+      }
+      return packed;
+    }
+    return NO_LEG;
+  }
+
+  /**
+   * Gets the number of passengers on a multi-leg trip.
+   *
+   * @return the number of held back routes.
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Forgets every held back route.
+   */
+  void clear() {
+    Arrays.fill(waitingLegs, NO_LEG);
+    Arrays.fill(waitingFirst, null);
+    Arrays.fill(waitingLast, null);
+    waitingLegCount = 0;
+    for (List<Transfer> transfers : riding) {
+      transfers.clear();
+    }
+    size = 0;
+    ridingCount = 0;
+  }
+
+  /**
+   * Writes the held back routes to a checkpoint.
+   *
+   * @param data the stream to write to.
+   * @throws IOException if the stream cannot be written.
+   */
+  void write(DataOutputStream data) throws IOException {
+    data.writeInt(size);
+    for (Transfer first : waitingFirst) {
+      for (Transfer transfer = first; transfer != null; transfer = transfer.next) {
+        writeTransfer(data, transfer);
+      }
+    }
+    for (List<Transfer> transfers : riding) {
+      for (Transfer transfer : transfers) {
+        writeTransfer(data, transfer);
+      }
+    }
+  }
+
+  /**
+   * Reads held back routes written by {@link #write(DataOutputStream)}.
+   *
+   * @param data the stream to read from.
+   * @throws IOException if the stream does not hold valid routes.
+   */
+  void read(DataInputStream data) throws IOException {
+    clear();
+    int count = data.readInt();
+    if (count < 0) {
+      throw new IOException("Building checkpoint is corrupt.");
+    }
+    for (int i = 0; i < count; i++) {
+      long packed = data.readLong();
+      int elevatorIndex = data.readInt();
+      int leg = data.readInt();
+      int length = data.readInt();
+      if (length < 3 || leg < 0 || leg + 2 >= length || elevatorIndex >= riding.size()) {
+        throw new IOException("Building checkpoint is corrupt.");
+      }
+      int[] route = new int[length];
+      for (int j = 0; j < length; j++) {
+        route[j] = data.readInt();
+      }
+      if (elevatorIndex < 0) {
+        await(packed, route, leg);
+      } else {
+        riding.get(elevatorIndex).add(new Transfer(packed, route, leg, elevatorIndex));
+        ridingCount++;
+        size++;
+      }
+    }
+  }
+
+  /**
+   * Adds a route to the back of the chain of routes waiting on its leg.
+   *
+   * @param transfer the route.
+   */
+  private void addWaiting(Transfer transfer) {
+    if ((waitingLegCount + 1) * 2 > waitingLegs.length) {
+      growWaiting();
+    }
+    int slot = findSlot(transfer.packed);
+    if (waitingLegs[slot] == NO_LEG) {
+      waitingLegs[slot] = transfer.packed;
+      waitingFirst[slot] = transfer;
+      waitingLegCount++;
+    } else {
+      waitingLast[slot].next = transfer;
+    }
+    waitingLast[slot] = transfer;
+  }
+
+  /**
+   * Finds the slot of a leg, or the empty slot it would go in.
+   *
+   * @param packed the packed leg.
+   * @return the slot.
+   */
+  private int findSlot(long packed) {
+    int mask = waitingLegs.length - 1;
+    int slot = hash(packed) & mask;
+    while (waitingLegs[slot] != NO_LEG && waitingLegs[slot] != packed) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  /**
+   * Empties a slot, moving back the legs after it that would no longer be found.
+   *
+   * @param slot the slot to empty.
+   */
+  private void removeSlot(int slot) {
+    int mask = waitingLegs.length - 1;
+    int hole = slot;
+    for (int next = (hole + 1) & mask; waitingLegs[next] != NO_LEG; next = (next + 1) & mask) {
+      int home = hash(waitingLegs[next]) & mask;
+      // the leg can fill the hole if its home is not between the hole and it
+      if (((next - home) & mask) >= ((next - hole) & mask)) {
+        waitingLegs[hole] = waitingLegs[next];
+        waitingFirst[hole] = waitingFirst[next];
+        waitingLast[hole] = waitingLast[next];
+        hole = next;
+      }
+    }
+    waitingLegs[hole] = NO_LEG;
+    waitingFirst[hole] = null;
+    waitingLast[hole] = null;
+    waitingLegCount--;
+  }
+
+  private void growWaiting() {
+    long[] legs = waitingLegs;
+    Transfer[] first = waitingFirst;
+    Transfer[] last = waitingLast;
+    waitingLegs = new long[legs.length << 1];
+    waitingFirst = new Transfer[legs.length << 1];
+    waitingLast = new Transfer[legs.length << 1];
+    Arrays.fill(waitingLegs, NO_LEG);
+    for (int i = 0; i < legs.length; i++) {
+      if (legs[i] != NO_LEG) {
+        int slot = findSlot(legs[i]);
+        waitingLegs[slot] = legs[i];
+        waitingFirst[slot] = first[i];
+        waitingLast[slot] = last[i];
+      }
+    }
+  }
+
+  private static int hash(long packed) {
+    long h = packed * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32));
+  }
+
+  private static void writeTransfer(DataOutputStream data, Transfer transfer)
+      throws IOException {
+    data.writeLong(transfer.packed);
+    data.writeInt(transfer.elevatorIndex);
+    data.writeInt(transfer.leg);
+    data.writeInt(transfer.route.length);
+    for (int floor : transfer.route) {
+      data.writeInt(floor);
+    }
+  }
+}
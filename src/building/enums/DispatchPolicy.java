@@ -0,0 +1,32 @@
+package building.enums;
+
+/**
+ * The way the building picks an elevator for a pending request.
+ * Only elevators moving in the direction of the request that have room are ever picked.
+ */
+public enum DispatchPolicy {
+  /**
+   * The elevator closest to the start floor.
+   */
+  NEAREST_CAR("Nearest car"),
+  /**
+   * The elevator with the fewest passengers assigned, the closest one on a tie.
+   */
+  LEAST_LOADED("Least loaded"),
+  /**
+   * All pending requests at once, giving the lowest total estimated time
+   * for the elevators to reach them.
+   */
+  BATCH_OPTIMAL("Batch optimal");
+
+  private final String display;
+
+  DispatchPolicy(String display) {
+    this.display = display;
+  }
+
+  @Override
+  public String toString() {
+    return this.display;
+  }
+}
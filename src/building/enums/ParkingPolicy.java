@@ -0,0 +1,30 @@
+package building.enums;
+
+/**
+ * Where idle elevators are kept, by cutting short the wait at the other end of their run.
+ */
+public enum ParkingPolicy {
+  /**
+   * Elevators wait the same time at the top and bottom.
+   */
+  NONE("None"),
+  /**
+   * Elevators hardly wait at the top, so they spend their time near the lobby.
+   */
+  LOBBY("Lobby"),
+  /**
+   * Elevators hardly wait at the bottom, so they spend their time near the top.
+   */
+  TOP("Top");
+
+  private final String display;
+
+  ParkingPolicy(String display) {
+    this.display = display;
+  }
+
+  @Override
+  public String toString() {
+    return this.display;
+  }
+}
@@ -0,0 +1,63 @@
+package building.enums;
+
+/**
+ * The kind of traffic a building is seeing, with the dispatch and parking
+ * policies that suit it.
+ */
+public enum TrafficMode {
+  /**
+   * Few requests of any kind.
+   */
+  QUIET("Quiet", DispatchPolicy.NEAREST_CAR, ParkingPolicy.NONE),
+  /**
+   * Most requests go up from the lobby, as in the morning. Loads are spread
+   * over the cars and empty cars hurry back to the lobby.
+   */
+  UP_PEAK("Up peak", DispatchPolicy.LEAST_LOADED, ParkingPolicy.LOBBY),
+  /**
+   * Most requests go down to the lobby, as in the evening. Empty cars hurry
+   * back up to where the passengers are.
+   */
+  DOWN_PEAK("Down peak", DispatchPolicy.NEAREST_CAR, ParkingPolicy.TOP),
+  /**
+   * Many requests both to and from the lobby, as around lunch.
+   */
+  LUNCH("Lunch", DispatchPolicy.LEAST_LOADED, ParkingPolicy.NONE),
+  /**
+   * Most requests go between floors other than the lobby.
+   */
+  INTERFLOOR("Interfloor", DispatchPolicy.NEAREST_CAR, ParkingPolicy.NONE);
+
+  private final String display;
+  private final DispatchPolicy dispatchPolicy;
+  private final ParkingPolicy parkingPolicy;
+
+  TrafficMode(String display, DispatchPolicy dispatchPolicy, ParkingPolicy parkingPolicy) {
+    this.display = display;
+    this.dispatchPolicy = dispatchPolicy;
+    this.parkingPolicy = parkingPolicy;
+  }
+
+  /**
+   * Gets the dispatch policy that suits this traffic.
+   *
+   * @return the dispatch policy.
+   */
+  public DispatchPolicy getDispatchPolicy() {
+    return this.dispatchPolicy;
+  }
+
+  /**
+   * Gets the parking policy that suits this traffic.
+   *
+   * @return the parking policy.
+   */
+  public ParkingPolicy getParkingPolicy() {
+    return this.parkingPolicy;
+  }
+
+  @Override
+  public String toString() {
+    return this.display;
+  }
+}
@@ -2,44 +2,89 @@ package elevator;
 
 
 import building.enums.Direction;
+import building.enums.ParkingPolicy;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import metrics.DoorEvent;
+import metrics.ElevatorMetrics;
+import metrics.TerminalWaitEvent;
+import scanerzus.PackedRequest;
 import scanerzus.Request;
+import scanerzus.RequestCache;
 
 
 /**
  * An implementation of the ElevatorStatus interface.
  */
 public class Elevator implements ElevatorInterface {
+  /************************************************************************
+   * The number of steps the door is open for, unless set otherwise.
+   ************************************************************************/
+  public static final int DEFAULT_DOOR_OPEN_TIME = 3;
+
+  /************************************************************************
+   * The number of steps spent at the top or bottom, unless set otherwise.
+   ************************************************************************/
+  public static final int DEFAULT_STOP_WAIT_TIME = 5;
+
+  /************************************************************************
+   * The number of passengers that get on or off in one step. The door stays
+   * open until everybody getting on or off has done so.
+   ************************************************************************/
+  public static final int BOARDINGS_PER_STEP = 2;
+
   /************************************************************************
    * static value used to initialize the elevator id.
    ************************************************************************/
-  private static int newElevatorId = 0;
+  private static final AtomicInteger newElevatorId = new AtomicInteger();
 
   /************************************************************************
    * The id of the elevator.This is read only.
    ************************************************************************/
-  private final int id = newElevatorId++;
+  private final int id = newElevatorId.getAndIncrement();
 
   /************************************************************************
    * The total number of floors in the building.
    ************************************************************************/
   private final int maxFloor;
 
+  /************************************************************************
+   * The lowest floor this elevator serves, where it waits and is parked.
+   ************************************************************************/
+  private final int lowestFloor;
+
+  /************************************************************************
+   * The highest floor this elevator serves, where it waits before going down.
+   ************************************************************************/
+  private final int highestFloor;
+
   /************************************************************************
    * The maximum number of people that can fit in the elevator.
    ************************************************************************/
   private final int maxOccupancy;
 
   /************************************************************************
-   * The number of steps that the door is open for.
+   * The number of steps that the door is open for, the scale of adaptive dwell.
    ************************************************************************/
-  @SuppressWarnings("FieldCanBeLocal")
-  private final int doorOpenTimeTotal = 3;
+  private int doorOpenTimeTotal = DEFAULT_DOOR_OPEN_TIME;
 
   /************************************************************************
    * The number of steps that the elevator will wait at the top or bottom.
    ************************************************************************/
-  private final int stopWaitTimeTotal = 5;
+  private int stopWaitTimeTotal = DEFAULT_STOP_WAIT_TIME;
+
+  /************************************************************************
+   * True if the door stays open as long as the passengers at a stop need.
+   ************************************************************************/
+  private boolean adaptiveDwell;
+
+  /************************************************************************
+   * Which end of the run the elevator spends its idle time at.
+   ************************************************************************/
+  private ParkingPolicy parkingPolicy = ParkingPolicy.NONE;
 
   /************************************************************************
    * The class variables that change as the elevator runs.
@@ -80,9 +125,69 @@ public class Elevator implements ElevatorInterface {
    ************************************************************************/
   private final boolean[] floorRequests; // true if there is a request for the floor.
 
+  /************************************************************************
+   * The stops asked for from inside the car, where riders get off.
+   ************************************************************************/
+  private final boolean[] dropOffStops;
+
+  /************************************************************************
+   * The stops asked for from the halls, by passengers going up and going down.
+   ************************************************************************/
+  private final boolean[] upPickupStops;
+  private final boolean[] downPickupStops;
+
+  /************************************************************************
+   * The number of floors that are set in floorRequests, which is set wherever
+   * there is a drop-off or a pickup going either way.
+   ************************************************************************/
+  private int stopCount;
+
+  /**
+   * Changes whenever the plan of the elevator changes in a way its regular
+   * movement does not account for, such as a new stop or new door timing.
+   */
+  private int planVersion;
+
 
   private boolean outOfService;  // start must be issued on the elevator to start it.
 
+  /************************************************************************
+   * How fast the elevator moves between floors.
+   ************************************************************************/
+  private TravelModel travelModel = TravelModel.ONE_FLOOR_PER_STEP;
+
+  /************************************************************************
+   * The floors moved in the last step, 0 when the elevator is at rest.
+   ************************************************************************/
+  private int speed;
+
+  /************************************************************************
+   * The landings the elevator picks passengers up from, shared with the
+   * other elevators of its bank, and their queues.
+   ************************************************************************/
+  private Landings landings;
+  private PassengerPool waiting;
+
+  /************************************************************************
+   * The passengers on board, queued by the floor they get off at.
+   ************************************************************************/
+  private final PassengerPool riding;
+
+  /************************************************************************
+   * Told when passengers get on and off, may be null.
+   ************************************************************************/
+  private RideListener rideListener;
+
+  /************************************************************************
+   * The shared canonical requests used when reporting stops.
+   ************************************************************************/
+  private final RequestCache requestCache;
+
+  /************************************************************************
+   * The counters read by the monitoring beans.
+   ************************************************************************/
+  private final ElevatorMetrics metrics = new ElevatorMetrics();
+
 
   /**
    * The constructor for this elevator.
@@ -97,8 +202,42 @@ public class Elevator implements ElevatorInterface {
    * @throws IllegalArgumentException if the maxFloor or maxOccupancy is out of range
    */
   public Elevator(int maxFloor, int maxOccupancy) {
-    if (maxFloor < 3 || maxFloor > 30) {
-      throw new IllegalArgumentException("maxFloor must be between 3 and 30");
+    this(maxFloor, maxOccupancy, null);
+  }
+
+  /**
+   * The constructor for this elevator that shares the request cache of its building.
+   *
+   * @param maxFloor     the total number of floors in the building
+   * @param maxOccupancy the maximum number of people that can fit in the elevator
+   * @param requestCache the canonical requests of the building, or null for a private cache
+   * @throws IllegalArgumentException if the maxFloor or maxOccupancy is out of range
+   */
+  public Elevator(int maxFloor, int maxOccupancy, RequestCache requestCache) {
+    this(checkMaxFloor(maxFloor), maxOccupancy, 0, maxFloor - 1, requestCache);
+  }
+
+  /**
+   * The constructor for an elevator in a bank that only serves part of a tall building.
+   * The elevator runs between its lowest and highest floor, and that is where it waits.
+   * It starts and is parked at its lowest floor.
+   * The city bylaws on building height do not apply to zoned buildings.
+   *
+   * @param maxFloor     the total number of floors in the building, at least 2
+   * @param maxOccupancy the maximum number of people that can fit in the elevator
+   *                     must be between 3 and 20 (fire code)
+   * @param lowestFloor  the lowest floor served
+   * @param highestFloor the highest floor served, above the lowest floor
+   * @param requestCache the canonical requests of the building, or null for a private cache
+   * @throws IllegalArgumentException if a floor or the maxOccupancy is out of range
+   */
+  public Elevator(int maxFloor, int maxOccupancy, int lowestFloor, int highestFloor,
+                  RequestCache requestCache) {
+    if (maxFloor < 2 || maxFloor > PackedRequest.MAX_FLOOR + 1) {
+      throw new IllegalArgumentException("maxFloor is out of range");
+    }
+    if (lowestFloor < 0 || highestFloor >= maxFloor || lowestFloor >= highestFloor) {
+      throw new IllegalArgumentException("served floors must be within the building");
     }
     if (maxOccupancy < 3 || maxOccupancy > 20) {
       throw new IllegalArgumentException("maxOccupancy must be between 3 and 20");
@@ -106,12 +245,35 @@ public class Elevator implements ElevatorInterface {
 
     this.maxFloor = maxFloor;
     this.maxOccupancy = maxOccupancy;
-    this.currentFloor = 0;
+    this.lowestFloor = lowestFloor;
+    this.highestFloor = highestFloor;
+    this.currentFloor = lowestFloor;
     this.direction = Direction.STOPPED;
     this.outOfService = true;
     this.floorRequests = new boolean[maxFloor];
+    this.dropOffStops = new boolean[maxFloor];
+    this.upPickupStops = new boolean[maxFloor];
+    this.downPickupStops = new boolean[maxFloor];
+    this.landings = new Landings(maxFloor);
+    this.landings.join(this);
+    this.waiting = this.landings.waiting();
+    this.riding = new PassengerPool(maxFloor);
     this.takingRequests = false;
+    this.requestCache = requestCache != null ? requestCache : new RequestCache(maxFloor);
+  }
 
+  /**
+   * Check the city bylaws on the height of the building.
+   *
+   * @param maxFloor the total number of floors in the building
+   * @return the number of floors, if it is allowed
+   * @throws IllegalArgumentException if the maxFloor is out of range
+   */
+  private static int checkMaxFloor(int maxFloor) {
+    if (maxFloor < 3 || maxFloor > 30) {
+      throw new IllegalArgumentException("maxFloor must be between 3 and 30");
+    }
+    return maxFloor;
   }
 
 
@@ -140,6 +302,196 @@ public class Elevator implements ElevatorInterface {
     return this.maxFloor;
   }
 
+  /**
+   * Get how fast the elevator moves between floors.
+   *
+   * @return the travel model.
+   */
+  public TravelModel getTravelModel() {
+    return this.travelModel;
+  }
+
+  /**
+   * Set how fast the elevator moves between floors.
+   * Door and wait times do not depend on the travel model.
+   *
+   * @param travelModel the travel model, not null.
+   * @throws IllegalArgumentException if the travel model is null.
+   */
+  public void setTravelModel(TravelModel travelModel) {
+    if (travelModel == null) {
+      throw new IllegalArgumentException("Travel model is null.");
+    }
+    this.travelModel = travelModel;
+    this.planVersion++;
+  }
+
+  /**
+   * Get the number of steps the door stays open at a stop.
+   *
+   * @return the door open time in steps.
+   */
+  public int getDoorOpenTimeTotal() {
+    return this.doorOpenTimeTotal;
+  }
+
+  /**
+   * Get the number of steps the elevator waits at the top or bottom of its run.
+   *
+   * @return the wait time in steps.
+   */
+  public int getStopWaitTimeTotal() {
+    return this.stopWaitTimeTotal;
+  }
+
+  /**
+   * Set how long the door stays open and how long the elevator waits at the
+   * top or bottom. A stop or wait that has already started keeps its timer.
+   *
+   * @param doorOpenTimeTotal the number of steps the door stays open, at least 1.
+   * @param stopWaitTimeTotal the number of steps to wait at the top or bottom, at least 1.
+   * @throws IllegalArgumentException if a time is less than 1.
+   */
+  public void setDoorTiming(int doorOpenTimeTotal, int stopWaitTimeTotal) {
+    if (doorOpenTimeTotal < 1 || stopWaitTimeTotal < 1) {
+      throw new IllegalArgumentException("Door and wait times must be at least 1 step.");
+    }
+    this.doorOpenTimeTotal = doorOpenTimeTotal;
+    this.stopWaitTimeTotal = stopWaitTimeTotal;
+    this.planVersion++;
+  }
+
+  /**
+   * Check whether the door stays open as long as the passengers at a stop need.
+   *
+   * @return true if adaptive dwell is on.
+   */
+  public boolean isAdaptiveDwell() {
+    return this.adaptiveDwell;
+  }
+
+  /**
+   * Turn adaptive dwell on or off. Either way the door stays open for as long
+   * as the passengers getting on and off take, see {@link #BOARDINGS_PER_STEP}.
+   * Without adaptive dwell it is also open for at least the door open time.
+   * With it the door closes as soon as the passengers are through, after one
+   * step at a stop where nobody gets on or off.
+   *
+   * @param adaptiveDwell true to turn adaptive dwell on.
+   */
+  public void setAdaptiveDwell(boolean adaptiveDwell) {
+    this.adaptiveDwell = adaptiveDwell;
+    this.planVersion++;
+  }
+
+  /**
+   * Get which end of the run the elevator spends its idle time at.
+   *
+   * @return the parking policy.
+   */
+  public ParkingPolicy getParkingPolicy() {
+    return this.parkingPolicy;
+  }
+
+  /**
+   * Set which end of the run the elevator spends its idle time at.
+   * The wait at the other end is cut to a single step.
+   *
+   * @param parkingPolicy the parking policy, not null.
+   * @throws IllegalArgumentException if the parking policy is null.
+   */
+  public void setParkingPolicy(ParkingPolicy parkingPolicy) {
+    if (parkingPolicy == null) {
+      throw new IllegalArgumentException("Parking policy is null.");
+    }
+    this.parkingPolicy = parkingPolicy;
+    this.planVersion++;
+  }
+
+  /**
+   * Set the listener told when passengers get on and off.
+   *
+   * @param rideListener the listener, or null for none.
+   */
+  public void setRideListener(RideListener rideListener) {
+    this.rideListener = rideListener;
+  }
+
+  /**
+   * Share the landings of a bank with the other elevators in it. The elevator
+   * stops boarding from the landings it had, and from then on picks up the
+   * passengers queued at the shared landings, whichever elevator of the bank
+   * their request was given to. Join the landings before giving the elevator
+   * any requests.
+   *
+   * @param landings the landings of the bank.
+   * @throws IllegalArgumentException if the landings are null or have another number of floors.
+   */
+  public void setLandings(Landings landings) {
+    if (landings == null || landings.getMaxFloor() != this.maxFloor) {
+      throw new IllegalArgumentException("Landings do not fit this elevator.");
+    }
+    this.landings.leave(this);
+    this.landings = landings;
+    this.landings.join(this);
+    this.waiting = landings.waiting();
+  }
+
+  /**
+   * Get the landings the elevator picks passengers up from.
+   *
+   * @return the landings.
+   */
+  public Landings getLandings() {
+    return this.landings;
+  }
+
+  /**
+   * Get the number of passengers waiting for this elevator and on board,
+   * see {@link #getPickupCount()}.
+   *
+   * @return the number of rides.
+   */
+  public int getRideCount() {
+    return this.getPickupCount() + this.riding.size();
+  }
+
+  /**
+   * Get the number of passengers on board.
+   *
+   * @return the number of riders.
+   */
+  public int getRiderCount() {
+    return this.riding.size();
+  }
+
+  /**
+   * Get the number of floors the elevator moved in the last step.
+   *
+   * @return the speed in floors per step, 0 if the elevator is at rest.
+   */
+  public int getSpeed() {
+    return this.speed;
+  }
+
+  /**
+   * Get the lowest floor this elevator serves.
+   *
+   * @return the lowest floor served.
+   */
+  public int getLowestFloor() {
+    return this.lowestFloor;
+  }
+
+  /**
+   * Get the highest floor this elevator serves.
+   *
+   * @return the highest floor served.
+   */
+  public int getHighestFloor() {
+    return this.highestFloor;
+  }
+
   /**
    * maxOccupancy getter.
    *
@@ -188,6 +540,148 @@ public class Elevator implements ElevatorInterface {
     return this.floorRequests;
   }
 
+  /**
+   * Return the floors riders on board have asked to get off at.
+   *
+   * @return the drop-off stops.
+   */
+  public boolean[] getDropOffStops() {
+    return this.dropOffStops;
+  }
+
+  /**
+   * Return the floors where passengers wait to be picked up going a way.
+   *
+   * @param direction the way the passengers are going, up or down.
+   * @return the pickup stops for that way.
+   */
+  public boolean[] getPickupStops(Direction direction) {
+    return direction == Direction.UP ? this.upPickupStops : this.downPickupStops;
+  }
+
+  /**
+   * Get the number of passengers waiting for this elevator to pick them up.
+   * With landings of its own that is everybody waiting at them. With landings
+   * shared with a bank it is the passengers at the landings it has a hall call at.
+   *
+   * @return the number of pickups.
+   */
+  public int getPickupCount() {
+    if (!this.landings.isShared()) {
+      return this.waiting.size();
+    }
+    int count = 0;
+    for (int floor = this.lowestFloor; floor <= this.highestFloor; floor++) {
+      if (this.upPickupStops[floor]) {
+        count += this.waiting.size(this.waitingQueue(floor, true));
+      }
+      if (this.downPickupStops[floor]) {
+        count += this.waiting.size(this.waitingQueue(floor, false));
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Get the number of passengers waiting at a landing to go a way,
+   * for whichever elevator of the bank picks them up.
+   *
+   * @param floor     the floor of the landing.
+   * @param direction the way the passengers are going, up or down.
+   * @return the number of passengers in the queue.
+   */
+  public int getWaitingCount(int floor, Direction direction) {
+    return this.waiting.size(this.waitingQueue(floor, direction == Direction.UP));
+  }
+
+  /**
+   * Copy the passengers waiting at a landing to go a way, the first to come first.
+   *
+   * @param floor     the floor of the landing.
+   * @param direction the way the passengers are going, up or down.
+   * @param rides     filled with the packed requests of the passengers, at least
+   *                  {@link #getWaitingCount(int, Direction)} long.
+   * @return the number of passengers copied.
+   */
+  public int copyWaiting(int floor, Direction direction, long[] rides) {
+    PassengerPool pool = this.waiting;
+    int count = 0;
+    for (int slot = pool.first(this.waitingQueue(floor, direction == Direction.UP));
+         slot >= 0; slot = pool.next(slot)) {
+      rides[count++] = pool.ride(slot);
+    }
+    return count;
+  }
+
+  /**
+   * Mark the floors the passengers waiting at a landing to go a way are going to.
+   * Passengers going nowhere are not marked.
+   *
+   * @param floor     the floor of the landing.
+   * @param direction the way the passengers are going, up or down.
+   * @param stops     the stops to mark, one for each floor.
+   */
+  public void markDestinations(int floor, Direction direction, boolean[] stops) {
+    PassengerPool pool = this.waiting;
+    for (int slot = pool.first(this.waitingQueue(floor, direction == Direction.UP));
+         slot >= 0; slot = pool.next(slot)) {
+      int endFloor = PackedRequest.endFloor(pool.ride(slot));
+      if (endFloor != floor) {
+        stops[endFloor] = true;
+      }
+    }
+  }
+
+  /**
+   * Get the number of steps the door stays open for.
+   *
+   * @return the steps left on the door timer.
+   */
+  public int getDoorOpenTimeLeft() {
+    return this.doorOpenTimeLeft;
+  }
+
+  /**
+   * Get the number of steps left to wait at the top or bottom.
+   *
+   * @return the steps left on the end of run timer.
+   */
+  public int getStopWaitTimeLeft() {
+    return this.stopWaitTimeLeft;
+  }
+
+  /**
+   * Get the number of floors the elevator has been asked to stop at.
+   *
+   * @return the number of stop requests.
+   */
+  public int getStopCount() {
+    return this.stopCount;
+  }
+
+  /**
+   * Get the version of the plan of the elevator. The version changes whenever
+   * a stop is added, the stops are cleared, a passenger joins or leaves a
+   * landing the elevator has a hall call at, the door timing, travel model or
+   * parking policy changes, or a stop takes longer or is passed by in a way
+   * the door timing and travel model do not predict. While it stays the same
+   * the elevator keeps to the plan it had.
+   *
+   * @return the plan version.
+   */
+  public int getPlanVersion() {
+    return this.planVersion;
+  }
+
+  /**
+   * Get the counters of this elevator.
+   *
+   * @return the metrics of the elevator.
+   */
+  public ElevatorMetrics getMetrics() {
+    return this.metrics;
+  }
+
   /* ***********************************************************************
    * The following methods are the methods for the ElevatorStatus interface.
    *
@@ -214,6 +708,7 @@ public class Elevator implements ElevatorInterface {
     this.doorOpenTimeLeft = 0;
     this.stopWaitTimeLeft = this.stopWaitTimeTotal;
     this.direction = Direction.UP;
+    this.speed = 0;
   }
 
 
@@ -230,6 +725,7 @@ public class Elevator implements ElevatorInterface {
       this.stepOutOfService();
       return;
     }
+    this.metrics.recordStep(this.stopCount > 0 || !this.doorClosed);
 
     // If the door is open we call the stepDoorOpen function and return.
     if (!this.doorClosed) {
@@ -248,11 +744,33 @@ public class Elevator implements ElevatorInterface {
     // the door is closed, and we are not waiting at the top or bottom.
     // now we check to see if there is a request at this floor
     // We open the door and set the timer for 3 steps.
-    if (this.floorRequests[this.currentFloor]) {
-      this.doorClosed = false;
-      this.doorOpenTimeLeft = this.doorOpenTimeTotal;
-      this.floorRequests[this.currentFloor] = false;
-      return;
+    // Hall calls are only answered going the way the passengers want to go.
+    // A car going too fast to stop here runs on and stops on its way back.
+    // A full car that nobody gets off from passes the floor by, and the
+    // passengers waiting there are handed back to find another elevator.
+    boolean up = this.direction != Direction.DOWN;
+    if (this.stopsAt(this.currentFloor, up) && this.isFull()
+        && !this.hasRiderFor(this.currentFloor)) {
+      this.refusePickups(this.currentFloor, up);
+      this.clearServedStops(this.currentFloor, up);
+      this.planVersion++;
+    }
+    if (this.stopsAt(this.currentFloor, up)) {
+      if (this.travelModel.canStop(this.speed)) {
+        this.speed = 0;
+        this.doorClosed = false;
+        this.clearServedStops(this.currentFloor, up);
+        this.metrics.recordDoorCycle();
+        DoorEvent.commit(this.id, this.currentFloor, true);
+        int movers = this.exchangeRiders(this.currentFloor, up);
+        this.doorOpenTimeLeft = this.adaptiveDwell ? this.adaptiveDoorOpenTime(movers)
+            : Math.max(this.doorOpenTimeTotal, transferTime(movers));
+        if (this.doorOpenTimeLeft != this.doorOpenTimeTotal) {
+          this.planVersion++;
+        }
+        return;
+      }
+      this.planVersion++;
     }
 
     // We are not out of service
@@ -265,10 +783,13 @@ public class Elevator implements ElevatorInterface {
     // and the direction is down
     // we need to set the direction to up
     // we set the timer to this.stopWaitTimeTotal
-    if (this.currentFloor == 0 && this.direction == Direction.DOWN) {
+    if (this.currentFloor == this.lowestFloor && this.direction == Direction.DOWN) {
       this.direction = Direction.STOPPED;
-      this.stopWaitTimeLeft = this.stopWaitTimeTotal;
+      this.stopWaitTimeLeft = this.parkingPolicy == ParkingPolicy.TOP ? 1
+          : this.stopWaitTimeTotal;
       this.takingRequests = true;
+      this.rearmPickups();
+      TerminalWaitEvent.commit(this.id, this.currentFloor, this.stopWaitTimeLeft);
       return;
     }
 
@@ -276,10 +797,13 @@ public class Elevator implements ElevatorInterface {
     // and the direction is up
     // we need to set the direction to down
     // we set the timer to this.stopWaitTimeTotal
-    if (this.currentFloor == this.maxFloor - 1 && this.direction == Direction.UP) {
+    if (this.currentFloor == this.highestFloor && this.direction == Direction.UP) {
       this.direction = Direction.STOPPED;
-      this.stopWaitTimeLeft = this.stopWaitTimeTotal;
+      this.stopWaitTimeLeft = this.parkingPolicy == ParkingPolicy.LOBBY ? 1
+          : this.stopWaitTimeTotal;
       this.takingRequests = true;
+      this.rearmPickups();
+      TerminalWaitEvent.commit(this.id, this.currentFloor, this.stopWaitTimeLeft);
       return;
     }
 
@@ -290,11 +814,85 @@ public class Elevator implements ElevatorInterface {
     // we are not at the top or the bottom
     // we need to move the elevator in the direction it is currently moving.
 
-    int floorIncrement = 1;
     if (this.direction == Direction.UP) {
-      this.currentFloor += floorIncrement;
+      this.travel(this.highestFloor);
     } else if (this.direction == Direction.DOWN) {
-      this.currentFloor -= floorIncrement;
+      this.travel(this.lowestFloor);
+    }
+  }
+
+  /**
+   * Move the elevator towards the end of its run.
+   * The car heads for the nearest stop ahead that it can still come to rest at,
+   * or for the end of the run if there is none, as fast as the travel model allows.
+   *
+   * @param endFloor the floor at the end of the run.
+   */
+  private void travel(int endFloor) {
+    int floorIncrement = endFloor > this.currentFloor ? 1 : -1;
+    int distance = Math.abs(endFloor - this.currentFloor);
+    int move;
+    if (this.travelModel.getCruiseSpeed() == 1) {
+      move = 1;
+    } else {
+      move = 0;
+      if (this.stopCount > 0) {
+        int floor = this.currentFloor;
+        for (int d = 1; d < distance; d++) {
+          floor += floorIncrement;
+          if (this.stopsAt(floor, floorIncrement > 0)) {
+            move = this.travelModel.nextMove(this.speed, d);
+            if (move > 0) {
+              distance = d;
+              break;
+            }
+          }
+        }
+      }
+      if (move == 0) {
+        // the end of the run can always be reached, the car never outruns it
+        move = this.travelModel.nextMove(this.speed, distance);
+      }
+    }
+    this.currentFloor += floorIncrement * move;
+    this.speed = move == distance ? 0 : move;
+    this.metrics.recordFloorsTraveled(move);
+  }
+
+  /**
+   * Take a step the fleet kernel worked out for the elevator, see
+   * {@link FleetStepKernel#store(int, Elevator)}. The step counts the door
+   * down, counts the wait at the top or bottom down, or moves the elevator
+   * one floor, the way {@link #step()} does when the elevator does not stop
+   * or turn at the end of its run.
+   *
+   * @param floor            the floor the elevator is at after the step.
+   * @param direction        the way the elevator goes after the step.
+   * @param doorOpenTimeLeft the steps left on the door timer after the step.
+   * @param stopWaitTimeLeft the steps left to wait at the top or bottom after the step.
+   */
+  void stepTo(int floor, Direction direction, int doorOpenTimeLeft, int stopWaitTimeLeft) {
+    this.metrics.recordStep(this.stopCount > 0 || !this.doorClosed);
+    if (!this.doorClosed) {
+      this.doorOpenTimeLeft = doorOpenTimeLeft;
+      if (doorOpenTimeLeft == 0) {
+        this.doorClosed = true;
+        DoorEvent.commit(this.id, this.currentFloor, false);
+      }
+      return;
+    }
+    if (this.stopWaitTimeLeft > 0) {
+      this.stopWaitTimeLeft = stopWaitTimeLeft;
+      if (stopWaitTimeLeft == 0) {
+        this.takingRequests = false;
+        this.direction = direction;
+      }
+      return;
+    }
+    if (floor != this.currentFloor) {
+      this.currentFloor = floor;
+      this.speed = floor == this.highestFloor || floor == this.lowestFloor ? 0 : 1;
+      this.metrics.recordFloorsTraveled(1);
     }
   }
 
@@ -308,15 +906,16 @@ public class Elevator implements ElevatorInterface {
    * then execute stepDoorOpen
    */
   private void stepOutOfService() {
-    if (this.currentFloor == 0 && !this.doorClosed) {
+    if (this.currentFloor == this.lowestFloor && !this.doorClosed) {
       return;
     }
 
     //
-    if (this.currentFloor == 0) {
+    if (this.currentFloor == this.lowestFloor) {
       this.doorClosed = false;
+      DoorEvent.commit(this.id, this.currentFloor, true);
       // we can clear the floor requests now
-      this.floorRequests[this.currentFloor] = false;
+      this.clearStop(this.currentFloor, true, true, true);
       // we can set the elevator to stopped.
       this.direction = Direction.STOPPED;
       return;
@@ -333,7 +932,7 @@ public class Elevator implements ElevatorInterface {
 
     // set the direction of the elevator to down.
     this.direction = Direction.DOWN;
-    this.currentFloor--;
+    this.travel(this.lowestFloor);
   }
 
   /**
@@ -343,6 +942,7 @@ public class Elevator implements ElevatorInterface {
     this.doorOpenTimeLeft--;
     if (this.doorOpenTimeLeft == 0) {
       this.doorClosed = true;
+      DoorEvent.commit(this.id, this.currentFloor, false);
     }
   }
 
@@ -353,9 +953,9 @@ public class Elevator implements ElevatorInterface {
     this.stopWaitTimeLeft--;
     if (this.stopWaitTimeLeft == 0) {
       this.takingRequests = false;
-      if (this.currentFloor == 0) {
+      if (this.currentFloor == this.lowestFloor) {
         this.direction = Direction.UP;
-      } else if (this.currentFloor == this.maxFloor - 1) {
+      } else if (this.currentFloor == this.highestFloor) {
         this.direction = Direction.DOWN;
       }
     }
@@ -372,7 +972,7 @@ public class Elevator implements ElevatorInterface {
    */
   @Override
   public void processRequests(List<Request> requests) throws IllegalStateException {
-    if (this.currentFloor != 0 && this.currentFloor != this.maxFloor - 1) {
+    if (this.currentFloor != this.lowestFloor && this.currentFloor != this.highestFloor) {
       throw new IllegalStateException("Elevator cannot process requests "
           + "unless it is at the bottom or top floor.");
     }
@@ -382,9 +982,9 @@ public class Elevator implements ElevatorInterface {
     }
 
     this.processStopRequests(requests);
-    if (this.currentFloor == 0) {
+    if (this.currentFloor == this.lowestFloor) {
       this.direction = Direction.UP;
-    } else if (this.currentFloor == this.maxFloor - 1) {
+    } else if (this.currentFloor == this.highestFloor) {
       this.direction = Direction.DOWN;
     }
     this.takingRequests = false;
@@ -402,6 +1002,7 @@ public class Elevator implements ElevatorInterface {
 
     this.outOfService = true;
     this.stopWaitTimeLeft = 0;
+    this.speed = 0;
   }
 
   /**
@@ -420,8 +1021,9 @@ public class Elevator implements ElevatorInterface {
     clearStopRequests();
 
     for (Request request : requests) {
-      this.floorRequests[request.getStartFloor()] = true;
-      this.floorRequests[request.getEndFloor()] = true;
+      long ride = PackedRequest.pack(request, 0);
+      this.setPickupStop(ride);
+      this.addWaiting(ride);
     }
     // if the elevator was waiting at the top or bottom
     // set the timer to 0 and we are off to the races.
@@ -429,11 +1031,330 @@ public class Elevator implements ElevatorInterface {
   }
 
   /**
-   * Clear the Floor Requests.
+   * Clear the Floor Requests, and forget the passengers.
    */
   private void clearStopRequests() {
     for (int i = 0; i < this.maxFloor; i++) {
       this.floorRequests[i] = false;
+      this.dropOffStops[i] = false;
+      this.upPickupStops[i] = false;
+      this.downPickupStops[i] = false;
+    }
+    this.stopCount = 0;
+    this.planVersion++;
+    // passengers at shared landings are left for the rest of the bank
+    if (!this.landings.isShared()) {
+      this.waiting.clear();
+    }
+    this.riding.clear();
+  }
+
+  /**
+   * Let passengers off and on while the door is open at a floor.
+   * Riders get off first. Only passengers going the way the elevator goes
+   * get on, see {@link #boards(long, int, boolean)}. A passenger who gets on
+   * always gets a drop-off stop at their end floor, even if the elevator
+   * already stopped there before. Passengers who do not fit are refused,
+   * see {@link #refusePickups(int, boolean)}.
+   *
+   * @param floor the floor the door is open at.
+   * @param up    true if the elevator leaves the floor going up.
+   * @return the number of passengers that got on or off.
+   */
+  private int exchangeRiders(int floor, boolean up) {
+    int movers = 0;
+    while (this.riding.size(floor) > 0) {
+      long ride = this.riding.poll(floor);
+      movers++;
+      if (this.rideListener != null) {
+        this.rideListener.alighted(this, ride);
+      }
+    }
+    boolean leavingUp = this.leavesUp(floor, up);
+    movers += this.board(floor, this.waitingQueue(floor, leavingUp), up);
+    if (this.isTerminal(floor)) {
+      movers += this.board(floor, this.waitingQueue(floor, !leavingUp), up);
+    }
+    return movers;
+  }
+
+  /**
+   * Let the passengers of one landing queue on, first come first served,
+   * until the elevator is full.
+   *
+   * @param floor the floor the door is open at.
+   * @param queue the landing queue.
+   * @param up    true if the elevator leaves the floor going up.
+   * @return the number of passengers that got on.
+   */
+  private int board(int floor, int queue, boolean up) {
+    int movers = 0;
+    if (this.waiting.size(queue) == 0) {
+      return 0;
+    }
+    while (this.waiting.size(queue) > 0) {
+      if (this.isFull()) {
+        this.refusePickups(floor, up);
+        this.planVersion++;
+        // whoever is left is still in the round trip of the elevators called here
+        this.landings.changed(queue, this);
+        return movers;
+      }
+      long ride = this.waiting.poll(queue);
+      movers++;
+      if (this.rideListener != null) {
+        this.rideListener.boarded(this, ride);
+      }
+      int endFloor = PackedRequest.endFloor(ride);
+      if (endFloor == floor) {
+        if (this.rideListener != null) {
+          this.rideListener.alighted(this, ride);
+        }
+      } else {
+        this.riding.add(endFloor, ride);
+        // the drop-off is part of the plan the moment the pickup was, so
+        // arming it here does not change the plan version, unless the
+        // passenger was waiting for another elevator of the bank
+        if (!this.dropOffStops[endFloor] && this.landings.isShared()) {
+          this.planVersion++;
+        }
+        if (!this.floorRequests[endFloor]) {
+          this.stopCount++;
+          this.floorRequests[endFloor] = true;
+        }
+        this.dropOffStops[endFloor] = true;
+      }
+    }
+    this.landings.emptied(queue, this);
+    return movers;
+  }
+
+  /**
+   * Check whether a passenger on board gets off at a floor.
+   *
+   * @param floor the floor.
+   * @return true if a rider ends their ride at the floor.
+   */
+  private boolean hasRiderFor(int floor) {
+    return this.riding.size(floor) > 0;
+  }
+
+  /**
+   * Get the landing queue of the passengers waiting at a floor to go a way.
+   * A passenger going nowhere counts as going down.
+   *
+   * @param floor the floor of the landing.
+   * @param up    true for the passengers going up.
+   * @return the queue in the waiting pool.
+   */
+  private int waitingQueue(int floor, boolean up) {
+    return Landings.queue(floor, up);
+  }
+
+  private void addWaiting(long ride) {
+    this.landings.add(ride);
+  }
+
+  /**
+   * Check whether the elevator has a hall call at a floor for a way.
+   *
+   * @param floor the floor.
+   * @param up    true for the hall call going up.
+   * @return true if the elevator is to pick up there.
+   */
+  boolean hasPickup(int floor, boolean up) {
+    return up ? this.upPickupStops[floor] : this.downPickupStops[floor];
+  }
+
+  /**
+   * Note that the plan of the elevator changed, because the passengers at a
+   * landing it has a hall call at changed and with them the floors it goes to.
+   */
+  void planChanged() {
+    this.planVersion++;
+  }
+
+  /**
+   * Cancel a hall call another elevator of the bank has answered.
+   *
+   * @param floor the floor.
+   * @param up    true for the hall call going up.
+   */
+  void cancelPickup(int floor, boolean up) {
+    if (this.hasPickup(floor, up)) {
+      this.clearStop(floor, false, up, !up);
+      this.planVersion++;
+    }
+  }
+
+  /**
+   * Work out which way the elevator leaves a floor: the way it is going,
+   * except at the ends of the run, where it turns.
+   */
+  private boolean leavesUp(int floor, boolean up) {
+    if (floor == this.lowestFloor) {
+      return true;
+    }
+    return floor != this.highestFloor && up;
+  }
+
+  private boolean isTerminal(int floor) {
+    return floor == this.lowestFloor || floor == this.highestFloor;
+  }
+
+  /**
+   * Check whether the elevator stops at a floor going a way: it stops where
+   * a rider gets off, and where passengers wait to go the way it is going.
+   * At the ends of the run it stops for any passenger.
+   *
+   * @param floor the floor.
+   * @param up    true if the elevator is going up.
+   * @return true if the elevator stops at the floor.
+   */
+  private boolean stopsAt(int floor, boolean up) {
+    if (this.dropOffStops[floor]) {
+      return true;
+    }
+    if (this.isTerminal(floor)) {
+      return this.upPickupStops[floor] || this.downPickupStops[floor];
+    }
+    return up ? this.upPickupStops[floor] : this.downPickupStops[floor];
+  }
+
+  /**
+   * Clear the stops an elevator serves by opening its door at a floor.
+   *
+   * @param floor the floor.
+   * @param up    true if the elevator is going up.
+   */
+  private void clearServedStops(int floor, boolean up) {
+    boolean terminal = this.isTerminal(floor);
+    this.clearStop(floor, true, terminal || up, terminal || !up);
+  }
+
+  /**
+   * Hand back every passenger waiting at a floor to go the way the elevator
+   * goes to the ride listener, because the elevator is full. At the ends of
+   * the run that is everybody waiting there. They are handed back in the order
+   * they came. Passengers another elevator of the bank is coming for stay at
+   * the landing. An elevator without a ride listener keeps them and picks them
+   * up on a later visit.
+   *
+   * @param floor the floor the passengers are waiting at.
+   * @param up    true if the elevator leaves the floor going up.
+   */
+  private void refusePickups(int floor, boolean up) {
+    if (this.rideListener == null) {
+      return;
+    }
+    boolean leavingUp = this.leavesUp(floor, up);
+    this.refuseQueue(this.waitingQueue(floor, leavingUp));
+    if (this.isTerminal(floor)) {
+      this.refuseQueue(this.waitingQueue(floor, !leavingUp));
+    }
+  }
+
+  private void refuseQueue(int queue) {
+    if (this.waiting.size(queue) == 0 || this.landings.isCalledByAnother(queue, this)) {
+      return;
+    }
+    while (this.waiting.size(queue) > 0) {
+      this.rideListener.refused(this, this.waiting.poll(queue));
+    }
+    this.landings.emptied(queue, this);
+  }
+
+  /**
+   * Make sure every passenger still waiting for the elevator has a stop,
+   * so that passengers it was too full for are picked up on the next pass.
+   */
+  private void rearmPickups() {
+    if (this.landings.isShared()) {
+      // the passengers at shared landings are the bank's to come back for
+      return;
+    }
+    for (int floor = this.lowestFloor; floor <= this.highestFloor; floor++) {
+      if (this.waiting.size(this.waitingQueue(floor, true)) > 0) {
+        this.setStop(floor, false, true, false);
+      }
+      if (this.waiting.size(this.waitingQueue(floor, false)) > 0) {
+        this.setStop(floor, false, false, true);
+      }
+    }
+  }
+
+  /**
+   * Work out how long the door stays open with adaptive dwell: as long as
+   * the passengers take, which may be less than the door open time but
+   * never less than they need. A stop where nobody moves costs one step.
+   *
+   * @param movers the number of passengers getting on or off.
+   * @return the number of steps the door stays open.
+   */
+  private int adaptiveDoorOpenTime(int movers) {
+    return transferTime(movers);
+  }
+
+  /**
+   * Work out how long passengers take to get on and off: one step to open
+   * and close the door, and one more step for every {@link #BOARDINGS_PER_STEP}
+   * passengers.
+   *
+   * @param movers the number of passengers getting on or off.
+   * @return the number of steps.
+   */
+  private static int transferTime(int movers) {
+    return 1 + (movers + BOARDINGS_PER_STEP - 1) / BOARDINGS_PER_STEP;
+  }
+
+  /**
+   * Set the pickup stop of a passenger at their start floor, for the way they go.
+   *
+   * @param ride the packed request of the passenger.
+   */
+  private void setPickupStop(long ride) {
+    boolean up = PackedRequest.isUp(ride);
+    this.setStop(PackedRequest.startFloor(ride), false, up, !up);
+  }
+
+  /**
+   * Set stop requests at a floor, keeping the stop count and plan version up to date.
+   *
+   * @param floor      the floor to stop at.
+   * @param dropOff    true to set a drop-off.
+   * @param upPickup   true to set a pickup going up.
+   * @param downPickup true to set a pickup going down.
+   */
+  private void setStop(int floor, boolean dropOff, boolean upPickup, boolean downPickup) {
+    if (dropOff && !this.dropOffStops[floor] || upPickup && !this.upPickupStops[floor]
+        || downPickup && !this.downPickupStops[floor]) {
+      this.dropOffStops[floor] |= dropOff;
+      this.upPickupStops[floor] |= upPickup;
+      this.downPickupStops[floor] |= downPickup;
+      this.planVersion++;
+    }
+    if (!this.floorRequests[floor]) {
+      this.floorRequests[floor] = true;
+      this.stopCount++;
+    }
+  }
+
+  /**
+   * Clear stop requests at a floor, keeping the stop count up to date.
+   *
+   * @param floor      the floor.
+   * @param dropOff    true to clear the drop-off.
+   * @param upPickup   true to clear the pickup going up.
+   * @param downPickup true to clear the pickup going down.
+   */
+  private void clearStop(int floor, boolean dropOff, boolean upPickup, boolean downPickup) {
+    this.dropOffStops[floor] &= !dropOff;
+    this.upPickupStops[floor] &= !upPickup;
+    this.downPickupStops[floor] &= !downPickup;
+    if (this.floorRequests[floor] && !this.dropOffStops[floor]
+        && !this.upPickupStops[floor] && !this.downPickupStops[floor]) {
+      this.floorRequests[floor] = false;
+      this.stopCount--;
     }
   }
 
@@ -480,21 +1401,44 @@ public class Elevator implements ElevatorInterface {
 
   // Add a request to the elevator.
   public void addRequest(Request request) {
-    this.floorRequests[request.getStartFloor()] = true;
-    this.floorRequests[request.getEndFloor()] = true;
+    this.addRequest(request.getStartFloor(), request.getEndFloor());
+  }
+
+  /**
+   * Add a request to the elevator without going through a Request object.
+   *
+   * @param startFloor the floor to pick up at.
+   * @param endFloor   the floor to drop off at.
+   */
+  public void addRequest(int startFloor, int endFloor) {
+    this.addRequest(PackedRequest.pack(startFloor, endFloor, 0));
+  }
+
+  /**
+   * Add a packed request to the elevator, keeping the tick it arrived at the building
+   * so that the ride listener can tell how long the passenger waited.
+   *
+   * @param ride the packed request.
+   */
+  public void addRequest(long ride) {
+    this.setPickupStop(ride);
+    this.addWaiting(ride);
   }
 
   /** Get how many people are in the elevator.
    * @return the number of people in the elevator.
    */
   public int getNumberOfPeople() {
-    int count = 0;
-    for (boolean request : this.floorRequests) {
-      if (request) {
-        count++;
-      }
-    }
-    return count;
+    return this.riding.size();
+  }
+
+  /**
+   * Check whether the elevator has no room for another passenger.
+   *
+   * @return true if the elevator holds its maximum occupancy.
+   */
+  public boolean isFull() {
+    return this.riding.size() >= this.maxOccupancy;
   }
 
   public int getId() {
@@ -513,7 +1457,7 @@ public class Elevator implements ElevatorInterface {
     Request[] requests = new Request[this.floorRequests.length];
     for (int i = 0; i < this.floorRequests.length; i++) {
       if (this.floorRequests[i]) {
-        requests[i] = new Request(i, i);
+        requests[i] = this.requestCache.get(i, i);
       }
     }
     return requests;
@@ -522,4 +1466,136 @@ public class Elevator implements ElevatorInterface {
   public boolean getStatus() {
     return this.outOfService;
   }
+
+  /**
+   * Write the state of the elevator that changes as it runs.
+   * The floors and occupancy are fixed at construction and are not written,
+   * and neither are the passengers waiting at its landings, see
+   * {@link Landings#writeState(DataOutput)}.
+   *
+   * @param out the output to write to.
+   * @throws IOException if the state cannot be written.
+   */
+  public void writeState(DataOutput out) throws IOException {
+    out.writeInt(this.currentFloor);
+    out.writeByte(this.direction.ordinal());
+    out.writeBoolean(this.doorClosed);
+    out.writeInt(this.doorOpenTimeLeft);
+    out.writeInt(this.stopWaitTimeLeft);
+    out.writeInt(this.speed);
+    out.writeInt(this.doorOpenTimeTotal);
+    out.writeInt(this.stopWaitTimeTotal);
+    out.writeBoolean(this.adaptiveDwell);
+    out.writeByte(this.parkingPolicy.ordinal());
+    out.writeBoolean(this.outOfService);
+    out.writeBoolean(this.takingRequests);
+    writeStops(out, this.dropOffStops);
+    writeStops(out, this.upPickupStops);
+    writeStops(out, this.downPickupStops);
+    writeRides(out, this.riding);
+  }
+
+  // pack the stop requests eight floors to a byte
+  private static void writeStops(DataOutput out, boolean[] stops) throws IOException {
+    for (int i = 0; i < stops.length; i += 8) {
+      int bits = 0;
+      for (int j = 0; j < 8 && i + j < stops.length; j++) {
+        if (stops[i + j]) {
+          bits |= 1 << j;
+        }
+      }
+      out.writeByte(bits);
+    }
+  }
+
+  private static void readStops(DataInput in, boolean[] stops) throws IOException {
+    for (int i = 0; i < stops.length; i += 8) {
+      int bits = in.readUnsignedByte();
+      for (int j = 0; j < 8 && i + j < stops.length; j++) {
+        stops[i + j] = (bits & (1 << j)) != 0;
+      }
+    }
+  }
+
+  // the queues are written one after the other, so each keeps its order
+  private static void writeRides(DataOutput out, PassengerPool pool) throws IOException {
+    out.writeInt(pool.size());
+    for (int queue = 0; queue < pool.queues(); queue++) {
+      for (int slot = pool.first(queue); slot >= 0; slot = pool.next(slot)) {
+        out.writeLong(pool.ride(slot));
+      }
+    }
+  }
+
+  private int readRideCount(DataInput in) throws IOException {
+    int size = in.readInt();
+    if (size < 0) {
+      throw new IOException("Elevator state does not fit this elevator.");
+    }
+    return size;
+  }
+
+  private long readRide(DataInput in) throws IOException {
+    long ride = in.readLong();
+    if (PackedRequest.startFloor(ride) >= this.maxFloor
+        || PackedRequest.endFloor(ride) >= this.maxFloor) {
+      throw new IOException("Elevator state does not fit this elevator.");
+    }
+    return ride;
+  }
+
+  /**
+   * Read back the state written by {@link #writeState(DataOutput)}.
+   * The elevator must have been built with the same number of floors.
+   *
+   * @param in the input to read from.
+   * @throws IOException if the state cannot be read or does not fit this elevator.
+   */
+  public void readState(DataInput in) throws IOException {
+    int floor = in.readInt();
+    int directionIndex = in.readByte();
+    if (floor < 0 || floor >= this.maxFloor
+        || directionIndex < 0 || directionIndex >= Direction.values().length) {
+      throw new IOException("Elevator state does not fit this elevator.");
+    }
+    this.currentFloor = floor;
+    this.direction = Direction.values()[directionIndex];
+    this.doorClosed = in.readBoolean();
+    this.doorOpenTimeLeft = in.readInt();
+    this.stopWaitTimeLeft = in.readInt();
+    this.speed = in.readInt();
+    if (this.speed < 0 || this.speed > this.travelModel.getCruiseSpeed()) {
+      throw new IOException("Elevator state does not fit this elevator.");
+    }
+    int doorOpenTime = in.readInt();
+    int stopWaitTime = in.readInt();
+    if (doorOpenTime < 1 || stopWaitTime < 1) {
+      throw new IOException("Elevator state does not fit this elevator.");
+    }
+    this.doorOpenTimeTotal = doorOpenTime;
+    this.stopWaitTimeTotal = stopWaitTime;
+    this.adaptiveDwell = in.readBoolean();
+    int parkingIndex = in.readByte();
+    if (parkingIndex < 0 || parkingIndex >= ParkingPolicy.values().length) {
+      throw new IOException("Elevator state does not fit this elevator.");
+    }
+    this.parkingPolicy = ParkingPolicy.values()[parkingIndex];
+    this.outOfService = in.readBoolean();
+    this.takingRequests = in.readBoolean();
+    this.clearStopRequests();
+    readStops(in, this.dropOffStops);
+    readStops(in, this.upPickupStops);
+    readStops(in, this.downPickupStops);
+    for (int i = 0; i < this.maxFloor; i++) {
+      this.floorRequests[i] = this.dropOffStops[i] || this.upPickupStops[i]
+          || this.downPickupStops[i];
+      if (this.floorRequests[i]) {
+        this.stopCount++;
+      }
+    }
+    for (int i = this.readRideCount(in); i > 0; i--) {
+      long ride = this.readRide(in);
+      this.riding.add(PackedRequest.endFloor(ride), ride);
+    }
+  }
 }
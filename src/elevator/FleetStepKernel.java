@@ -0,0 +1,394 @@
+package elevator;
+
+import building.enums.Direction;
+import building.enums.ParkingPolicy;
+import java.util.Arrays;
+import scanerzus.PackedRequest;
+
+/**
+ * This class steps the movement of a whole fleet of elevators at once.
+ * <p></p>
+ * The state of every car is kept in primitive arrays, one entry per car, and
+ * the stops of a car are kept as bit masks of up to 64 floors. A step works
+ * out every transition of the door timer, the wait timer and the move for all
+ * the cars in one pass, as masks combined with selects rather than as the
+ * branches of {@link Elevator#step()}. Each car is handled the same way with no
+ * calls and no objects, so the compiler can keep the loop free of branches and
+ * vectorize it where the hardware allows.
+ * <p></p>
+ * The kernel moves a car exactly the way {@link Elevator#step()} does for an
+ * elevator in service that travels one floor per step, see
+ * {@link #isSupported(Elevator)}. The passengers waiting at each landing are
+ * kept as a mask of the floors they are going to, and when a car stops there
+ * those destinations are armed as its drop-offs, the way the passengers
+ * boarding would arm them. The door is held for the door open time. That is
+ * the stop the elevator makes itself when its landings are its own, its dwell
+ * is fixed and everybody on board or waiting fits in the car and through the
+ * door in that time, see {@link #stopsExactly(Elevator)}. The riders,
+ * listeners, metrics and events of a stop stay with the elevator, so a caller
+ * that has them lets the elevator take a step the kernel stopped or turned
+ * the car in, see {@link #hasStopped(int)}, and hands it every other step,
+ * see {@link #store(int, Elevator)}.
+ */
+public final class FleetStepKernel {
+  /**
+   * The most floors a car in the kernel can serve.
+   */
+  public static final int MAX_FLOORS = 64;
+
+  private static final int UP = 1;
+  private static final int DOWN = -1;
+  private static final int STOPPED = 0;
+
+  private final int size;
+  private final int[] floor;
+  private final int[] direction;
+  private final int[] doorLeft;
+  private final int[] waitLeft;
+  private final int[] lowest;
+  private final int[] highest;
+  private final int[] doorTotal;
+  private final int[] waitAtBottom;
+  private final int[] waitAtTop;
+  private final long[] dropOffs;
+  private final long[] upPickups;
+  private final long[] downPickups;
+  // the destinations still to be armed, one mask for each landing of each car
+  private final long[] upDestinations;
+  private final long[] downDestinations;
+  private final boolean[] stopped;
+  private final boolean[] loaded;
+  private final int[] planVersion;
+  private long[] rides = new long[16];
+
+  /**
+   * The constructor for a kernel with room for a number of cars.
+   *
+   * @param size the number of cars.
+   * @throws IllegalArgumentException if the number of cars is negative.
+   */
+  public FleetStepKernel(int size) {
+    if (size < 0) {
+      throw new IllegalArgumentException("Number of cars must be at least 0.");
+    }
+    this.size = size;
+    this.floor = new int[size];
+    this.direction = new int[size];
+    this.doorLeft = new int[size];
+    this.waitLeft = new int[size];
+    this.lowest = new int[size];
+    this.highest = new int[size];
+    this.doorTotal = new int[size];
+    this.waitAtBottom = new int[size];
+    this.waitAtTop = new int[size];
+    this.dropOffs = new long[size];
+    this.upPickups = new long[size];
+    this.downPickups = new long[size];
+    this.upDestinations = new long[size * MAX_FLOORS];
+    this.downDestinations = new long[size * MAX_FLOORS];
+    this.stopped = new boolean[size];
+    this.loaded = new boolean[size];
+    this.planVersion = new int[size];
+  }
+
+  /**
+   * Gets the number of cars in the kernel.
+   *
+   * @return the number of cars.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Copies the state of an elevator into a car of the kernel. Where the
+   * passengers waiting at its landings are going is only copied for an
+   * elevator the kernel stops exactly, see {@link #stopsExactly(Elevator)}.
+   *
+   * @param car      the car, from 0 to size - 1.
+   * @param elevator the elevator.
+   * @throws IllegalArgumentException if the kernel does not cover the elevator.
+   */
+  public void load(int car, Elevator elevator) {
+    if (!isSupported(elevator)) {
+      throw new IllegalArgumentException("The kernel does not cover this elevator.");
+    }
+    floor[car] = elevator.getCurrentFloor();
+    Direction way = elevator.getDirection();
+    direction[car] = way == Direction.UP ? UP : way == Direction.DOWN ? DOWN : STOPPED;
+    doorLeft[car] = elevator.isDoorClosed() ? 0 : elevator.getDoorOpenTimeLeft();
+    waitLeft[car] = elevator.getStopWaitTimeLeft();
+    lowest[car] = elevator.getLowestFloor();
+    highest[car] = elevator.getHighestFloor();
+    doorTotal[car] = elevator.getDoorOpenTimeTotal();
+    ParkingPolicy parking = elevator.getParkingPolicy();
+    waitAtBottom[car] = parking == ParkingPolicy.TOP ? 1 : elevator.getStopWaitTimeTotal();
+    waitAtTop[car] = parking == ParkingPolicy.LOBBY ? 1 : elevator.getStopWaitTimeTotal();
+    dropOffs[car] = mask(elevator.getDropOffStops());
+    upPickups[car] = mask(elevator.getPickupStops(Direction.UP));
+    downPickups[car] = mask(elevator.getPickupStops(Direction.DOWN));
+    // the stops of other elevators are theirs to take, so their passengers arm nothing
+    int base = car * MAX_FLOORS;
+    Arrays.fill(upDestinations, base, base + MAX_FLOORS, 0L);
+    Arrays.fill(downDestinations, base, base + MAX_FLOORS, 0L);
+    if (stopsExactly(elevator)) {
+      for (int f = 0; f < elevator.getMaxFloor(); f++) {
+        upDestinations[base + f] = destinations(elevator, f, Direction.UP);
+        downDestinations[base + f] = destinations(elevator, f, Direction.DOWN);
+      }
+    }
+    stopped[car] = false;
+    loaded[car] = true;
+    planVersion[car] = elevator.getPlanVersion();
+  }
+
+  /**
+   * Checks whether a car still holds the state of an elevator: it was loaded
+   * from the elevator, the plan of the elevator has not changed since, and
+   * every step since was taken by the kernel and handed to the elevator.
+   *
+   * @param car      the car.
+   * @param elevator the elevator.
+   * @return true if the car need not be loaded again.
+   */
+  public boolean isCurrent(int car, Elevator elevator) {
+    return loaded[car] && planVersion[car] == elevator.getPlanVersion()
+        && floor[car] == elevator.getCurrentFloor()
+        && doorLeft[car] == (elevator.isDoorClosed() ? 0 : elevator.getDoorOpenTimeLeft())
+        && waitLeft[car] == elevator.getStopWaitTimeLeft()
+        && getDirection(car) == elevator.getDirection();
+  }
+
+  /**
+   * Forgets the elevator a car was loaded from, for example because the
+   * elevator took a step of its own.
+   *
+   * @param car the car.
+   */
+  public void unload(int car) {
+    loaded[car] = false;
+  }
+
+  /**
+   * Checks whether the kernel moves an elevator the way it moves itself, see
+   * the class comment.
+   *
+   * @param elevator the elevator.
+   * @return true if the kernel covers the elevator.
+   */
+  public static boolean isSupported(Elevator elevator) {
+    return !elevator.getStatus() && elevator.getMaxFloor() <= MAX_FLOORS
+        && elevator.getTravelModel().getCruiseSpeed() == 1;
+  }
+
+  /**
+   * Checks whether the kernel also stops an elevator the way it stops itself:
+   * it has landings of its own and fixed dwell, and its riders and the
+   * passengers waiting at its landings fit in the car and get through the
+   * door in the door open time.
+   *
+   * @param elevator the elevator.
+   * @return true if every step the kernel takes for the elevator is exact.
+   */
+  public static boolean stopsExactly(Elevator elevator) {
+    int people = elevator.getRiderCount() + elevator.getLandings().size();
+    return isSupported(elevator) && !elevator.isAdaptiveDwell()
+        && !elevator.getLandings().isShared() && people < elevator.getMaxOccupancy()
+        && people <= (elevator.getDoorOpenTimeTotal() - 1) * Elevator.BOARDINGS_PER_STEP;
+  }
+
+  /**
+   * Steps every car once.
+   */
+  public void step() {
+    for (int i = 0; i < size; i++) {
+      int f = floor[i];
+      int d = direction[i];
+      int door = doorLeft[i];
+      int wait = waitLeft[i];
+      long bit = 1L << f;
+      long drop = dropOffs[i];
+      long upCalls = upPickups[i];
+      long downCalls = downPickups[i];
+      int landing = i * MAX_FLOORS + f;
+
+      // the lanes each car is in, exactly one of them is true
+      boolean doorOpen = door > 0;
+      boolean waiting = !doorOpen && wait > 0;
+      boolean free = !doorOpen && !waiting;
+      boolean atLowest = f == lowest[i];
+      boolean atHighest = f == highest[i];
+      boolean terminal = atLowest || atHighest;
+      boolean up = d != DOWN;
+      long calls = (terminal || up ? upCalls : 0L) | (terminal || !up ? downCalls : 0L);
+      boolean stop = free && ((drop | calls) & bit) != 0;
+      boolean turnAtBottom = free && !stop && atLowest && d == DOWN;
+      boolean turnAtTop = free && !stop && atHighest && d == UP;
+      boolean move = free && !stop && !turnAtBottom && !turnAtTop;
+      boolean waitOver = waiting && wait == 1;
+      // a stop boards the landing of the way the car leaves, and both at the ends
+      boolean leavingUp = atLowest || !atHighest && up;
+      boolean boardUp = stop && (terminal || leavingUp);
+      boolean boardDown = stop && (terminal || !leavingUp);
+
+      // the door and wait timers count down, a stop opens the door
+      doorLeft[i] = stop ? doorTotal[i] : door - (doorOpen ? 1 : 0);
+      waitLeft[i] = turnAtBottom ? waitAtBottom[i] : turnAtTop ? waitAtTop[i]
+          : wait - (waiting ? 1 : 0);
+      // a stop serves the drop-off and the hall calls going the way the car goes,
+      // and the passengers who get on arm the drop-offs of where they are going
+      long served = stop ? bit : 0L;
+      long armed = (boardUp ? upDestinations[landing] : 0L)
+          | (boardDown ? downDestinations[landing] : 0L);
+      dropOffs[i] = drop & ~served | armed;
+      upPickups[i] = upCalls & ~(terminal || up ? served : 0L);
+      downPickups[i] = downCalls & ~(terminal || !up ? served : 0L);
+      upDestinations[landing] = boardUp ? 0L : upDestinations[landing];
+      downDestinations[landing] = boardDown ? 0L : downDestinations[landing];
+      // the car turns at the end of its run, and leaves when the wait is over
+      int turned = atLowest ? UP : atHighest ? DOWN : d;
+      direction[i] = turnAtBottom || turnAtTop ? STOPPED : waitOver ? turned : d;
+      floor[i] = f + (move ? d : 0);
+      stopped[i] = stop || turnAtBottom || turnAtTop;
+    }
+  }
+
+  /**
+   * Steps every car a number of times.
+   *
+   * @param steps the number of steps.
+   */
+  public void step(int steps) {
+    for (int s = 0; s < steps; s++) {
+      step();
+    }
+  }
+
+  /**
+   * Checks whether the last step stopped a car at a floor or turned it at
+   * the end of its run. Those are the steps where passengers get on and off
+   * and the elevator tells its listeners, so an elevator that has them takes
+   * such a step itself.
+   *
+   * @param car the car.
+   * @return true if the car stopped or turned in the last step.
+   */
+  public boolean hasStopped(int car) {
+    return stopped[car];
+  }
+
+  /**
+   * Hands the last step of a car to the elevator it was loaded from, which
+   * then counts the step and tells its listeners the door closed.
+   *
+   * @param car      the car.
+   * @param elevator the elevator, not yet stepped.
+   * @throws IllegalStateException if the car stopped or turned in the last step.
+   */
+  public void store(int car, Elevator elevator) {
+    if (stopped[car]) {
+      throw new IllegalStateException("The elevator takes a stop itself.");
+    }
+    elevator.stepTo(floor[car], getDirection(car), doorLeft[car], waitLeft[car]);
+  }
+
+  /**
+   * Gets the floor a car is at.
+   *
+   * @param car the car.
+   * @return the floor.
+   */
+  public int getFloor(int car) {
+    return floor[car];
+  }
+
+  /**
+   * Gets the way a car is going.
+   *
+   * @param car the car.
+   * @return the direction.
+   */
+  public Direction getDirection(int car) {
+    int d = direction[car];
+    return d == UP ? Direction.UP : d == DOWN ? Direction.DOWN : Direction.STOPPED;
+  }
+
+  /**
+   * Checks whether the door of a car is closed.
+   *
+   * @param car the car.
+   * @return true if the door is closed.
+   */
+  public boolean isDoorClosed(int car) {
+    return doorLeft[car] == 0;
+  }
+
+  /**
+   * Gets the steps left on the door timer of a car.
+   *
+   * @param car the car.
+   * @return the steps left, 0 if the door is closed.
+   */
+  public int getDoorOpenTimeLeft(int car) {
+    return doorLeft[car];
+  }
+
+  /**
+   * Gets the steps left to wait at the top or bottom for a car.
+   *
+   * @param car the car.
+   * @return the steps left.
+   */
+  public int getStopWaitTimeLeft(int car) {
+    return waitLeft[car];
+  }
+
+  /**
+   * Checks whether a car has any stop at a floor.
+   *
+   * @param car   the car.
+   * @param floor the floor.
+   * @return true if the car has a drop-off or a hall call at the floor.
+   */
+  public boolean hasStop(int car, int floor) {
+    return ((dropOffs[car] | upPickups[car] | downPickups[car]) & (1L << floor)) != 0;
+  }
+
+  /**
+   * Checks whether a car has a drop-off at a floor.
+   *
+   * @param car   the car.
+   * @param floor the floor.
+   * @return true if somebody on board, or armed to be, gets off at the floor.
+   */
+  public boolean hasDropOff(int car, int floor) {
+    return (dropOffs[car] & (1L << floor)) != 0;
+  }
+
+  private long destinations(Elevator elevator, int at, Direction way) {
+    int count = elevator.getWaitingCount(at, way);
+    if (count == 0) {
+      return 0L;
+    }
+    if (count > rides.length) {
+      rides = new long[Math.max(count, rides.length * 2)];
+    }
+    elevator.copyWaiting(at, way, rides);
+    long bits = 0;
+    for (int r = 0; r < count; r++) {
+      bits |= 1L << PackedRequest.endFloor(rides[r]);
+    }
+    // passengers going nowhere get off where they get on
+    return bits & ~(1L << at);
+  }
+
+  private static long mask(boolean[] stops) {
+    long bits = 0;
+    for (int f = 0; f < stops.length; f++) {
+      if (stops[f]) {
+        bits |= 1L << f;
+      }
+    }
+    return bits;
+  }
+}
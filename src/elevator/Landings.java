@@ -0,0 +1,237 @@
+package elevator;
+
+import building.enums.Direction;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import scanerzus.PackedRequest;
+
+/**
+ * This class holds the passengers waiting at the landings of a bank of
+ * elevators, one first come, first served queue for each floor and way.
+ * <p></p>
+ * Every elevator of the bank boards from the same queues. A passenger is
+ * queued at their landing when the building gives their request to one of
+ * the elevators, which answers the hall call, but whichever elevator of the
+ * bank opens its doors at the landing first going their way takes them, in
+ * the order they arrived. When a landing has been emptied the hall calls the
+ * other elevators had there are cancelled.
+ * <p></p>
+ * An elevator made on its own has landings of its own.
+ */
+public final class Landings {
+  private final int maxFloor;
+  private final PassengerPool waiting;
+  private final List<Elevator> cars;
+
+  /**
+   * The constructor for the empty landings of a building.
+   *
+   * @param maxFloor the total number of floors in the building.
+   * @throws IllegalArgumentException if the number of floors is not greater than 0.
+   */
+  public Landings(int maxFloor) {
+    if (maxFloor <= 0) {
+      throw new IllegalArgumentException("Number of floors must be greater than 0.");
+    }
+    this.maxFloor = maxFloor;
+    this.waiting = new PassengerPool(maxFloor * 2);
+    this.cars = new ArrayList<>();
+  }
+
+  /**
+   * Gets the total number of floors of the landings.
+   *
+   * @return the number of floors.
+   */
+  public int getMaxFloor() {
+    return maxFloor;
+  }
+
+  /**
+   * Gets the number of passengers waiting at every landing together.
+   *
+   * @return the number of passengers.
+   */
+  public int size() {
+    return waiting.size();
+  }
+
+  /**
+   * Gets the number of passengers waiting at a landing to go a way.
+   *
+   * @param floor     the floor of the landing.
+   * @param direction the way the passengers are going, up or down.
+   * @return the number of passengers in the queue.
+   */
+  public int getWaitingCount(int floor, Direction direction) {
+    return waiting.size(queue(floor, direction == Direction.UP));
+  }
+
+  /**
+   * Copies the passengers waiting at a landing to go a way, the first to come first.
+   *
+   * @param floor     the floor of the landing.
+   * @param direction the way the passengers are going, up or down.
+   * @param rides     filled with the packed requests of the passengers, at least
+   *                  {@link #getWaitingCount(int, Direction)} long.
+   * @return the number of passengers copied.
+   */
+  public int copyWaiting(int floor, Direction direction, long[] rides) {
+    int count = 0;
+    for (int slot = waiting.first(queue(floor, direction == Direction.UP));
+         slot >= 0; slot = waiting.next(slot)) {
+      rides[count++] = waiting.ride(slot);
+    }
+    return count;
+  }
+
+  /**
+   * Forgets every waiting passenger.
+   */
+  public void clear() {
+    waiting.clear();
+  }
+
+  /**
+   * Writes the waiting passengers to a checkpoint.
+   *
+   * @param out the output to write to.
+   * @throws IOException if the passengers cannot be written.
+   */
+  public void writeState(DataOutput out) throws IOException {
+    // the queues are written one after the other, so each keeps its order
+    out.writeInt(waiting.size());
+    for (int queue = 0; queue < waiting.queues(); queue++) {
+      for (int slot = waiting.first(queue); slot >= 0; slot = waiting.next(slot)) {
+        out.writeLong(waiting.ride(slot));
+      }
+    }
+  }
+
+  /**
+   * Reads back the passengers written by {@link #writeState(DataOutput)}.
+   * The landings must have the same number of floors.
+   *
+   * @param in the input to read from.
+   * @throws IOException if the passengers cannot be read or do not fit the landings.
+   */
+  public void readState(DataInput in) throws IOException {
+    waiting.clear();
+    int size = in.readInt();
+    if (size < 0) {
+      throw new IOException("Landing state does not fit these landings.");
+    }
+    for (int i = 0; i < size; i++) {
+      long ride = in.readLong();
+      if (PackedRequest.startFloor(ride) >= maxFloor || PackedRequest.endFloor(ride) >= maxFloor) {
+        throw new IOException("Landing state does not fit these landings.");
+      }
+      add(ride);
+    }
+  }
+
+  /**
+   * Gets the queue of the passengers waiting at a floor to go a way.
+   * A passenger going nowhere counts as going down.
+   *
+   * @param floor the floor of the landing.
+   * @param up    true for the passengers going up.
+   * @return the queue.
+   */
+  static int queue(int floor, boolean up) {
+    return floor * 2 + (up ? 0 : 1);
+  }
+
+  PassengerPool waiting() {
+    return waiting;
+  }
+
+  /**
+   * Queues a passenger at their landing, behind everybody who arrived before
+   * them, so a passenger handed back by a full elevator keeps their place.
+   *
+   * @param ride the packed request of the passenger.
+   */
+  void add(long ride) {
+    int queue = queue(PackedRequest.startFloor(ride), PackedRequest.isUp(ride));
+    int arrival = PackedRequest.arrivalTick(ride);
+    int last = waiting.last(queue);
+    if (last < 0 || PackedRequest.arrivalTick(waiting.ride(last)) <= arrival) {
+      waiting.add(queue, ride);
+    } else {
+      int behind = -1;
+      for (int slot = waiting.first(queue);
+           slot >= 0 && PackedRequest.arrivalTick(waiting.ride(slot)) <= arrival;
+           slot = waiting.next(slot)) {
+        behind = slot;
+      }
+      waiting.addAfter(queue, behind, ride);
+    }
+    changed(queue, null);
+  }
+
+  void join(Elevator car) {
+    cars.add(car);
+  }
+
+  void leave(Elevator car) {
+    cars.remove(car);
+  }
+
+  /**
+   * Checks whether more than one elevator boards from the landings.
+   *
+   * @return true if the landings are shared.
+   */
+  boolean isShared() {
+    return cars.size() > 1;
+  }
+
+  /**
+   * Checks whether an elevator other than the one given has a hall call at a landing.
+   *
+   * @param queue the queue of the landing.
+   * @param car   the elevator to leave out.
+   * @return true if another elevator is coming for the passengers.
+   */
+  boolean isCalledByAnother(int queue, Elevator car) {
+    for (Elevator other : cars) {
+      if (other != car && other.hasPickup(queue / 2, queue % 2 == 0)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Tells the elevators with a hall call at a landing that the passengers there
+   * changed, and so the floors they will be going to once they pick them up.
+   *
+   * @param queue the queue of the landing.
+   * @param car   the elevator that changed the landing, which knows, or null.
+   */
+  void changed(int queue, Elevator car) {
+    for (Elevator other : cars) {
+      if (other != car && other.hasPickup(queue / 2, queue % 2 == 0)) {
+        other.planChanged();
+      }
+    }
+  }
+
+  /**
+   * Cancels the hall calls the other elevators had at a landing that has been emptied.
+   *
+   * @param queue the queue of the landing.
+   * @param car   the elevator that emptied it.
+   */
+  void emptied(int queue, Elevator car) {
+    for (Elevator other : cars) {
+      if (other != car) {
+        other.cancelPickup(queue / 2, queue % 2 == 0);
+      }
+    }
+  }
+}
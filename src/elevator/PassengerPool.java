@@ -0,0 +1,207 @@
+package elevator;
+
+import java.util.Arrays;
+
+/**
+ * This class keeps passengers in numbered first in, first out queues.
+ * The landings of a bank keep one queue for each landing and way, for the
+ * passengers waiting there, see {@link Landings}, and an elevator keeps one
+ * queue for each floor, for the riders getting off there.
+ * <p></p>
+ * Every passenger is a packed ride in a slot of a pool of primitive arrays,
+ * and the queues are chains of slots. Slots that are given up are reused, and
+ * the pool only grows when every slot is taken, so a long run with millions of
+ * passengers allocates nothing once the pool has grown to the largest crowd.
+ */
+final class PassengerPool {
+  private static final int NONE = -1;
+  private static final int INITIAL_CAPACITY = 16;
+
+  private long[] rides;
+  private int[] next;
+  private int freeSlot;
+  private int usedSlots;
+  private final int[] head;
+  private final int[] tail;
+  private final int[] counts;
+  private int size;
+
+  /**
+   * This constructor is used to create a pool with empty queues.
+   *
+   * @param queues the number of queues.
+   */
+  PassengerPool(int queues) {
+    this.rides = new long[INITIAL_CAPACITY];
+    this.next = new int[INITIAL_CAPACITY];
+    this.freeSlot = NONE;
+    this.head = new int[queues];
+    this.tail = new int[queues];
+    this.counts = new int[queues];
+    Arrays.fill(this.head, NONE);
+    Arrays.fill(this.tail, NONE);
+  }
+
+  /**
+   * Adds a passenger to the back of a queue.
+   *
+   * @param queue the queue.
+   * @param ride  the packed ride of the passenger.
+   */
+  void add(int queue, long ride) {
+    int slot = takeSlot();
+    rides[slot] = ride;
+    next[slot] = NONE;
+    if (tail[queue] == NONE) {
+      head[queue] = slot;
+    } else {
+      next[tail[queue]] = slot;
+    }
+    tail[queue] = slot;
+    counts[queue]++;
+    size++;
+  }
+
+  /**
+   * Adds a passenger to a queue behind another.
+   *
+   * @param queue the queue.
+   * @param slot  the slot of the passenger to go behind, or -1 for the front.
+   * @param ride  the packed ride of the passenger.
+   */
+  void addAfter(int queue, int slot, long ride) {
+    if (slot == tail[queue]) {
+      // behind the last passenger, or into an empty queue
+      add(queue, ride);
+      return;
+    }
+    int added = takeSlot();
+    rides[added] = ride;
+    if (slot == NONE) {
+      next[added] = head[queue];
+      head[queue] = added;
+    } else {
+      next[added] = next[slot];
+      next[slot] = added;
+    }
+    counts[queue]++;
+    size++;
+  }
+
+  /**
+   * Removes the passenger at the front of a queue.
+   *
+   * @param queue the queue.
+   * @return the packed ride of the passenger.
+   * @throws IllegalStateException if the queue is empty.
+   */
+  long poll(int queue) {
+    int slot = head[queue];
+    if (slot == NONE) {
+      throw new IllegalStateException("Queue is empty.");
+    }
+    head[queue] = next[slot];
+    if (head[queue] == NONE) {
+      tail[queue] = NONE;
+    }
+    counts[queue]--;
+    size--;
+    next[slot] = freeSlot;
+    freeSlot = slot;
+    return rides[slot];
+  }
+
+  /**
+   * Gets the slot of the passenger at the front of a queue,
+   * to walk the queue with {@link #next(int)} and {@link #ride(int)}.
+   *
+   * @param queue the queue.
+   * @return the slot, or -1 if the queue is empty.
+   */
+  int first(int queue) {
+    return head[queue];
+  }
+
+  /**
+   * Gets the slot of the passenger at the back of a queue.
+   *
+   * @param queue the queue.
+   * @return the slot, or -1 if the queue is empty.
+   */
+  int last(int queue) {
+    return tail[queue];
+  }
+
+  /**
+   * Gets the slot of the passenger behind another in their queue.
+   *
+   * @param slot the slot of the passenger.
+   * @return the slot, or -1 if the passenger is the last in the queue.
+   */
+  int next(int slot) {
+    return next[slot];
+  }
+
+  /**
+   * Gets the packed ride of the passenger in a slot.
+   *
+   * @param slot the slot.
+   * @return the packed ride.
+   */
+  long ride(int slot) {
+    return rides[slot];
+  }
+
+  /**
+   * Gets the number of passengers in a queue.
+   *
+   * @param queue the queue.
+   * @return the number of passengers.
+   */
+  int size(int queue) {
+    return counts[queue];
+  }
+
+  /**
+   * Gets the number of passengers in every queue together.
+   *
+   * @return the number of passengers.
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Gets the number of queues.
+   *
+   * @return the number of queues.
+   */
+  int queues() {
+    return head.length;
+  }
+
+  /**
+   * Empties every queue, keeping the slots for the passengers to come.
+   */
+  void clear() {
+    Arrays.fill(head, NONE);
+    Arrays.fill(tail, NONE);
+    Arrays.fill(counts, 0);
+    freeSlot = NONE;
+    usedSlots = 0;
+    size = 0;
+  }
+
+  private int takeSlot() {
+    if (freeSlot != NONE) {
+      int slot = freeSlot;
+      freeSlot = next[slot];
+      return slot;
+    }
+    if (usedSlots == rides.length) {
+      rides = Arrays.copyOf(rides, usedSlots * 2);
+      next = Arrays.copyOf(next, usedSlots * 2);
+    }
+    return usedSlots++;
+  }
+}
@@ -0,0 +1,38 @@
+package elevator;
+
+/**
+ * A listener told when passengers get on and off an elevator.
+ * Rides are packed requests, see {@link scanerzus.PackedRequest}, stamped with
+ * the tick the request arrived at the building, so a listener that knows the
+ * current tick can work out waiting and trip times.
+ * Listeners are called from inside {@link Elevator#step()}.
+ */
+public interface RideListener {
+
+  /**
+   * Called when a passenger gets on at the start floor of their ride.
+   *
+   * @param elevator the elevator the passenger got on.
+   * @param ride     the packed request of the ride.
+   */
+  void boarded(Elevator elevator, long ride);
+
+  /**
+   * Called when a passenger gets off at the end floor of their ride.
+   *
+   * @param elevator the elevator the passenger got off.
+   * @param ride     the packed request of the ride.
+   */
+  void alighted(Elevator elevator, long ride);
+
+  /**
+   * Called when a passenger cannot get on at the start floor of their ride
+   * because the elevator is full. The elevator forgets the ride, so the
+   * listener has to find the passenger another elevator.
+   *
+   * @param elevator the elevator that was full.
+   * @param ride     the packed request of the ride.
+   */
+  default void refused(Elevator elevator, long ride) {
+  }
+}
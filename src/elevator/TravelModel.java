@@ -0,0 +1,127 @@
+package elevator;
+
+/**
+ * This class describes how fast an elevator car travels between floors.
+ * A car speeds up by the acceleration every step until it reaches its cruise
+ * speed, and slows down the same way before a stop, so long runs between
+ * distant stops take far fewer steps than one floor per step.
+ * Speeds are in floors per step. A car can only come to rest after a step in
+ * which it moved no more floors than the acceleration, so a car that is going
+ * too fast runs express past a floor that was asked for too late and stops
+ * there on its way back instead.
+ * <p></p>
+ * The default model moves one floor per step, which is how elevators always moved.
+ */
+public final class TravelModel {
+
+  /**
+   * The model where a car moves exactly one floor every step.
+   */
+  public static final TravelModel ONE_FLOOR_PER_STEP = new TravelModel(1, 1);
+
+  private final int cruiseSpeed;
+  private final int acceleration;
+  private final int[] stoppingDistance;
+
+  /**
+   * The constructor for a travel model.
+   *
+   * @param cruiseSpeed  the top speed of a car, in floors per step.
+   * @param acceleration how much the speed can change in one step, in floors per step.
+   * @throws IllegalArgumentException if a value is less than 1
+   *                                  or the acceleration is more than the cruise speed.
+   */
+  public TravelModel(int cruiseSpeed, int acceleration) {
+    if (cruiseSpeed < 1 || acceleration < 1 || acceleration > cruiseSpeed) {
+      throw new IllegalArgumentException("Cruise speed and acceleration must be at least 1, "
+          + "and the acceleration no more than the cruise speed.");
+    }
+    this.cruiseSpeed = cruiseSpeed;
+    this.acceleration = acceleration;
+    // the floors a car still covers, after moving at a speed, until it is at rest
+    this.stoppingDistance = new int[cruiseSpeed + 1];
+    for (int speed = acceleration + 1; speed <= cruiseSpeed; speed++) {
+      stoppingDistance[speed] = speed - acceleration + stoppingDistance[speed - acceleration];
+    }
+  }
+
+  /**
+   * Gets the top speed of a car.
+   *
+   * @return the cruise speed, in floors per step.
+   */
+  public int getCruiseSpeed() {
+    return cruiseSpeed;
+  }
+
+  /**
+   * Gets how much the speed of a car can change in one step.
+   *
+   * @return the acceleration, in floors per step.
+   */
+  public int getAcceleration() {
+    return acceleration;
+  }
+
+  /**
+   * Checks whether a car moving at a speed can stop at the floor it has reached.
+   *
+   * @param speed the floors moved in the last step, 0 if the car is at rest.
+   * @return true if the car can stop now.
+   */
+  public boolean canStop(int speed) {
+    return speed <= acceleration;
+  }
+
+  /**
+   * Checks whether a car moving at a speed can still stop at a floor ahead.
+   *
+   * @param speed    the floors moved in the last step, 0 if the car is at rest.
+   * @param distance the number of floors to the stop, at least 1.
+   * @return true if the car can come to rest exactly at the stop.
+   */
+  public boolean canReach(int speed, int distance) {
+    return nextMove(speed, distance) > 0;
+  }
+
+  /**
+   * Works out how many floors a car moves this step on its way to a stop.
+   * The car goes as fast as it can while still being able to stop at the stop.
+   *
+   * @param speed    the floors moved in the last step, 0 if the car is at rest.
+   * @param distance the number of floors to the stop, at least 1.
+   * @return the floors to move, or 0 if the car is too fast to stop there.
+   */
+  public int nextMove(int speed, int distance) {
+    int lowest = Math.max(1, speed - acceleration);
+    int highest = Math.min(Math.min(cruiseSpeed, speed + acceleration), distance);
+    for (int move = highest; move >= lowest; move--) {
+      if (stoppingDistance[move] <= distance - move) {
+        return move;
+      }
+    }
+    return 0;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof TravelModel)) {
+      return false;
+    }
+    TravelModel other = (TravelModel) o;
+    return cruiseSpeed == other.cruiseSpeed && acceleration == other.acceleration;
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * cruiseSpeed + acceleration;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("TravelModel[cruise=%d, acceleration=%d]", cruiseSpeed, acceleration);
+  }
+}
@@ -0,0 +1,333 @@
+package journal;
+
+import building.ElevatorBank;
+import building.TrafficModeDetector;
+import building.enums.DispatchPolicy;
+import elevator.TravelModel;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class reads a journal written by {@link RequestJournal} one record at a time.
+ * The file is streamed through a fixed size buffer, so journals of any length
+ * can be read without holding them in memory.
+ */
+public class JournalReader implements Closeable {
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private final FileChannel channel;
+  private final ByteBuffer buffer;
+  private final int numberOfFloors;
+  private final int numberOfElevators;
+  private final int elevatorCapacity;
+  private final TravelModel travelModel;
+  private final DispatchPolicy dispatchPolicy;
+  private final int[] doorOpenTimes;
+  private final int[] stopWaitTimes;
+  private final boolean[] adaptiveDwell;
+  private final long batchDispatchBudget;
+  private final boolean trafficModeDetection;
+  private int detectorWindow;
+  private int detectorHold;
+  private double detectorQuietRate;
+  private final List<ElevatorBank> banks;
+  private byte type;
+  private int elevatorIndex;
+  private int startFloor;
+  private int endFloor;
+  private boolean finished;
+
+  /**
+   * This constructor opens a journal and reads its header.
+   *
+   * @param file the journal file.
+   * @throws IOException if the file cannot be read or is not a journal.
+   */
+  public JournalReader(Path file) throws IOException {
+    this.channel = FileChannel.open(file, StandardOpenOption.READ);
+    this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    this.buffer.flip();
+    try {
+      require(RequestJournal.HEADER_SIZE);
+    } catch (EOFException e) {
+      channel.close();
+      throw new IOException("Not a journal file.", e);
+    }
+    if (buffer.getInt() != RequestJournal.MAGIC
+        || buffer.getShort() != RequestJournal.VERSION) {
+      channel.close();
+      throw new IOException("Not a journal file.");
+    }
+    this.numberOfFloors = buffer.getInt();
+    this.numberOfElevators = buffer.getInt();
+    this.elevatorCapacity = buffer.getInt();
+    int cruiseSpeed = buffer.getShort() & 0xFFFF;
+    int acceleration = buffer.getShort() & 0xFFFF;
+    int policyIndex = buffer.get();
+    this.batchDispatchBudget = buffer.getLong();
+    this.trafficModeDetection = buffer.get() != 0;
+    int bankCount = buffer.getShort() & 0xFFFF;
+    List<ElevatorBank> banks = new ArrayList<>(bankCount);
+    try {
+      this.travelModel = new TravelModel(cruiseSpeed, acceleration);
+      if (policyIndex < 0 || policyIndex >= DispatchPolicy.values().length
+          || batchDispatchBudget < 0 || numberOfElevators <= 0) {
+        throw new IOException("Journal header is corrupt.");
+      }
+      this.dispatchPolicy = DispatchPolicy.values()[policyIndex];
+      this.doorOpenTimes = new int[numberOfElevators];
+      this.stopWaitTimes = new int[numberOfElevators];
+      this.adaptiveDwell = new boolean[numberOfElevators];
+      for (int i = 0; i < numberOfElevators; i++) {
+        require(RequestJournal.DWELL_SIZE);
+        doorOpenTimes[i] = buffer.getShort() & 0xFFFF;
+        stopWaitTimes[i] = buffer.getShort() & 0xFFFF;
+        adaptiveDwell[i] = buffer.get() != 0;
+      }
+      if (trafficModeDetection) {
+        require(RequestJournal.DETECTOR_SIZE);
+        detectorWindow = buffer.getInt();
+        detectorHold = buffer.getInt();
+        detectorQuietRate = buffer.getDouble();
+        // throws if the detector settings are out of range
+        newTrafficModeDetector();
+      }
+      for (int i = 0; i < bankCount; i++) {
+        require(2);
+        byte[] name = new byte[buffer.getShort() & 0xFFFF];
+        require(name.length + 13);
+        buffer.get(name);
+        banks.add(new ElevatorBank(new String(name, StandardCharsets.UTF_8), buffer.getInt(),
+            buffer.getInt(), buffer.getInt(), buffer.get() != 0));
+      }
+    } catch (IOException | IllegalArgumentException e) {
+      channel.close();
+      throw new IOException("Not a journal file.", e);
+    }
+    this.banks = Collections.unmodifiableList(banks);
+    this.finished = false;
+  }
+
+  /**
+   * Moves to the next record.
+   *
+   * @return true if there was a record, false at the end of the journal.
+   * @throws IOException if the file cannot be read or a record is cut short.
+   */
+  public boolean next() throws IOException {
+    if (finished) {
+      return false;
+    }
+    if (!buffer.hasRemaining() && !fill()) {
+      return finish();
+    }
+    type = buffer.get();
+    switch (type) {
+      case RequestJournal.END:
+        return finish();
+      case RequestJournal.REQUEST:
+        require(4);
+        startFloor = buffer.getShort() & 0xFFFF;
+        endFloor = buffer.getShort() & 0xFFFF;
+        return true;
+      case RequestJournal.ASSIGN:
+        require(6);
+        elevatorIndex = buffer.getShort() & 0xFFFF;
+        startFloor = buffer.getShort() & 0xFFFF;
+        endFloor = buffer.getShort() & 0xFFFF;
+        return true;
+      case RequestJournal.TICK:
+      case RequestJournal.START:
+      case RequestJournal.STOP:
+      case RequestJournal.RESTART:
+      case RequestJournal.CLEAR:
+        return true;
+      default:
+        throw new IOException("Unknown journal record " + type + ".");
+    }
+  }
+
+  /**
+   * Gets the type of the current record.
+   *
+   * @return the type of the current record.
+   */
+  public JournalRecordType getType() {
+    return JournalRecordType.fromCode(type);
+  }
+
+  /**
+   * Checks whether the current record is a tick marker, without any lookup.
+   *
+   * @return true if the current record is a tick.
+   */
+  public boolean isTick() {
+    return type == RequestJournal.TICK;
+  }
+
+  /**
+   * Gets the elevator index of the current assignment record.
+   *
+   * @return the elevator index.
+   */
+  public int getElevatorIndex() {
+    return elevatorIndex;
+  }
+
+  /**
+   * Gets the start floor of the current request or assignment record.
+   *
+   * @return the start floor.
+   */
+  public int getStartFloor() {
+    return startFloor;
+  }
+
+  /**
+   * Gets the end floor of the current request or assignment record.
+   *
+   * @return the end floor.
+   */
+  public int getEndFloor() {
+    return endFloor;
+  }
+
+  /**
+   * Gets the number of floors of the journaled building.
+   *
+   * @return the number of floors.
+   */
+  public int getNumberOfFloors() {
+    return numberOfFloors;
+  }
+
+  /**
+   * Gets the number of elevators of the journaled building.
+   *
+   * @return the number of elevators.
+   */
+  public int getNumberOfElevators() {
+    return numberOfElevators;
+  }
+
+  /**
+   * Gets the elevator capacity of the journaled building.
+   *
+   * @return the elevator capacity.
+   */
+  public int getElevatorCapacity() {
+    return elevatorCapacity;
+  }
+
+  /**
+   * Gets the travel model of the elevators of the journaled building.
+   *
+   * @return the travel model.
+   */
+  public TravelModel getTravelModel() {
+    return travelModel;
+  }
+
+  /**
+   * Gets the dispatch policy of the journaled building.
+   *
+   * @return the dispatch policy.
+   */
+  public DispatchPolicy getDispatchPolicy() {
+    return dispatchPolicy;
+  }
+
+  /**
+   * Gets the number of steps the doors of an elevator stay open in the journaled building.
+   *
+   * @param elevatorIndex the index of the elevator.
+   * @return the door open time.
+   */
+  public int getDoorOpenTime(int elevatorIndex) {
+    return doorOpenTimes[elevatorIndex];
+  }
+
+  /**
+   * Gets the number of steps an elevator waits at the top and bottom in the journaled building.
+   *
+   * @param elevatorIndex the index of the elevator.
+   * @return the wait time.
+   */
+  public int getStopWaitTime(int elevatorIndex) {
+    return stopWaitTimes[elevatorIndex];
+  }
+
+  /**
+   * Checks whether an elevator of the journaled building uses adaptive dwell.
+   *
+   * @param elevatorIndex the index of the elevator.
+   * @return true if adaptive dwell was on.
+   */
+  public boolean isAdaptiveDwell(int elevatorIndex) {
+    return adaptiveDwell[elevatorIndex];
+  }
+
+  /**
+   * Gets how much work batch dispatch could do in one tick in the journaled building.
+   *
+   * @return the budget in relaxation steps.
+   */
+  public long getBatchDispatchBudget() {
+    return batchDispatchBudget;
+  }
+
+  /**
+   * Creates a traffic mode detector like the one the journaled building had.
+   *
+   * @return a fresh detector, or null if the building had none.
+   */
+  public TrafficModeDetector newTrafficModeDetector() {
+    if (!trafficModeDetection) {
+      return null;
+    }
+    return new TrafficModeDetector(detectorWindow, detectorHold, detectorQuietRate);
+  }
+
+  /**
+   * Gets the elevator banks of the journaled building.
+   *
+   * @return the banks, or an empty list for a building made without banks.
+   */
+  public List<ElevatorBank> getBanks() {
+    return banks;
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  private boolean finish() {
+    finished = true;
+    return false;
+  }
+
+  private void require(int bytes) throws IOException {
+    while (buffer.remaining() < bytes) {
+      if (!fill()) {
+        throw new EOFException("Journal record is cut short.");
+      }
+    }
+  }
+
+  private boolean fill() throws IOException {
+    buffer.compact();
+    int read = channel.read(buffer);
+    buffer.flip();
+    return read > 0;
+  }
+}
@@ -0,0 +1,36 @@
+package journal;
+
+/**
+ * This enum is used to represent the kinds of records in a journal.
+ */
+public enum JournalRecordType {
+  TICK(RequestJournal.TICK),
+  REQUEST(RequestJournal.REQUEST),
+  ASSIGN(RequestJournal.ASSIGN),
+  START(RequestJournal.START),
+  STOP(RequestJournal.STOP),
+  RESTART(RequestJournal.RESTART),
+  CLEAR(RequestJournal.CLEAR);
+
+  private final byte code;
+
+  JournalRecordType(byte code) {
+    this.code = code;
+  }
+
+  /**
+   * Gets the type for a record code.
+   *
+   * @param code the code written in the journal.
+   * @return the record type.
+   * @throws IllegalArgumentException if the code is unknown.
+   */
+  static JournalRecordType fromCode(byte code) {
+    for (JournalRecordType type : values()) {
+      if (type.code == code) {
+        return type;
+      }
+    }
+    throw new IllegalArgumentException("Unknown journal record " + code + ".");
+  }
+}
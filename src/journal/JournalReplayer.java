@@ -0,0 +1,143 @@
+package journal;
+
+import building.Building;
+import elevator.Elevator;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import scanerzus.RequestCache;
+
+/**
+ * This class replays a recorded journal into a fresh building.
+ * The same requests and commands are fed to the building between the same
+ * ticks as in the recorded run, so the building goes through exactly the
+ * same states and produces the same reports.
+ * Assignment records are not fed back, the building makes the same
+ * assignments by itself. Replay never builds reports, so it runs as fast
+ * as the building can step.
+ * <p></p>
+ * Elevator ids are handed out by the elevators themselves, so the ids in
+ * the reports of a replay differ from the recorded run. Everything else matches.
+ */
+public class JournalReplayer implements Closeable {
+  private final JournalReader reader;
+  private final Building building;
+  private final RequestCache requestCache;
+  private boolean finished;
+
+  /**
+   * This constructor opens a journal and creates the building it was recorded from.
+   *
+   * @param file the journal file.
+   * @throws IOException if the journal cannot be read.
+   */
+  public JournalReplayer(Path file) throws IOException {
+    this.reader = new JournalReader(file);
+    if (reader.getBanks().isEmpty()) {
+      this.building = new Building(reader.getNumberOfFloors(), reader.getNumberOfElevators(),
+          reader.getElevatorCapacity());
+    } else {
+      this.building = new Building(reader.getNumberOfFloors(), reader.getElevatorCapacity(),
+          reader.getBanks());
+    }
+    this.building.setTravelModel(reader.getTravelModel());
+    this.building.setDispatchPolicy(reader.getDispatchPolicy());
+    this.building.setTrafficModeDetector(reader.newTrafficModeDetector());
+    this.building.setBatchDispatchBudget(reader.getBatchDispatchBudget());
+    for (int i = 0; i < building.getNumberOfElevators(); i++) {
+      Elevator elevator = building.getElevators().get(i);
+      elevator.setDoorTiming(reader.getDoorOpenTime(i), reader.getStopWaitTime(i));
+      elevator.setAdaptiveDwell(reader.isAdaptiveDwell(i));
+    }
+    this.requestCache = building.getRequestCache();
+    this.finished = false;
+  }
+
+  /**
+   * Gets the building that is being replayed into.
+   *
+   * @return the building.
+   */
+  public Building getBuilding() {
+    return building;
+  }
+
+  /**
+   * Gets the tick the replay has reached.
+   *
+   * @return the current tick of the building.
+   */
+  public int getTick() {
+    return building.getTick();
+  }
+
+  /**
+   * Checks whether the whole journal has been replayed.
+   *
+   * @return true if there is nothing left to replay.
+   */
+  public boolean isFinished() {
+    return finished;
+  }
+
+  /**
+   * Replays the records up to and including the next tick.
+   * Records after the last tick of the journal are applied before returning false.
+   *
+   * @return true if the building was stepped, false if the journal has ended.
+   * @throws IOException if the journal cannot be read.
+   */
+  public boolean step() throws IOException {
+    while (reader.next()) {
+      if (reader.isTick()) {
+        building.step();
+        return true;
+      }
+      apply();
+    }
+    finished = true;
+    return false;
+  }
+
+  /**
+   * Replays until the building reaches the target tick or the journal ends.
+   *
+   * @param targetTick the tick to stop at.
+   * @return the tick that was reached.
+   * @throws IOException if the journal cannot be read.
+   */
+  public int fastForward(int targetTick) throws IOException {
+    while (building.getTick() < targetTick && step()) {
+      // keep stepping
+    }
+    return building.getTick();
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+
+  private void apply() {
+    switch (reader.getType()) {
+      case REQUEST:
+        building.addRequest(requestCache.get(reader.getStartFloor(), reader.getEndFloor()));
+        break;
+      case START:
+        building.startElevatorSystem();
+        break;
+      case STOP:
+        building.stopElevatorSystem();
+        break;
+      case RESTART:
+        building.restartElevatorSystem();
+        break;
+      case CLEAR:
+        building.clearRequests();
+        break;
+      default:
+        // assignments are made again by the building itself
+        break;
+    }
+  }
+}
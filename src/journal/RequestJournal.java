@@ -0,0 +1,334 @@
+package journal;
+
+import building.Building;
+import building.ElevatorBank;
+import building.TrafficModeDetector;
+import building.enums.DispatchPolicy;
+import elevator.Elevator;
+import elevator.TravelModel;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * This class is an append-only binary journal of what happens in a building.
+ * It records every accepted request, every dispatch assignment, a one byte
+ * marker for every tick, and the start, stop and restart commands.
+ * The file is written through a memory-mapped window that is moved forward
+ * as it fills up. Written pages belong to the operating system as soon as they
+ * are written, so they survive the JVM dying. They are only forced to the device
+ * when the window moves, when the journal is closed, and optionally every few
+ * ticks, because forcing is what makes journaling expensive at full speed.
+ * <p></p>
+ * The file starts with a header holding the size of the building, the travel model,
+ * dispatch policy and batch budget, the traffic mode detector, the door timing of
+ * every elevator and the layout of the elevator banks, where no banks means a plain
+ * building, followed by
+ * records made of a one byte type and a fixed payload of unsigned shorts.
+ * A zero type byte marks the end of the records, which is what an
+ * unfinished file ends with if the process dies before {@link #close()}.
+ */
+public class RequestJournal implements Closeable {
+  static final int MAGIC = 0x4642534A; // "FBSJ"
+  static final short VERSION = 7;
+  static final int HEADER_SIZE = 4 + 2 + 4 + 4 + 4 + 2 + 2 + 1 + 8 + 1 + 2;
+  static final int DETECTOR_SIZE = 4 + 4 + 8;
+  static final int DWELL_SIZE = 2 + 2 + 1;
+
+  static final byte END = 0;
+  static final byte TICK = 1;
+  static final byte REQUEST = 2;
+  static final byte ASSIGN = 3;
+  static final byte START = 4;
+  static final byte STOP = 5;
+  static final byte RESTART = 6;
+  static final byte CLEAR = 7;
+
+  private static final int MAX_RECORD_SIZE = 1 + 2 + 2 + 2;
+  private static final int DEFAULT_WINDOW_SIZE = 1 << 22;
+  private static final int DEFAULT_FLUSH_INTERVAL = 0;
+
+  private final FileChannel channel;
+  private final int windowSize;
+  private final int flushInterval;
+  private MappedByteBuffer window;
+  private long windowStart;
+  private int ticksSinceFlush;
+  private boolean closed;
+
+  /**
+   * This constructor creates a new journal file, replacing any file at the path.
+   *
+   * @param file              the file to write the journal to.
+   * @param numberOfFloors    the number of floors in the building.
+   * @param numberOfElevators the number of elevators in the building.
+   * @param elevatorCapacity  the capacity of the elevators in the building.
+   * @throws IOException if the file cannot be created or mapped.
+   */
+  public RequestJournal(Path file, int numberOfFloors, int numberOfElevators,
+                        int elevatorCapacity) throws IOException {
+    this(file, numberOfFloors, numberOfElevators, elevatorCapacity,
+        DEFAULT_WINDOW_SIZE, DEFAULT_FLUSH_INTERVAL);
+  }
+
+  /**
+   * This constructor creates a new journal file with a custom window size and flush interval.
+   *
+   * @param file              the file to write the journal to.
+   * @param numberOfFloors    the number of floors in the building.
+   * @param numberOfElevators the number of elevators in the building.
+   * @param elevatorCapacity  the capacity of the elevators in the building.
+   * @param windowSize        the number of bytes mapped at a time.
+   * @param flushInterval     the number of ticks between forced flushes, 0 for none.
+   * @throws IOException if the file cannot be created or mapped.
+   * @throws IllegalArgumentException if the window is too small or the interval negative.
+   */
+  public RequestJournal(Path file, int numberOfFloors, int numberOfElevators,
+                        int elevatorCapacity, int windowSize, int flushInterval)
+      throws IOException {
+    this(file, numberOfFloors, numberOfElevators, elevatorCapacity, null,
+        windowSize, flushInterval);
+  }
+
+  /**
+   * This constructor creates a new journal file for a building, recording its banks,
+   * travel model, dispatch policy and door timing so that the building can be
+   * replayed however it is set up. The building must be set up before the
+   * journal is made.
+   *
+   * @param file          the file to write the journal to.
+   * @param building      the building that will be journaled.
+   * @param windowSize    the number of bytes mapped at a time.
+   * @param flushInterval the number of ticks between forced flushes, 0 for none.
+   * @throws IOException if the file cannot be created or mapped.
+   * @throws IllegalArgumentException if the window is too small or the interval negative.
+   */
+  public RequestJournal(Path file, Building building, int windowSize, int flushInterval)
+      throws IOException {
+    this(file, building.getNumberOfFloors(), building.getNumberOfElevators(),
+        building.getElevatorCapacity(), building, windowSize, flushInterval);
+  }
+
+  /**
+   * This constructor creates a new journal file for a building with the default
+   * window size and no forced flushes.
+   *
+   * @param file     the file to write the journal to.
+   * @param building the building that will be journaled.
+   * @throws IOException if the file cannot be created or mapped.
+   */
+  public RequestJournal(Path file, Building building) throws IOException {
+    this(file, building, DEFAULT_WINDOW_SIZE, DEFAULT_FLUSH_INTERVAL);
+  }
+
+  private RequestJournal(Path file, int numberOfFloors, int numberOfElevators,
+                         int elevatorCapacity, Building building, int windowSize,
+                         int flushInterval) throws IOException {
+    List<ElevatorBank> banks = building != null && building.isZoned()
+        ? building.getBanks() : List.of();
+    int headerSize = HEADER_SIZE + DWELL_SIZE * numberOfElevators;
+    if (building != null && building.getTrafficModeDetector() != null) {
+      headerSize += DETECTOR_SIZE;
+    }
+    for (ElevatorBank bank : banks) {
+      headerSize += bankSize(bank);
+    }
+    if (windowSize < headerSize + MAX_RECORD_SIZE + 1 || flushInterval < 0) {
+      throw new IllegalArgumentException("Window size or flush interval is out of range.");
+    }
+    this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+        StandardOpenOption.WRITE);
+    this.windowSize = windowSize;
+    this.flushInterval = flushInterval;
+    this.windowStart = 0;
+    this.window = channel.map(FileChannel.MapMode.READ_WRITE, 0, windowSize);
+    this.ticksSinceFlush = 0;
+    this.closed = false;
+
+    window.putInt(MAGIC);
+    window.putShort(VERSION);
+    window.putInt(numberOfFloors);
+    window.putInt(numberOfElevators);
+    window.putInt(elevatorCapacity);
+    TravelModel travelModel = building != null ? building.getTravelModel()
+        : TravelModel.ONE_FLOOR_PER_STEP;
+    DispatchPolicy policy = building != null ? building.getDispatchPolicy()
+        : DispatchPolicy.NEAREST_CAR;
+    window.putShort((short) travelModel.getCruiseSpeed());
+    window.putShort((short) travelModel.getAcceleration());
+    window.put((byte) policy.ordinal());
+    window.putLong(building != null ? building.getBatchDispatchBudget()
+        : Building.DEFAULT_BATCH_DISPATCH_BUDGET);
+    TrafficModeDetector detector = building != null ? building.getTrafficModeDetector() : null;
+    window.put((byte) (detector != null ? 1 : 0));
+    window.putShort((short) banks.size());
+    for (int i = 0; i < numberOfElevators; i++) {
+      if (building != null) {
+        Elevator elevator = building.getElevators().get(i);
+        window.putShort((short) elevator.getDoorOpenTimeTotal());
+        window.putShort((short) elevator.getStopWaitTimeTotal());
+        window.put((byte) (elevator.isAdaptiveDwell() ? 1 : 0));
+      } else {
+        window.putShort((short) Elevator.DEFAULT_DOOR_OPEN_TIME);
+        window.putShort((short) Elevator.DEFAULT_STOP_WAIT_TIME);
+        window.put((byte) 0);
+      }
+    }
+    if (detector != null) {
+      window.putInt(detector.getWindow());
+      window.putInt(detector.getHold());
+      window.putDouble(detector.getQuietRate());
+    }
+    for (ElevatorBank bank : banks) {
+      byte[] name = bank.getName().getBytes(StandardCharsets.UTF_8);
+      window.putShort((short) name.length);
+      window.put(name);
+      window.putInt(bank.getLowestFloor());
+      window.putInt(bank.getHighestFloor());
+      window.putInt(bank.getNumberOfElevators());
+      window.put((byte) (bank.isExpress() ? 1 : 0));
+    }
+  }
+
+  private static int bankSize(ElevatorBank bank) {
+    return 2 + bank.getName().getBytes(StandardCharsets.UTF_8).length + 4 + 4 + 4 + 1;
+  }
+
+  /**
+   * Records a tick marker. The journal is flushed every flush interval ticks, if one is set.
+   */
+  public void recordTick() {
+    ensureRoom();
+    window.put(TICK);
+    if (flushInterval > 0 && ++ticksSinceFlush >= flushInterval) {
+      flush();
+    }
+  }
+
+  /**
+   * Records a request accepted by the building.
+   *
+   * @param startFloor the start floor of the request.
+   * @param endFloor   the end floor of the request.
+   */
+  public void recordRequest(int startFloor, int endFloor) {
+    ensureRoom();
+    window.put(REQUEST);
+    window.putShort((short) startFloor);
+    window.putShort((short) endFloor);
+  }
+
+  /**
+   * Records a request being assigned to an elevator.
+   *
+   * @param elevatorIndex the index of the elevator in the building.
+   * @param startFloor    the start floor of the request.
+   * @param endFloor      the end floor of the request.
+   */
+  public void recordAssignment(int elevatorIndex, int startFloor, int endFloor) {
+    ensureRoom();
+    window.put(ASSIGN);
+    window.putShort((short) elevatorIndex);
+    window.putShort((short) startFloor);
+    window.putShort((short) endFloor);
+  }
+
+  /**
+   * Records the elevator system being started.
+   */
+  public void recordStart() {
+    recordCommand(START);
+  }
+
+  /**
+   * Records the elevator system being stopped.
+   */
+  public void recordStop() {
+    recordCommand(STOP);
+  }
+
+  /**
+   * Records the elevator system being restarted.
+   */
+  public void recordRestart() {
+    recordCommand(RESTART);
+  }
+
+  /**
+   * Records the pending requests being cleared.
+   */
+  public void recordClear() {
+    recordCommand(CLEAR);
+  }
+
+  /**
+   * Forces what has been written so far to disk.
+   */
+  public void flush() {
+    window.force();
+    ticksSinceFlush = 0;
+  }
+
+  /**
+   * Gets the number of bytes written so far, header included.
+   *
+   * @return the length of the journal.
+   */
+  public long length() {
+    if (window == null) {
+      return windowStart;
+    }
+    return windowStart + window.position();
+  }
+
+  /**
+   * Flushes the journal, cuts the file down to what was written and closes it.
+   *
+   * @throws IOException if the file cannot be truncated or closed.
+   */
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    long length = length();
+    window.force();
+    window = null;
+    windowStart = length;
+    channel.truncate(length);
+    channel.close();
+  }
+
+  private void recordCommand(byte type) {
+    ensureRoom();
+    window.put(type);
+  }
+
+  /**
+   * Moves the mapped window forward when the next record might not fit.
+   * The bytes after the last record are left as zero, which reads as END.
+   */
+  private void ensureRoom() {
+    if (closed) {
+      throw new IllegalStateException("Journal is closed.");
+    }
+    if (window.remaining() > MAX_RECORD_SIZE) {
+      return;
+    }
+    try {
+      window.force();
+      windowStart += window.position();
+      window = channel.map(FileChannel.MapMode.READ_WRITE, windowStart, windowSize);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
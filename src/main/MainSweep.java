@@ -0,0 +1,29 @@
+package main;
+
+import building.enums.DispatchPolicy;
+import simulation.ParameterSweep;
+
+/**
+ * The MainSweep class sizes the elevators of a building by trying many
+ * combinations of elevator count, capacity and door timing against the same
+ * traffic, and prints a table of throughput and waiting times.
+ */
+public class MainSweep {
+
+  /**
+   * The main method for the sweep.
+   *
+   * @param args the command line arguments, not used.
+   * @throws InterruptedException if the sweep is interrupted.
+   */
+  public static void main(String[] args) throws InterruptedException {
+    ParameterSweep sweep = new ParameterSweep(20_000, 0.3, 42L); // Example parameters
+    sweep.setFloors(10, 20);
+    sweep.setElevators(ParameterSweep.range(2, 6, 1));
+    sweep.setCapacities(8, 12);
+    sweep.setDoorOpenTimes(2, 3);
+    sweep.setDispatchPolicies(DispatchPolicy.values());
+    int threads = Runtime.getRuntime().availableProcessors();
+    System.out.print(ParameterSweep.toTable(sweep.run(threads)));
+  }
+}
@@ -0,0 +1,228 @@
+package metrics;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class holds the running counters of a building.
+ * The building updates them as requests come in and are dispatched, and they
+ * can be read from any thread at any time, for instance by a {@link BuildingMonitor}.
+ * Dispatch latency is the number of ticks a request waited before it was
+ * given to an elevator, waiting time is the number of ticks until the passenger
+ * got on, and trip time the number of ticks until they got off.
+ */
+public class BuildingMetrics {
+  private final LongAdder ticks = new LongAdder();
+  private final LongAdder requestsAccepted = new LongAdder();
+  private final LongAdder requestsAssigned = new LongAdder();
+  private final LongAdder dispatchLatencyTotal = new LongAdder();
+  private final LongAccumulator dispatchLatencyMax = new LongAccumulator(Math::max, 0);
+  private final LongAdder passengersBoarded = new LongAdder();
+  private final LongAdder boardingsRefused = new LongAdder();
+  private final LongAdder waitTotal = new LongAdder();
+  private final LongAdder tripsCompleted = new LongAdder();
+  private final LongAdder tripTimeTotal = new LongAdder();
+
+  /**
+   * Counts one step of the building.
+   */
+  public void recordTick() {
+    ticks.increment();
+  }
+
+  /**
+   * Counts one accepted request.
+   */
+  public void recordAccepted() {
+    requestsAccepted.increment();
+  }
+
+  /**
+   * Counts one request given to an elevator.
+   *
+   * @param latencyTicks the number of ticks the request waited.
+   */
+  public void recordAssignment(long latencyTicks) {
+    requestsAssigned.increment();
+    dispatchLatencyTotal.add(latencyTicks);
+    dispatchLatencyMax.accumulate(latencyTicks);
+  }
+
+  /**
+   * Counts one passenger getting on an elevator.
+   *
+   * @param waitTicks the number of ticks since the request arrived.
+   */
+  public void recordBoarding(long waitTicks) {
+    passengersBoarded.increment();
+    waitTotal.add(waitTicks);
+  }
+
+  /**
+   * Counts one passenger who could not get on because the elevator was full.
+   */
+  public void recordBoardingRefused() {
+    boardingsRefused.increment();
+  }
+
+  /**
+   * Counts one passenger getting off at the end of their ride.
+   *
+   * @param tripTicks the number of ticks since the request arrived.
+   */
+  public void recordTripCompleted(long tripTicks) {
+    tripsCompleted.increment();
+    tripTimeTotal.add(tripTicks);
+  }
+
+  /**
+   * Gets the number of steps of the building.
+   *
+   * @return the number of ticks.
+   */
+  public long getTicks() {
+    return ticks.sum();
+  }
+
+  /**
+   * Gets the number of accepted requests.
+   *
+   * @return the number of accepted requests.
+   */
+  public long getRequestsAccepted() {
+    return requestsAccepted.sum();
+  }
+
+  /**
+   * Gets the number of requests given to an elevator.
+   *
+   * @return the number of assigned requests.
+   */
+  public long getRequestsAssigned() {
+    return requestsAssigned.sum();
+  }
+
+  /**
+   * Gets the average number of ticks requests waited to be assigned.
+   *
+   * @return the average dispatch latency in ticks.
+   */
+  public double getAverageDispatchLatency() {
+    long assigned = requestsAssigned.sum();
+    return assigned == 0 ? 0.0 : (double) dispatchLatencyTotal.sum() / assigned;
+  }
+
+  /**
+   * Gets the longest number of ticks a request waited to be assigned.
+   *
+   * @return the maximum dispatch latency in ticks.
+   */
+  public long getMaxDispatchLatency() {
+    return dispatchLatencyMax.get();
+  }
+
+  /**
+   * Gets the number of passengers that got on an elevator.
+   *
+   * @return the number of boardings.
+   */
+  public long getPassengersBoarded() {
+    return passengersBoarded.sum();
+  }
+
+  /**
+   * Gets the average number of ticks passengers waited to get on.
+   *
+   * @return the average waiting time in ticks.
+   */
+  public double getAverageWait() {
+    long boarded = passengersBoarded.sum();
+    return boarded == 0 ? 0.0 : (double) waitTotal.sum() / boarded;
+  }
+
+  /**
+   * Gets the number of times a passenger could not get on because the elevator was full.
+   *
+   * @return the number of refused boardings.
+   */
+  public long getBoardingsRefused() {
+    return boardingsRefused.sum();
+  }
+
+  /**
+   * Gets the number of rides that ended with the passenger getting off.
+   *
+   * @return the number of completed trips.
+   */
+  public long getTripsCompleted() {
+    return tripsCompleted.sum();
+  }
+
+  /**
+   * Gets the average number of ticks from a request arriving to the passenger getting off.
+   *
+   * @return the average trip time in ticks.
+   */
+  public double getAverageTripTime() {
+    long completed = tripsCompleted.sum();
+    return completed == 0 ? 0.0 : (double) tripTimeTotal.sum() / completed;
+  }
+
+  /**
+   * Writes the counters to a checkpoint.
+   *
+   * @param data the stream to write to.
+   * @throws IOException if the stream cannot be written.
+   */
+  public void writeState(DataOutputStream data) throws IOException {
+    data.writeLong(ticks.sum());
+    data.writeLong(requestsAccepted.sum());
+    data.writeLong(requestsAssigned.sum());
+    data.writeLong(dispatchLatencyTotal.sum());
+    data.writeLong(dispatchLatencyMax.get());
+    data.writeLong(passengersBoarded.sum());
+    data.writeLong(boardingsRefused.sum());
+    data.writeLong(waitTotal.sum());
+    data.writeLong(tripsCompleted.sum());
+    data.writeLong(tripTimeTotal.sum());
+  }
+
+  /**
+   * Reads counters written by {@link #writeState(DataOutputStream)}.
+   *
+   * @param data the stream to read from.
+   * @throws IOException if the stream does not hold valid counters.
+   */
+  public void readState(DataInputStream data) throws IOException {
+    reset();
+    ticks.add(data.readLong());
+    requestsAccepted.add(data.readLong());
+    requestsAssigned.add(data.readLong());
+    dispatchLatencyTotal.add(data.readLong());
+    dispatchLatencyMax.accumulate(data.readLong());
+    passengersBoarded.add(data.readLong());
+    boardingsRefused.add(data.readLong());
+    waitTotal.add(data.readLong());
+    tripsCompleted.add(data.readLong());
+    tripTimeTotal.add(data.readLong());
+  }
+
+  /**
+   * Sets every counter back to zero.
+   */
+  public void reset() {
+    ticks.reset();
+    requestsAccepted.reset();
+    requestsAssigned.reset();
+    dispatchLatencyTotal.reset();
+    dispatchLatencyMax.reset();
+    passengersBoarded.reset();
+    boardingsRefused.reset();
+    waitTotal.reset();
+    tripsCompleted.reset();
+    tripTimeTotal.reset();
+  }
+}
@@ -0,0 +1,162 @@
+package metrics;
+
+import building.Building;
+import elevator.Elevator;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * This class exposes a building and its elevators to JMX tools.
+ * Registering a building puts one bean for the building and one per elevator
+ * on the platform MBean server, under
+ * <pre>
+ *   fantastic.building:type=Building,name=NAME
+ *   fantastic.building:type=Elevator,building=NAME,index=I
+ * </pre>
+ * The beans only read counters that the building keeps anyway,
+ * so watching a building costs its step nothing.
+ */
+public class BuildingMonitor implements BuildingMonitorMBean {
+  private static final String DOMAIN = "fantastic.building";
+
+  private final Building building;
+  private final List<ObjectName> registered;
+  private long lastTicks;
+  private long lastNanos;
+
+  /**
+   * This constructor is used to create a monitor for a building.
+   *
+   * @param building the building to expose.
+   */
+  public BuildingMonitor(Building building) {
+    this.building = building;
+    this.registered = new ArrayList<>();
+    this.lastTicks = building.getMetrics().getTicks();
+    this.lastNanos = System.nanoTime();
+  }
+
+  /**
+   * Registers beans for a building and its elevators on the platform MBean server.
+   *
+   * @param building the building to expose.
+   * @param name     the name to register the building under.
+   * @return the monitor, which can later unregister the beans.
+   * @throws JMException if the beans cannot be registered, for instance if the name is taken.
+   */
+  public static BuildingMonitor register(Building building, String name) throws JMException {
+    BuildingMonitor monitor = new BuildingMonitor(building);
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    String quoted = ObjectName.quote(name);
+    try {
+      ObjectName buildingName = new ObjectName(DOMAIN + ":type=Building,name=" + quoted);
+      server.registerMBean(monitor, buildingName);
+      monitor.registered.add(buildingName);
+      List<Elevator> elevators = building.getElevators();
+      for (int i = 0; i < elevators.size(); i++) {
+        ObjectName elevatorName = new ObjectName(DOMAIN + ":type=Elevator,building="
+            + quoted + ",index=" + i);
+        server.registerMBean(new ElevatorMonitor(elevators.get(i)), elevatorName);
+        monitor.registered.add(elevatorName);
+      }
+    } catch (JMException e) {
+      monitor.unregister();
+      throw e;
+    }
+    return monitor;
+  }
+
+  /**
+   * Removes every bean this monitor registered.
+   */
+  public void unregister() {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    for (ObjectName name : registered) {
+      try {
+        server.unregisterMBean(name);
+      } catch (JMException e) {
+        // already gone, nothing left to do
+      }
+    }
+    registered.clear();
+  }
+
+  @Override
+  public String getStatus() {
+    return building.getStatus();
+  }
+
+  @Override
+  public long getTicks() {
+    return building.getMetrics().getTicks();
+  }
+
+  @Override
+  public synchronized double getTicksPerSecond() {
+    long ticks = building.getMetrics().getTicks();
+    long nanos = System.nanoTime();
+    double rate = nanos == lastNanos ? 0.0 : (ticks - lastTicks) * 1e9 / (nanos - lastNanos);
+    lastTicks = ticks;
+    lastNanos = nanos;
+    return rate;
+  }
+
+  @Override
+  public int getPendingUpRequests() {
+    return building.getPendingUpRequestCount();
+  }
+
+  @Override
+  public int getPendingDownRequests() {
+    return building.getPendingDownRequestCount();
+  }
+
+  @Override
+  public long getRequestsAccepted() {
+    return building.getMetrics().getRequestsAccepted();
+  }
+
+  @Override
+  public long getRequestsAssigned() {
+    return building.getMetrics().getRequestsAssigned();
+  }
+
+  @Override
+  public double getAverageDispatchLatencyTicks() {
+    return building.getMetrics().getAverageDispatchLatency();
+  }
+
+  @Override
+  public long getMaxDispatchLatencyTicks() {
+    return building.getMetrics().getMaxDispatchLatency();
+  }
+
+  @Override
+  public long getTripsCompleted() {
+    return building.getMetrics().getTripsCompleted();
+  }
+
+  @Override
+  public double getAverageWaitTicks() {
+    return building.getMetrics().getAverageWait();
+  }
+
+  @Override
+  public long getBoardingsRefused() {
+    return building.getMetrics().getBoardingsRefused();
+  }
+
+  @Override
+  public synchronized void resetCounters() {
+    building.getMetrics().reset();
+    for (Elevator elevator : building.getElevators()) {
+      elevator.getMetrics().reset();
+    }
+    lastTicks = 0;
+    lastNanos = System.nanoTime();
+  }
+}
@@ -0,0 +1,96 @@
+package metrics;
+
+/**
+ * The management interface of a building, as seen from JMX tools.
+ */
+public interface BuildingMonitorMBean {
+
+  /**
+   * Gets the status of the elevator system.
+   *
+   * @return the status of the elevator system.
+   */
+  String getStatus();
+
+  /**
+   * Gets the number of steps of the building.
+   *
+   * @return the number of ticks.
+   */
+  long getTicks();
+
+  /**
+   * Gets the number of steps per second since the last time this was read.
+   *
+   * @return the tick rate.
+   */
+  double getTicksPerSecond();
+
+  /**
+   * Gets the number of up requests waiting to be assigned.
+   *
+   * @return the depth of the up queue.
+   */
+  int getPendingUpRequests();
+
+  /**
+   * Gets the number of down requests waiting to be assigned.
+   *
+   * @return the depth of the down queue.
+   */
+  int getPendingDownRequests();
+
+  /**
+   * Gets the number of accepted requests.
+   *
+   * @return the number of accepted requests.
+   */
+  long getRequestsAccepted();
+
+  /**
+   * Gets the number of requests given to an elevator.
+   *
+   * @return the number of assigned requests.
+   */
+  long getRequestsAssigned();
+
+  /**
+   * Gets the average number of ticks requests waited to be assigned.
+   *
+   * @return the average dispatch latency in ticks.
+   */
+  double getAverageDispatchLatencyTicks();
+
+  /**
+   * Gets the longest number of ticks a request waited to be assigned.
+   *
+   * @return the maximum dispatch latency in ticks.
+   */
+  long getMaxDispatchLatencyTicks();
+
+  /**
+   * Gets the number of rides that ended with the passenger getting off.
+   *
+   * @return the number of completed trips.
+   */
+  long getTripsCompleted();
+
+  /**
+   * Gets the average number of ticks passengers waited to get on.
+   *
+   * @return the average waiting time in ticks.
+   */
+  double getAverageWaitTicks();
+
+  /**
+   * Gets the number of times a passenger could not get on because the elevator was full.
+   *
+   * @return the number of refused boardings.
+   */
+  long getBoardingsRefused();
+
+  /**
+   * Sets the counters of the building and its elevators back to zero.
+   */
+  void resetCounters();
+}
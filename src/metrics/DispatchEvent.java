@@ -0,0 +1,59 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A flight recorder event for one dispatch decision of a building.
+ */
+@Name("fantastic.building.Dispatch")
+@Label("Dispatch Decision")
+@Category("Fantastic Building")
+@Description("A pending request was looked at for assignment to an elevator")
+public class DispatchEvent extends Event {
+  private static final EventType TYPE = EventType.getEventType(DispatchEvent.class);
+
+  @Label("Start Floor")
+  int startFloor;
+
+  @Label("End Floor")
+  int endFloor;
+
+  @Label("Elevator")
+  @Description("Index of the chosen elevator, -1 if no elevator could take the request")
+  int elevator;
+
+  @Label("Candidates Scanned")
+  int candidatesScanned;
+
+  @Label("Waited Ticks")
+  @Description("Ticks between the arrival of the request and this decision")
+  int waitedTicks;
+
+  /**
+   * Commits an event if dispatch events are being recorded.
+   *
+   * @param startFloor        the start floor of the request.
+   * @param endFloor          the end floor of the request.
+   * @param elevator          the index of the chosen elevator, -1 for none.
+   * @param candidatesScanned the number of elevators looked at.
+   * @param waitedTicks       the ticks the request waited so far.
+   */
+  public static void commit(int startFloor, int endFloor, int elevator, int candidatesScanned,
+                            int waitedTicks) {
+    if (!TYPE.isEnabled()) {
+      return;
+    }
+    DispatchEvent event = new DispatchEvent();
+    event.startFloor = startFloor;
+    event.endFloor = endFloor;
+    event.elevator = elevator;
+    event.candidatesScanned = candidatesScanned;
+    event.waitedTicks = waitedTicks;
+    event.commit();
+  }
+}
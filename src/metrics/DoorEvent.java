@@ -0,0 +1,44 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A flight recorder event for an elevator door opening or closing.
+ */
+@Name("fantastic.building.Door")
+@Label("Door Open Or Close")
+@Category("Fantastic Building")
+public class DoorEvent extends Event {
+  private static final EventType TYPE = EventType.getEventType(DoorEvent.class);
+
+  @Label("Elevator Id")
+  int elevatorId;
+
+  @Label("Floor")
+  int floor;
+
+  @Label("Opened")
+  boolean opened;
+
+  /**
+   * Commits an event if door events are being recorded.
+   *
+   * @param elevatorId the id of the elevator.
+   * @param floor      the floor the elevator is at.
+   * @param opened     true if the door opened, false if it closed.
+   */
+  public static void commit(int elevatorId, int floor, boolean opened) {
+    if (!TYPE.isEnabled()) {
+      return;
+    }
+    DoorEvent event = new DoorEvent();
+    event.elevatorId = elevatorId;
+    event.floor = floor;
+    event.opened = opened;
+    event.commit();
+  }
+}
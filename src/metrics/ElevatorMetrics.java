@@ -0,0 +1,100 @@
+package metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class holds the running counters of one elevator.
+ * The elevator updates them as it steps, and they can be read from any
+ * thread at any time, for instance by an {@link ElevatorMonitor}.
+ * The counters are striped so that reading them never slows down the elevator.
+ */
+public class ElevatorMetrics {
+  private final LongAdder inServiceTicks = new LongAdder();
+  private final LongAdder busyTicks = new LongAdder();
+  private final LongAdder doorCycles = new LongAdder();
+  private final LongAdder floorsTraveled = new LongAdder();
+
+  /**
+   * Counts one step taken while in service.
+   *
+   * @param busy true if the elevator had stops to make or its door open.
+   */
+  public void recordStep(boolean busy) {
+    inServiceTicks.increment();
+    if (busy) {
+      busyTicks.increment();
+    }
+  }
+
+  /**
+   * Counts one opening of the door.
+   */
+  public void recordDoorCycle() {
+    doorCycles.increment();
+  }
+
+  /**
+   * Counts floors moved past.
+   *
+   * @param floors the number of floors moved.
+   */
+  public void recordFloorsTraveled(int floors) {
+    floorsTraveled.add(floors);
+  }
+
+  /**
+   * Gets the number of steps taken while in service.
+   *
+   * @return the number of steps in service.
+   */
+  public long getInServiceTicks() {
+    return inServiceTicks.sum();
+  }
+
+  /**
+   * Gets the number of steps taken with stops to make or the door open.
+   *
+   * @return the number of busy steps.
+   */
+  public long getBusyTicks() {
+    return busyTicks.sum();
+  }
+
+  /**
+   * Gets the share of in service steps that were busy.
+   *
+   * @return the utilization between 0 and 1.
+   */
+  public double getUtilization() {
+    long ticks = inServiceTicks.sum();
+    return ticks == 0 ? 0.0 : (double) busyTicks.sum() / ticks;
+  }
+
+  /**
+   * Gets the number of times the door was opened.
+   *
+   * @return the number of door cycles.
+   */
+  public long getDoorCycles() {
+    return doorCycles.sum();
+  }
+
+  /**
+   * Gets the number of floors moved.
+   *
+   * @return the number of floors traveled.
+   */
+  public long getFloorsTraveled() {
+    return floorsTraveled.sum();
+  }
+
+  /**
+   * Sets every counter back to zero.
+   */
+  public void reset() {
+    inServiceTicks.reset();
+    busyTicks.reset();
+    doorCycles.reset();
+    floorsTraveled.reset();
+  }
+}
@@ -0,0 +1,60 @@
+package metrics;
+
+import elevator.Elevator;
+
+/**
+ * This class exposes one elevator to JMX tools.
+ * It only reads the elevator and its counters, so it can be called from any thread.
+ */
+public class ElevatorMonitor implements ElevatorMonitorMBean {
+  private final Elevator elevator;
+
+  /**
+   * This constructor is used to create a monitor for an elevator.
+   *
+   * @param elevator the elevator to expose.
+   */
+  public ElevatorMonitor(Elevator elevator) {
+    this.elevator = elevator;
+  }
+
+  @Override
+  public int getCurrentFloor() {
+    return elevator.getCurrentFloor();
+  }
+
+  @Override
+  public String getDirection() {
+    return elevator.getDirection().toString();
+  }
+
+  @Override
+  public int getStopCount() {
+    return elevator.getStopCount();
+  }
+
+  @Override
+  public double getUtilization() {
+    return elevator.getMetrics().getUtilization();
+  }
+
+  @Override
+  public long getDoorCycles() {
+    return elevator.getMetrics().getDoorCycles();
+  }
+
+  @Override
+  public long getFloorsTraveled() {
+    return elevator.getMetrics().getFloorsTraveled();
+  }
+
+  @Override
+  public long getInServiceTicks() {
+    return elevator.getMetrics().getInServiceTicks();
+  }
+
+  @Override
+  public void resetCounters() {
+    elevator.getMetrics().reset();
+  }
+}
@@ -0,0 +1,61 @@
+package metrics;
+
+/**
+ * The management interface of an elevator, as seen from JMX tools.
+ */
+public interface ElevatorMonitorMBean {
+
+  /**
+   * Gets the current floor of the elevator.
+   *
+   * @return the current floor.
+   */
+  int getCurrentFloor();
+
+  /**
+   * Gets the direction of the elevator.
+   *
+   * @return the direction symbol.
+   */
+  String getDirection();
+
+  /**
+   * Gets the number of floors the elevator has been asked to stop at.
+   *
+   * @return the number of stop requests.
+   */
+  int getStopCount();
+
+  /**
+   * Gets the share of in service steps that were busy.
+   *
+   * @return the utilization between 0 and 1.
+   */
+  double getUtilization();
+
+  /**
+   * Gets the number of times the door was opened.
+   *
+   * @return the number of door cycles.
+   */
+  long getDoorCycles();
+
+  /**
+   * Gets the number of floors moved.
+   *
+   * @return the number of floors traveled.
+   */
+  long getFloorsTraveled();
+
+  /**
+   * Gets the number of steps taken while in service.
+   *
+   * @return the number of steps in service.
+   */
+  long getInServiceTicks();
+
+  /**
+   * Sets the counters of the elevator back to zero.
+   */
+  void resetCounters();
+}
@@ -0,0 +1,157 @@
+package metrics;
+
+import java.util.Arrays;
+
+/**
+ * This class is a fixed-bucket histogram of nanosecond timings.
+ * Bucket i counts timings of i significant bits, that is from 2^(i-1) up to
+ * 2^i - 1 nanoseconds, bucket 0 counting timings of zero. Recording a timing
+ * is a couple of array writes and never allocates.
+ */
+public class PhaseHistogram {
+  /**
+   * The number of buckets, enough for any non negative long.
+   */
+  public static final int BUCKETS = 64;
+
+  private final long[] counts;
+  private long count;
+  private long totalNanos;
+  private long maxNanos;
+
+  /**
+   * This constructor is used to create an empty histogram.
+   */
+  public PhaseHistogram() {
+    this.counts = new long[BUCKETS];
+  }
+
+  /**
+   * Records one timing. Negative timings are counted as zero.
+   *
+   * @param nanos the timing in nanoseconds.
+   */
+  public void record(long nanos) {
+    if (nanos < 0) {
+      nanos = 0;
+    }
+    counts[Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos))]++;
+    count++;
+    totalNanos += nanos;
+    if (nanos > maxNanos) {
+      maxNanos = nanos;
+    }
+  }
+
+  /**
+   * Gets the number of timings recorded.
+   *
+   * @return the number of timings.
+   */
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * Gets the sum of the timings recorded.
+   *
+   * @return the total in nanoseconds.
+   */
+  public long getTotalNanos() {
+    return totalNanos;
+  }
+
+  /**
+   * Gets the longest timing recorded.
+   *
+   * @return the maximum in nanoseconds.
+   */
+  public long getMaxNanos() {
+    return maxNanos;
+  }
+
+  /**
+   * Gets the average timing.
+   *
+   * @return the mean in nanoseconds, 0 if nothing was recorded.
+   */
+  public double getMeanNanos() {
+    return count == 0 ? 0.0 : (double) totalNanos / count;
+  }
+
+  /**
+   * Gets the number of timings in a bucket.
+   *
+   * @param bucket the bucket.
+   * @return the number of timings in the bucket.
+   */
+  public long getBucketCount(int bucket) {
+    return counts[bucket];
+  }
+
+  /**
+   * Gets the largest timing that falls in a bucket.
+   *
+   * @param bucket the bucket.
+   * @return the upper bound of the bucket in nanoseconds.
+   */
+  public static long getBucketUpperBound(int bucket) {
+    return bucket >= 63 ? Long.MAX_VALUE : (1L << bucket) - 1;
+  }
+
+  /**
+   * Gets an upper bound of the timing below which the given share of timings fall.
+   *
+   * @param percentile the share, between 0 and 100.
+   * @return the upper bound of the bucket holding that percentile, 0 if nothing was recorded.
+   */
+  public long getPercentileNanos(double percentile) {
+    if (count == 0) {
+      return 0;
+    }
+    long rank = (long) Math.ceil(count * Math.max(0.0, Math.min(100.0, percentile)) / 100.0);
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += counts[i];
+      if (seen >= rank && seen > 0) {
+        return Math.min(getBucketUpperBound(i), maxNanos);
+      }
+    }
+    return maxNanos;
+  }
+
+  /**
+   * Makes a copy of the histogram.
+   *
+   * @return a copy that does not change when this histogram does.
+   */
+  public PhaseHistogram copy() {
+    PhaseHistogram copy = new PhaseHistogram();
+    System.arraycopy(counts, 0, copy.counts, 0, BUCKETS);
+    copy.count = count;
+    copy.totalNanos = totalNanos;
+    copy.maxNanos = maxNanos;
+    return copy;
+  }
+
+  /**
+   * Sets every bucket back to zero.
+   */
+  public void reset() {
+    Arrays.fill(counts, 0);
+    count = 0;
+    totalNanos = 0;
+    maxNanos = 0;
+  }
+
+  /**
+   * Returns a one line summary of the histogram.
+   *
+   * @return the count, mean, 50th and 99th percentile and maximum.
+   */
+  @Override
+  public String toString() {
+    return String.format("n=%d mean=%.0fns p50<=%dns p99<=%dns max=%dns",
+        count, getMeanNanos(), getPercentileNanos(50), getPercentileNanos(99), maxNanos);
+  }
+}
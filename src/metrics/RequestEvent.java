@@ -0,0 +1,49 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A flight recorder event for a request being accepted or rejected by a building.
+ */
+@Name("fantastic.building.Request")
+@Label("Request Accept Or Reject")
+@Category("Fantastic Building")
+public class RequestEvent extends Event {
+  private static final EventType TYPE = EventType.getEventType(RequestEvent.class);
+
+  @Label("Start Floor")
+  int startFloor;
+
+  @Label("End Floor")
+  int endFloor;
+
+  @Label("Accepted")
+  boolean accepted;
+
+  @Label("Reason")
+  String reason;
+
+  /**
+   * Commits an event if request events are being recorded.
+   *
+   * @param startFloor the start floor of the request, -1 if there was no request.
+   * @param endFloor   the end floor of the request, -1 if there was no request.
+   * @param accepted   true if the request was accepted.
+   * @param reason     why the request was rejected, null if it was accepted.
+   */
+  public static void commit(int startFloor, int endFloor, boolean accepted, String reason) {
+    if (!TYPE.isEnabled()) {
+      return;
+    }
+    RequestEvent event = new RequestEvent();
+    event.startFloor = startFloor;
+    event.endFloor = endFloor;
+    event.accepted = accepted;
+    event.reason = reason;
+    event.commit();
+  }
+}
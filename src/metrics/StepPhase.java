@@ -0,0 +1,23 @@
+package metrics;
+
+/**
+ * This enum is used to represent the phases of a building step that can be timed.
+ */
+public enum StepPhase {
+  TRAFFIC_MODE("Detect traffic mode"),
+  DISTRIBUTE("Distribute requests"),
+  ELEVATORS("Step elevators"),
+  PUBLISH("Publish changes"),
+  REPORT("Build report");
+
+  private final String display;
+
+  StepPhase(String display) {
+    this.display = display;
+  }
+
+  @Override
+  public String toString() {
+    return this.display;
+  }
+}
@@ -0,0 +1,39 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A flight recorder event for the elevator system of a building being started or stopped.
+ */
+@Name("fantastic.building.SystemState")
+@Label("System Start Or Stop")
+@Category("Fantastic Building")
+public class SystemStateEvent extends Event {
+  private static final EventType TYPE = EventType.getEventType(SystemStateEvent.class);
+
+  @Label("Action")
+  String action;
+
+  @Label("Status")
+  String status;
+
+  /**
+   * Commits an event if system state events are being recorded.
+   *
+   * @param action what was done to the system, start, stop or restart.
+   * @param status the status of the system afterwards.
+   */
+  public static void commit(String action, String status) {
+    if (!TYPE.isEnabled()) {
+      return;
+    }
+    SystemStateEvent event = new SystemStateEvent();
+    event.action = action;
+    event.status = status;
+    event.commit();
+  }
+}
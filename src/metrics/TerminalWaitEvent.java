@@ -0,0 +1,44 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A flight recorder event for an elevator starting its wait at the top or bottom.
+ */
+@Name("fantastic.building.TerminalWait")
+@Label("Terminal Wait")
+@Category("Fantastic Building")
+public class TerminalWaitEvent extends Event {
+  private static final EventType TYPE = EventType.getEventType(TerminalWaitEvent.class);
+
+  @Label("Elevator Id")
+  int elevatorId;
+
+  @Label("Floor")
+  int floor;
+
+  @Label("Wait Ticks")
+  int waitTicks;
+
+  /**
+   * Commits an event if terminal wait events are being recorded.
+   *
+   * @param elevatorId the id of the elevator.
+   * @param floor      the floor the elevator waits at.
+   * @param waitTicks  the number of ticks it will wait.
+   */
+  public static void commit(int elevatorId, int floor, int waitTicks) {
+    if (!TYPE.isEnabled()) {
+      return;
+    }
+    TerminalWaitEvent event = new TerminalWaitEvent();
+    event.elevatorId = elevatorId;
+    event.floor = floor;
+    event.waitTicks = waitTicks;
+    event.commit();
+  }
+}
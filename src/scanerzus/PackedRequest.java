@@ -0,0 +1,112 @@
+package scanerzus;
+
+/**
+ * This class packs a request into a single long so that pending requests
+ * can be kept in primitive arrays instead of as Request objects.
+ * The layout is:
+ * <pre>
+ *   bits 63..32  arrival tick
+ *   bits 31..16  start floor
+ *   bits 15..0   end floor
+ * </pre>
+ * Floors must be between 0 and 65535, the tick is kept as a signed int.
+ */
+public final class PackedRequest {
+  /**
+   * The largest floor number that can be packed.
+   */
+  public static final int MAX_FLOOR = 0xFFFF;
+
+  private PackedRequest() {
+  }
+
+  /**
+   * Packs a request into a long.
+   *
+   * @param startFloor  the start floor.
+   * @param endFloor    the end floor.
+   * @param arrivalTick the tick at which the request arrived.
+   * @return the packed request.
+   * @throws IllegalArgumentException if a floor does not fit in 16 bits.
+   */
+  public static long pack(int startFloor, int endFloor, int arrivalTick) {
+    if (startFloor < 0 || startFloor > MAX_FLOOR || endFloor < 0 || endFloor > MAX_FLOOR) {
+      throw new IllegalArgumentException("Floor cannot be packed.");
+    }
+    return ((long) arrivalTick << 32) | ((long) startFloor << 16) | endFloor;
+  }
+
+  /**
+   * Packs a request object into a long.
+   *
+   * @param request     the request.
+   * @param arrivalTick the tick at which the request arrived.
+   * @return the packed request.
+   */
+  public static long pack(Request request, int arrivalTick) {
+    return pack(request.getStartFloor(), request.getEndFloor(), arrivalTick);
+  }
+
+  /**
+   * Gets the start floor of a packed request.
+   *
+   * @param packed the packed request.
+   * @return the start floor.
+   */
+  public static int startFloor(long packed) {
+    return (int) (packed >>> 16) & 0xFFFF;
+  }
+
+  /**
+   * Gets the end floor of a packed request.
+   *
+   * @param packed the packed request.
+   * @return the end floor.
+   */
+  public static int endFloor(long packed) {
+    return (int) packed & 0xFFFF;
+  }
+
+  /**
+   * Gets the arrival tick of a packed request.
+   *
+   * @param packed the packed request.
+   * @return the arrival tick.
+   */
+  public static int arrivalTick(long packed) {
+    return (int) (packed >> 32);
+  }
+
+  /**
+   * Checks whether a packed request is going up, using the same rule as
+   * {@link Request#getDirection()}.
+   *
+   * @param packed the packed request.
+   * @return true if the request goes up, false otherwise.
+   */
+  public static boolean isUp(long packed) {
+    return startFloor(packed) < endFloor(packed);
+  }
+
+  /**
+   * Turns a packed request back into a Request object.
+   *
+   * @param packed the packed request.
+   * @param cache  the cache to get the canonical request from.
+   * @return the request.
+   */
+  public static Request toRequest(long packed, RequestCache cache) {
+    return cache.get(startFloor(packed), endFloor(packed));
+  }
+
+  /**
+   * Returns a string representation of a packed request.
+   * This is a string of the form "startFloor->endFloor@tick".
+   *
+   * @param packed the packed request.
+   * @return a string representation of the packed request.
+   */
+  public static String toString(long packed) {
+    return startFloor(packed) + "->" + endFloor(packed) + "@" + arrivalTick(packed);
+  }
+}
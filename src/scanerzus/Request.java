@@ -6,8 +6,10 @@ import building.enums.Direction;
 /**
  * This class represents a request to the elevator.
  * All requests have a startFloor and endFloor
+ * Requests are immutable, so a building can share one instance per floor pair
+ * through a {@link RequestCache}.
  */
-public class Request implements RequestInterface {
+public final class Request implements RequestInterface {
   private final int startFloor;
   private final int endFloor;
 
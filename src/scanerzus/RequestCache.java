@@ -0,0 +1,68 @@
+package scanerzus;
+
+/**
+ * This class is a flyweight cache of canonical Request objects for one building.
+ * A building with n floors only has n * n distinct floor pairs, so every
+ * request for the same pair can share one immutable Request instance.
+ * Instances are created lazily the first time a pair is asked for.
+ * Pairs outside the building are not cached, a fresh Request is returned instead
+ * so that the building can still reject them the usual way.
+ */
+public class RequestCache {
+  private final int numberOfFloors;
+  private final Request[] requests;
+
+  /**
+   * The constructor for the request cache.
+   *
+   * @param numberOfFloors the number of floors in the building, must be greater than 0.
+   * @throws IllegalArgumentException if the number of floors is not greater than 0.
+   */
+  public RequestCache(int numberOfFloors) {
+    if (numberOfFloors <= 0) {
+      throw new IllegalArgumentException("Number of floors must be greater than 0.");
+    }
+    this.numberOfFloors = numberOfFloors;
+    this.requests = new Request[numberOfFloors * numberOfFloors];
+  }
+
+  /**
+   * Gets the canonical request for the given floor pair.
+   *
+   * @param startFloor the start floor.
+   * @param endFloor   the end floor.
+   * @return the shared request for the pair, or a new request if the pair is out of range.
+   */
+  public Request get(int startFloor, int endFloor) {
+    if (startFloor < 0 || startFloor >= numberOfFloors
+        || endFloor < 0 || endFloor >= numberOfFloors) {
+      return new Request(startFloor, endFloor);
+    }
+    int index = startFloor * numberOfFloors + endFloor;
+    Request request = requests[index];
+    if (request == null) {
+      request = new Request(startFloor, endFloor);
+      requests[index] = request;
+    }
+    return request;
+  }
+
+  /**
+   * Gets the canonical version of a request.
+   *
+   * @param request the request to intern.
+   * @return the shared request with the same floors.
+   */
+  public Request intern(Request request) {
+    return get(request.getStartFloor(), request.getEndFloor());
+  }
+
+  /**
+   * Gets the number of floors covered by this cache.
+   *
+   * @return the number of floors.
+   */
+  public int getNumberOfFloors() {
+    return numberOfFloors;
+  }
+}
@@ -0,0 +1,291 @@
+package scanerzus;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * This class streams timestamped requests from a trace file, one tick at a time.
+ * The file is read through a bounded buffer, so files of any length can be loaded
+ * without holding them in memory. Requests are handed out from a request cache,
+ * so loading does not allocate a Request per line either.
+ * <p></p>
+ * Two formats are understood. A CSV file has one request per line written as
+ * "tick,startFloor,endFloor"; blank lines, lines starting with '#' and a header
+ * line are skipped. A binary file is a plain sequence of big-endian longs in the
+ * {@link PackedRequest} layout, the arrival tick being the tick of the request.
+ * In both formats the requests must be sorted by tick, and every request must
+ * fit a packed request: a tick of at least 0 and floors from 0 to
+ * {@link PackedRequest#MAX_FLOOR}. A request that does not is reported with
+ * the number of its line or record.
+ */
+public class RequestTraceLoader implements Closeable {
+
+  /**
+   * The formats a request trace can be written in.
+   */
+  public enum Format {
+    CSV,
+    BINARY
+  }
+
+  private static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+  private final FileChannel channel;
+  private final ByteBuffer buffer;
+  private final Format format;
+  private final RequestCache cache;
+  private final int[] fields;
+  private boolean endOfFile;
+  private boolean hasPending;
+  private int pendingTick;
+  private int pendingStart;
+  private int pendingEnd;
+  private long lineNumber;
+  private long recordNumber;
+  private int lastTick;
+
+  /**
+   * This constructor opens a request trace with the default buffer size.
+   *
+   * @param file   the trace file.
+   * @param format the format of the file.
+   * @param cache  the cache of the building the requests are meant for.
+   * @throws IOException if the file cannot be opened or its first request cannot be read.
+   * @throws IllegalArgumentException if the first request is out of range.
+   */
+  public RequestTraceLoader(Path file, Format format, RequestCache cache) throws IOException {
+    this(file, format, cache, DEFAULT_BUFFER_SIZE);
+  }
+
+  /**
+   * This constructor opens a request trace.
+   *
+   * @param file       the trace file.
+   * @param format     the format of the file.
+   * @param cache      the cache of the building the requests are meant for.
+   * @param bufferSize the number of bytes read at a time, also the longest allowed line.
+   * @throws IOException if the file cannot be opened or its first request cannot be read.
+   * @throws IllegalArgumentException if the buffer is smaller than one binary record,
+   *     or the first request is out of range.
+   */
+  public RequestTraceLoader(Path file, Format format, RequestCache cache, int bufferSize)
+      throws IOException {
+    if (bufferSize < Long.BYTES) {
+      throw new IllegalArgumentException("Buffer size is too small.");
+    }
+    this.channel = FileChannel.open(file, StandardOpenOption.READ);
+    this.buffer = ByteBuffer.allocate(bufferSize);
+    this.buffer.flip();
+    this.format = format;
+    this.cache = cache;
+    this.fields = new int[3];
+    this.endOfFile = false;
+    this.lineNumber = 0;
+    this.recordNumber = 0;
+    this.lastTick = 0;
+    try {
+      advance();
+    } catch (IOException | IllegalArgumentException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Gets the tick of the next request in the trace.
+   *
+   * @return the tick of the next request, or -1 if the trace is finished.
+   */
+  public int nextTick() {
+    return hasPending ? pendingTick : -1;
+  }
+
+  /**
+   * Checks whether all the requests have been handed out.
+   *
+   * @return true if the trace is finished.
+   */
+  public boolean isFinished() {
+    return !hasPending;
+  }
+
+  /**
+   * Hands out every request due at or before the given tick.
+   *
+   * @param tick the current simulation tick.
+   * @param out  the list to add the requests to.
+   * @return the number of requests added.
+   * @throws IOException if the file cannot be read or holds a bad record.
+   * @throws IllegalArgumentException if a request goes back in time or is out of range.
+   */
+  public int poll(int tick, List<Request> out) throws IOException {
+    int count = 0;
+    while (hasPending && pendingTick <= tick) {
+      out.add(cache.get(pendingStart, pendingEnd));
+      count++;
+      advance();
+    }
+    return count;
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  private void advance() throws IOException {
+    hasPending = format == Format.BINARY ? readBinary() : readCsv();
+  }
+
+  private boolean readBinary() throws IOException {
+    while (buffer.remaining() < Long.BYTES) {
+      if (!fill()) {
+        if (buffer.hasRemaining()) {
+          throw new IOException("Request trace ends in the middle of a record.");
+        }
+        return false;
+      }
+    }
+    long packed = buffer.getLong();
+    recordNumber++;
+    pendingTick = PackedRequest.arrivalTick(packed);
+    pendingStart = PackedRequest.startFloor(packed);
+    pendingEnd = PackedRequest.endFloor(packed);
+    checkPending();
+    return true;
+  }
+
+  private boolean readCsv() throws IOException {
+    while (true) {
+      int lineEnd = -1;
+      for (int i = buffer.position(); i < buffer.limit(); i++) {
+        if (buffer.get(i) == '\n') {
+          lineEnd = i;
+          break;
+        }
+      }
+      if (lineEnd < 0) {
+        if (buffer.remaining() == buffer.capacity()) {
+          throw new IOException("Request trace line " + (lineNumber + 1) + " is too long.");
+        }
+        if (fill()) {
+          continue;
+        }
+        if (!buffer.hasRemaining()) {
+          return false;
+        }
+        // the last line has no line break
+        lineEnd = buffer.limit();
+      }
+      int start = buffer.position();
+      buffer.position(Math.min(lineEnd + 1, buffer.limit()));
+      lineNumber++;
+      if (parseLine(start, lineEnd)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Parses "tick,startFloor,endFloor" straight out of the buffer.
+   *
+   * @return true if the line held a request, false if it is to be skipped.
+   */
+  private boolean parseLine(int from, int to) throws IOException {
+    while (from < to && isBlank(buffer.get(from))) {
+      from++;
+    }
+    if (from == to || buffer.get(from) == '#') {
+      return false;
+    }
+    byte first = buffer.get(from);
+    if (lineNumber == 1 && first != '-' && (first < '0' || first > '9')) {
+      return false;
+    }
+    int field = 0;
+    int value = 0;
+    boolean negative = false;
+    boolean digits = false;
+    for (int i = from; i <= to; i++) {
+      byte b = i < to ? buffer.get(i) : (byte) ',';
+      if (b >= '0' && b <= '9') {
+        if (value > (Integer.MAX_VALUE - (b - '0')) / 10) {
+          throw outOfRange();
+        }
+        value = value * 10 + (b - '0');
+        digits = true;
+      } else if (b == '-' && !digits && !negative) {
+        negative = true;
+      } else if (b == ',') {
+        if (!digits || field == 3) {
+          throw badLine();
+        }
+        fields[field++] = negative ? -value : value;
+        value = 0;
+        negative = false;
+        digits = false;
+      } else if (!isBlank(b)) {
+        throw badLine();
+      }
+    }
+    if (field != 3) {
+      throw badLine();
+    }
+    pendingTick = fields[0];
+    pendingStart = fields[1];
+    pendingEnd = fields[2];
+    checkPending();
+    return true;
+  }
+
+  /**
+   * Checks the request just read against the packed layout and the one before it.
+   */
+  private void checkPending() {
+    if (pendingTick < 0 || pendingStart < 0 || pendingStart > PackedRequest.MAX_FLOOR
+        || pendingEnd < 0 || pendingEnd > PackedRequest.MAX_FLOOR) {
+      throw outOfRange();
+    }
+    if (pendingTick < lastTick) {
+      throw new IllegalArgumentException("Request trace " + position() + " goes back to tick "
+          + pendingTick + " after tick " + lastTick + ".");
+    }
+    lastTick = pendingTick;
+  }
+
+  private IllegalArgumentException outOfRange() {
+    return new IllegalArgumentException("Request trace " + position()
+        + " does not fit a packed request.");
+  }
+
+  private String position() {
+    return format == Format.BINARY ? "record " + recordNumber : "line " + lineNumber;
+  }
+
+  private IOException badLine() {
+    return new IOException("Request trace line " + lineNumber + " is not tick,start,end.");
+  }
+
+  private static boolean isBlank(byte b) {
+    return b == ' ' || b == '\t' || b == '\r';
+  }
+
+  private boolean fill() throws IOException {
+    if (endOfFile) {
+      return false;
+    }
+    buffer.compact();
+    int read = channel.read(buffer);
+    buffer.flip();
+    if (read < 0) {
+      endOfFile = true;
+      return false;
+    }
+    return true;
+  }
+}
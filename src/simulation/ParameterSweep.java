@@ -0,0 +1,289 @@
+package simulation;
+
+import building.Building;
+import building.enums.DispatchPolicy;
+import elevator.Elevator;
+import elevator.RideListener;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import scanerzus.PackedRequest;
+
+/**
+ * This class runs every combination of a range of building parameters against
+ * the same seeded traffic, in parallel, and reports throughput and waiting times.
+ * Each run gets its own random generator, split off a generator seeded with the
+ * sweep's seed, so every run sees the same traffic and the results do not depend
+ * on the number of threads or the order the runs finish in.
+ * <p></p>
+ * Elevator capacity is the most passengers a car carries. A full car turns
+ * away the passengers it was sent for and they wait for another, so the
+ * results also count the boardings refused.
+ */
+public class ParameterSweep {
+  private final int ticks;
+  private final double arrivalsPerTick;
+  private final long seed;
+  private int[] floors = {10};
+  private int[] elevators = {3};
+  private int[] capacities = {5};
+  private int[] doorOpenTimes = {Elevator.DEFAULT_DOOR_OPEN_TIME};
+  private int[] stopWaitTimes = {Elevator.DEFAULT_STOP_WAIT_TIME};
+  private DispatchPolicy[] dispatchPolicies = {DispatchPolicy.NEAREST_CAR};
+
+  /**
+   * The constructor for a sweep. Every parameter starts with a single value,
+   * those of the example building in MainGui.
+   *
+   * @param ticks           the number of ticks every run lasts.
+   * @param arrivalsPerTick the average number of requests per tick.
+   * @param seed            the seed of the traffic.
+   * @throws IllegalArgumentException if the ticks or the rate are out of range.
+   */
+  public ParameterSweep(int ticks, double arrivalsPerTick, long seed) {
+    if (ticks <= 0 || arrivalsPerTick < 0 || arrivalsPerTick > 50) {
+      throw new IllegalArgumentException("Ticks must be greater than 0 "
+          + "and arrivals per tick between 0 and 50.");
+    }
+    this.ticks = ticks;
+    this.arrivalsPerTick = arrivalsPerTick;
+    this.seed = seed;
+  }
+
+  /**
+   * Makes the values from one number to another, both included.
+   *
+   * @param from the first value.
+   * @param to   the last value.
+   * @param step the difference between values, greater than 0.
+   * @return the values.
+   * @throws IllegalArgumentException if the step is not greater than 0 or to is before from.
+   */
+  public static int[] range(int from, int to, int step) {
+    if (step <= 0 || to < from) {
+      throw new IllegalArgumentException("Range is empty.");
+    }
+    int[] values = new int[(to - from) / step + 1];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = from + i * step;
+    }
+    return values;
+  }
+
+  /**
+   * Sets the numbers of floors to try.
+   *
+   * @param values the numbers of floors.
+   */
+  public void setFloors(int... values) {
+    this.floors = copy(values);
+  }
+
+  /**
+   * Sets the numbers of elevators to try.
+   *
+   * @param values the numbers of elevators.
+   */
+  public void setElevators(int... values) {
+    this.elevators = copy(values);
+  }
+
+  /**
+   * Sets the elevator capacities to try.
+   *
+   * @param values the capacities.
+   */
+  public void setCapacities(int... values) {
+    this.capacities = copy(values);
+  }
+
+  /**
+   * Sets the door open times to try.
+   *
+   * @param values the numbers of steps the doors stay open.
+   */
+  public void setDoorOpenTimes(int... values) {
+    this.doorOpenTimes = copy(values);
+  }
+
+  /**
+   * Sets the wait times at the top and bottom to try.
+   *
+   * @param values the numbers of steps to wait.
+   */
+  public void setStopWaitTimes(int... values) {
+    this.stopWaitTimes = copy(values);
+  }
+
+  /**
+   * Sets the dispatch policies to try.
+   *
+   * @param values the dispatch policies.
+   */
+  public void setDispatchPolicies(DispatchPolicy... values) {
+    if (values == null || values.length == 0) {
+      throw new IllegalArgumentException("No values to try.");
+    }
+    this.dispatchPolicies = values.clone();
+  }
+
+  /**
+   * Gets every combination of the parameters, in the order they are run and reported.
+   *
+   * @return the configurations.
+   */
+  public List<SweepConfiguration> getConfigurations() {
+    List<SweepConfiguration> configurations = new ArrayList<>();
+    for (int numberOfFloors : floors) {
+      for (int numberOfElevators : elevators) {
+        for (int capacity : capacities) {
+          for (int doorOpenTime : doorOpenTimes) {
+            for (int stopWaitTime : stopWaitTimes) {
+              for (DispatchPolicy policy : dispatchPolicies) {
+                configurations.add(new SweepConfiguration(numberOfFloors, numberOfElevators,
+                    capacity, doorOpenTime, stopWaitTime, policy));
+              }
+            }
+          }
+        }
+      }
+    }
+    return configurations;
+  }
+
+  /**
+   * Runs every combination of the parameters.
+   *
+   * @param threads the number of runs to do at the same time.
+   * @return the results, in the order of {@link #getConfigurations()}.
+   * @throws InterruptedException if the sweep is interrupted.
+   * @throws IllegalArgumentException if a combination is not a valid building.
+   */
+  public List<SweepResult> run(int threads) throws InterruptedException {
+    if (threads <= 0) {
+      throw new IllegalArgumentException("Threads must be greater than 0.");
+    }
+    List<Callable<SweepResult>> runs = new ArrayList<>();
+    for (SweepConfiguration configuration : getConfigurations()) {
+      // building before the runs start makes bad combinations fail right away
+      configuration.createBuilding();
+      runs.add(() -> run(configuration, new SplittableRandom(seed).split()));
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<SweepResult> results = new ArrayList<>(runs.size());
+      for (Future<SweepResult> future : executor.invokeAll(runs)) {
+        try {
+          results.add(future.get());
+        } catch (ExecutionException e) {
+          if (e.getCause() instanceof RuntimeException) {
+            throw (RuntimeException) e.getCause();
+          }
+          throw new IllegalStateException(e.getCause());
+        }
+      }
+      return results;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Runs one configuration.
+   *
+   * @param configuration the configuration to run.
+   * @param random        the random generator of this run.
+   * @return what the run measured.
+   */
+  SweepResult run(SweepConfiguration configuration, SplittableRandom random) {
+    Building building = configuration.createBuilding();
+    Traffic traffic = new Traffic(random, configuration.getNumberOfFloors(), arrivalsPerTick);
+    IntList waits = new IntList();
+    IntList trips = new IntList();
+    int[] refused = new int[1];
+    building.setRideListener(new RideListener() {
+      @Override
+      public void boarded(Elevator elevator, long ride) {
+        waits.add(building.getTick() - PackedRequest.arrivalTick(ride));
+      }
+
+      @Override
+      public void alighted(Elevator elevator, long ride) {
+        trips.add(building.getTick() - PackedRequest.arrivalTick(ride));
+      }
+
+      @Override
+      public void refused(Elevator elevator, long ride) {
+        refused[0]++;
+      }
+    });
+    building.startElevatorSystem();
+    int requests = 0;
+    for (int tick = 0; tick < ticks; tick++) {
+      requests += traffic.arrive(building);
+      building.step();
+    }
+    return new SweepResult(configuration, ticks, requests, refused[0], waits.sorted(),
+        trips.sorted());
+  }
+
+  /**
+   * Lays out results as a plain text table, one row per configuration.
+   *
+   * @param results the results to show.
+   * @return the table.
+   */
+  public static String toTable(List<SweepResult> results) {
+    StringBuilder table = new StringBuilder();
+    table.append(String.format(
+        "%6s %4s %4s %4s %4s %-13s %8s %8s %8s %7s %6s %6s %6s %6s %6s%n",
+        "floors", "cars", "cap", "door", "wait", "policy", "requests", "trips", "per1000",
+        "refused", "w50", "w90", "w99", "t50", "t90"));
+    for (SweepResult result : results) {
+      SweepConfiguration c = result.getConfiguration();
+      table.append(String.format(
+          "%6d %4d %4d %4d %4d %-13s %8d %8d %8.1f %7d %6d %6d %6d %6d %6d%n",
+          c.getNumberOfFloors(), c.getNumberOfElevators(), c.getElevatorCapacity(),
+          c.getDoorOpenTime(), c.getStopWaitTime(), c.getDispatchPolicy(),
+          result.getRequests(), result.getTripsCompleted(), result.getThroughput(),
+          result.getBoardingsRefused(), result.getWaitPercentile(50), result.getWaitPercentile(90),
+          result.getWaitPercentile(99), result.getTripPercentile(50),
+          result.getTripPercentile(90)));
+    }
+    return table.toString();
+  }
+
+  private static int[] copy(int[] values) {
+    if (values == null || values.length == 0) {
+      throw new IllegalArgumentException("No values to try.");
+    }
+    return values.clone();
+  }
+
+  /**
+   * A growable list of ints, so a run does not box every measurement.
+   */
+  private static final class IntList {
+    private int[] values = new int[256];
+    private int size;
+
+    private void add(int value) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size * 2);
+      }
+      values[size++] = value;
+    }
+
+    private int[] sorted() {
+      int[] result = Arrays.copyOf(values, size);
+      Arrays.sort(result);
+      return result;
+    }
+  }
+}
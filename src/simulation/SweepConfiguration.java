@@ -0,0 +1,109 @@
+package simulation;
+
+import building.Building;
+import building.enums.DispatchPolicy;
+
+/**
+ * This class is one combination of building parameters tried by a {@link ParameterSweep}.
+ */
+public final class SweepConfiguration {
+  private final int numberOfFloors;
+  private final int numberOfElevators;
+  private final int elevatorCapacity;
+  private final int doorOpenTime;
+  private final int stopWaitTime;
+  private final DispatchPolicy dispatchPolicy;
+
+  /**
+   * The constructor for a configuration.
+   *
+   * @param numberOfFloors    the number of floors in the building.
+   * @param numberOfElevators the number of elevators in the building.
+   * @param elevatorCapacity  the capacity of the elevators.
+   * @param doorOpenTime      the number of steps the doors stay open.
+   * @param stopWaitTime      the number of steps the elevators wait at the top and bottom.
+   * @param dispatchPolicy    the way requests are given to elevators.
+   */
+  public SweepConfiguration(int numberOfFloors, int numberOfElevators, int elevatorCapacity,
+                            int doorOpenTime, int stopWaitTime, DispatchPolicy dispatchPolicy) {
+    this.numberOfFloors = numberOfFloors;
+    this.numberOfElevators = numberOfElevators;
+    this.elevatorCapacity = elevatorCapacity;
+    this.doorOpenTime = doorOpenTime;
+    this.stopWaitTime = stopWaitTime;
+    this.dispatchPolicy = dispatchPolicy;
+  }
+
+  /**
+   * Builds a new building with this configuration.
+   *
+   * @return the building, not yet started.
+   * @throws IllegalArgumentException if the parameters are not valid for a building.
+   */
+  public Building createBuilding() {
+    Building building = new Building(numberOfFloors, numberOfElevators, elevatorCapacity);
+    building.setDoorTiming(doorOpenTime, stopWaitTime);
+    building.setDispatchPolicy(dispatchPolicy);
+    return building;
+  }
+
+  /**
+   * Gets the number of floors.
+   *
+   * @return the number of floors.
+   */
+  public int getNumberOfFloors() {
+    return numberOfFloors;
+  }
+
+  /**
+   * Gets the number of elevators.
+   *
+   * @return the number of elevators.
+   */
+  public int getNumberOfElevators() {
+    return numberOfElevators;
+  }
+
+  /**
+   * Gets the capacity of the elevators.
+   *
+   * @return the elevator capacity.
+   */
+  public int getElevatorCapacity() {
+    return elevatorCapacity;
+  }
+
+  /**
+   * Gets the number of steps the doors stay open.
+   *
+   * @return the door open time.
+   */
+  public int getDoorOpenTime() {
+    return doorOpenTime;
+  }
+
+  /**
+   * Gets the number of steps the elevators wait at the top and bottom.
+   *
+   * @return the wait time.
+   */
+  public int getStopWaitTime() {
+    return stopWaitTime;
+  }
+
+  /**
+   * Gets the way requests are given to elevators.
+   *
+   * @return the dispatch policy.
+   */
+  public DispatchPolicy getDispatchPolicy() {
+    return dispatchPolicy;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%d floors, %d x %d, door %d, wait %d, %s", numberOfFloors,
+        numberOfElevators, elevatorCapacity, doorOpenTime, stopWaitTime, dispatchPolicy);
+  }
+}
@@ -0,0 +1,140 @@
+package simulation;
+
+import java.util.Arrays;
+
+/**
+ * This class holds what one run of a {@link ParameterSweep} measured.
+ * Waiting time is the number of ticks from a request arriving to the passenger
+ * getting on, trip time the number of ticks to the passenger getting off.
+ * Percentiles are nearest rank over the passengers that got on or off during the run.
+ */
+public final class SweepResult {
+  private final SweepConfiguration configuration;
+  private final int ticks;
+  private final int requests;
+  private final int boardingsRefused;
+  private final int[] waits;
+  private final int[] trips;
+
+  /**
+   * The constructor for a result.
+   *
+   * @param configuration the configuration that was run.
+   * @param ticks         the number of ticks that were run.
+   * @param requests      the number of requests made.
+   * @param refused       the number of times a full elevator turned a passenger away.
+   * @param waits         the waiting time of every passenger that got on, sorted.
+   * @param trips         the trip time of every passenger that got off, sorted.
+   */
+  SweepResult(SweepConfiguration configuration, int ticks, int requests, int refused,
+              int[] waits, int[] trips) {
+    this.configuration = configuration;
+    this.ticks = ticks;
+    this.requests = requests;
+    this.boardingsRefused = refused;
+    this.waits = waits;
+    this.trips = trips;
+  }
+
+  /**
+   * Gets the configuration that was run.
+   *
+   * @return the configuration.
+   */
+  public SweepConfiguration getConfiguration() {
+    return configuration;
+  }
+
+  /**
+   * Gets the number of requests made during the run.
+   *
+   * @return the number of requests.
+   */
+  public int getRequests() {
+    return requests;
+  }
+
+  /**
+   * Gets the number of times a full elevator turned a passenger away during the run.
+   *
+   * @return the number of boardings refused.
+   */
+  public int getBoardingsRefused() {
+    return boardingsRefused;
+  }
+
+  /**
+   * Gets the number of passengers that got off at their floor.
+   *
+   * @return the number of completed trips.
+   */
+  public int getTripsCompleted() {
+    return trips.length;
+  }
+
+  /**
+   * Gets the number of completed trips per thousand ticks.
+   *
+   * @return the throughput.
+   */
+  public double getThroughput() {
+    return ticks == 0 ? 0.0 : trips.length * 1000.0 / ticks;
+  }
+
+  /**
+   * Gets a percentile of the waiting times.
+   *
+   * @param percentile the percentile, from 0 to 100.
+   * @return the waiting time in ticks, or -1 if nobody got on.
+   */
+  public int getWaitPercentile(double percentile) {
+    return percentile(waits, percentile);
+  }
+
+  /**
+   * Gets a percentile of the trip times.
+   *
+   * @param percentile the percentile, from 0 to 100.
+   * @return the trip time in ticks, or -1 if nobody got off.
+   */
+  public int getTripPercentile(double percentile) {
+    return percentile(trips, percentile);
+  }
+
+  private static int percentile(int[] sorted, double percentile) {
+    if (percentile < 0 || percentile > 100) {
+      throw new IllegalArgumentException("Percentile must be between 0 and 100.");
+    }
+    if (sorted.length == 0) {
+      return -1;
+    }
+    int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+    return sorted[Math.max(rank, 1) - 1];
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof SweepResult)) {
+      return false;
+    }
+    SweepResult other = (SweepResult) o;
+    return ticks == other.ticks && requests == other.requests
+        && boardingsRefused == other.boardingsRefused
+        && Arrays.equals(waits, other.waits) && Arrays.equals(trips, other.trips);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * (31 * requests + Arrays.hashCode(waits)) + Arrays.hashCode(trips);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s: %d/%d trips, %.1f per 1000 ticks, wait p50 %d p90 %d p99 %d",
+        configuration, trips.length, requests, getThroughput(), getWaitPercentile(50),
+        getWaitPercentile(90), getWaitPercentile(99));
+  }
+}
@@ -0,0 +1,80 @@
+package simulation;
+
+import building.Building;
+import java.util.SplittableRandom;
+import scanerzus.RequestCache;
+
+/**
+ * This class makes random office traffic for a building, one tick at a time.
+ * Requests arrive as a Poisson process. Half of them go up from the lobby on
+ * the ground floor, a quarter come down to the lobby, and the rest go between
+ * two other floors. The same random generator state always gives the same
+ * traffic, whatever the building does with it.
+ */
+public final class Traffic {
+  private final SplittableRandom random;
+  private final int numberOfFloors;
+  private final double limit;
+
+  /**
+   * The constructor for the traffic.
+   *
+   * @param random          the random generator, used by this traffic only.
+   * @param numberOfFloors  the number of floors in the building, at least 3.
+   * @param arrivalsPerTick the average number of requests per tick.
+   * @throws IllegalArgumentException if the floors or the rate are out of range.
+   */
+  public Traffic(SplittableRandom random, int numberOfFloors, double arrivalsPerTick) {
+    if (numberOfFloors < 3 || arrivalsPerTick < 0 || arrivalsPerTick > 50) {
+      throw new IllegalArgumentException("Traffic needs at least 3 floors "
+          + "and between 0 and 50 arrivals per tick.");
+    }
+    this.random = random;
+    this.numberOfFloors = numberOfFloors;
+    this.limit = Math.exp(-arrivalsPerTick);
+  }
+
+  /**
+   * Makes the requests that arrive in one tick and adds them to the building.
+   *
+   * @param building the building to add the requests to, it must be running.
+   * @return the number of requests added.
+   */
+  public int arrive(Building building) {
+    RequestCache cache = building.getRequestCache();
+    int count = arrivals();
+    for (int i = 0; i < count; i++) {
+      double kind = random.nextDouble();
+      int startFloor;
+      int endFloor;
+      if (kind < 0.5) {
+        startFloor = 0;
+        endFloor = random.nextInt(1, numberOfFloors);
+      } else if (kind < 0.75) {
+        startFloor = random.nextInt(1, numberOfFloors);
+        endFloor = 0;
+      } else {
+        startFloor = random.nextInt(1, numberOfFloors);
+        endFloor = random.nextInt(1, numberOfFloors - 1);
+        if (endFloor >= startFloor) {
+          endFloor++;
+        }
+      }
+      building.addRequest(cache.get(startFloor, endFloor));
+    }
+    return count;
+  }
+
+  /**
+   * Draws the number of arrivals in a tick, Knuth's method for small rates.
+   */
+  private int arrivals() {
+    int count = 0;
+    double product = random.nextDouble();
+    while (product > limit) {
+      count++;
+      product *= random.nextDouble();
+    }
+    return count;
+  }
+}
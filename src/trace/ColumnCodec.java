@@ -0,0 +1,153 @@
+package trace;
+
+/**
+ * This class encodes and decodes one column of a trace block.
+ * Values are taken car by car through the block, each value is replaced by
+ * its difference to the previous value of the same car (or by the bits that
+ * changed, for the stop bitset), and the differences are written as
+ * zigzag varints. Runs of unchanged values are written as a zero followed by
+ * the length of the run, which is what most of a trace is made of.
+ */
+final class ColumnCodec {
+  private byte[] bytes;
+  private int length;
+
+  /**
+   * This constructor is used to create a codec with an empty output.
+   */
+  ColumnCodec() {
+    this.bytes = new byte[1 << 12];
+    this.length = 0;
+  }
+
+  /**
+   * Encodes a block of values into the output, replacing what was there.
+   *
+   * @param values the values, laid out as [tick][car][word].
+   * @param ticks  the number of ticks in the block.
+   * @param cars   the number of cars.
+   * @param width  the number of words per car per tick.
+   * @param bitset true to encode changed bits instead of differences.
+   */
+  void encode(long[] values, int ticks, int cars, int width, boolean bitset) {
+    length = 0;
+    int stride = cars * width;
+    for (int slot = 0; slot < stride; slot++) {
+      long previous = 0;
+      int run = 0;
+      for (int t = 0; t < ticks; t++) {
+        long value = values[t * stride + slot];
+        long change = bitset ? value ^ previous : zigzag(value - previous);
+        previous = value;
+        if (change == 0) {
+          run++;
+          continue;
+        }
+        if (run > 0) {
+          writeRun(run);
+          run = 0;
+        }
+        // shift so that zero is free to mark a run
+        writeVarLong(bitset ? change : change + 1);
+      }
+      if (run > 0) {
+        writeRun(run);
+      }
+    }
+  }
+
+  /**
+   * Decodes a block of values written by {@link #encode}.
+   *
+   * @param in     the encoded bytes.
+   * @param count  the number of encoded bytes.
+   * @param values the array to decode into, laid out as [tick][car][word].
+   * @param ticks  the number of ticks in the block.
+   * @param cars   the number of cars.
+   * @param width  the number of words per car per tick.
+   * @param bitset true if the column was encoded as changed bits.
+   * @throws IllegalStateException if the bytes do not hold a full column.
+   */
+  static void decode(byte[] in, int count, long[] values, int ticks, int cars, int width,
+                     boolean bitset) {
+    int[] position = {0};
+    int stride = cars * width;
+    for (int slot = 0; slot < stride; slot++) {
+      long previous = 0;
+      int t = 0;
+      while (t < ticks) {
+        long token = readVarLong(in, count, position);
+        if (token == 0) {
+          int run = (int) readVarLong(in, count, position);
+          for (int r = 0; r < run && t < ticks; r++, t++) {
+            values[t * stride + slot] = previous;
+          }
+          continue;
+        }
+        previous = bitset ? previous ^ token : previous + unzigzag(token - 1);
+        values[t * stride + slot] = previous;
+        t++;
+      }
+    }
+  }
+
+  /**
+   * Gets the encoded bytes. Only the first {@link #length()} bytes are valid.
+   *
+   * @return the encoded bytes.
+   */
+  byte[] bytes() {
+    return bytes;
+  }
+
+  /**
+   * Gets the number of encoded bytes.
+   *
+   * @return the number of encoded bytes.
+   */
+  int length() {
+    return length;
+  }
+
+  private void writeRun(int run) {
+    writeVarLong(0);
+    writeVarLong(run);
+  }
+
+  private void writeVarLong(long value) {
+    if (length + 10 > bytes.length) {
+      byte[] grown = new byte[bytes.length << 1];
+      System.arraycopy(bytes, 0, grown, 0, length);
+      bytes = grown;
+    }
+    while ((value & ~0x7FL) != 0) {
+      bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    bytes[length++] = (byte) value;
+  }
+
+  private static long readVarLong(byte[] in, int count, int[] position) {
+    long value = 0;
+    int shift = 0;
+    while (true) {
+      if (position[0] >= count || shift > 63) {
+        throw new IllegalStateException("Trace column is corrupt.");
+      }
+      byte b = in[position[0]++];
+      value |= (long) (b & 0x7F) << shift;
+      if (b >= 0) {
+        return value;
+      }
+      shift += 7;
+    }
+  }
+
+  private static long zigzag(long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+
+  private static long unzigzag(long value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+}
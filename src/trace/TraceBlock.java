@@ -0,0 +1,110 @@
+package trace;
+
+/**
+ * This class holds the decoded columns of one block of a trace.
+ * Only the columns that were asked for when reading the block are decoded.
+ */
+public class TraceBlock {
+  private final int firstTick;
+  private final int tickCount;
+  private final int numberOfElevators;
+  private final int stopWords;
+  private final long[][] columns;
+
+  /**
+   * This constructor is used by the reader to hand out a decoded block.
+   *
+   * @param firstTick         the first tick in the block.
+   * @param tickCount         the number of ticks in the block.
+   * @param numberOfElevators the number of cars.
+   * @param stopWords         the number of stop bitset words per car.
+   * @param columns           the decoded columns, null for columns that were skipped.
+   */
+  TraceBlock(int firstTick, int tickCount, int numberOfElevators, int stopWords,
+             long[][] columns) {
+    this.firstTick = firstTick;
+    this.tickCount = tickCount;
+    this.numberOfElevators = numberOfElevators;
+    this.stopWords = stopWords;
+    this.columns = columns;
+  }
+
+  /**
+   * Gets the first tick in the block.
+   *
+   * @return the first tick.
+   */
+  public int getFirstTick() {
+    return firstTick;
+  }
+
+  /**
+   * Gets the number of ticks in the block.
+   *
+   * @return the number of ticks.
+   */
+  public int getTickCount() {
+    return tickCount;
+  }
+
+  /**
+   * Checks whether a column was decoded.
+   *
+   * @param column the column.
+   * @return true if the column can be read from this block.
+   */
+  public boolean hasColumn(TraceColumn column) {
+    return columns[column.ordinal()] != null;
+  }
+
+  /**
+   * Gets a value of a single valued column.
+   * Directions are given as their ordinal, doors as 1 for open and 0 for closed.
+   *
+   * @param column the column, not {@link TraceColumn#STOPS}.
+   * @param tick   the tick, counted from the start of the block.
+   * @param car    the index of the car.
+   * @return the value.
+   * @throws IllegalStateException if the column was not decoded.
+   */
+  public long get(TraceColumn column, int tick, int car) {
+    if (column == TraceColumn.STOPS) {
+      throw new IllegalArgumentException("Use getStops for the stop bitset.");
+    }
+    return column(column)[tick * numberOfElevators + car];
+  }
+
+  /**
+   * Gets a word of the stop bitset of a car, bit i being floor 64 * word + i.
+   *
+   * @param tick the tick, counted from the start of the block.
+   * @param car  the index of the car.
+   * @param word the index of the word.
+   * @return the stop bits.
+   * @throws IllegalStateException if the stops column was not decoded.
+   */
+  public long getStops(int tick, int car, int word) {
+    return column(TraceColumn.STOPS)[(tick * numberOfElevators + car) * stopWords + word];
+  }
+
+  /**
+   * Checks whether a car had a stop requested at a floor.
+   *
+   * @param tick  the tick, counted from the start of the block.
+   * @param car   the index of the car.
+   * @param floor the floor.
+   * @return true if the floor was requested.
+   * @throws IllegalStateException if the stops column was not decoded.
+   */
+  public boolean isStopRequested(int tick, int car, int floor) {
+    return (getStops(tick, car, floor >>> 6) & (1L << (floor & 63))) != 0;
+  }
+
+  private long[] column(TraceColumn column) {
+    long[] values = columns[column.ordinal()];
+    if (values == null) {
+      throw new IllegalStateException("Column " + column + " was not read.");
+    }
+    return values;
+  }
+}
@@ -0,0 +1,25 @@
+package trace;
+
+/**
+ * This enum is used to represent the columns of a per-tick elevator trace.
+ * Every column holds one value per car per tick, except the stops column
+ * which holds one 64 bit word of the stop bitset per 64 floors.
+ */
+public enum TraceColumn {
+  FLOOR,
+  DIRECTION,
+  DOOR,
+  DOOR_TIMER,
+  WAIT_TIMER,
+  STOPS;
+
+  /**
+   * Gets the number of values a car has in this column each tick.
+   *
+   * @param numberOfFloors the number of floors in the building.
+   * @return the number of values per car per tick.
+   */
+  int width(int numberOfFloors) {
+    return this == STOPS ? (numberOfFloors + 63) / 64 : 1;
+  }
+}
@@ -0,0 +1,157 @@
+package trace;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+
+/**
+ * This class reads a trace written by {@link TraceWriter} one block at a time.
+ * Only the columns that are asked for are read and decoded, the others are
+ * skipped over on the channel without being read.
+ */
+public class TraceReader implements Closeable {
+  private static final int BUFFER_SIZE = 1 << 16;
+  private static final TraceColumn[] COLUMNS = TraceColumn.values();
+
+  private final FileChannel channel;
+  private final ByteBuffer buffer;
+  private final int numberOfElevators;
+  private final int numberOfFloors;
+  private final int blockTicks;
+  private byte[] encoded;
+
+  /**
+   * This constructor opens a trace and reads its header.
+   *
+   * @param file the trace file.
+   * @throws IOException if the file cannot be read or is not a trace.
+   */
+  public TraceReader(Path file) throws IOException {
+    this.channel = FileChannel.open(file, StandardOpenOption.READ);
+    this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    this.buffer.flip();
+    this.encoded = new byte[1 << 12];
+    if (!require(18) || buffer.getInt() != TraceWriter.MAGIC
+        || buffer.getShort() != TraceWriter.VERSION) {
+      channel.close();
+      throw new IOException("Not a trace file.");
+    }
+    this.numberOfElevators = buffer.getInt();
+    this.numberOfFloors = buffer.getInt();
+    this.blockTicks = buffer.getInt();
+  }
+
+  /**
+   * Reads the next block, decoding only the given columns.
+   *
+   * @param wanted the columns to decode.
+   * @return the block, or null at the end of the trace.
+   * @throws IOException if the file cannot be read or is cut short.
+   */
+  public TraceBlock nextBlock(Set<TraceColumn> wanted) throws IOException {
+    if (!require(8)) {
+      if (buffer.hasRemaining()) {
+        throw new EOFException("Trace block is cut short.");
+      }
+      return null;
+    }
+    int tickCount = buffer.getInt();
+    int firstTick = buffer.getInt();
+    if (tickCount <= 0 || tickCount > blockTicks) {
+      throw new IOException("Trace block is corrupt.");
+    }
+    long[][] columns = new long[COLUMNS.length][];
+    for (TraceColumn column : COLUMNS) {
+      if (!require(4)) {
+        throw new EOFException("Trace block is cut short.");
+      }
+      int length = buffer.getInt();
+      if (!wanted.contains(column)) {
+        skip(length);
+        continue;
+      }
+      read(length);
+      int width = column.width(numberOfFloors);
+      long[] values = new long[tickCount * numberOfElevators * width];
+      try {
+        ColumnCodec.decode(encoded, length, values, tickCount, numberOfElevators, width,
+            column == TraceColumn.STOPS);
+      } catch (IllegalStateException e) {
+        throw new IOException("Trace block is corrupt.", e);
+      }
+      columns[column.ordinal()] = values;
+    }
+    return new TraceBlock(firstTick, tickCount, numberOfElevators,
+        TraceColumn.STOPS.width(numberOfFloors), columns);
+  }
+
+  /**
+   * Gets the number of cars in the trace.
+   *
+   * @return the number of cars.
+   */
+  public int getNumberOfElevators() {
+    return numberOfElevators;
+  }
+
+  /**
+   * Gets the number of floors in the trace.
+   *
+   * @return the number of floors.
+   */
+  public int getNumberOfFloors() {
+    return numberOfFloors;
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  private void read(int length) throws IOException {
+    if (encoded.length < length) {
+      encoded = new byte[Math.max(length, encoded.length << 1)];
+    }
+    int offset = 0;
+    while (offset < length) {
+      if (!buffer.hasRemaining() && !fill()) {
+        throw new EOFException("Trace column is cut short.");
+      }
+      int chunk = Math.min(buffer.remaining(), length - offset);
+      buffer.get(encoded, offset, chunk);
+      offset += chunk;
+    }
+  }
+
+  private void skip(int length) throws IOException {
+    if (length <= buffer.remaining()) {
+      buffer.position(buffer.position() + length);
+      return;
+    }
+    long beyond = length - buffer.remaining();
+    buffer.clear();
+    buffer.flip();
+    channel.position(channel.position() + beyond);
+  }
+
+  private boolean require(int bytes) throws IOException {
+    while (buffer.remaining() < bytes) {
+      if (!fill()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean fill() throws IOException {
+    buffer.compact();
+    int read = channel.read(buffer);
+    buffer.flip();
+    return read > 0;
+  }
+}
@@ -0,0 +1,216 @@
+package trace;
+
+import building.Building;
+import elevator.Elevator;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * This class streams a per-tick, per-car trace of a building to a columnar binary file.
+ * Ticks are gathered into blocks. When a block is full every column is
+ * delta and varint encoded on its own and written with its length, so that a
+ * reader can skip the columns it does not need.
+ * <p></p>
+ * The file starts with a header holding the number of cars, the number of floors
+ * and the block size. Each block is the number of ticks in it, its first tick,
+ * and then the length and bytes of each column in {@link TraceColumn} order.
+ * {@link #record(Building)} is meant to be called once after every step.
+ */
+public class TraceWriter implements Closeable {
+  static final int MAGIC = 0x46425354; // "FBST"
+  static final short VERSION = 1;
+
+  /**
+   * The default number of ticks in a block.
+   */
+  public static final int DEFAULT_BLOCK_TICKS = 4096;
+
+  private static final int BUFFER_SIZE = 1 << 16;
+  private static final TraceColumn[] COLUMNS = TraceColumn.values();
+
+  private final FileChannel channel;
+  private final ByteBuffer buffer;
+  private final int numberOfElevators;
+  private final int numberOfFloors;
+  private final int blockTicks;
+  private final int stopWords;
+  private final long[][] columns;
+  private final ColumnCodec codec;
+  private int ticksInBlock;
+  private int firstTick;
+  private boolean closed;
+
+  /**
+   * This constructor creates a new trace file with the default block size.
+   *
+   * @param file              the file to write, replaced if it exists.
+   * @param numberOfElevators the number of cars in the building.
+   * @param numberOfFloors    the number of floors in the building.
+   * @throws IOException if the file cannot be created.
+   */
+  public TraceWriter(Path file, int numberOfElevators, int numberOfFloors) throws IOException {
+    this(file, numberOfElevators, numberOfFloors, DEFAULT_BLOCK_TICKS);
+  }
+
+  /**
+   * This constructor creates a new trace file.
+   *
+   * @param file              the file to write, replaced if it exists.
+   * @param numberOfElevators the number of cars in the building.
+   * @param numberOfFloors    the number of floors in the building.
+   * @param blockTicks        the number of ticks in a block.
+   * @throws IOException if the file cannot be created.
+   * @throws IllegalArgumentException if a size is not greater than 0.
+   */
+  public TraceWriter(Path file, int numberOfElevators, int numberOfFloors, int blockTicks)
+      throws IOException {
+    if (numberOfElevators <= 0 || numberOfFloors <= 0 || blockTicks <= 0) {
+      throw new IllegalArgumentException("Number of elevators, floors and block ticks "
+          + "must be greater than 0.");
+    }
+    this.numberOfElevators = numberOfElevators;
+    this.numberOfFloors = numberOfFloors;
+    this.blockTicks = blockTicks;
+    this.stopWords = TraceColumn.STOPS.width(numberOfFloors);
+    this.columns = new long[COLUMNS.length][];
+    for (TraceColumn column : COLUMNS) {
+      columns[column.ordinal()] = new long[blockTicks * numberOfElevators
+          * column.width(numberOfFloors)];
+    }
+    this.codec = new ColumnCodec();
+    this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    this.ticksInBlock = 0;
+    this.closed = false;
+
+    buffer.putInt(MAGIC);
+    buffer.putShort(VERSION);
+    buffer.putInt(numberOfElevators);
+    buffer.putInt(numberOfFloors);
+    buffer.putInt(blockTicks);
+  }
+
+  /**
+   * Records the state of every car of the building at its current tick.
+   *
+   * @param building the building to record.
+   * @throws IOException if a full block cannot be written.
+   */
+  public void record(Building building) throws IOException {
+    record(building.getTick(), building.getElevators());
+  }
+
+  /**
+   * Records the state of every car at the given tick.
+   *
+   * @param tick      the tick being recorded.
+   * @param elevators the cars, in the same order every tick.
+   * @throws IOException if a full block cannot be written.
+   * @throws IllegalArgumentException if the number of cars does not match the trace.
+   */
+  public void record(int tick, List<Elevator> elevators) throws IOException {
+    if (closed) {
+      throw new IllegalStateException("Trace is closed.");
+    }
+    if (elevators.size() != numberOfElevators) {
+      throw new IllegalArgumentException("Number of elevators does not match the trace.");
+    }
+    if (ticksInBlock == 0) {
+      firstTick = tick;
+    }
+    int row = ticksInBlock * numberOfElevators;
+    for (int car = 0; car < numberOfElevators; car++) {
+      Elevator elevator = elevators.get(car);
+      columns[TraceColumn.FLOOR.ordinal()][row + car] = elevator.getCurrentFloor();
+      columns[TraceColumn.DIRECTION.ordinal()][row + car] = elevator.getDirection().ordinal();
+      columns[TraceColumn.DOOR.ordinal()][row + car] = elevator.isDoorClosed() ? 0 : 1;
+      columns[TraceColumn.DOOR_TIMER.ordinal()][row + car] = elevator.getDoorOpenTimeLeft();
+      columns[TraceColumn.WAIT_TIMER.ordinal()][row + car] = elevator.getStopWaitTimeLeft();
+      long[] stops = columns[TraceColumn.STOPS.ordinal()];
+      int base = (row + car) * stopWords;
+      boolean[] floorRequests = elevator.getFloorRequests();
+      for (int word = 0; word < stopWords; word++) {
+        long bits = 0;
+        int from = word * 64;
+        int to = Math.min(from + 64, floorRequests.length);
+        for (int floor = from; floor < to; floor++) {
+          if (floorRequests[floor]) {
+            bits |= 1L << (floor - from);
+          }
+        }
+        stops[base + word] = bits;
+      }
+    }
+    if (++ticksInBlock == blockTicks) {
+      writeBlock();
+    }
+  }
+
+  /**
+   * Writes out the current partial block and everything buffered so far.
+   *
+   * @throws IOException if the trace cannot be written.
+   */
+  public void flush() throws IOException {
+    if (ticksInBlock > 0) {
+      writeBlock();
+    }
+    drain();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    flush();
+    closed = true;
+    channel.close();
+  }
+
+  private void writeBlock() throws IOException {
+    ensure(8);
+    buffer.putInt(ticksInBlock);
+    buffer.putInt(firstTick);
+    for (TraceColumn column : COLUMNS) {
+      codec.encode(columns[column.ordinal()], ticksInBlock, numberOfElevators,
+          column.width(numberOfFloors), column == TraceColumn.STOPS);
+      ensure(4);
+      buffer.putInt(codec.length());
+      put(codec.bytes(), codec.length());
+    }
+    ticksInBlock = 0;
+  }
+
+  private void put(byte[] bytes, int count) throws IOException {
+    int offset = 0;
+    while (offset < count) {
+      if (!buffer.hasRemaining()) {
+        drain();
+      }
+      int chunk = Math.min(buffer.remaining(), count - offset);
+      buffer.put(bytes, offset, chunk);
+      offset += chunk;
+    }
+  }
+
+  private void ensure(int bytes) throws IOException {
+    if (buffer.remaining() < bytes) {
+      drain();
+    }
+  }
+
+  private void drain() throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+}
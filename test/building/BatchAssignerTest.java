@@ -0,0 +1,147 @@
+package building;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import building.enums.DispatchPolicy;
+import java.util.SplittableRandom;
+import org.junit.Test;
+import scanerzus.Request;
+
+/**
+ * This class tests the BatchAssigner and batch dispatch in the building.
+ */
+public class BatchAssignerTest {
+
+  @Test
+  public void testBeatsGreedyOrder() {
+    // greedy gives the first request car 0 and leaves the second with car 1
+    long[] costs = {1, 2,
+                    1, 100};
+    int[] assignment = new int[2];
+    long work = new BatchAssigner().solve(costs, 2, 2, 1, new long[2], assignment,
+        Long.MAX_VALUE);
+    assertTrue(work > 0);
+    assertArrayEquals(new int[] {1, 0}, assignment);
+  }
+
+  @Test
+  public void testSlotsLetOneCarTakeSeveralRequests() {
+    long[] costs = {1, 50,
+                    2, 50,
+                    3, 50};
+    int[] assignment = new int[3];
+    new BatchAssigner().solve(costs, 3, 2, 3, new long[] {5, 5}, assignment, Long.MAX_VALUE);
+    assertArrayEquals(new int[] {0, 0, 0}, assignment);
+  }
+
+  @Test
+  public void testMatchesBruteForce() {
+    SplittableRandom random = new SplittableRandom(3);
+    BatchAssigner assigner = new BatchAssigner();
+    for (int trial = 0; trial < 200; trial++) {
+      int rows = 1 + random.nextInt(6);
+      int cars = 1 + random.nextInt(3);
+      int slots = (rows + cars - 1) / cars + random.nextInt(2);
+      long[] costs = new long[rows * cars];
+      for (int i = 0; i < costs.length; i++) {
+        costs[i] = random.nextInt(40);
+      }
+      long[] penalty = new long[cars];
+      for (int c = 0; c < cars; c++) {
+        penalty[c] = random.nextInt(5);
+      }
+      int[] assignment = new int[rows];
+      assigner.solve(costs, rows, cars, slots, penalty, assignment, Long.MAX_VALUE);
+      assertEquals(bruteForce(costs, rows, cars, slots, penalty, 0, new int[cars]),
+          totalCost(costs, cars, penalty, assignment));
+    }
+  }
+
+  @Test
+  public void testInfeasibleRequestIsLeftOut() {
+    long[] costs = {BatchAssigner.INFEASIBLE, 4};
+    int[] assignment = new int[2];
+    new BatchAssigner().solve(costs, 2, 1, 2, new long[1], assignment, Long.MAX_VALUE);
+    assertArrayEquals(new int[] {-1, 0}, assignment);
+  }
+
+  @Test
+  public void testGivesUpWhenOverBudget() {
+    long[] costs = new long[16];
+    int[] assignment = new int[4];
+    assertEquals(-1, new BatchAssigner().solve(costs, 4, 4, 1, new long[4], assignment, 5));
+  }
+
+  @Test
+  public void testBuildingServesEveryRequest() {
+    Building building = new Building(15, 4, 5);
+    building.setDispatchPolicy(DispatchPolicy.BATCH_OPTIMAL);
+    building.startElevatorSystem();
+    SplittableRandom random = new SplittableRandom(5);
+    for (int i = 0; i < 400; i++) {
+      int start = random.nextInt(15);
+      int end = (start + 1 + random.nextInt(14)) % 15;
+      building.addRequest(new Request(start, end));
+      building.step();
+    }
+    for (int i = 0; i < 1600; i++) {
+      building.step();
+    }
+    assertEquals(0, building.getPendingRequestCount());
+    assertEquals(400, building.getMetrics().getTripsCompleted());
+    assertEquals(0, building.getBatchFallbackCount());
+  }
+
+  @Test
+  public void testFallsBackToGreedyWhenOverBudget() {
+    Building building = new Building(15, 4, 5);
+    building.setDispatchPolicy(DispatchPolicy.BATCH_OPTIMAL);
+    building.setBatchDispatchBudget(1);
+    building.startElevatorSystem();
+    for (int i = 0; i < 40; i++) {
+      building.addRequest(new Request(i % 7, 14 - i % 7));
+      building.addRequest(new Request(3 + i % 5, 1));
+      building.step();
+    }
+    for (int i = 0; i < 200; i++) {
+      building.step();
+    }
+    assertTrue(building.getBatchFallbackCount() > 0);
+    assertEquals(0, building.getPendingRequestCount());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeBudgetThrows() {
+    new Building(10, 2, 5).setBatchDispatchBudget(-1);
+  }
+
+  private static long totalCost(long[] costs, int cars, long[] penalty, int[] assignment) {
+    long total = 0;
+    int[] used = new int[cars];
+    for (int r = 0; r < assignment.length; r++) {
+      int car = assignment[r];
+      total += costs[r * cars + car] + used[car]++ * penalty[car];
+    }
+    return total;
+  }
+
+  private static long bruteForce(long[] costs, int rows, int cars, int slots, long[] penalty,
+                                 int row, int[] used) {
+    if (row == rows) {
+      return 0;
+    }
+    long best = Long.MAX_VALUE;
+    for (int car = 0; car < cars; car++) {
+      if (used[car] == slots) {
+        continue;
+      }
+      long cost = costs[row * cars + car] + used[car] * penalty[car];
+      used[car]++;
+      best = Math.min(best, cost + bruteForce(costs, rows, cars, slots, penalty, row + 1, used));
+      used[car]--;
+    }
+    return best;
+  }
+}
@@ -0,0 +1,133 @@
+package building;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import elevator.Elevator;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import metrics.BuildingMetrics;
+import org.junit.Before;
+import org.junit.Test;
+import scanerzus.Request;
+
+/**
+ * This class tests saving and restoring buildings with BuildingCheckpoint.
+ */
+public class BuildingCheckpointTest {
+
+  private Building building;
+
+  /**
+   * Sets up a building that has been running for a while.
+   */
+  @Before
+  public void setUp() {
+    building = new Building(12, 4, 5);
+    building.startElevatorSystem();
+    for (int i = 0; i < 60; i++) {
+      building.addRequest(new Request(i % 12, (i * 5 + 1) % 12));
+      building.step();
+    }
+    // leave some requests unassigned in the queues
+    building.addRequest(new Request(3, 9));
+    building.addRequest(new Request(11, 0));
+  }
+
+  @Test
+  public void testRestoreGivesSameReport() throws IOException {
+    Building restored = BuildingCheckpoint.fromBytes(BuildingCheckpoint.toBytes(building));
+    assertEquals(building.getReport().toString(), restored.getReport().toString());
+    assertEquals(building.getTick(), restored.getTick());
+    assertEquals(building.getPendingRequestCount(), restored.getPendingRequestCount());
+  }
+
+  @Test
+  public void testBranchesRunTheSameAsTheOriginal() throws IOException {
+    byte[] checkpoint = BuildingCheckpoint.toBytes(building);
+    Building first = BuildingCheckpoint.fromBytes(checkpoint);
+    Building second = BuildingCheckpoint.fromBytes(checkpoint);
+    for (int i = 0; i < 100; i++) {
+      building.step();
+      first.step();
+      second.step();
+      assertEquals(building.getReport().toString(), first.getReport().toString());
+      assertEquals(first.getReport().toString(), second.getReport().toString());
+    }
+  }
+
+  @Test
+  public void testSaveAndRestoreFile() throws IOException {
+    Path file = Files.createTempFile("building", ".checkpoint");
+    try {
+      BuildingCheckpoint.save(building, file);
+      // the building, elevators and metrics, plus one packed long per passenger
+      int rides = 0;
+      for (Elevator elevator : building.getElevators()) {
+        rides += elevator.getRideCount();
+      }
+      assertTrue(Files.size(file) < 400 + 8 * rides);
+      Building restored = BuildingCheckpoint.restore(file);
+      assertEquals(building.getReport().toString(), restored.getReport().toString());
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  @Test
+  public void testReadLeavesWhatFollowsInTheStream() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BuildingCheckpoint.write(building, out);
+    new DataOutputStream(out).writeInt(42);
+    ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+    Building restored = BuildingCheckpoint.read(in);
+    assertEquals(building.getReport().toString(), restored.getReport().toString());
+    assertEquals(42, new DataInputStream(in).readInt());
+  }
+
+  @Test
+  public void testPlainBuildingStaysPlain() throws IOException {
+    Building restored = BuildingCheckpoint.fromBytes(BuildingCheckpoint.toBytes(building));
+    assertFalse(restored.isZoned());
+    assertEquals(building.getBanks().toString(), restored.getBanks().toString());
+  }
+
+  @Test
+  public void testPlainBuildingIsCheckedLikeANewOne() {
+    byte[] checkpoint = BuildingCheckpoint.toBytes(building);
+    // the number of floors follows the magic number and the version
+    ByteBuffer.wrap(checkpoint).putInt(6, 40);
+    try {
+      BuildingCheckpoint.fromBytes(checkpoint);
+      fail("a plain building of 40 floors was restored");
+    } catch (IOException e) {
+      assertTrue(e.getCause() instanceof IllegalArgumentException);
+    }
+  }
+
+  @Test
+  public void testMetricsAreRestored() throws IOException {
+    Building restored = BuildingCheckpoint.fromBytes(BuildingCheckpoint.toBytes(building));
+    BuildingMetrics metrics = building.getMetrics();
+    BuildingMetrics restoredMetrics = restored.getMetrics();
+    assertEquals(metrics.getTicks(), restoredMetrics.getTicks());
+    assertEquals(metrics.getRequestsAccepted(), restoredMetrics.getRequestsAccepted());
+    assertEquals(metrics.getMaxDispatchLatency(), restoredMetrics.getMaxDispatchLatency());
+    assertEquals(metrics.getTripsCompleted(), restoredMetrics.getTripsCompleted());
+    assertEquals(metrics.getAverageWait(), restoredMetrics.getAverageWait(), 0.0);
+    assertEquals(metrics.getAverageTripTime(), restoredMetrics.getAverageTripTime(), 0.0);
+  }
+
+  @Test(expected = IOException.class)
+  public void testRestoreRejectsOtherBytes() throws IOException {
+    BuildingCheckpoint.fromBytes(new byte[] {0, 1, 2, 3, 4, 5, 6, 7});
+  }
+}
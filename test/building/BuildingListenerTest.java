@@ -0,0 +1,117 @@
+package building;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import scanerzus.PackedRequest;
+import scanerzus.Request;
+
+/**
+ * This class tests the per-tick deltas given to building listeners.
+ */
+public class BuildingListenerTest {
+
+  @Test
+  public void testDeltasFollowATrip() {
+    Building building = new Building(10, 1, 5);
+    building.startElevatorSystem();
+    Recorder recorder = new Recorder();
+    building.addBuildingListener(recorder);
+    building.addRequest(new Request(3, 6));
+    building.runUntilQuiescent(200);
+
+    assertEquals(List.of("added 3-6", "assigned 0 3-6"), recorder.requests.subList(0, 2));
+    assertEquals("served 0 3-6", recorder.requests.get(recorder.requests.size() - 1));
+    assertTrue(recorder.doors.contains("0 opened at 3"));
+    assertTrue(recorder.doors.contains("0 closed at 3"));
+    assertTrue(recorder.doors.contains("0 opened at 6"));
+    // every floor the car passed is reported once, one move after another
+    int floor = 0;
+    for (String move : recorder.moves) {
+      String[] floors = move.split("-");
+      assertEquals(floor, Integer.parseInt(floors[0]));
+      floor = Integer.parseInt(floors[1]);
+    }
+    assertEquals(building.getElevators().get(0).getCurrentFloor(), floor);
+  }
+
+  @Test
+  public void testQuietTicksAreNotReported() {
+    Building building = new Building(10, 2, 5);
+    building.startElevatorSystem();
+    Recorder recorder = new Recorder();
+    building.addBuildingListener(recorder);
+    // idle elevators wait at the bottom before they start to go up and down
+    building.stepN(5);
+    assertEquals(0, recorder.deltas);
+
+    building.step();
+    assertEquals(1, recorder.deltas);
+    assertEquals(6, recorder.lastTick);
+    assertEquals(List.of("0-1", "0-1"), recorder.moves);
+  }
+
+  @Test
+  public void testRemovedListenerHearsNothing() {
+    Building building = new Building(10, 2, 5);
+    building.startElevatorSystem();
+    Recorder first = new Recorder();
+    Recorder second = new Recorder();
+    building.addBuildingListener(first);
+    building.addBuildingListener(second);
+    building.addRequest(new Request(4, 1));
+    building.step();
+    assertTrue(building.removeBuildingListener(first));
+    assertFalse(building.removeBuildingListener(first));
+    building.stepN(10);
+    assertEquals(1, first.deltas);
+    assertTrue(second.deltas > first.deltas);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullListenerThrows() {
+    new Building(10, 2, 5).addBuildingListener(null);
+  }
+
+  /**
+   * A listener that writes the changes down as text.
+   */
+  private static final class Recorder implements BuildingListener {
+    private final List<String> moves = new ArrayList<>();
+    private final List<String> doors = new ArrayList<>();
+    private final List<String> requests = new ArrayList<>();
+    private int deltas;
+    private int lastTick;
+
+    @Override
+    public void changed(BuildingDelta delta) {
+      assertFalse(delta.isEmpty());
+      deltas++;
+      lastTick = delta.getTick();
+      for (int i = 0; i < delta.getMoveCount(); i++) {
+        moves.add(delta.getMovedFrom(i) + "-" + delta.getMovedTo(i));
+      }
+      for (int i = 0; i < delta.getDoorChangeCount(); i++) {
+        doors.add(delta.getDoorElevator(i) + (delta.isDoorOpened(i) ? " opened at " : " closed at ")
+            + delta.getDoorFloor(i));
+      }
+      for (int i = 0; i < delta.getAddedCount(); i++) {
+        requests.add("added " + trip(delta.getAdded(i)));
+      }
+      for (int i = 0; i < delta.getAssignedCount(); i++) {
+        requests.add("assigned " + delta.getAssignedElevator(i) + " " + trip(delta.getAssigned(i)));
+      }
+      for (int i = 0; i < delta.getServedCount(); i++) {
+        requests.add("served " + delta.getServedElevator(i) + " " + trip(delta.getServed(i)));
+      }
+    }
+
+    private static String trip(long packed) {
+      return PackedRequest.startFloor(packed) + "-" + PackedRequest.endFloor(packed);
+    }
+  }
+}
@@ -0,0 +1,155 @@
+package building;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import building.enums.Direction;
+import elevator.Elevator;
+import java.io.IOException;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import scanerzus.Request;
+
+/**
+ * This class tests buildings whose elevators are split into zoned banks.
+ */
+public class ElevatorBankTest {
+
+  private Building tower;
+
+  /**
+   * Sets up a 60 floor tower with a sky lobby on floor 30.
+   * Elevators 0 and 1 are the express shuttle, 2 to 4 the low zone and 5 to 7 the high zone.
+   */
+  @Before
+  public void setUp() {
+    tower = new Building(60, 5, List.of(
+        new ElevatorBank("Express", 0, 30, 2, true),
+        new ElevatorBank("Low", 0, 30, 3),
+        new ElevatorBank("High", 30, 59, 3)));
+    tower.startElevatorSystem();
+  }
+
+  @Test
+  public void testElevatorsAreNumberedByBank() {
+    assertEquals(8, tower.getNumberOfElevators());
+    List<Elevator> elevators = tower.getElevators();
+    assertEquals(0, elevators.get(1).getLowestFloor());
+    assertEquals(30, elevators.get(4).getHighestFloor());
+    assertEquals(30, elevators.get(5).getLowestFloor());
+    assertEquals(30, elevators.get(7).getCurrentFloor());
+  }
+
+  @Test
+  public void testExpressBankOnlyServesItsEnds() {
+    ElevatorBank express = tower.getBanks().get(0);
+    assertTrue(express.serves(0));
+    assertTrue(express.serves(30));
+    assertFalse(express.serves(15));
+  }
+
+  @Test
+  public void testTripAcrossZonesChangesAtTheSkyLobby() {
+    tower.addRequest(new Request(5, 50));
+    assertEquals(1, tower.getPendingTransferCount());
+    boolean arrived = false;
+    for (int i = 0; i < 300 && !arrived; i++) {
+      tower.step();
+      for (int e = 0; e < 8; e++) {
+        Elevator elevator = tower.getElevators().get(e);
+        if (elevator.getCurrentFloor() == 50 && !elevator.isDoorClosed()) {
+          assertTrue("only the high zone goes to floor 50", e >= 5);
+          arrived = true;
+        }
+      }
+    }
+    assertTrue(arrived);
+    assertEquals(0, tower.getPendingTransferCount());
+  }
+
+  @Test
+  public void testElevatorsStayInTheirZone() {
+    for (int i = 0; i < 2000; i++) {
+      if (i % 4 == 0) {
+        tower.addRequest(new Request((i * 7) % 60, (i * 13 + 11) % 60));
+      }
+      tower.step();
+      for (Elevator elevator : tower.getElevators()) {
+        assertTrue(elevator.getCurrentFloor() >= elevator.getLowestFloor());
+        assertTrue(elevator.getCurrentFloor() <= elevator.getHighestFloor());
+      }
+    }
+  }
+
+  @Test
+  public void testFullCarsHandBackTransferringPassengers() {
+    for (int i = 0; i < 120; i++) {
+      tower.addRequest(new Request(i % 5, 40 + i % 19));
+      tower.step();
+    }
+    for (int i = 0; i < 3000 && tower.getPendingTransferCount() > 0; i++) {
+      tower.step();
+    }
+    assertTrue(tower.getMetrics().getBoardingsRefused() > 0);
+    assertEquals(0, tower.getPendingTransferCount());
+  }
+
+  @Test
+  public void testNextLegWaitsUntilThePassengerGetsOff() {
+    Building building = new Building(60, 5, List.of(
+        new ElevatorBank("Low", 0, 30, 1),
+        new ElevatorBank("High", 30, 59, 1)));
+    building.startElevatorSystem();
+    building.stepN(12);
+    Elevator low = building.getElevators().get(0);
+    assertEquals(7, low.getCurrentFloor());
+    // the low car has passed floor 5 on its way up to a drop-off at the sky lobby
+    building.addRequest(new Request(5, 50));
+    building.addRequest(new Request(8, 30));
+    while (low.getCurrentFloor() != 30 || low.isDoorClosed()) {
+      building.step();
+    }
+    assertEquals(1, low.getWaitingCount(5, Direction.UP));
+    assertEquals(1, building.getPendingTransferCount());
+    assertEquals(0, building.getReport().getWaitingCount(30, Direction.UP));
+    assertEquals(1, building.getReport().getWaitingCount(5, Direction.UP));
+
+    building.runUntilQuiescent(1000);
+    assertEquals(0, building.getPendingTransferCount());
+    assertEquals(3, building.getMetrics().getTripsCompleted());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBankOutsideTheBuildingThrows() {
+    new Building(40, 5, List.of(new ElevatorBank("Low", 0, 40, 2)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testTripNoBankServesThrows() {
+    Building building = new Building(50, 5, List.of(
+        new ElevatorBank("Low", 0, 20, 2),
+        new ElevatorBank("High", 25, 49, 2)));
+    building.startElevatorSystem();
+    building.addRequest(new Request(3, 40));
+  }
+
+  @Test
+  public void testCheckpointKeepsBanksAndTransfers() throws IOException {
+    for (int i = 0; i < 40; i++) {
+      tower.addRequest(new Request(i % 30, 31 + i % 29));
+      tower.step();
+    }
+    assertTrue(tower.getPendingTransferCount() > 0);
+    Building restored = BuildingCheckpoint.fromBytes(BuildingCheckpoint.toBytes(tower));
+    assertEquals(3, restored.getBanks().size());
+    assertEquals(tower.getPendingTransferCount(), restored.getPendingTransferCount());
+    for (int i = 0; i < 200; i++) {
+      tower.step();
+      restored.step();
+      assertEquals(tower.getReport().toString(), restored.getReport().toString());
+    }
+    assertEquals(tower.getPendingTransferCount(), restored.getPendingTransferCount());
+  }
+}
@@ -0,0 +1,129 @@
+package building;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import building.enums.Direction;
+import elevator.Elevator;
+import elevator.Landings;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import scanerzus.PackedRequest;
+
+/**
+ * This class tests the EtaTable.
+ */
+public class EtaTableTest {
+
+  private Elevator elevator;
+  private EtaTable table;
+
+  /**
+   * Sets up one started elevator in a 12 floor building.
+   */
+  @Before
+  public void setUp() {
+    elevator = new Elevator(12, 5);
+    elevator.start();
+    table = new EtaTable(List.of(elevator), 12);
+  }
+
+  @Test
+  public void testArrivalsAreExactWhileThePlanHolds() {
+    // a hall call going down is passed on the way up, and boarding adds the drop-offs
+    elevator.addRequest(2, 7);
+    elevator.addRequest(5, 1);
+    elevator.addRequest(9, 11);
+    for (int i = 0; i < 4; i++) {
+      elevator.step();
+    }
+    int start = 4;
+    int[][] expected = new int[12][2];
+    for (int floor = 0; floor < 12; floor++) {
+      expected[floor][0] = table.arrival(0, floor, Direction.UP, start);
+      expected[floor][1] = table.arrival(0, floor, Direction.DOWN, start);
+    }
+    int[][] actual = new int[12][2];
+    for (int[] row : actual) {
+      row[0] = -1;
+      row[1] = -1;
+    }
+    for (int tick = start; tick < start + 200; tick++) {
+      if (elevator.isDoorClosed() && elevator.getStopWaitTimeLeft() == 0
+          && elevator.getDirection() != Direction.STOPPED) {
+        int way = elevator.getDirection() == Direction.UP ? 0 : 1;
+        if (actual[elevator.getCurrentFloor()][way] < 0) {
+          actual[elevator.getCurrentFloor()][way] = tick;
+        }
+      }
+      elevator.step();
+    }
+    for (int floor = 1; floor < 11; floor++) {
+      assertEquals("up at " + floor, expected[floor][0], actual[floor][0]);
+      assertEquals("down at " + floor, expected[floor][1], actual[floor][1]);
+    }
+  }
+
+  @Test
+  public void testRowIsKeptWhileThePlanHolds() {
+    elevator.addRequest(3, 8);
+    table.arrival(0, 5, Direction.UP, 0);
+    int arrival = table.arrival(0, 10, Direction.DOWN, 0);
+    for (int tick = 1; tick < 20; tick++) {
+      elevator.step();
+      assertEquals(arrival, table.arrival(0, 10, Direction.DOWN, tick));
+    }
+    assertEquals(1, table.getRecomputeCount());
+  }
+
+  @Test
+  public void testNewStopRecomputesTheRow() {
+    table.arrival(0, 10, Direction.DOWN, 0);
+    int before = table.arrival(0, 10, Direction.DOWN, 0);
+    elevator.addRequest(4, 6);
+    int after = table.arrival(0, 10, Direction.DOWN, 0);
+    assertEquals(2, table.getRecomputeCount());
+    assertEquals(before + 2 * (1 + elevator.getDoorOpenTimeTotal()), after);
+  }
+
+  @Test
+  public void testOldRowIsRefreshed() {
+    table.arrival(0, 10, Direction.DOWN, 0);
+    table.arrival(0, 10, Direction.DOWN, EtaTable.REFRESH_INTERVAL);
+    assertEquals(2, table.getRecomputeCount());
+  }
+
+  @Test
+  public void testFloorsOutsideTheZoneAreUnreachable() {
+    Elevator high = new Elevator(20, 5, 10, 19, null);
+    high.start();
+    EtaTable zoned = new EtaTable(List.of(high), 20);
+    assertEquals(EtaTable.UNREACHABLE, zoned.arrival(0, 5, Direction.UP, 0));
+    assertTrue(zoned.arrival(0, 15, Direction.UP, 0) < EtaTable.UNREACHABLE);
+  }
+
+  @Test
+  public void testOutOfServiceReachesNothing() {
+    elevator.takeOutOfService();
+    assertEquals(EtaTable.UNREACHABLE, table.arrival(0, 0, Direction.UP, 0));
+  }
+
+  @Test
+  public void testPassengerAtASharedLandingChangesTheRowsOfTheCarsCalledThere() {
+    Landings landings = new Landings(12);
+    Elevator called = new Elevator(12, 5);
+    Elevator other = new Elevator(12, 5);
+    called.setLandings(landings);
+    other.setLandings(landings);
+    called.start();
+    other.start();
+    EtaTable shared = new EtaTable(List.of(called, other), 12);
+    called.addRequest(PackedRequest.pack(5, 9, 0));
+    int before = shared.arrival(0, 9, Direction.UP, 0);
+
+    // the passenger given to the other car also gets off at 7 if the called car picks them up
+    other.addRequest(PackedRequest.pack(5, 7, 0));
+    assertTrue(shared.arrival(0, 9, Direction.UP, 0) > before);
+  }
+}
@@ -0,0 +1,73 @@
+package building;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import building.enums.DispatchPolicy;
+import java.util.SplittableRandom;
+import org.junit.Test;
+import scanerzus.Request;
+
+/**
+ * This class tests that the building only gives out requests when something happened.
+ */
+public class EventDispatchTest {
+
+  @Test
+  public void testQuietTicksSkipDispatch() {
+    Building building = new Building(10, 2, 5);
+    building.startElevatorSystem();
+    // both cars head up, so nobody can take a trip down yet
+    building.addRequest(new Request(6, 2));
+    building.step();
+    assertEquals(1, building.getDispatchRunCount());
+    for (int i = 0; i < 5; i++) {
+      building.step();
+    }
+    assertEquals(1, building.getDispatchRunCount());
+    assertEquals(1, building.getPendingRequestCount());
+    for (int i = 0; i < 60 && building.getMetrics().getTripsCompleted() == 0; i++) {
+      building.step();
+    }
+    assertEquals(1, building.getMetrics().getTripsCompleted());
+  }
+
+  @Test
+  public void testNewRequestRunsDispatch() {
+    Building building = new Building(10, 2, 5);
+    building.startElevatorSystem();
+    building.addRequest(new Request(6, 2));
+    building.step();
+    building.step();
+    int runs = building.getDispatchRunCount();
+    building.addRequest(new Request(3, 8));
+    building.step();
+    assertEquals(runs + 1, building.getDispatchRunCount());
+    assertEquals(1, building.getPendingRequestCount());
+  }
+
+  @Test
+  public void testBusyBuildingServesEveryRequestWithFewerRuns() {
+    for (DispatchPolicy policy : new DispatchPolicy[] {DispatchPolicy.NEAREST_CAR,
+        DispatchPolicy.BATCH_OPTIMAL}) {
+      Building building = new Building(20, 4, 5);
+      building.setDispatchPolicy(policy);
+      building.startElevatorSystem();
+      SplittableRandom random = new SplittableRandom(11);
+      int ticks = 0;
+      for (int i = 0; i < 300; i++) {
+        int start = random.nextInt(20);
+        building.addRequest(new Request(start, (start + 1 + random.nextInt(19)) % 20));
+        building.step();
+        building.step();
+        ticks += 2;
+      }
+      for (int i = 0; i < 2000 && building.getMetrics().getTripsCompleted() < 300; i++) {
+        building.step();
+        ticks++;
+      }
+      assertEquals(300, building.getMetrics().getTripsCompleted());
+      assertTrue(building.getDispatchRunCount() < ticks);
+    }
+  }
+}
@@ -0,0 +1,69 @@
+package building;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import scanerzus.Request;
+
+/**
+ * This class tests stepping a building many ticks at once.
+ */
+public class FastForwardTest {
+
+  @Test
+  public void testStepNMatchesSingleSteps() {
+    Building one = busyBuilding();
+    Building many = busyBuilding();
+    for (int i = 0; i < 37; i++) {
+      one.step();
+    }
+    RunSummary summary = many.stepN(37);
+    assertEquals(37, summary.getTicksRun());
+    assertEquals(one.getTick(), summary.getTick());
+    assertEquals(one.getReport().toString(), many.getReport().toString());
+    assertEquals(one.getMetrics().getTripsCompleted(), summary.getTripsCompleted());
+  }
+
+  @Test
+  public void testRunUntilQuiescentStopsEarly() {
+    Building building = busyBuilding();
+    assertFalse(building.isQuiescent());
+    RunSummary summary = building.runUntilQuiescent(10_000);
+    assertTrue(summary.isQuiescent());
+    assertTrue(summary.getTicksRun() < 10_000);
+    assertEquals(0, summary.getPendingRequests());
+    assertEquals(summary.getRequestsAccepted(), summary.getTripsCompleted());
+    assertEquals(0, building.runUntilQuiescent(10_000).getTicksRun());
+  }
+
+  @Test
+  public void testRunUntilQuiescentKeepsToTheLimit() {
+    Building building = busyBuilding();
+    RunSummary summary = building.runUntilQuiescent(3);
+    assertEquals(3, summary.getTicksRun());
+    assertFalse(summary.isQuiescent());
+  }
+
+  @Test
+  public void testStoppedBuildingIsQuiescent() {
+    Building building = new Building(10, 2, 5);
+    assertTrue(building.isQuiescent());
+    assertEquals(0, building.stepN(0).getTicksRun());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeTicksThrow() {
+    new Building(10, 2, 5).stepN(-1);
+  }
+
+  private static Building busyBuilding() {
+    Building building = new Building(12, 3, 5);
+    building.startElevatorSystem();
+    for (int i = 0; i < 20; i++) {
+      building.addRequest(new Request(i % 12, (i * 7 + 3) % 12));
+    }
+    return building;
+  }
+}
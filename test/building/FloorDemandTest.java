@@ -0,0 +1,109 @@
+package building;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import building.enums.Direction;
+import building.enums.ElevatorSystemStatus;
+import elevator.ElevatorReport;
+import java.io.IOException;
+import java.util.List;
+import org.junit.Test;
+import scanerzus.PackedRequest;
+import scanerzus.Request;
+
+/**
+ * This class tests the FloorDemand and the per-floor summary in building reports.
+ */
+public class FloorDemandTest {
+
+  @Test
+  public void testOldestLeavesOutOfOrder() {
+    FloorDemand demand = new FloorDemand(10);
+    long first = PackedRequest.pack(4, 8, 3);
+    long second = PackedRequest.pack(4, 9, 5);
+    long third = PackedRequest.pack(4, 6, 9);
+    demand.arrived(first);
+    demand.arrived(second);
+    demand.arrived(third);
+    demand.arrived(PackedRequest.pack(4, 1, 1));
+    assertEquals(3, demand.waiting(4, true));
+    assertEquals(1, demand.waiting(4, false));
+    assertEquals(3, demand.oldestArrival(4, true));
+    demand.left(second);
+    assertEquals(3, demand.oldestArrival(4, true));
+    demand.left(first);
+    assertEquals(9, demand.oldestArrival(4, true));
+    demand.left(third);
+    assertEquals(0, demand.waiting(4, true));
+    assertEquals(FloorDemand.NOBODY, demand.oldestArrival(4, true));
+    assertEquals(1, demand.oldestArrival(4, false));
+  }
+
+  @Test
+  public void testReportCountsWaitingPassengers() {
+    Building building = new Building(10, 2, 5);
+    building.startElevatorSystem();
+    building.step();
+    building.addRequest(new Request(6, 8));
+    building.step();
+    building.step();
+    building.addRequest(new Request(6, 9));
+    building.addRequest(new Request(6, 2));
+    BuildingReport report = building.getReport();
+    assertEquals(2, report.getWaitingCount(6, Direction.UP));
+    assertEquals(1, report.getWaitingCount(6, Direction.DOWN));
+    assertEquals(2, report.getOldestWaitAge(6, Direction.UP));
+    assertEquals(0, report.getOldestWaitAge(6, Direction.DOWN));
+    assertEquals(-1, report.getOldestWaitAge(3, Direction.UP));
+    assertTrue(report.toString().contains("Up requests: [6: 2 (oldest 2)]\n"));
+    assertTrue(report.toString().contains("Down requests: [6: 1 (oldest 0)]\n"));
+  }
+
+  @Test
+  public void testBoardingEmptiesTheFloor() {
+    Building building = new Building(10, 2, 5);
+    building.startElevatorSystem();
+    building.addRequest(new Request(3, 7));
+    building.addRequest(new Request(5, 1));
+    building.runUntilQuiescent(500);
+    BuildingReport report = building.getReport();
+    for (int floor = 0; floor < 10; floor++) {
+      assertEquals(0, report.getWaitingCount(floor, Direction.UP));
+      assertEquals(0, report.getWaitingCount(floor, Direction.DOWN));
+    }
+  }
+
+  @Test
+  public void testStopForgetsWaitingPassengers() {
+    Building building = new Building(10, 2, 5);
+    building.startElevatorSystem();
+    building.addRequest(new Request(3, 7));
+    building.step();
+    building.stopElevatorSystem();
+    assertEquals(0, building.getReport().getWaitingCount(3, Direction.UP));
+  }
+
+  @Test
+  public void testCheckpointKeepsTheSummary() throws IOException {
+    Building building = new Building(10, 2, 5);
+    building.startElevatorSystem();
+    building.addRequest(new Request(3, 7));
+    building.step();
+    building.addRequest(new Request(8, 0));
+    building.step();
+    Building restored = BuildingCheckpoint.fromBytes(BuildingCheckpoint.toBytes(building));
+    assertEquals(building.getReport().toString(), restored.getReport().toString());
+    assertEquals(1, restored.getReport().getWaitingCount(8, Direction.DOWN));
+  }
+
+  @Test
+  public void testReportFromRequestsCountsThem() {
+    BuildingReport report = new BuildingReport(5, 0, 3, new ElevatorReport[0],
+        List.of(new Request(1, 3), new Request(1, 4)), List.of(),
+        ElevatorSystemStatus.running);
+    assertEquals(2, report.getWaitingCount(1, Direction.UP));
+    assertEquals(-1, report.getOldestWaitAge(1, Direction.UP));
+    assertTrue(report.toString().contains("Up requests: [1: 2]\n"));
+  }
+}
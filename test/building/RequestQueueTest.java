@@ -0,0 +1,68 @@
+package building;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+import scanerzus.PackedRequest;
+
+/**
+ * This class tests the RequestQueue class and the packed request encoding.
+ */
+public class RequestQueueTest {
+
+  private RequestQueue queue;
+
+  /**
+   * Sets up the queue for testing.
+   */
+  @Before
+  public void setUp() {
+    this.queue = new RequestQueue();
+  }
+
+  @Test
+  public void testPackAndUnpack() {
+    long packed = PackedRequest.pack(7, 2, 123456);
+    assertEquals(7, PackedRequest.startFloor(packed));
+    assertEquals(2, PackedRequest.endFloor(packed));
+    assertEquals(123456, PackedRequest.arrivalTick(packed));
+    assertEquals(false, PackedRequest.isUp(packed));
+    assertEquals("7->2@123456", PackedRequest.toString(packed));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testPackRejectsNegativeFloor() {
+    PackedRequest.pack(-1, 2, 0);
+  }
+
+  @Test
+  public void testQueueKeepsOrderWhileGrowing() {
+    for (int i = 0; i < 100; i++) {
+      queue.add(PackedRequest.pack(i % 10, (i + 1) % 10, i));
+    }
+    assertEquals(100, queue.size());
+    for (int i = 0; i < 100; i++) {
+      assertEquals(i, PackedRequest.arrivalTick(queue.poll()));
+    }
+    assertTrue(queue.isEmpty());
+  }
+
+  @Test
+  public void testQueueWrapsAround() {
+    for (int i = 0; i < 10; i++) {
+      queue.add(i);
+    }
+    for (int i = 0; i < 8; i++) {
+      queue.poll();
+    }
+    for (int i = 10; i < 24; i++) {
+      queue.add(i);
+    }
+    assertEquals(16, queue.size());
+    for (int i = 0; i < 16; i++) {
+      assertEquals(i + 8, queue.get(i));
+    }
+  }
+}
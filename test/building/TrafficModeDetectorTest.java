@@ -0,0 +1,143 @@
+package building;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import building.enums.DispatchPolicy;
+import building.enums.ParkingPolicy;
+import building.enums.TrafficMode;
+import elevator.Elevator;
+import java.io.IOException;
+import org.junit.Test;
+import scanerzus.Request;
+
+/**
+ * This class tests the TrafficModeDetector and buildings that switch policies with it.
+ */
+public class TrafficModeDetectorTest {
+
+  @Test
+  public void testStartsQuiet() {
+    TrafficModeDetector detector = new TrafficModeDetector();
+    assertEquals(TrafficMode.QUIET, detector.getMode());
+    assertFalse(detector.update(100));
+    assertEquals(0.0, detector.getArrivalRate(), 0.0);
+  }
+
+  @Test
+  public void testMorningTrafficIsUpPeak() {
+    TrafficModeDetector detector = new TrafficModeDetector(100, 20, 0.02);
+    feed(detector, 0, 300, 0, 1);
+    assertEquals(TrafficMode.UP_PEAK, detector.getMode());
+    assertTrue(detector.getUpPeakShare() > 0.9);
+  }
+
+  @Test
+  public void testEveningTrafficTakesOverAfterTheHold() {
+    TrafficModeDetector detector = new TrafficModeDetector(100, 20, 0.02);
+    feed(detector, 0, 300, 0, 1);
+    int firstChange = -1;
+    for (int tick = 300; tick < 1000; tick++) {
+      detector.record(tick, 7, 0);
+      if (detector.update(tick) && firstChange < 0) {
+        firstChange = tick;
+      }
+    }
+    assertEquals(TrafficMode.DOWN_PEAK, detector.getMode());
+    assertTrue(firstChange >= 320);
+  }
+
+  @Test
+  public void testShortBurstDoesNotFlap() {
+    TrafficModeDetector detector = new TrafficModeDetector(100, 50, 0.02);
+    feed(detector, 0, 300, 0, 1);
+    // a burst of people leaving, shorter than the hold time
+    for (int tick = 300; tick < 330; tick++) {
+      detector.record(tick, 9, 0);
+      detector.record(tick, 8, 0);
+      assertFalse(detector.update(tick));
+    }
+    feed(detector, 330, 400, 0, 1);
+    assertEquals(TrafficMode.UP_PEAK, detector.getMode());
+  }
+
+  @Test
+  public void testTrafficDyingDownIsQuiet() {
+    TrafficModeDetector detector = new TrafficModeDetector(50, 10, 0.05);
+    feed(detector, 0, 200, 0, 1);
+    for (int tick = 200; tick < 600; tick++) {
+      detector.update(tick);
+    }
+    assertEquals(TrafficMode.QUIET, detector.getMode());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testWindowTooShortThrows() {
+    new TrafficModeDetector(1, 10, 0.02);
+  }
+
+  @Test
+  public void testBuildingSwitchesPolicyAndParking() {
+    Building building = new Building(10, 3, 5);
+    building.setTrafficModeDetector(new TrafficModeDetector(100, 20, 0.02));
+    assertEquals(DispatchPolicy.NEAREST_CAR, building.getDispatchPolicy());
+    building.startElevatorSystem();
+    for (int i = 0; i < 300; i++) {
+      building.addRequest(new Request(0, 1 + i % 9));
+      building.step();
+    }
+    assertEquals(TrafficMode.UP_PEAK, building.getTrafficModeDetector().getMode());
+    assertEquals(DispatchPolicy.LEAST_LOADED, building.getDispatchPolicy());
+    for (Elevator elevator : building.getElevators()) {
+      assertEquals(ParkingPolicy.LOBBY, elevator.getParkingPolicy());
+    }
+  }
+
+  @Test
+  public void testPolicySetByHandIsKept() {
+    Building building = new Building(10, 3, 5);
+    building.setTrafficModeDetector(new TrafficModeDetector(100, 20, 0.02));
+    building.setDispatchPolicy(DispatchPolicy.BATCH_OPTIMAL);
+    assertNull(building.getTrafficModeDetector());
+    building.startElevatorSystem();
+    for (int i = 0; i < 300; i++) {
+      building.addRequest(new Request(0, 1 + i % 9));
+      building.step();
+    }
+    // up peak traffic, but the policy that was set stays
+    assertEquals(DispatchPolicy.BATCH_OPTIMAL, building.getDispatchPolicy());
+  }
+
+  @Test
+  public void testCheckpointKeepsTheDetector() throws IOException {
+    Building building = new Building(10, 3, 5);
+    building.setTrafficModeDetector(new TrafficModeDetector(100, 20, 0.02));
+    building.startElevatorSystem();
+    for (int i = 0; i < 150; i++) {
+      building.addRequest(new Request(1 + i % 9, 0));
+      building.step();
+    }
+    Building restored = BuildingCheckpoint.fromBytes(BuildingCheckpoint.toBytes(building));
+    TrafficModeDetector detector = restored.getTrafficModeDetector();
+    assertEquals(building.getTrafficModeDetector().getMode(), detector.getMode());
+    assertEquals(building.getTrafficModeDetector().getArrivalRate(),
+        detector.getArrivalRate(), 1e-12);
+    for (int i = 0; i < 200; i++) {
+      building.addRequest(new Request(0, 1 + i % 9));
+      restored.addRequest(new Request(0, 1 + i % 9));
+      building.step();
+      restored.step();
+      assertEquals(building.getDispatchPolicy(), restored.getDispatchPolicy());
+      assertEquals(building.getReport().toString(), restored.getReport().toString());
+    }
+  }
+
+  private static void feed(TrafficModeDetector detector, int from, int to, int start, int end) {
+    for (int tick = from; tick < to; tick++) {
+      detector.record(tick, start, end);
+      detector.update(tick);
+    }
+  }
+}
@@ -0,0 +1,85 @@
+package building;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import org.junit.Test;
+import scanerzus.PackedRequest;
+
+/**
+ * This class tests the TransferTable class.
+ */
+public class TransferTableTest {
+
+  @Test
+  public void testRoutesWithTheSameLegAreFirstComeFirstServed() {
+    TransferTable table = new TransferTable(2);
+    long leg = PackedRequest.pack(5, 30, 7);
+    table.await(leg, new int[] {5, 30, 50}, 0);
+    table.await(leg, new int[] {5, 30, 45}, 0);
+    table.boarded(leg, 1);
+    table.boarded(leg, 0);
+    RequestQueue up = new RequestQueue();
+    RequestQueue down = new RequestQueue();
+    assertEquals(PackedRequest.pack(30, 45, 20), table.release(0, leg, 20, up, down));
+    assertEquals(PackedRequest.pack(30, 50, 21), table.release(1, leg, 21, up, down));
+    assertEquals(2, up.size());
+    assertEquals(0, table.size());
+    assertFalse(table.hasRiders());
+  }
+
+  @Test
+  public void testManyLegsAreFoundAfterOthersLeave() {
+    TransferTable table = new TransferTable(1);
+    // enough legs to grow the table several times
+    for (int tick = 0; tick < 1000; tick++) {
+      table.await(PackedRequest.pack(tick % 30, 30, tick), new int[] {tick % 30, 30, 40}, 0);
+    }
+    RequestQueue up = new RequestQueue();
+    RequestQueue down = new RequestQueue();
+    // every third leg boards first, then the rest, so slots empty all over the table
+    for (int pass = 0; pass < 3; pass++) {
+      for (int tick = pass; tick < 1000; tick += 3) {
+        long leg = PackedRequest.pack(tick % 30, 30, tick);
+        table.boarded(leg, 0);
+        assertTrue(table.hasRiders());
+        assertEquals(PackedRequest.pack(30, 40, 2000), table.release(0, leg, 2000, up, down));
+      }
+    }
+    assertEquals(1000, up.size());
+    assertEquals(0, table.size());
+    // a leg nobody waits on is left alone
+    table.boarded(PackedRequest.pack(1, 30, 0), 0);
+    assertFalse(table.hasRiders());
+  }
+
+  @Test
+  public void testCheckpointKeepsTheOrderOfTheRoutes() throws IOException {
+    TransferTable table = new TransferTable(2);
+    long leg = PackedRequest.pack(5, 30, 7);
+    table.await(leg, new int[] {5, 30, 50}, 0);
+    table.await(leg, new int[] {5, 30, 45}, 0);
+    table.await(PackedRequest.pack(50, 30, 3), new int[] {50, 30, 2}, 0);
+    table.boarded(PackedRequest.pack(50, 30, 3), 1);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    table.write(new DataOutputStream(bytes));
+
+    TransferTable restored = new TransferTable(2);
+    restored.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    assertEquals(3, restored.size());
+    assertTrue(restored.hasRiders());
+    restored.boarded(leg, 0);
+    RequestQueue up = new RequestQueue();
+    RequestQueue down = new RequestQueue();
+    assertEquals(PackedRequest.pack(30, 50, 9), restored.release(0, leg, 9, up, down));
+    assertEquals(PackedRequest.pack(30, 2, 9),
+        restored.release(1, PackedRequest.pack(50, 30, 3), 9, up, down));
+    assertEquals(1, down.size());
+  }
+}
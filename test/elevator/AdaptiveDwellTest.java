@@ -0,0 +1,106 @@
+package elevator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import building.Building;
+import building.ElevatorBank;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * This class tests configurable door timing and adaptive dwell.
+ */
+public class AdaptiveDwellTest {
+
+  @Test
+  public void testFixedDwellIsNotShortened() {
+    Elevator elevator = new Elevator(10, 10);
+    elevator.start();
+    elevator.addRequest(2, 5);
+    assertEquals(3, stepsDoorOpenAt(elevator, 2));
+  }
+
+  @Test
+  public void testFixedDwellWaitsForTheCrowd() {
+    Elevator elevator = new Elevator(10, 10);
+    elevator.start();
+    for (int i = 0; i < 6; i++) {
+      elevator.addRequest(2, 5);
+    }
+    // one step for the door and one for every two of the six passengers
+    assertEquals(4, stepsDoorOpenAt(elevator, 2));
+  }
+
+  @Test
+  public void testOnePassengerShortensDwell() {
+    Elevator elevator = new Elevator(10, 10);
+    elevator.setAdaptiveDwell(true);
+    elevator.start();
+    elevator.addRequest(2, 5);
+    assertEquals(2, stepsDoorOpenAt(elevator, 2));
+  }
+
+  @Test
+  public void testCrowdExtendsDwell() {
+    Elevator elevator = new Elevator(10, 10);
+    elevator.setAdaptiveDwell(true);
+    elevator.start();
+    for (int i = 0; i < 10; i++) {
+      elevator.addRequest(2, 5);
+    }
+    assertEquals(6, stepsDoorOpenAt(elevator, 2));
+  }
+
+  @Test
+  public void testHeavyLoadDwellsAsLongEitherWay() {
+    for (boolean adaptive : new boolean[] {false, true}) {
+      Elevator elevator = new Elevator(10, 20);
+      elevator.setDoorTiming(1, 5);
+      elevator.setAdaptiveDwell(adaptive);
+      elevator.start();
+      for (int i = 0; i < 20; i++) {
+        elevator.addRequest(2, 5);
+      }
+      // one step for the door and ten for the twenty passengers, with or without adaptive dwell
+      assertEquals(11, stepsDoorOpenAt(elevator, 2));
+    }
+  }
+
+  @Test
+  public void testTimingPerBank() {
+    Building tower = new Building(40, 5, List.of(
+        new ElevatorBank("Low", 0, 20, 2),
+        new ElevatorBank("High", 20, 39, 2)));
+    ElevatorBank high = tower.getBanks().get(1);
+    tower.setDoorTiming(high, 5, 8);
+    tower.setAdaptiveDwell(high, true);
+    assertEquals(Elevator.DEFAULT_DOOR_OPEN_TIME,
+        tower.getElevators().get(1).getDoorOpenTimeTotal());
+    assertFalse(tower.getElevators().get(1).isAdaptiveDwell());
+    assertEquals(5, tower.getElevators().get(2).getDoorOpenTimeTotal());
+    assertEquals(8, tower.getElevators().get(3).getStopWaitTimeTotal());
+    assertTrue(tower.getElevators().get(3).isAdaptiveDwell());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBankOfAnotherBuildingThrows() {
+    Building building = new Building(10, 2, 5);
+    building.setDoorTiming(new ElevatorBank("Other", 0, 9, 2), 3, 5);
+  }
+
+  private static int stepsDoorOpenAt(Elevator elevator, int floor) {
+    for (int i = 0; i < 100 && (elevator.getCurrentFloor() != floor
+        || elevator.isDoorClosed()); i++) {
+      elevator.step();
+    }
+    assertFalse(elevator.isDoorClosed());
+    int steps = 0;
+    while (!elevator.isDoorClosed()) {
+      elevator.step();
+      steps++;
+    }
+    return steps;
+  }
+}
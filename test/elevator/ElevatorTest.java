@@ -282,6 +282,12 @@ public class ElevatorTest {
     elevator.processRequests(singleRequest);
     boolean[] floorRequests = elevator.getFloorRequests();
     assertTrue(floorRequests[0]);
+    for (int i = 1; i < floorRequests.length; i++) {
+      assertFalse(floorRequests[i]);
+    }
+    // the passenger gets on and asks for their floor
+    elevator.step();
+    floorRequests = elevator.getFloorRequests();
     assertTrue(floorRequests[1]);
     for (int i = 2; i < floorRequests.length; i++) {
       assertFalse(floorRequests[i]);
@@ -299,6 +305,12 @@ public class ElevatorTest {
     elevator.processRequests(singleRequest);
     boolean[] floorRequests = elevator.getFloorRequests();
     assertTrue(floorRequests[0]);
+    for (int i = 1; i < floorRequests.length; i++) {
+      assertFalse(floorRequests[i]);
+    }
+    // the passengers get on and ask for their floors
+    elevator.step();
+    floorRequests = elevator.getFloorRequests();
     assertTrue(floorRequests[1]);
     assertTrue(floorRequests[2]);
     for (int i = 3; i < floorRequests.length; i++) {
@@ -311,22 +323,29 @@ public class ElevatorTest {
     System.out.println("Testing: elevatorProcessesRequests");
     elevatorTenFloors10Capacity.start();
     elevatorTenFloors10Capacity.processRequests(upTenRequests);
+    // only the pickups are stops until the passengers get on
     boolean[] floorRequests = elevatorTenFloors10Capacity.getFloorRequests();
     assertTrue(floorRequests[0]);
-    assertTrue(floorRequests[1]);
-    assertTrue(floorRequests[2]);
-    assertTrue(floorRequests[3]);
+    assertFalse(floorRequests[1]);
+    assertFalse(floorRequests[2]);
+    assertFalse(floorRequests[3]);
     assertFalse(floorRequests[4]);
     assertTrue(floorRequests[5]);
-    assertTrue(floorRequests[6]);
+    assertFalse(floorRequests[6]);
     assertFalse(floorRequests[7]);
     assertFalse(floorRequests[8]);
-    assertTrue(floorRequests[9]);
+    assertFalse(floorRequests[9]);
 
     // Elevator should be on floor 0 with the door open for 3 steps.
     elevatorTenFloors10Capacity.step();
     // check that the door is open
     assertFalse(elevatorTenFloors10Capacity.isDoorClosed());
+    // the passengers on floor 0 got on and asked for their floors
+    floorRequests = elevatorTenFloors10Capacity.getFloorRequests();
+    assertTrue(floorRequests[1]);
+    assertTrue(floorRequests[2]);
+    assertTrue(floorRequests[3]);
+    assertFalse(floorRequests[6]);
     elevatorTenFloors10Capacity.step();
     // check that the door is open
     assertFalse(elevatorTenFloors10Capacity.isDoorClosed());
@@ -745,7 +764,7 @@ public class ElevatorTest {
     System.out.println("Testing: elevatorToString");
     elevatorThreeFloors3Capacity.start();
     elevatorThreeFloors3Capacity.processRequests(upThreeRequests);
-    assertEquals("[0|^|C  ]<  0  1  2>", elevatorThreeFloors3Capacity.toString());
+    assertEquals("[0|^|C  ]<  0 -- -->", elevatorThreeFloors3Capacity.toString());
 
     elevatorThreeFloors3Capacity.step();
     assertEquals("[0|^|O 3]< --  1  2>", elevatorThreeFloors3Capacity.toString());
@@ -827,7 +846,7 @@ public class ElevatorTest {
     }
     // elevator is on floor 4
     assertEquals(4, elevatorTenFloors10Capacity.getCurrentFloor());
-    assertEquals("[4|^|C  ]< -- -- -- -- --  5  6 -- --  9>",
+    assertEquals("[4|^|C  ]< -- -- -- -- --  5 -- -- -- -->",
         elevatorTenFloors10Capacity.toString());
 
     elevatorTenFloors10Capacity.takeOutOfService();
@@ -866,12 +885,12 @@ public class ElevatorTest {
     assertEquals(0, elevatorTenFloors10Capacity.getCurrentFloor());
     assertEquals(Direction.UP, elevatorTenFloors10Capacity.getDirection());
     assertFalse(elevatorTenFloors10Capacity.isDoorClosed());
-    assertEquals("[0|^|O 3]< --  1  2  3 --  5  6 -- --  9>",
+    assertEquals("[0|^|O 3]< --  1  2  3 --  5 -- -- -- -->",
         elevatorTenFloors10Capacity.toString());
     elevatorTenFloors10Capacity.step();
 
     // the elevator is on floor 0 and the door is open for 2 steps
-    assertEquals("[0|^|O 2]< --  1  2  3 --  5  6 -- --  9>",
+    assertEquals("[0|^|O 2]< --  1  2  3 --  5 -- -- -- -->",
         elevatorTenFloors10Capacity.toString());
 
   }
@@ -947,12 +966,12 @@ public class ElevatorTest {
     assertEquals(0, elevatorTenFloors10Capacity.getCurrentFloor());
     assertEquals(Direction.UP, elevatorTenFloors10Capacity.getDirection());
     assertFalse(elevatorTenFloors10Capacity.isDoorClosed());
-    assertEquals("[0|^|O 3]< --  1  2  3 --  5  6 -- --  9>",
+    assertEquals("[0|^|O 3]< --  1  2  3 --  5 -- -- -- -->",
         elevatorTenFloors10Capacity.toString());
     elevatorTenFloors10Capacity.step();
 
     // the elevator is on floor 0 and the door is open for 2 steps
-    assertEquals("[0|^|O 2]< --  1  2  3 --  5  6 -- --  9>",
+    assertEquals("[0|^|O 2]< --  1  2  3 --  5 -- -- -- -->",
         elevatorTenFloors10Capacity.toString());
 
   }
@@ -971,12 +990,12 @@ public class ElevatorTest {
     }
 
     assertEquals(1, elevatorTenFloors10Capacity.getCurrentFloor());
-    assertEquals("[1|^|O 3]< -- --  2  3 --  5  6 -- --  9>",
+    assertEquals("[1|^|O 3]< -- --  2  3 --  5 -- -- -- -->",
         elevatorTenFloors10Capacity.toString());
 
 
     ElevatorReport report = elevatorTenFloors10Capacity.getElevatorStatus();
-    assertEquals("[1|^|O 3]< -- --  2  3 --  5  6 -- --  9>", report.toString());
+    assertEquals("[1|^|O 3]< -- --  2  3 --  5 -- -- -- -->", report.toString());
 
     // The data in the report should match the state of the elevator
     assertEquals(1, report.getCurrentFloor());
@@ -989,10 +1008,10 @@ public class ElevatorTest {
     assertTrue(report.getFloorRequests()[3]);
     assertFalse(report.getFloorRequests()[4]);
     assertTrue(report.getFloorRequests()[5]);
-    assertTrue(report.getFloorRequests()[6]);
+    assertFalse(report.getFloorRequests()[6]);
     assertFalse(report.getFloorRequests()[7]);
     assertFalse(report.getFloorRequests()[8]);
-    assertTrue(report.getFloorRequests()[9]);
+    assertFalse(report.getFloorRequests()[9]);
     assertFalse(report.isDoorClosed());
     assertEquals(elevatorTenFloors10Capacity.isTakingRequests(), report.isTakingRequests());
   }
@@ -0,0 +1,273 @@
+package elevator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import building.enums.Direction;
+import building.enums.ParkingPolicy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.junit.Test;
+
+/**
+ * This class tests that the FleetStepKernel steps cars the way they step themselves.
+ */
+public class FleetStepKernelTest {
+
+  @Test
+  public void testMatchesElevatorStep() {
+    SplittableRandom random = new SplittableRandom(7);
+    ParkingPolicy[] parking = ParkingPolicy.values();
+    List<Elevator> fleet = new ArrayList<>();
+    for (int i = 0; i < 40; i++) {
+      int floors = 3 + random.nextInt(28);
+      int lowest = random.nextInt(floors - 2);
+      int highest = lowest + 2 + random.nextInt(floors - lowest - 2);
+      Elevator elevator = new Elevator(floors, 10, lowest, highest, null);
+      elevator.setDoorTiming(3 + random.nextInt(4), 1 + random.nextInt(6));
+      elevator.setParkingPolicy(parking[random.nextInt(parking.length)]);
+      elevator.start();
+      fleet.add(elevator);
+    }
+    FleetStepKernel kernel = new FleetStepKernel(fleet.size());
+    for (int car = 0; car < fleet.size(); car++) {
+      kernel.load(car, fleet.get(car));
+    }
+    int trips = 0;
+    for (int tick = 0; tick < 500; tick++) {
+      for (int car = 0; car < fleet.size(); car++) {
+        Elevator elevator = fleet.get(car);
+        // only as many passengers as fit in the car and through the door in time
+        int people = elevator.getRiderCount() + elevator.getLandings().size() + 1;
+        if (random.nextInt(4) == 0 && people < elevator.getMaxOccupancy()
+            && people <= (elevator.getDoorOpenTimeTotal() - 1) * Elevator.BOARDINGS_PER_STEP) {
+          elevator.addRequest(randomFloor(random, elevator), randomFloor(random, elevator));
+          assertTrue(FleetStepKernel.stopsExactly(elevator));
+          kernel.load(car, elevator);
+          trips++;
+        }
+        elevator.step();
+      }
+      kernel.step();
+      for (int car = 0; car < fleet.size(); car++) {
+        assertSameState("car " + car + " at tick " + tick, fleet.get(car), kernel, car);
+      }
+    }
+    assertTrue(trips > 500);
+  }
+
+  @Test
+  public void testCarriesARiderToTheirFloor() {
+    Elevator elevator = new Elevator(10, 5);
+    elevator.start();
+    elevator.addRequest(0, 6);
+    assertTrue(FleetStepKernel.stopsExactly(elevator));
+    FleetStepKernel kernel = new FleetStepKernel(1);
+    kernel.load(0, elevator);
+    boolean boarded = false;
+    boolean arrived = false;
+    for (int tick = 0; tick < 30; tick++) {
+      elevator.step();
+      kernel.step();
+      assertSameState("tick " + tick, elevator, kernel, 0);
+      boarded |= elevator.getRiderCount() == 1 && kernel.hasDropOff(0, 6);
+      arrived |= boarded && elevator.getRiderCount() == 0 && kernel.getFloor(0) == 6
+          && !kernel.isDoorClosed(0);
+    }
+    assertTrue(boarded);
+    assertTrue(arrived);
+  }
+
+  @Test
+  public void testIdleCarsShuttleAlike() {
+    Elevator elevator = new Elevator(12, 5);
+    elevator.start();
+    FleetStepKernel kernel = new FleetStepKernel(3);
+    for (int car = 0; car < 3; car++) {
+      kernel.load(car, elevator);
+    }
+    for (int tick = 0; tick < 100; tick++) {
+      elevator.step();
+      kernel.step();
+      for (int car = 0; car < 3; car++) {
+        assertSameState("tick " + tick, elevator, kernel, car);
+      }
+    }
+  }
+
+  @Test
+  public void testElevatorsThatTakeTheirStopsMatchElevatorStep() {
+    // shared landings, adaptive dwell and full cars are left to the elevators at stops
+    SplittableRandom random = new SplittableRandom(11);
+    List<Elevator> alone = bank(new SplittableRandom(3));
+    List<Elevator> helped = bank(new SplittableRandom(3));
+    int[] alighted = new int[2];
+    listen(alone, alighted, 0);
+    listen(helped, alighted, 1);
+    FleetStepKernel kernel = new FleetStepKernel(helped.size());
+    int stored = 0;
+    for (int tick = 0; tick < 2000; tick++) {
+      if (random.nextInt(2) == 0) {
+        int car = random.nextInt(alone.size());
+        int start = random.nextInt(20);
+        int end = random.nextInt(20);
+        alone.get(car).addRequest(start, end);
+        helped.get(car).addRequest(start, end);
+      }
+      for (Elevator elevator : alone) {
+        elevator.step();
+      }
+      for (int car = 0; car < helped.size(); car++) {
+        if (!kernel.isCurrent(car, helped.get(car))) {
+          kernel.load(car, helped.get(car));
+        }
+      }
+      kernel.step();
+      for (int car = 0; car < helped.size(); car++) {
+        if (kernel.hasStopped(car)) {
+          helped.get(car).step();
+          kernel.unload(car);
+        } else {
+          kernel.store(car, helped.get(car));
+          stored++;
+        }
+      }
+      for (int car = 0; car < alone.size(); car++) {
+        Elevator expected = alone.get(car);
+        Elevator actual = helped.get(car);
+        String message = "car " + car + " at tick " + tick;
+        assertEquals(message, expected.getCurrentFloor(), actual.getCurrentFloor());
+        assertEquals(message, expected.getDirection(), actual.getDirection());
+        assertEquals(message, expected.isDoorClosed(), actual.isDoorClosed());
+        assertEquals(message, expected.getDoorOpenTimeLeft(), actual.getDoorOpenTimeLeft());
+        assertEquals(message, expected.getStopWaitTimeLeft(), actual.getStopWaitTimeLeft());
+        assertEquals(message, expected.getSpeed(), actual.getSpeed());
+        assertEquals(message, expected.getRiderCount(), actual.getRiderCount());
+        assertEquals(message, expected.isTakingRequests(), actual.isTakingRequests());
+        for (int floor = 0; floor < 20; floor++) {
+          assertEquals(message, expected.getFloorRequests()[floor],
+              actual.getFloorRequests()[floor]);
+        }
+        assertEquals(message, expected.getMetrics().getFloorsTraveled(),
+            actual.getMetrics().getFloorsTraveled());
+      }
+      assertEquals(alighted[0], alighted[1]);
+    }
+    assertTrue(alighted[0] > 100);
+    assertTrue(stored > 2000);
+  }
+
+  @Test
+  public void testCoversLoadedAndParkedElevators() {
+    Elevator riders = new Elevator(10, 5);
+    riders.start();
+    riders.addRequest(0, 6);
+    while (riders.isDoorClosed()) {
+      riders.step();
+    }
+    assertEquals(1, riders.getRiderCount());
+    assertTrue(FleetStepKernel.isSupported(riders));
+    assertTrue(FleetStepKernel.stopsExactly(riders));
+
+    Elevator parked = new Elevator(10, 5);
+    parked.start();
+    parked.setParkingPolicy(ParkingPolicy.LOBBY);
+    assertTrue(FleetStepKernel.stopsExactly(parked));
+
+    Elevator adaptive = new Elevator(10, 5);
+    adaptive.start();
+    adaptive.setAdaptiveDwell(true);
+    assertTrue(FleetStepKernel.isSupported(adaptive));
+    assertFalse(FleetStepKernel.stopsExactly(adaptive));
+
+    Elevator crowded = new Elevator(10, 5);
+    crowded.start();
+    for (int i = 0; i < 5; i++) {
+      crowded.addRequest(2, 8);
+    }
+    assertTrue(FleetStepKernel.isSupported(crowded));
+    assertFalse(FleetStepKernel.stopsExactly(crowded));
+
+    Elevator stopped = new Elevator(10, 5);
+    assertFalse(FleetStepKernel.isSupported(stopped));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testLoadThrowsForUncoveredElevator() {
+    Elevator fast = new Elevator(10, 5);
+    fast.setTravelModel(new TravelModel(3, 1));
+    fast.start();
+    new FleetStepKernel(1).load(0, fast);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testStoreThrowsForAStop() {
+    Elevator elevator = new Elevator(10, 5);
+    elevator.start();
+    elevator.addRequest(0, 6);
+    FleetStepKernel kernel = new FleetStepKernel(1);
+    kernel.load(0, elevator);
+    // the car waits at the bottom before it opens the door there
+    kernel.step(elevator.getStopWaitTimeLeft() + 1);
+    assertTrue(kernel.hasStopped(0));
+    kernel.store(0, elevator);
+  }
+
+  private static List<Elevator> bank(SplittableRandom random) {
+    Landings landings = new Landings(20);
+    List<Elevator> bank = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      Elevator elevator = new Elevator(20, 3);
+      elevator.setLandings(landings);
+      elevator.setDoorTiming(2 + random.nextInt(3), 1 + random.nextInt(4));
+      elevator.setAdaptiveDwell(i % 2 == 0);
+      elevator.start();
+      bank.add(elevator);
+    }
+    return bank;
+  }
+
+  private static void listen(List<Elevator> bank, int[] alighted, int index) {
+    RideListener listener = new RideListener() {
+      @Override
+      public void boarded(Elevator elevator, long ride) {
+      }
+
+      @Override
+      public void alighted(Elevator elevator, long ride) {
+        alighted[index]++;
+      }
+
+      @Override
+      public void refused(Elevator elevator, long ride) {
+      }
+    };
+    for (Elevator elevator : bank) {
+      elevator.setRideListener(listener);
+    }
+  }
+
+  private static int randomFloor(SplittableRandom random, Elevator elevator) {
+    return elevator.getLowestFloor()
+        + random.nextInt(elevator.getHighestFloor() - elevator.getLowestFloor() + 1);
+  }
+
+  private static void assertSameState(String message, Elevator elevator,
+                                      FleetStepKernel kernel, int car) {
+    assertEquals(message, elevator.getCurrentFloor(), kernel.getFloor(car));
+    assertEquals(message, elevator.getDirection(), kernel.getDirection(car));
+    assertEquals(message, elevator.isDoorClosed(), kernel.isDoorClosed(car));
+    if (!elevator.isDoorClosed()) {
+      assertEquals(message, elevator.getDoorOpenTimeLeft(), kernel.getDoorOpenTimeLeft(car));
+    }
+    assertEquals(message, elevator.getStopWaitTimeLeft(), kernel.getStopWaitTimeLeft(car));
+    for (int floor = 0; floor < elevator.getMaxFloor(); floor++) {
+      assertEquals(message + " stop " + floor, elevator.getFloorRequests()[floor],
+          kernel.hasStop(car, floor));
+      assertEquals(message + " drop-off " + floor, elevator.getDropOffStops()[floor],
+          kernel.hasDropOff(car, floor));
+    }
+  }
+}
@@ -0,0 +1,113 @@
+package elevator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import building.enums.Direction;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import scanerzus.Request;
+
+/**
+ * This class tests that elevators keep hall calls apart from car calls.
+ */
+public class HallCallTest {
+
+  private Elevator elevator;
+
+  /**
+   * Sets up a started elevator in a 10 floor building.
+   */
+  @Before
+  public void setUp() {
+    elevator = new Elevator(10, 5);
+    elevator.start();
+  }
+
+  @Test
+  public void testDropOffIsOnlySetWhenTheRiderBoards() {
+    elevator.addRequest(3, 7);
+    assertTrue(elevator.getPickupStops(Direction.UP)[3]);
+    assertFalse(elevator.getFloorRequests()[7]);
+    stepUntilDoorOpensAt(3);
+    assertTrue(elevator.getDropOffStops()[7]);
+    assertTrue(elevator.getFloorRequests()[7]);
+  }
+
+  @Test
+  public void testDoesNotStopForTheDestinationBeforePickup() {
+    elevator.addRequest(6, 2);
+    int steps = 0;
+    while (elevator.getCurrentFloor() != 2 || elevator.isDoorClosed()) {
+      assertFalse(elevator.getCurrentFloor() == 2 && !elevator.isDoorClosed()
+          && elevator.getDirection() == Direction.UP);
+      elevator.step();
+      assertTrue(++steps < 100);
+    }
+    assertEquals(0, elevator.getRideCount());
+  }
+
+  @Test
+  public void testProcessedRequestsDoNotStopAtDestinationsBeforePickup() {
+    // the car heads up to the passengers waiting on floor 4, past the floor they go to
+    elevator.processRequests(List.of(new Request(4, 2), new Request(4, 6)));
+    assertFalse(elevator.getFloorRequests()[2]);
+    assertFalse(elevator.getFloorRequests()[6]);
+    int steps = 0;
+    while (elevator.getCurrentFloor() != 4 || elevator.isDoorClosed()) {
+      assertTrue("stopped at " + elevator.getCurrentFloor() + " before the pickup",
+          elevator.isDoorClosed());
+      elevator.step();
+      assertTrue(++steps < 100);
+    }
+    // only the passenger going up gets on, the other waits for the way down
+    assertEquals(1, elevator.getNumberOfPeople());
+    assertTrue(elevator.getDropOffStops()[6]);
+    assertFalse(elevator.getDropOffStops()[2]);
+  }
+
+  @Test
+  public void testHallCallGoingDownIsPassedOnTheWayUp() {
+    elevator.addRequest(5, 1);
+    for (int i = 0; i < 100 && elevator.getPickupCount() > 0; i++) {
+      elevator.step();
+      if (elevator.getCurrentFloor() == 5 && !elevator.isDoorClosed()) {
+        assertEquals(Direction.DOWN, elevator.getDirection());
+      }
+    }
+    assertEquals(0, elevator.getPickupCount());
+    assertEquals(1, elevator.getNumberOfPeople());
+  }
+
+  @Test
+  public void testTerminalPicksUpEitherWay() {
+    elevator.addRequest(0, 4);
+    assertTrue(elevator.getPickupStops(Direction.UP)[0]);
+    stepUntilDoorOpensAt(0);
+    assertEquals(1, elevator.getNumberOfPeople());
+    assertFalse(elevator.getPickupStops(Direction.UP)[0]);
+  }
+
+  @Test
+  public void testFewerDoorCyclesThanStoppingAtEveryFloorAsked() {
+    elevator.addRequest(4, 2);
+    elevator.addRequest(6, 3);
+    elevator.addRequest(2, 8);
+    for (int i = 0; i < 200 && elevator.getRideCount() > 0; i++) {
+      elevator.step();
+    }
+    assertEquals(0, elevator.getRideCount());
+    // one stop at each of the six floors asked for, none of them twice
+    assertEquals(6, elevator.getMetrics().getDoorCycles());
+  }
+
+  private void stepUntilDoorOpensAt(int floor) {
+    int steps = 0;
+    do {
+      elevator.step();
+      assertTrue(++steps < 500);
+    } while (elevator.getCurrentFloor() != floor || elevator.isDoorClosed());
+  }
+}
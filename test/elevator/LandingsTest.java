@@ -0,0 +1,111 @@
+package elevator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import building.enums.Direction;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import scanerzus.PackedRequest;
+
+/**
+ * This class tests the landings shared by the elevators of a bank.
+ */
+public class LandingsTest {
+
+  @Test
+  public void testAnyElevatorOfTheBankBoardsTheLanding() {
+    Landings landings = new Landings(10);
+    Elevator called = sharing(landings, 5);
+    Elevator other = sharing(landings, 5);
+    called.addRequest(PackedRequest.pack(3, 7, 1));
+    other.addRequest(PackedRequest.pack(3, 8, 2));
+
+    // only the other elevator runs, so it gets to the landing first
+    stepUntilOpenAt(other, 3);
+    assertEquals(2, other.getNumberOfPeople());
+    assertTrue(other.getDropOffStops()[7]);
+    assertTrue(other.getDropOffStops()[8]);
+    assertEquals(0, landings.size());
+    // the hall call of the elevator that was given the first request is answered
+    assertFalse(called.getPickupStops(Direction.UP)[3]);
+    assertEquals(0, called.getPickupCount());
+  }
+
+  @Test
+  public void testFullElevatorLeavesPassengersAnotherIsComingFor() {
+    Landings landings = new Landings(10);
+    Elevator called = sharing(landings, 3);
+    Elevator full = sharing(landings, 3);
+    List<Long> refused = new ArrayList<>();
+    RideListener listener = new RideListener() {
+      @Override
+      public void boarded(Elevator elevator, long ride) {
+      }
+
+      @Override
+      public void alighted(Elevator elevator, long ride) {
+      }
+
+      @Override
+      public void refused(Elevator elevator, long ride) {
+        refused.add(ride);
+      }
+    };
+    called.setRideListener(listener);
+    full.setRideListener(listener);
+    called.addRequest(PackedRequest.pack(3, 7, 1));
+    full.addRequest(PackedRequest.pack(3, 8, 2));
+    full.addRequest(PackedRequest.pack(3, 9, 3));
+    full.addRequest(PackedRequest.pack(3, 6, 4));
+
+    stepUntilOpenAt(full, 3);
+    // the first three to come board, the last waits for the elevator called for them
+    assertEquals(3, full.getNumberOfPeople());
+    assertTrue(full.getDropOffStops()[7]);
+    assertFalse(full.getDropOffStops()[6]);
+    assertTrue(refused.isEmpty());
+    assertEquals(1, landings.getWaitingCount(3, Direction.UP));
+    assertTrue(called.getPickupStops(Direction.UP)[3]);
+    assertEquals(1, called.getPickupCount());
+  }
+
+  @Test
+  public void testPassengersKeepTheirPlaceInTime() {
+    Landings landings = new Landings(10);
+    landings.add(PackedRequest.pack(2, 6, 5));
+    landings.add(PackedRequest.pack(2, 9, 8));
+    // handed back by a full elevator, they were there before the others
+    landings.add(PackedRequest.pack(2, 4, 2));
+    landings.add(PackedRequest.pack(2, 5, 6));
+    long[] rides = new long[4];
+    assertEquals(4, landings.copyWaiting(2, Direction.UP, rides));
+    assertArrayEquals(new long[] {PackedRequest.pack(2, 4, 2), PackedRequest.pack(2, 6, 5),
+        PackedRequest.pack(2, 5, 6), PackedRequest.pack(2, 9, 8)}, rides);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testLandingsOfAnotherSizeThrow() {
+    new Elevator(10, 5).setLandings(new Landings(12));
+  }
+
+  private static Elevator sharing(Landings landings, int capacity) {
+    Elevator elevator = new Elevator(10, capacity);
+    elevator.setLandings(landings);
+    elevator.start();
+    return elevator;
+  }
+
+  private static void stepUntilOpenAt(Elevator elevator, int floor) {
+    for (int i = 0; i < 100; i++) {
+      elevator.step();
+      if (elevator.getCurrentFloor() == floor && !elevator.isDoorClosed()) {
+        return;
+      }
+    }
+    throw new AssertionError("never opened at " + floor);
+  }
+}
@@ -0,0 +1,128 @@
+package elevator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import building.Building;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import scanerzus.PackedRequest;
+import scanerzus.Request;
+
+/**
+ * This class tests that elevators count their riders and keep to their maximum occupancy.
+ */
+public class OccupancyTest {
+
+  private Elevator elevator;
+  private final List<Long> refused = new ArrayList<>();
+
+  /**
+   * Sets up a started elevator for 3 people that remembers the rides it refused.
+   */
+  @Before
+  public void setUp() {
+    elevator = new Elevator(10, 3);
+    elevator.setRideListener(new RideListener() {
+      @Override
+      public void boarded(Elevator elevator, long ride) {
+      }
+
+      @Override
+      public void alighted(Elevator elevator, long ride) {
+      }
+
+      @Override
+      public void refused(Elevator elevator, long ride) {
+        refused.add(ride);
+      }
+    });
+    elevator.start();
+  }
+
+  @Test
+  public void testCountsRidersNotStops() {
+    elevator.addRequest(2, 8);
+    elevator.addRequest(4, 6);
+    assertEquals(0, elevator.getNumberOfPeople());
+    stepUntilDoorOpensAt(2);
+    assertEquals(1, elevator.getNumberOfPeople());
+    stepUntilDoorOpensAt(4);
+    assertEquals(2, elevator.getNumberOfPeople());
+    stepUntilDoorOpensAt(8);
+    assertEquals(0, elevator.getNumberOfPeople());
+    assertEquals("0/3", elevator.getOccupancy());
+  }
+
+  @Test
+  public void testRefusesPassengersThatDoNotFit() {
+    for (int i = 0; i < 5; i++) {
+      elevator.addRequest(2, 8);
+    }
+    stepUntilDoorOpensAt(2);
+    assertEquals(3, elevator.getNumberOfPeople());
+    assertTrue(elevator.isFull());
+    assertEquals(2, refused.size());
+    assertEquals(2, PackedRequest.startFloor(refused.get(0)));
+    assertEquals(3, elevator.getRideCount());
+  }
+
+  @Test
+  public void testFullCarPassesHallCallsBy() {
+    for (int i = 0; i < 3; i++) {
+      elevator.addRequest(1, 9);
+    }
+    elevator.addRequest(5, 7);
+    stepUntilDoorOpensAt(1);
+    for (int i = 0; i < 30 && elevator.getCurrentFloor() < 9; i++) {
+      elevator.step();
+      assertFalse(elevator.getCurrentFloor() == 5 && !elevator.isDoorClosed());
+    }
+    assertEquals(1, refused.size());
+    assertEquals(5, PackedRequest.startFloor(refused.get(0)));
+    assertFalse(elevator.getFloorRequests()[5]);
+  }
+
+  @Test
+  public void testWithoutListenerRefusedPassengersWaitForTheNextPass() {
+    Elevator alone = new Elevator(10, 3);
+    alone.start();
+    for (int i = 0; i < 4; i++) {
+      alone.addRequest(2, 3);
+    }
+    for (int i = 0; i < 200 && alone.getRideCount() > 0; i++) {
+      alone.step();
+      assertTrue(alone.getNumberOfPeople() <= 3);
+    }
+    assertEquals(0, alone.getRideCount());
+  }
+
+  @Test
+  public void testBuildingRequeuesRefusedPassengers() {
+    Building building = new Building(12, 2, 3);
+    building.startElevatorSystem();
+    for (int i = 0; i < 60; i++) {
+      building.addRequest(new Request(0, 1 + i % 11));
+      building.step();
+      for (Elevator car : building.getElevators()) {
+        assertTrue(car.getNumberOfPeople() <= 3);
+      }
+    }
+    for (int i = 0; i < 1500 && building.getMetrics().getTripsCompleted() < 60; i++) {
+      building.step();
+    }
+    assertTrue(building.getMetrics().getBoardingsRefused() > 0);
+    assertEquals(60, building.getMetrics().getTripsCompleted());
+  }
+
+  private void stepUntilDoorOpensAt(int floor) {
+    int steps = 0;
+    do {
+      elevator.step();
+      assertTrue(++steps < 500);
+    } while (elevator.getCurrentFloor() != floor || elevator.isDoorClosed());
+  }
+}
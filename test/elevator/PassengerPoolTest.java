@@ -0,0 +1,112 @@
+package elevator;
+
+import static org.junit.Assert.assertEquals;
+
+import building.enums.Direction;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import scanerzus.PackedRequest;
+
+/**
+ * This class tests the PassengerPool and the landing queues of the elevator.
+ */
+public class PassengerPoolTest {
+
+  @Test
+  public void testQueuesAreFirstInFirstOut() {
+    PassengerPool pool = new PassengerPool(3);
+    pool.add(1, 10);
+    pool.add(2, 20);
+    pool.add(1, 11);
+    pool.add(1, 12);
+    assertEquals(3, pool.size(1));
+    assertEquals(4, pool.size());
+    assertEquals(10, pool.poll(1));
+    assertEquals(11, pool.poll(1));
+    assertEquals(20, pool.poll(2));
+    assertEquals(12, pool.poll(1));
+    assertEquals(0, pool.size());
+  }
+
+  @Test
+  public void testSlotsAreReusedInOrder() {
+    PassengerPool pool = new PassengerPool(1);
+    // a crowd of twenty that keeps coming and going
+    for (int i = 0; i < 20; i++) {
+      pool.add(0, i);
+    }
+    for (int i = 20; i < 100_000; i++) {
+      assertEquals(i - 20, pool.poll(0));
+      pool.add(0, i);
+    }
+    assertEquals(20, pool.size());
+  }
+
+  @Test
+  public void testWalkFollowsTheQueue() {
+    PassengerPool pool = new PassengerPool(1);
+    for (int i = 0; i < 5; i++) {
+      pool.add(0, i);
+    }
+    pool.poll(0);
+    long sum = 0;
+    int count = 0;
+    for (int slot = pool.first(0); slot >= 0; slot = pool.next(slot)) {
+      assertEquals(count + 1, pool.ride(slot));
+      sum += pool.ride(slot);
+      count++;
+    }
+    assertEquals(4, count);
+    assertEquals(10, sum);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testPollEmptyQueueThrows() {
+    PassengerPool pool = new PassengerPool(2);
+    pool.add(0, 1);
+    pool.clear();
+    pool.poll(0);
+  }
+
+  @Test
+  public void testPassengersBoardInTheOrderTheyCame() {
+    Elevator elevator = new Elevator(10, 3);
+    List<Long> boarded = new ArrayList<>();
+    List<Long> refused = new ArrayList<>();
+    elevator.setRideListener(new RideListener() {
+      @Override
+      public void boarded(Elevator elevator, long ride) {
+        boarded.add(ride);
+      }
+
+      @Override
+      public void alighted(Elevator elevator, long ride) {
+      }
+
+      @Override
+      public void refused(Elevator elevator, long ride) {
+        refused.add(ride);
+      }
+    });
+    elevator.start();
+    elevator.addRequest(PackedRequest.pack(3, 8, 7));
+    elevator.addRequest(PackedRequest.pack(3, 1, 8));
+    elevator.addRequest(PackedRequest.pack(3, 6, 9));
+    elevator.addRequest(PackedRequest.pack(3, 9, 10));
+    elevator.addRequest(PackedRequest.pack(3, 5, 11));
+    assertEquals(4, elevator.getWaitingCount(3, Direction.UP));
+    assertEquals(1, elevator.getWaitingCount(3, Direction.DOWN));
+    for (int i = 0; i < 10; i++) {
+      elevator.step();
+    }
+    // the car holds three, the last passenger going up is handed back
+    assertEquals(3, boarded.size());
+    assertEquals(7, PackedRequest.arrivalTick(boarded.get(0)));
+    assertEquals(9, PackedRequest.arrivalTick(boarded.get(1)));
+    assertEquals(10, PackedRequest.arrivalTick(boarded.get(2)));
+    assertEquals(1, refused.size());
+    assertEquals(11, PackedRequest.arrivalTick(refused.get(0)));
+    assertEquals(1, elevator.getWaitingCount(3, Direction.DOWN));
+  }
+}
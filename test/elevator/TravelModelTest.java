@@ -0,0 +1,100 @@
+package elevator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import building.enums.Direction;
+import org.junit.Test;
+
+/**
+ * This class tests the TravelModel and elevators that travel faster than one floor a step.
+ */
+public class TravelModelTest {
+
+  @Test
+  public void testDefaultModelMovesOneFloor() {
+    TravelModel model = TravelModel.ONE_FLOOR_PER_STEP;
+    assertEquals(1, model.nextMove(0, 10));
+    assertEquals(1, model.nextMove(1, 1));
+    assertTrue(model.canStop(1));
+  }
+
+  @Test
+  public void testAcceleratesCruisesAndBrakes() {
+    TravelModel model = new TravelModel(3, 1);
+    int[] expected = {1, 2, 3, 3, 2, 1};
+    int speed = 0;
+    int distance = 12;
+    for (int move : expected) {
+      speed = model.nextMove(speed, distance);
+      assertEquals(move, speed);
+      distance -= speed;
+    }
+    assertEquals(0, distance);
+  }
+
+  @Test
+  public void testTooFastToStop() {
+    TravelModel model = new TravelModel(4, 1);
+    assertFalse(model.canStop(3));
+    assertFalse(model.canReach(4, 2));
+    assertTrue(model.canReach(4, 6));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testAccelerationAboveCruiseThrows() {
+    new TravelModel(2, 3);
+  }
+
+  @Test
+  public void testFastCarReachesTopSooner() {
+    Elevator slow = new Elevator(30, 10);
+    Elevator fast = new Elevator(30, 10);
+    fast.setTravelModel(new TravelModel(5, 1));
+    slow.start();
+    fast.start();
+    slow.addRequest(0, 25);
+    fast.addRequest(0, 25);
+    int slowSteps = stepsUntilDoorOpensAt(slow, 25);
+    int fastSteps = stepsUntilDoorOpensAt(fast, 25);
+    assertTrue(fastSteps < slowSteps);
+    assertEquals(0, fast.getSpeed());
+    // the doors stay open just as long as before
+    int open = 0;
+    while (!fast.isDoorClosed()) {
+      fast.step();
+      open++;
+    }
+    assertEquals(3, open);
+  }
+
+  @Test
+  public void testLateStopIsServedOnTheWayBack() {
+    Elevator fast = new Elevator(30, 10);
+    fast.setTravelModel(new TravelModel(5, 1));
+    fast.start();
+    fast.addRequest(0, 28);
+    while (fast.getSpeed() < 5) {
+      fast.step();
+    }
+    int passed = fast.getCurrentFloor() + 2;
+    fast.addRequest(passed, passed);
+    for (int i = 0; i < 200 && fast.getFloorRequests()[passed]; i++) {
+      fast.step();
+      assertFalse(fast.getCurrentFloor() == passed && !fast.isDoorClosed()
+          && fast.getDirection() == Direction.UP);
+    }
+    assertFalse(fast.getFloorRequests()[passed]);
+  }
+
+  private static int stepsUntilDoorOpensAt(Elevator elevator, int floor) {
+    int steps = 0;
+    while (elevator.getCurrentFloor() != floor || elevator.isDoorClosed()) {
+      elevator.step();
+      steps++;
+      assertTrue(steps < 500);
+    }
+    return steps;
+  }
+}
@@ -0,0 +1,162 @@
+package journal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import building.Building;
+import building.ElevatorBank;
+import elevator.TravelModel;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import scanerzus.Request;
+
+/**
+ * This class tests recording a building into a journal and replaying it.
+ */
+public class JournalReplayerTest {
+
+  private Path file;
+  private List<String> recordedReports;
+  private int recordedRequests;
+
+  /**
+   * Records a short run with requests, a stop and a restart.
+   *
+   * @throws IOException if the journal cannot be written.
+   */
+  @Before
+  public void setUp() throws IOException {
+    file = Files.createTempFile("building", ".journal");
+    recordedReports = new ArrayList<>();
+    Building building = new Building(10, 3, 5);
+    // a tiny window makes the journal roll over several times
+    try (RequestJournal journal = new RequestJournal(file, 10, 3, 5, 64, 8)) {
+      building.setJournal(journal);
+      building.startElevatorSystem();
+      for (int i = 0; i < 200; i++) {
+        if (i % 3 == 0 && "Running".equals(building.getStatus())) {
+          building.addRequest(new Request(i % 10, (i * 7 + 3) % 10));
+          recordedRequests++;
+        }
+        if (i == 120) {
+          building.stopElevatorSystem();
+        }
+        if (i == 150) {
+          building.restartElevatorSystem();
+        }
+        building.step();
+        recordedReports.add(building.getReport().toString());
+      }
+    }
+  }
+
+  /**
+   * Removes the journal file.
+   *
+   * @throws IOException if the file cannot be deleted.
+   */
+  @After
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(file);
+  }
+
+  @Test
+  public void testReplayReproducesEveryReport() throws IOException {
+    try (JournalReplayer replayer = new JournalReplayer(file)) {
+      for (String expected : recordedReports) {
+        assertTrue(replayer.step());
+        assertEquals(expected, replayer.getBuilding().getReport().toString());
+      }
+      assertFalse(replayer.step());
+      assertTrue(replayer.isFinished());
+    }
+  }
+
+  @Test
+  public void testFastForwardThenStep() throws IOException {
+    try (JournalReplayer replayer = new JournalReplayer(file)) {
+      assertEquals(100, replayer.fastForward(100));
+      assertEquals(recordedReports.get(99), replayer.getBuilding().getReport().toString());
+      assertTrue(replayer.step());
+      assertEquals(recordedReports.get(100), replayer.getBuilding().getReport().toString());
+      assertEquals(200, replayer.fastForward(1000));
+    }
+  }
+
+  @Test
+  public void testReaderSeesAssignments() throws IOException {
+    int ticks = 0;
+    int requests = 0;
+    int assignments = 0;
+    try (JournalReader reader = new JournalReader(file)) {
+      assertEquals(10, reader.getNumberOfFloors());
+      while (reader.next()) {
+        switch (reader.getType()) {
+          case TICK:
+            ticks++;
+            break;
+          case REQUEST:
+            requests++;
+            break;
+          case ASSIGN:
+            assignments++;
+            assertTrue(reader.getElevatorIndex() < 3);
+            break;
+          default:
+            break;
+        }
+      }
+    }
+    assertEquals(200, ticks);
+    assertEquals(recordedRequests, requests);
+    assertTrue(assignments > 0);
+  }
+
+  @Test
+  public void testReplaysAZonedBuildingWithItsSettings() throws IOException {
+    Path zonedFile = Files.createTempFile("tower", ".journal");
+    List<String> reports = new ArrayList<>();
+    try {
+      Building tower = new Building(40, 5, List.of(
+          new ElevatorBank("Low", 0, 20, 2),
+          new ElevatorBank("High", 20, 39, 2)));
+      tower.setTravelModel(new TravelModel(3, 1));
+      tower.setDoorTiming(tower.getBanks().get(1), 2, 4);
+      tower.setAdaptiveDwell(tower.getBanks().get(0), true);
+      try (RequestJournal journal = new RequestJournal(zonedFile, tower)) {
+        tower.setJournal(journal);
+        tower.startElevatorSystem();
+        for (int i = 0; i < 300; i++) {
+          if (i % 2 == 0) {
+            tower.addRequest(new Request((i * 3) % 40, (i * 11 + 5) % 40));
+          }
+          tower.step();
+          reports.add(tower.getReport().toString());
+        }
+      }
+      try (JournalReplayer replayer = new JournalReplayer(zonedFile)) {
+        assertTrue(replayer.getBuilding().getElevators().get(0).isAdaptiveDwell());
+        assertEquals(2, replayer.getBuilding().getElevators().get(3).getDoorOpenTimeTotal());
+        for (String expected : reports) {
+          assertTrue(replayer.step());
+          assertEquals(expected, replayer.getBuilding().getReport().toString());
+        }
+      }
+    } finally {
+      Files.deleteIfExists(zonedFile);
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testReaderRejectsOtherFiles() throws IOException {
+    Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18});
+    new JournalReader(file).close();
+  }
+}
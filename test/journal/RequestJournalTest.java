@@ -0,0 +1,146 @@
+package journal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import building.Building;
+import building.ElevatorBank;
+import building.TrafficModeDetector;
+import building.enums.DispatchPolicy;
+import elevator.TravelModel;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This class tests writing a journal and reading it back.
+ */
+public class RequestJournalTest {
+
+  private Path file;
+
+  /**
+   * Sets up an empty journal file.
+   *
+   * @throws IOException if the file cannot be created.
+   */
+  @Before
+  public void setUp() throws IOException {
+    file = Files.createTempFile("building", ".journal");
+  }
+
+  /**
+   * Removes the journal file.
+   *
+   * @throws IOException if the file cannot be deleted.
+   */
+  @After
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(file);
+  }
+
+  @Test
+  public void testRecordsSurviveTheWindowMovingOn() throws IOException {
+    // a window of 64 bytes moves on many times over 1000 ticks
+    try (RequestJournal journal = new RequestJournal(file, 20, 3, 5, 64, 0)) {
+      journal.recordStart();
+      for (int i = 0; i < 1000; i++) {
+        journal.recordRequest(i % 20, (i + 7) % 20);
+        journal.recordAssignment(i % 3, i % 20, (i + 7) % 20);
+        journal.recordTick();
+        if (i == 500) {
+          journal.recordStop();
+          journal.recordClear();
+          journal.recordRestart();
+        }
+      }
+      assertEquals(RequestJournal.HEADER_SIZE + RequestJournal.DWELL_SIZE * 3 + 1
+          + 1000 * (5 + 7 + 1) + 3, journal.length());
+    }
+    assertEquals(RequestJournal.HEADER_SIZE + RequestJournal.DWELL_SIZE * 3 + 1
+        + 1000 * (5 + 7 + 1) + 3, Files.size(file));
+
+    try (JournalReader reader = new JournalReader(file)) {
+      assertEquals(20, reader.getNumberOfFloors());
+      assertEquals(3, reader.getNumberOfElevators());
+      assertEquals(5, reader.getElevatorCapacity());
+      assertTrue(reader.getBanks().isEmpty());
+      assertTrue(reader.next());
+      assertEquals(JournalRecordType.START, reader.getType());
+      for (int i = 0; i < 1000; i++) {
+        assertTrue(reader.next());
+        assertEquals(JournalRecordType.REQUEST, reader.getType());
+        assertEquals(i % 20, reader.getStartFloor());
+        assertEquals((i + 7) % 20, reader.getEndFloor());
+        assertTrue(reader.next());
+        assertEquals(JournalRecordType.ASSIGN, reader.getType());
+        assertEquals(i % 3, reader.getElevatorIndex());
+        assertEquals(i % 20, reader.getStartFloor());
+        assertTrue(reader.next());
+        assertTrue(reader.isTick());
+        if (i == 500) {
+          for (JournalRecordType type : new JournalRecordType[] {JournalRecordType.STOP,
+              JournalRecordType.CLEAR, JournalRecordType.RESTART}) {
+            assertTrue(reader.next());
+            assertEquals(type, reader.getType());
+          }
+        }
+      }
+      assertFalse(reader.next());
+    }
+  }
+
+  @Test
+  public void testHeaderKeepsHowTheBuildingIsSetUp() throws IOException {
+    Building building = new Building(40, 6, List.of(new ElevatorBank("Low", 0, 20, 2),
+        new ElevatorBank("High", 20, 39, 1)));
+    building.setTravelModel(new TravelModel(3, 2));
+    building.setDispatchPolicy(DispatchPolicy.LEAST_LOADED);
+    building.setBatchDispatchBudget(1234);
+    building.setTrafficModeDetector(new TrafficModeDetector(200, 30, 0.05));
+    building.getElevators().get(1).setDoorTiming(4, 6);
+    building.getElevators().get(2).setAdaptiveDwell(true);
+    try (RequestJournal journal = new RequestJournal(file, building, 256, 0)) {
+      journal.recordTick();
+    }
+
+    try (JournalReader reader = new JournalReader(file)) {
+      assertEquals(40, reader.getNumberOfFloors());
+      assertEquals(3, reader.getNumberOfElevators());
+      assertEquals(6, reader.getElevatorCapacity());
+      assertEquals(building.getBanks().toString(), reader.getBanks().toString());
+      assertEquals(3, reader.getTravelModel().getCruiseSpeed());
+      assertEquals(2, reader.getTravelModel().getAcceleration());
+      assertEquals(building.getDispatchPolicy(), reader.getDispatchPolicy());
+      assertEquals(1234, reader.getBatchDispatchBudget());
+      TrafficModeDetector detector = reader.newTrafficModeDetector();
+      assertEquals(200, detector.getWindow());
+      assertEquals(30, detector.getHold());
+      assertEquals(0.05, detector.getQuietRate(), 0);
+      assertEquals(4, reader.getDoorOpenTime(1));
+      assertEquals(6, reader.getStopWaitTime(1));
+      assertFalse(reader.isAdaptiveDwell(1));
+      assertTrue(reader.isAdaptiveDwell(2));
+      assertTrue(reader.next());
+      assertTrue(reader.isTick());
+      assertFalse(reader.next());
+    }
+  }
+
+  @Test
+  public void testJournalWithoutADetectorHasNone() throws IOException {
+    try (RequestJournal journal = new RequestJournal(file, new Building(10, 2, 5), 128, 0)) {
+      journal.recordTick();
+    }
+    try (JournalReader reader = new JournalReader(file)) {
+      assertNull(reader.newTrafficModeDetector());
+      assertEquals(DispatchPolicy.NEAREST_CAR, reader.getDispatchPolicy());
+    }
+  }
+}
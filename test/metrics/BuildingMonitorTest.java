@@ -0,0 +1,51 @@
+package metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import building.Building;
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.junit.Test;
+import scanerzus.Request;
+
+/**
+ * This class tests the JMX beans registered by BuildingMonitor.
+ */
+public class BuildingMonitorTest {
+
+  @Test
+  public void testBeansExposeCounters() throws JMException {
+    Building building = new Building(10, 2, 5);
+    building.startElevatorSystem();
+    BuildingMonitor monitor = BuildingMonitor.register(building, "test tower");
+    try {
+      building.addRequest(new Request(1, 5));
+      building.addRequest(new Request(8, 2));
+      for (int i = 0; i < 40; i++) {
+        building.step();
+      }
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      ObjectName buildingName = new ObjectName(
+          "fantastic.building:type=Building,name=\"test tower\"");
+      assertEquals(40L, server.getAttribute(buildingName, "Ticks"));
+      assertEquals(2L, server.getAttribute(buildingName, "RequestsAccepted"));
+      assertEquals(0, server.getAttribute(buildingName, "PendingUpRequests"));
+      ObjectName elevatorName = new ObjectName(
+          "fantastic.building:type=Elevator,building=\"test tower\",index=0");
+      assertTrue((Long) server.getAttribute(elevatorName, "FloorsTraveled") > 0);
+      assertTrue((Long) server.getAttribute(elevatorName, "DoorCycles") > 0);
+
+      server.invoke(buildingName, "resetCounters", null, null);
+      assertEquals(0L, server.getAttribute(buildingName, "Ticks"));
+      assertEquals(0L, server.getAttribute(elevatorName, "DoorCycles"));
+    } finally {
+      monitor.unregister();
+    }
+    assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(
+        new ObjectName("fantastic.building:type=Building,name=\"test tower\"")));
+  }
+}
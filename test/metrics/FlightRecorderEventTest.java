@@ -0,0 +1,113 @@
+package metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import building.Building;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+import scanerzus.Request;
+
+/**
+ * This class tests the flight recorder events committed by a running building.
+ */
+public class FlightRecorderEventTest {
+
+  @Test
+  public void testTripIsRecorded() throws IOException {
+    Building building = new Building(10, 1, 5);
+    building.startElevatorSystem();
+    List<RecordedEvent> events = record(() -> {
+      building.addRequest(new Request(3, 6));
+      building.runUntilQuiescent(200);
+    });
+
+    RecordedEvent request = only(events, "fantastic.building.Request");
+    assertEquals(3, request.getInt("startFloor"));
+    assertEquals(6, request.getInt("endFloor"));
+    assertTrue(request.getBoolean("accepted"));
+    assertNull(request.getString("reason"));
+
+    RecordedEvent dispatch = only(events, "fantastic.building.Dispatch");
+    assertEquals(3, dispatch.getInt("startFloor"));
+    assertEquals(6, dispatch.getInt("endFloor"));
+    assertEquals(0, dispatch.getInt("elevator"));
+    assertEquals(1, dispatch.getInt("candidatesScanned"));
+    assertTrue(dispatch.getInt("waitedTicks") >= 0);
+
+    int id = building.getElevators().get(0).getId();
+    List<String> doors = new ArrayList<>();
+    for (RecordedEvent door : named(events, "fantastic.building.Door")) {
+      assertEquals(id, door.getInt("elevatorId"));
+      doors.add((door.getBoolean("opened") ? "opened at " : "closed at ") + door.getInt("floor"));
+    }
+    assertEquals(List.of("opened at 3", "closed at 3", "opened at 6", "closed at 6"), doors);
+  }
+
+  @Test
+  public void testRejectedRequestIsRecordedWithItsReason() throws IOException {
+    Building building = new Building(10, 1, 5);
+    building.startElevatorSystem();
+    List<RecordedEvent> events = record(() -> {
+      try {
+        building.addRequest(new Request(3, 12));
+        fail("Should have thrown an exception");
+      } catch (IllegalArgumentException e) {
+        // the rejection is recorded before the exception is thrown
+      }
+    });
+
+    RecordedEvent request = only(events, "fantastic.building.Request");
+    assertEquals(3, request.getInt("startFloor"));
+    assertEquals(12, request.getInt("endFloor"));
+    assertFalse(request.getBoolean("accepted"));
+    assertEquals("Invalid floor number.", request.getString("reason"));
+    assertTrue(named(events, "fantastic.building.Dispatch").isEmpty());
+  }
+
+  private static List<RecordedEvent> record(Runnable run) throws IOException {
+    Path file = Files.createTempFile("building", ".jfr");
+    try {
+      try (Recording recording = new Recording()) {
+        recording.enable("fantastic.building.Request");
+        recording.enable("fantastic.building.Dispatch");
+        recording.enable("fantastic.building.Door");
+        recording.start();
+        run.run();
+        recording.stop();
+        recording.dump(file);
+      }
+      return RecordingFile.readAllEvents(file);
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  private static List<RecordedEvent> named(List<RecordedEvent> events, String name) {
+    List<RecordedEvent> found = new ArrayList<>();
+    for (RecordedEvent event : events) {
+      if (event.getEventType().getName().equals(name)) {
+        found.add(event);
+      }
+    }
+    // a recording is not read back in the order the events were committed
+    found.sort((a, b) -> a.getStartTime().compareTo(b.getStartTime()));
+    return found;
+  }
+
+  private static RecordedEvent only(List<RecordedEvent> events, String name) {
+    List<RecordedEvent> found = named(events, name);
+    assertEquals(name, 1, found.size());
+    return found.get(0);
+  }
+}
@@ -0,0 +1,61 @@
+package metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import building.Building;
+import org.junit.Test;
+import scanerzus.Request;
+
+/**
+ * This class tests PhaseHistogram and timing building steps with StepProfiler.
+ */
+public class StepProfilerTest {
+
+  @Test
+  public void testHistogramBuckets() {
+    PhaseHistogram histogram = new PhaseHistogram();
+    histogram.record(0);
+    histogram.record(1);
+    histogram.record(100);
+    histogram.record(1000);
+    assertEquals(4, histogram.getCount());
+    assertEquals(1101, histogram.getTotalNanos());
+    assertEquals(1000, histogram.getMaxNanos());
+    assertEquals(1, histogram.getBucketCount(0));
+    assertEquals(1, histogram.getBucketCount(1));
+    assertEquals(1, histogram.getBucketCount(7));
+    assertEquals(127, histogram.getPercentileNanos(75));
+    assertEquals(1000, histogram.getPercentileNanos(100));
+  }
+
+  @Test
+  public void testBuildingRecordsEveryPhase() {
+    Building building = new Building(10, 3, 5);
+    StepProfiler profiler = new StepProfiler();
+    building.setStepProfiler(profiler);
+    building.startElevatorSystem();
+    building.addRequest(new Request(2, 7));
+    for (int i = 0; i < 25; i++) {
+      building.step();
+    }
+    building.getReport();
+    assertEquals(25, profiler.getHistogram(StepPhase.TRAFFIC_MODE).getCount());
+    assertEquals(25, profiler.getHistogram(StepPhase.DISTRIBUTE).getCount());
+    assertEquals(25, profiler.getHistogram(StepPhase.ELEVATORS).getCount());
+    assertEquals(25, profiler.getHistogram(StepPhase.PUBLISH).getCount());
+    assertEquals(1, profiler.getHistogram(StepPhase.REPORT).getCount());
+    assertTrue(profiler.toString().contains("Step elevators: n=25"));
+
+    // a stopping building still tells its listeners how the elevators go down
+    building.stopElevatorSystem();
+    building.step();
+    assertEquals(25, profiler.getHistogram(StepPhase.DISTRIBUTE).getCount());
+    assertEquals(26, profiler.getHistogram(StepPhase.PUBLISH).getCount());
+
+    profiler.reset();
+    building.setStepProfiler(null);
+    building.step();
+    assertEquals(0, profiler.getHistogram(StepPhase.ELEVATORS).getCount());
+  }
+}
@@ -0,0 +1,41 @@
+package scanerzus;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+/**
+ * This class tests the RequestCache class.
+ */
+public class RequestCacheTest {
+
+  @Test
+  public void testSamePairGivesTheSameInstance() {
+    RequestCache cache = new RequestCache(10);
+    Request request = cache.get(2, 7);
+    assertEquals(2, request.getStartFloor());
+    assertEquals(7, request.getEndFloor());
+    assertSame(request, cache.get(2, 7));
+    assertSame(request, cache.intern(new Request(2, 7)));
+    assertNotSame(request, cache.get(7, 2));
+    assertSame(cache.get(0, 9), cache.get(0, 9));
+  }
+
+  @Test
+  public void testPairOutsideTheBuildingGivesAFreshRequest() {
+    RequestCache cache = new RequestCache(10);
+    for (int[] floors : new int[][] {{10, 2}, {2, 10}, {-1, 3}, {3, -1}}) {
+      Request request = cache.get(floors[0], floors[1]);
+      assertEquals(floors[0], request.getStartFloor());
+      assertEquals(floors[1], request.getEndFloor());
+      assertNotSame(request, cache.get(floors[0], floors[1]));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNoFloorsThrows() {
+    new RequestCache(0);
+  }
+}
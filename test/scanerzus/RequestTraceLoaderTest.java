@@ -0,0 +1,160 @@
+package scanerzus;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This class tests streaming requests out of trace files with RequestTraceLoader.
+ */
+public class RequestTraceLoaderTest {
+
+  private Path file;
+  private RequestCache cache;
+
+  /**
+   * Sets up an empty trace file.
+   *
+   * @throws IOException if the file cannot be created.
+   */
+  @Before
+  public void setUp() throws IOException {
+    file = Files.createTempFile("requests", ".trace");
+    cache = new RequestCache(10);
+  }
+
+  /**
+   * Removes the trace file.
+   *
+   * @throws IOException if the file cannot be deleted.
+   */
+  @After
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(file);
+  }
+
+  @Test
+  public void testCsvIsHandedOutPerTick() throws IOException {
+    String csv = "tick,start,end\r\n"
+        + "# a comment\n"
+        + "0,1,5\n"
+        + "\n"
+        + "0, 2 ,3\n"
+        + "4,9,0\r\n"
+        + "7,5,6";
+    Files.write(file, csv.getBytes(StandardCharsets.US_ASCII));
+    // a tiny buffer makes lines straddle refills
+    try (RequestTraceLoader loader = new RequestTraceLoader(file,
+        RequestTraceLoader.Format.CSV, cache, 20)) {
+      List<Request> out = new ArrayList<>();
+      assertEquals(0, loader.nextTick());
+      assertEquals(2, loader.poll(0, out));
+      assertEquals("[1->5, 2->3]", out.toString());
+      assertSame(cache.get(1, 5), out.get(0));
+      assertEquals(0, loader.poll(3, out));
+      assertEquals(4, loader.nextTick());
+      assertEquals(2, loader.poll(10, out));
+      assertEquals("[1->5, 2->3, 9->0, 5->6]", out.toString());
+      assertTrue(loader.isFinished());
+      assertEquals(-1, loader.nextTick());
+    }
+  }
+
+  @Test
+  public void testBinaryIsHandedOutPerTick() throws IOException {
+    try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+      for (int i = 0; i < 1000; i++) {
+        out.writeLong(PackedRequest.pack(i % 10, (i + 3) % 10, i / 10));
+      }
+    }
+    try (RequestTraceLoader loader = new RequestTraceLoader(file,
+        RequestTraceLoader.Format.BINARY, cache, 64)) {
+      List<Request> out = new ArrayList<>();
+      for (int tick = 0; tick < 100; tick++) {
+        out.clear();
+        assertEquals(10, loader.poll(tick, out));
+        assertEquals("0->3", out.get(0).toString());
+      }
+      assertTrue(loader.isFinished());
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testBadLineIsRejected() throws IOException {
+    Files.write(file, "0,1,5\n1,x,2\n".getBytes(StandardCharsets.US_ASCII));
+    try (RequestTraceLoader loader = new RequestTraceLoader(file,
+        RequestTraceLoader.Format.CSV, cache)) {
+      loader.poll(5, new ArrayList<>());
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testCutBinaryRecordIsRejected() throws IOException {
+    Files.write(file, new byte[] {0, 0, 0, 0, 0, 1, 0});
+    new RequestTraceLoader(file, RequestTraceLoader.Format.BINARY, cache).close();
+  }
+
+  @Test
+  public void testTickGoingBackIsRejectedWithItsLine() throws IOException {
+    Files.write(file, "0,1,5\n# a comment\n4,2,3\n3,1,2\n".getBytes(StandardCharsets.US_ASCII));
+    try (RequestTraceLoader loader = new RequestTraceLoader(file,
+        RequestTraceLoader.Format.CSV, cache)) {
+      loader.poll(10, new ArrayList<>());
+      fail("Should have thrown an exception");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Request trace line 4 goes back to tick 3 after tick 4.", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testValuesThatDoNotFitAreRejectedWithTheirLine() throws IOException {
+    for (String line : new String[] {"2,1,65536", "2,-1,5", "-2,1,5", "2147483648,1,5"}) {
+      Files.write(file, ("tick,start,end\n" + line + "\n").getBytes(StandardCharsets.US_ASCII));
+      try {
+        new RequestTraceLoader(file, RequestTraceLoader.Format.CSV, cache).close();
+        fail("Should have thrown an exception for " + line);
+      } catch (IllegalArgumentException e) {
+        assertEquals("Request trace line 2 does not fit a packed request.", e.getMessage());
+      }
+    }
+  }
+
+  @Test
+  public void testBinaryTickGoingBackIsRejectedWithItsRecord() throws IOException {
+    try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+      out.writeLong(PackedRequest.pack(1, 5, 2));
+      out.writeLong(PackedRequest.pack(2, 5, 2));
+      out.writeLong(PackedRequest.pack(3, 5, -1));
+    }
+    try (RequestTraceLoader loader = new RequestTraceLoader(file,
+        RequestTraceLoader.Format.BINARY, cache)) {
+      loader.poll(10, new ArrayList<>());
+      fail("Should have thrown an exception");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Request trace record 3 does not fit a packed request.", e.getMessage());
+    }
+    try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+      out.writeLong(PackedRequest.pack(1, 5, 7));
+      out.writeLong(PackedRequest.pack(2, 5, 6));
+    }
+    try (RequestTraceLoader loader = new RequestTraceLoader(file,
+        RequestTraceLoader.Format.BINARY, cache)) {
+      loader.poll(10, new ArrayList<>());
+      fail("Should have thrown an exception");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Request trace record 2 goes back to tick 6 after tick 7.", e.getMessage());
+    }
+  }
+}
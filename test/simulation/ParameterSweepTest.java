@@ -0,0 +1,92 @@
+package simulation;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import building.enums.DispatchPolicy;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This class tests the ParameterSweep.
+ */
+public class ParameterSweepTest {
+
+  private ParameterSweep sweep;
+
+  /**
+   * Sets up a small sweep over elevators and policies.
+   */
+  @Before
+  public void setUp() {
+    sweep = new ParameterSweep(2000, 0.2, 7L);
+    sweep.setFloors(10);
+    sweep.setElevators(2, 4);
+    sweep.setDispatchPolicies(DispatchPolicy.NEAREST_CAR, DispatchPolicy.LEAST_LOADED);
+  }
+
+  @Test
+  public void testEveryCombinationIsRun() throws InterruptedException {
+    List<SweepResult> results = sweep.run(2);
+    assertEquals(4, results.size());
+    assertEquals(2, results.get(0).getConfiguration().getNumberOfElevators());
+    assertEquals(DispatchPolicy.LEAST_LOADED, results.get(3).getConfiguration()
+        .getDispatchPolicy());
+  }
+
+  @Test
+  public void testEveryRunSeesTheSameTraffic() throws InterruptedException {
+    List<SweepResult> results = sweep.run(4);
+    for (SweepResult result : results) {
+      assertEquals(results.get(0).getRequests(), result.getRequests());
+      assertTrue(result.getTripsCompleted() > 0);
+    }
+  }
+
+  @Test
+  public void testResultsDoNotDependOnThreads() throws InterruptedException {
+    assertEquals(sweep.run(1), sweep.run(3));
+  }
+
+  @Test
+  public void testTableHasARowPerRun() throws InterruptedException {
+    String table = ParameterSweep.toTable(sweep.run(2));
+    assertEquals(5, table.split("\n").length);
+  }
+
+  @Test
+  public void testCapacityLimitsTheCars() throws InterruptedException {
+    ParameterSweep busy = new ParameterSweep(2000, 0.5, 7L);
+    busy.setFloors(10);
+    busy.setElevators(2);
+    busy.setCapacities(3, 20);
+    List<SweepResult> results = busy.run(2);
+    assertTrue(results.get(0).getBoardingsRefused() > results.get(1).getBoardingsRefused());
+    assertTrue(results.get(0).getTripsCompleted() < results.get(1).getTripsCompleted());
+  }
+
+  @Test
+  public void testSlowerDoorsMakePassengersWaitLonger() throws InterruptedException {
+    sweep.setElevators(2);
+    sweep.setDispatchPolicies(DispatchPolicy.NEAREST_CAR);
+    sweep.setDoorOpenTimes(1, 6);
+    sweep.setStopWaitTimes(1, 5);
+    List<SweepResult> results = sweep.run(2);
+    // door 1 and wait 1 against door 1 and wait 5, then against door 6 and wait 1
+    assertTrue(results.get(0).getWaitPercentile(50) < results.get(1).getWaitPercentile(50));
+    assertTrue(results.get(0).getWaitPercentile(50) < results.get(2).getWaitPercentile(50));
+  }
+
+  @Test
+  public void testRange() {
+    assertArrayEquals(new int[] {2, 4, 6}, ParameterSweep.range(2, 7, 2));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidCombinationThrows() throws InterruptedException {
+    sweep.setCapacities(50);
+    sweep.run(2);
+  }
+}
@@ -0,0 +1,129 @@
+package trace;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import building.Building;
+import elevator.ElevatorReport;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import scanerzus.Request;
+
+/**
+ * This class tests writing a trace and scanning it back with TraceReader.
+ */
+public class TraceWriterTest {
+
+  private Path file;
+  private List<ElevatorReport[]> reports;
+
+  /**
+   * Records a trace of a short run, with a block size that leaves a partial block.
+   *
+   * @throws IOException if the trace cannot be written.
+   */
+  @Before
+  public void setUp() throws IOException {
+    file = Files.createTempFile("building", ".trace");
+    reports = new ArrayList<>();
+    Building building = new Building(20, 4, 5);
+    building.startElevatorSystem();
+    try (TraceWriter writer = new TraceWriter(file, 4, 20, 64)) {
+      for (int i = 0; i < 300; i++) {
+        if (i % 4 == 0) {
+          building.addRequest(new Request(i % 20, (i * 7 + 5) % 20));
+        }
+        building.step();
+        writer.record(building);
+        ElevatorReport[] snapshot = building.getReport().getElevatorReports();
+        for (int car = 0; car < snapshot.length; car++) {
+          // the report shares the live stop array, so copy it
+          ElevatorReport r = snapshot[car];
+          snapshot[car] = new ElevatorReport(r.getElevatorId(), r.getCurrentFloor(),
+              r.getDirection(), r.isDoorClosed(), r.getFloorRequests().clone(),
+              r.getDoorOpenTimer(), r.getEndWaitTimer(), r.isOutOfService(),
+              r.isTakingRequests());
+        }
+        reports.add(snapshot);
+      }
+    }
+  }
+
+  /**
+   * Removes the trace file.
+   *
+   * @throws IOException if the file cannot be deleted.
+   */
+  @After
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(file);
+  }
+
+  @Test
+  public void testEveryColumnReadsBack() throws IOException {
+    int ticks = 0;
+    try (TraceReader reader = new TraceReader(file)) {
+      assertEquals(4, reader.getNumberOfElevators());
+      assertEquals(20, reader.getNumberOfFloors());
+      TraceBlock block;
+      while ((block = reader.nextBlock(EnumSet.allOf(TraceColumn.class))) != null) {
+        for (int t = 0; t < block.getTickCount(); t++) {
+          assertEquals(ticks + 1, block.getFirstTick() + t);
+          ElevatorReport[] expected = reports.get(ticks);
+          for (int car = 0; car < 4; car++) {
+            ElevatorReport report = expected[car];
+            assertEquals(report.getCurrentFloor(), block.get(TraceColumn.FLOOR, t, car));
+            assertEquals(report.getDirection().ordinal(),
+                block.get(TraceColumn.DIRECTION, t, car));
+            assertEquals(report.isDoorClosed() ? 0 : 1, block.get(TraceColumn.DOOR, t, car));
+            assertEquals(report.getDoorOpenTimer(), block.get(TraceColumn.DOOR_TIMER, t, car));
+            assertEquals(report.getEndWaitTimer(), block.get(TraceColumn.WAIT_TIMER, t, car));
+            for (int floor = 0; floor < 20; floor++) {
+              assertEquals(report.getFloorRequests()[floor],
+                  block.isStopRequested(t, car, floor));
+            }
+          }
+          ticks++;
+        }
+      }
+    }
+    assertEquals(300, ticks);
+  }
+
+  @Test
+  public void testOnlyAskedColumnsAreDecoded() throws IOException {
+    try (TraceReader reader = new TraceReader(file)) {
+      TraceBlock block = reader.nextBlock(EnumSet.of(TraceColumn.FLOOR));
+      assertTrue(block.hasColumn(TraceColumn.FLOOR));
+      assertFalse(block.hasColumn(TraceColumn.STOPS));
+      int blocks = 1;
+      while (reader.nextBlock(EnumSet.of(TraceColumn.WAIT_TIMER)) != null) {
+        blocks++;
+      }
+      assertEquals(5, blocks);
+      assertNull(reader.nextBlock(EnumSet.of(TraceColumn.FLOOR)));
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testSkippedColumnCannotBeRead() throws IOException {
+    try (TraceReader reader = new TraceReader(file)) {
+      reader.nextBlock(EnumSet.of(TraceColumn.FLOOR)).getStops(0, 0, 0);
+    }
+  }
+
+  @Test
+  public void testTraceIsCompact() throws IOException {
+    // 300 ticks of 4 cars and 6 columns would be 7200 values
+    assertTrue(Files.size(file) < 7200);
+  }
+}